@@ -180,6 +180,7 @@ public class BeanMappingCSVReaders<T> extends CSVReaders {
         if (strategy == null && parser == null) {
             create();
         }
+        materialize();
         check();
         domain = parser.parse(strategy, csv, line);
         up();
@@ -217,13 +218,25 @@ public class BeanMappingCSVReaders<T> extends CSVReaders {
      */
     @Override
     protected void validate() {
-        if (this.config.validator() == null) return;
-        if (this.config.template() == null) return;
-        Set<ConstraintViolation<T>> errors = this.config.validator().validate(domain);
+        validate(config, domain, count(), bindErrors);
+    }
+
+    /**
+     * 指定された設定情報に従って、1レコード分のデータのバリデーションを実行します。
+     * @param config 設定情報
+     * @param domain 1レコード分のデータ
+     * @param index レコードの位置
+     * @param bindErrors バリデーションエラーの格納先
+     * @param <T> 読込対象の型
+     */
+    static <T> void validate(CSVConfig config, T domain, int index, List<BindError> bindErrors) {
+        if (config.validator() == null) return;
+        if (config.template() == null) return;
+        Set<ConstraintViolation<T>> errors = config.validator().validate(domain);
         if (!errors.isEmpty()) {
             for (ConstraintViolation<T> error : errors) {
                 bindErrors.add(new BindError(error.getPropertyPath().toString(),
-                    Strings.substitute(this.config.template(), Maps.hash("index", Integer.toString(count()))
+                    Strings.substitute(config.template(), Maps.hash("index", Integer.toString(index))
                         .map("path", error.getPropertyPath().toString())
                         .map("msg", error.getMessage()))));
             }
@@ -255,6 +268,17 @@ public class BeanMappingCSVReaders<T> extends CSVReaders {
      */
     public BeanMappingCSVReaders<T> resolve() {
         Args.checkNotNull(type, R.getString("E-CSV#0015"));
+        this.mapping = resolve(type);
+        this.bindErrors = new ArrayList<BindError>();
+        return this;
+    }
+
+    /**
+     * マッピング対象のプロパティ名をクラスの型より解決します。
+     * @param type マッピングする型
+     * @return マッピング対象のプロパティ名
+     */
+    static String[] resolve(Class<?> type) {
         Field[] fields = Reflects.findAllFields(type);
         Map<Double, String> map = new TreeMap<Double, String>();
         List<String> properties = new ArrayList<String>();
@@ -266,15 +290,11 @@ public class BeanMappingCSVReaders<T> extends CSVReaders {
                 properties.add(f.getName());
             }
         }
-        String[] m = null;
         if (map.isEmpty()) {
-            m = properties.toArray(new String[0]);
+            return properties.toArray(new String[0]);
         } else {
-            m = map.values().toArray(new String[0]);
+            return map.values().toArray(new String[0]);
         }
-        this.mapping = m;
-        this.bindErrors = new ArrayList<BindError>();
-        return this;
     }
 
     private void create() {
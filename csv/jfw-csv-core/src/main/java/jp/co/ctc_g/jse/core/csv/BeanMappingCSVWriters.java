@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.csv;
+
+import java.beans.PropertyDescriptor;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.ResourceBundle;
+
+import jp.co.ctc_g.jfw.core.internal.InternalMessages;
+import jp.co.ctc_g.jfw.core.util.Args;
+import jp.co.ctc_g.jfw.core.util.Beans;
+import jp.co.ctc_g.jfw.core.util.Reflects;
+import jp.co.ctc_g.jfw.core.util.typeconverter.TypeConverters;
+import jp.co.ctc_g.jse.core.csv.CSVConfigs.CSVConfig;
+
+/**
+ * <p>
+ * このクラスは、JavaBeansのプロパティをCSVファイルの1レコードとして書き込むCSV書込ユーティリティです。
+ * </p>
+ * <p>
+ * 出力するプロパティの順番は{@link BeanMappingCSVReaders}と同様に{@link CSVColumn}で指定された順番となり、
+ * 注釈を省略した場合はプロパティの定義順となります。
+ * プロパティの読込メソッドは型毎に一度だけ解決され、
+ * 文字列以外の値は{@link TypeConverters}を利用して文字列へ変換されます。
+ * nullのプロパティは空文字として出力されます。
+ * </p>
+ * <p>
+ * {@link CSVConfig#encoder(CSVEncoder)}にエンコーダが設定されている場合は、
+ * 1レコード分のデータ配列を生成せず、プロパティの値を直接出力バッファへ書き込みます。
+ * </p>
+ * <pre class="brush:java">
+ * BeanMappingCSVWriters&lt;UserProfile&gt; writers = null;
+ * try {
+ *   writers = CSVs.writers(CSVConfigs.config().encoder(new DefaultCSVEncoder()), UserProfile.class).touch().open();
+ *   writers.writeBeans(profiles);
+ * } finally {
+ *   if (writers != null) {
+ *     writers.close();
+ *   }
+ * }
+ * </pre>
+ * @see CSVColumn
+ * @see CSVWriters
+ * @param <T> 書込対象の型
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public class BeanMappingCSVWriters<T> extends CSVWriters {
+
+    private static final ResourceBundle R = InternalMessages.getBundle(CSVWriters.class);
+
+    private Class<T> type;
+
+    private String[] mapping;
+
+    private Method[] readers;
+
+    private boolean[] accessibles;
+
+    /**
+     * コンストラクタです。
+     * @param config ユーティリティの設定情報
+     * @param type 書込対象の型
+     */
+    protected BeanMappingCSVWriters(CSVConfig config, Class<T> type) {
+        super(config);
+        Args.checkNotNull(type);
+        this.type = type;
+        this.mapping = BeanMappingCSVReaders.resolve(type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BeanMappingCSVWriters<T> open() {
+        super.open();
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BeanMappingCSVWriters<T> open(OutputStream os) {
+        super.open(os);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BeanMappingCSVWriters<T> touch() {
+        super.touch();
+        return this;
+    }
+
+    /**
+     * 出力するプロパティ名を設定します。
+     * 指定しない場合は{@link CSVColumn}の順番、もしくはプロパティの定義順となります。
+     * @param m プロパティ名
+     * @return ユーティリティ
+     */
+    public BeanMappingCSVWriters<T> mapping(String[] m) {
+        Args.checkNotNull(m);
+        this.mapping = m;
+        this.readers = null;
+        this.accessibles = null;
+        return this;
+    }
+
+    /**
+     * 指定されたビーンを1レコードとしてファイルに出力します。
+     * @param bean 書込み対象のビーン
+     * @return ユーティリティ
+     */
+    public BeanMappingCSVWriters<T> write(T bean) {
+        Args.checkNotNull(writer, R.getString("E-CSV#0004"));
+        Args.checkNotNull(bean, R.getString("E-CSV#0016"));
+        Method[] methods = readers();
+        if (encoder != null) {
+            StringBuilder sb = begin();
+            for (int i = 0; i < methods.length; i++) {
+                if (i != 0) sb.append(config.separator());
+                append(sb, read(i, methods[i], bean));
+            }
+            end(sb);
+            written();
+        } else {
+            String[] line = new String[methods.length];
+            for (int i = 0; i < methods.length; i++) {
+                line[i] = read(i, methods[i], bean);
+            }
+            write(line);
+        }
+        return this;
+    }
+
+    /**
+     * 指定された複数のビーンをまとめてファイルに出力します。
+     * @param beans 書込み対象のビーン
+     * @return ユーティリティ
+     */
+    public BeanMappingCSVWriters<T> writeBeans(Iterable<? extends T> beans) {
+        Args.checkNotNull(beans, R.getString("E-CSV#0016"));
+        for (T bean : beans) {
+            write(bean);
+        }
+        return this;
+    }
+
+    private String read(int index, Method method, T bean) {
+        if (method == null) return null;
+        Object value = accessibles[index] ? Reflects.invokeAccessible(method, bean) : Reflects.invoke(method, bean);
+        if (value == null) return null;
+        return value instanceof String ? (String) value : TypeConverters.convert(value, String.class);
+    }
+
+    private Method[] readers() {
+        if (readers == null) {
+            Method[] methods = new Method[mapping.length];
+            boolean[] flags = new boolean[mapping.length];
+            for (int i = 0; i < mapping.length; i++) {
+                PropertyDescriptor pd = Beans.findPropertyDescriptorFor(type, mapping[i]);
+                methods[i] = pd != null ? pd.getReadMethod() : null;
+                flags[i] = accessible(methods[i]);
+            }
+            accessibles = flags;
+            readers = methods;
+        }
+        return readers;
+    }
+
+    private static boolean accessible(Method method) {
+        if (method == null) return false;
+        try {
+            method.setAccessible(true);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.csv;
+
+/**
+ * <p>
+ * このインタフェースは、{@link ParallelBeanMappingCSVReaders#parse(BeanMappingCall)}から
+ * JavaBeansにマッピングされた1レコード分のデータを受け取るためのコールバックです。
+ * </p>
+ * <p>
+ * このコールバックは{@link ParallelBeanMappingCSVReaders#parse(BeanMappingCall)}を実行したスレッドから
+ * 逐次呼び出されるため、実装をスレッドセーフにする必要はありません。
+ * </p>
+ * @param <T> 読込対象の型
+ * @see ParallelBeanMappingCSVReaders
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public interface BeanMappingCall<T> {
+
+    /**
+     * 1レコード分のデータを受け取ります。
+     * @param bean 1レコード分のデータ
+     * @param index レコードの位置(読込開始行を除いた1始まりの行番号)
+     */
+    void call(T bean, int index);
+}
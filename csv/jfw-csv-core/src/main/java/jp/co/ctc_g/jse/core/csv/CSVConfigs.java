@@ -163,6 +163,30 @@ public final class CSVConfigs {
      * </pre>
      */
     public static final String MESSAGE_TEMPLATE;
+
+    /**
+     * CSVファイルの読込・書込時のバッファサイズ(文字数およびバイト数)を保持します。
+     * デフォルト：65536
+     * 
+     * この設定を一括で変更する場合は、FrameworkResources.propertiesに
+     * 以下のキーで値を設定してください。
+     * <pre class="brush:java">
+     * jp.co.ctc_g.jse.core.csv.CSVConfigs.buffer_size
+     * </pre>
+     */
+    public static final int BUFFER_SIZE;
+
+    /**
+     * ストリームへ直接書き込む際に、出力をフラッシュする間隔(行数)を保持します。
+     * デフォルト：1000
+     * 
+     * この設定を一括で変更する場合は、FrameworkResources.propertiesに
+     * 以下のキーで値を設定してください。
+     * <pre class="brush:java">
+     * jp.co.ctc_g.jse.core.csv.CSVConfigs.flush_size
+     * </pre>
+     */
+    public static final int FLUSH_SIZE;
     
     static {
         Config c = CSVInternals.getConfig(CSVConfigs.class);
@@ -177,6 +201,8 @@ public final class CSVConfigs {
         LENGTH_CHECK = Boolean.valueOf(c.find("length_check"));
         TEMP_DIR = c.find("temp_directory");
         MESSAGE_TEMPLATE = c.find("message_template");
+        BUFFER_SIZE = Integer.parseInt(c.find("buffer_size"));
+        FLUSH_SIZE = Integer.parseInt(c.find("flush_size"));
     }
 
     /**
@@ -279,6 +305,36 @@ public final class CSVConfigs {
          */
         private String template = MESSAGE_TEMPLATE;
 
+        /**
+         * CSVファイルの解析エンジンです。
+         * デフォルト：null(OpenCSVを利用します。)
+         */
+        private CSVEngine engine;
+
+        /**
+         * 読込・書込時のバッファサイズです。
+         * デフォルト：65536
+         */
+        private int bufferSize = BUFFER_SIZE;
+
+        /**
+         * ストリームへ直接書き込む際のフラッシュ間隔(行数)です。
+         * デフォルト：1000
+         */
+        private int flushSize = FLUSH_SIZE;
+
+        /**
+         * ストリームへ直接書き込む際にGZIP圧縮するかどうかです。
+         * デフォルト：false
+         */
+        private boolean gzip;
+
+        /**
+         * CSVファイル書込時のエンコーダです。
+         * デフォルト：null(OpenCSVを利用します。)
+         */
+        private CSVEncoder encoder;
+
         /**
          * デフォルトコンストラクタです。
          */
@@ -522,6 +578,99 @@ public final class CSVConfigs {
             return this;
         }
 
+        /**
+         * CSVファイルの解析エンジンを取得します。
+         * @return 解析エンジン。OpenCSVを利用する場合はnull
+         */
+        public CSVEngine engine() {
+            return engine;
+        }
+
+        /**
+         * CSVファイルの解析エンジンを設定します。
+         * nullを設定した場合はOpenCSVを利用します。
+         * @param e 解析エンジン
+         * @return このクラス
+         */
+        public CSVConfig engine(CSVEngine e) {
+            engine = e;
+            return this;
+        }
+
+        /**
+         * 読込・書込時のバッファサイズを取得します。
+         * @return バッファサイズ
+         */
+        public int bufferSize() {
+            return bufferSize;
+        }
+
+        /**
+         * 読込・書込時のバッファサイズを設定します。
+         * @param b バッファサイズ
+         * @return このクラス
+         */
+        public CSVConfig bufferSize(int b) {
+            bufferSize = b;
+            return this;
+        }
+
+        /**
+         * ストリームへ直接書き込む際のフラッシュ間隔(行数)を取得します。
+         * @return フラッシュ間隔
+         */
+        public int flushSize() {
+            return flushSize;
+        }
+
+        /**
+         * ストリームへ直接書き込む際のフラッシュ間隔(行数)を設定します。
+         * 0以下を設定した場合は、クローズ時まで明示的なフラッシュを行いません。
+         * @param f フラッシュ間隔
+         * @return このクラス
+         */
+        public CSVConfig flushSize(int f) {
+            flushSize = f;
+            return this;
+        }
+
+        /**
+         * ストリームへ直接書き込む際にGZIP圧縮するかどうかを取得します。
+         * @return GZIP圧縮する場合はtrue
+         */
+        public boolean gzip() {
+            return gzip;
+        }
+
+        /**
+         * ストリームへ直接書き込む際にGZIP圧縮するかどうかを設定します。
+         * @param g GZIP圧縮する場合はtrue
+         * @return このクラス
+         */
+        public CSVConfig gzip(boolean g) {
+            gzip = g;
+            return this;
+        }
+
+        /**
+         * CSVファイル書込時のエンコーダを取得します。
+         * @return エンコーダ。OpenCSVを利用する場合はnull
+         */
+        public CSVEncoder encoder() {
+            return encoder;
+        }
+
+        /**
+         * CSVファイル書込時のエンコーダを設定します。
+         * nullを設定した場合はOpenCSVを利用します。
+         * @param e エンコーダ
+         * @return このクラス
+         */
+        public CSVConfig encoder(CSVEncoder e) {
+            encoder = e;
+            return this;
+        }
+
     }
 
 }
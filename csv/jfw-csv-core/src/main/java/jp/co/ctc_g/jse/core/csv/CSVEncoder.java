@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.csv;
+
+import jp.co.ctc_g.jse.core.csv.CSVConfigs.CSVConfig;
+
+/**
+ * <p>
+ * このインタフェースは、CSVの1カラム分の値を出力形式へ変換するエンコーダを表現します。
+ * </p>
+ * <p>
+ * {@link CSVWriters}は、{@link CSVConfig#encoder(CSVEncoder)}にエンコーダが設定されている場合、
+ * OpenCSVの代わりにこのエンコーダを利用して1行分の文字列を再利用可能なバッファ上に組み立て、ライタへ直接書き込みます。
+ * 区切り文字と改行コードの出力は{@link CSVWriters}が行いますので、エンコーダは値の囲み・エスケープのみを担当します。
+ * フレームワークは、OpenCSVと同じ出力を行うエンコーダとして{@link DefaultCSVEncoder}を提供しています。
+ * </p>
+ * <pre class="brush:java">
+ * CSVWriters writers = CSVs.writers(CSVConfigs.config().encoder(new DefaultCSVEncoder())).touch().open();
+ * </pre>
+ * @see DefaultCSVEncoder
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public interface CSVEncoder {
+
+    /**
+     * 指定された値を出力形式へ変換し、バッファへ追加します。
+     * @param value 出力対象の値(nullは渡されません)
+     * @param config 書込の設定
+     * @param out 1行分の出力バッファ
+     */
+    void encode(CharSequence value, CSVConfig config, StringBuilder out);
+
+}
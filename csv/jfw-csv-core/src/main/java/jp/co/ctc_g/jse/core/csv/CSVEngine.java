@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.csv;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+import jp.co.ctc_g.jse.core.csv.CSVConfigs.CSVConfig;
+
+/**
+ * <p>
+ * このインタフェースは、CSVファイルの解析エンジンを表現します。
+ * </p>
+ * <p>
+ * {@link CSVReaders}は、{@link CSVConfig#engine(CSVEngine)}に解析エンジンが設定されている場合、
+ * OpenCSVの代わりにこのエンジンを利用してCSVファイルを読み込みます。
+ * 設定されていない場合は、従来通りOpenCSVを利用します。
+ * フレームワークは、NIOを利用した高速な解析エンジンとして{@link NioCSVEngine}を提供しています。
+ * </p>
+ * <pre class="brush:java">
+ * CSVReaders readers = CSVs.readers(file, CSVConfigs.config().engine(new NioCSVEngine())).open();
+ * </pre>
+ * @see NioCSVEngine
+ * @see CSVRow
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public interface CSVEngine {
+
+    /**
+     * 指定されたファイルを読み込む{@link RowReader}を生成します。
+     * @param file 読込対象のファイル
+     * @param config 読込の設定
+     * @return 1レコードずつ読み込むリーダー
+     * @throws IOException ファイルのオープンに失敗した場合
+     */
+    RowReader open(File file, CSVConfig config) throws IOException;
+
+    /**
+     * <p>
+     * このインタフェースは、解析エンジンがCSVファイルを1レコードずつ読み込むためのリーダーを表現します。
+     * </p>
+     * @author ITOCHU Techno-Solutions Corporation.
+     */
+    interface RowReader extends Closeable {
+
+        /**
+         * 次のレコードを読み込みます。
+         * 返却される{@link CSVRow}は次回の呼び出しで再利用されるため、
+         * 呼び出し元で保持する場合は{@link CSVRow#toArray()}などで複製してください。
+         * @return 1レコードのデータ。ファイルの終端に達した場合はnull
+         * @throws IOException 読込中にIO例外が発生した場合
+         */
+        CSVRow readRow() throws IOException;
+    }
+
+}
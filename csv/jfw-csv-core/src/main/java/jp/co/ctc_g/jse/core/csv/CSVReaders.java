@@ -24,6 +24,8 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
 import java.util.ResourceBundle;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -46,7 +48,12 @@ import au.com.bytecode.opencsv.CSVReader;
  * <p>
  * 単純なJavaBeanとのマッピングをするときは{@link jp.co.ctc_g.jse.core.csv.BeanMappingCSVReaders}を利用してください。
  * </p>
+ * <p>
+ * {@link CSVConfig#engine(CSVEngine)}で解析エンジンが設定されている場合は、OpenCSVの代わりにそのエンジンを利用して読み込みます。
+ * このとき、{@link #row()}を利用するとカラム毎に文字列を生成せずに1レコードのデータを参照することができます。
+ * </p>
  * @see jp.co.ctc_g.jse.core.csv.BeanMappingCSVReaders
+ * @see jp.co.ctc_g.jse.core.csv.CSVEngine
  * @author ITOCHU Techno-Solutions Corporation.
  */
 public class CSVReaders {
@@ -85,11 +92,21 @@ public class CSVReaders {
      */
     protected CSVReader csv;
 
+    /**
+     * 解析エンジンのリーダー
+     */
+    protected CSVEngine.RowReader rows;
+
     /**
      * 1行文のデータ
      */
     protected String[] line;
 
+    /**
+     * 解析エンジンが読み込んだ1行分の行ビュー
+     */
+    protected CSVRow row;
+
     /**
      * 読み込み対象の行があるかどうか？
      * true:読み込み対象あり
@@ -132,6 +149,11 @@ public class CSVReaders {
     protected void initialize() {
         InternalException ie = null;
         try {
+            if (config.engine() != null) {
+                rows = config.engine().open(file, config);
+                if (L.isDebugEnabled()) L.debug(Strings.substitute(R.getString("D-CSV#0002"), Maps.hash("filePath", file.getAbsolutePath())));
+                return;
+            }
             fis = new FileInputStream(file);
             if (L.isDebugEnabled()) L.debug(Strings.substitute(R.getString("D-CSV#0002"), Maps.hash("filePath", file.getAbsolutePath())));
             iso = new InputStreamReader(fis, config.encode());
@@ -144,6 +166,15 @@ public class CSVReaders {
         } catch (UnsupportedEncodingException e) {
             if (L.isDebugEnabled()) L.debug(R.getString("D-CSV#0003"), e);
             ie = new InternalException(CSVReaders.class, "E-CSV#0002", Maps.hash("encode", config.encode()), e);
+        } catch (UnsupportedCharsetException e) {
+            if (L.isDebugEnabled()) L.debug(R.getString("D-CSV#0003"), e);
+            ie = new InternalException(CSVReaders.class, "E-CSV#0002", Maps.hash("encode", config.encode()), e);
+        } catch (IllegalCharsetNameException e) {
+            if (L.isDebugEnabled()) L.debug(R.getString("D-CSV#0003"), e);
+            ie = new InternalException(CSVReaders.class, "E-CSV#0002", Maps.hash("encode", config.encode()), e);
+        } catch (IOException e) {
+            if (L.isDebugEnabled()) L.debug(R.getString("D-CSV#0003"), e);
+            ie = new InternalException(CSVReaders.class, "E-CSV#0009", e);
         } finally {
             if (ie != null) {
                 close();
@@ -176,6 +207,7 @@ public class CSVReaders {
      * @return ユーティリティ
      */
     public CSVReaders next() {
+        if (rows != null) return nextRow();
         Args.checkNotNull(csv, R.getString("E-CSV#0005"));
         InternalException ie = null;
         try {
@@ -195,6 +227,30 @@ public class CSVReaders {
         return this;
     }
 
+    /**
+     * 解析エンジンを利用して次の行を読み込みます。
+     * @return ユーティリティ
+     */
+    protected CSVReaders nextRow() {
+        InternalException ie = null;
+        try {
+            line = null;
+            row = rows.readRow();
+            if (row == null) {
+                hasNext = false;
+                return this;
+            }
+        } catch (IOException e) {
+            ie = new InternalException(CSVReaders.class, "E-CSV#0009", e);
+        } finally {
+            if (ie != null) {
+                close();
+                throw ie;
+            }
+        }
+        return this;
+    }
+
     /**
      * 次の行があるか？
      * @return ユーティリティ
@@ -216,6 +272,7 @@ public class CSVReaders {
      * @return 1行分のデータ
      */
     public String[] get() {
+        materialize();
         Args.checkNotNull(line, R.getString("E-CSV#0014"));
         check();
         String[] l = line;
@@ -225,11 +282,29 @@ public class CSVReaders {
         return l;
     }
 
+    /**
+     * 1行分のデータを、カラム毎に文字列を生成せずに行ビューとして取得します。
+     * このメソッドは{@link CSVConfig#engine(CSVEngine)}で解析エンジンが設定されている場合のみ利用できます。
+     * 返却される行ビューは次の行の読込で上書きされるため、値を保持する場合は文字列に変換してください。
+     * @return 1行分の行ビュー
+     */
+    public CSVRow row() {
+        Args.checkNotNull(rows, R.getString("E-CSV#0017"));
+        Args.checkNotNull(row, R.getString("E-CSV#0018"));
+        check();
+        CSVRow r = row;
+        up();
+        validate();
+        clear();
+        return r;
+    }
+
     /**
      * 内部変数を初期化します。
      */
     public void clear() {
         line = null;
+        row = null;
     }
 
     /**
@@ -237,6 +312,9 @@ public class CSVReaders {
      */
     public void close() {
         try {
+            if (rows != null) {
+                rows.close();
+            }
             if (csv != null) {
                 csv.close();
             }
@@ -267,12 +345,23 @@ public class CSVReaders {
      */
     protected void check() {
         if (config.check()) {
-            if (line.length != config.length()) { 
+            int length = line != null ? line.length : row.size();
+            if (length != config.length()) { 
                 throw new InternalException(CSVReaders.class, "E-CSV#0008", Maps.hash("row", count()));
             }
         }
     }
 
+    /**
+     * 解析エンジンが読み込んだ行ビューを、文字列の配列に変換します。
+     * OpenCSVを利用している場合は何もしません。
+     */
+    protected void materialize() {
+        if (line == null && row != null) {
+            line = row.toArray();
+        }
+    }
+
     /**
      * 処理カウンターをアップします。
      */
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.csv;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * このクラスは、{@link CSVEngine}が読み込んだCSVの1レコードを表現する、再利用可能な行ビューです。
+ * </p>
+ * <p>
+ * 各カラムの値は1つの文字配列上に連続して保持されており、
+ * {@link #get(int)}はその一部分を参照する{@link CharSequence}を返却します。
+ * カラム毎に文字列を生成しないため、大量のレコードを読み込む場合でもオブジェクトの生成を抑えることができます。
+ * ただし、このインスタンスおよび{@link #get(int)}が返却する{@link CharSequence}は次のレコードの読込で上書きされるため、
+ * 値を保持する場合は{@link #getString(int)}や{@link #toArray()}を利用して文字列に変換してください。
+ * </p>
+ * @see CSVEngine
+ * @see CSVReaders#row()
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public class CSVRow {
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private static final int INITIAL_COLUMN_SIZE = 16;
+
+    private char[] buffer = new char[INITIAL_BUFFER_SIZE];
+
+    private int position;
+
+    private int start;
+
+    private int[] ends = new int[INITIAL_COLUMN_SIZE];
+
+    private Column[] columns = new Column[INITIAL_COLUMN_SIZE];
+
+    private int size;
+
+    /**
+     * デフォルトコンストラクタです。
+     */
+    public CSVRow() {}
+
+    /**
+     * カラム数を返却します。
+     * @return カラム数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 指定された位置のカラムの値を、文字列を生成せずに返却します。
+     * 返却される値は次のレコードの読込で上書きされます。
+     * @param index カラムの位置(0始まり)
+     * @return カラムの値
+     */
+    public CharSequence get(int index) {
+        check(index);
+        Column c = columns[index];
+        if (c == null) {
+            c = new Column(index);
+            columns[index] = c;
+        }
+        return c;
+    }
+
+    /**
+     * 指定された位置のカラムの値を文字列として返却します。
+     * @param index カラムの位置(0始まり)
+     * @return カラムの値
+     */
+    public String getString(int index) {
+        check(index);
+        return new String(buffer, begin(index), ends[index] - begin(index));
+    }
+
+    /**
+     * 指定された位置のカラムの文字数を返却します。
+     * @param index カラムの位置(0始まり)
+     * @return 文字数
+     */
+    public int length(int index) {
+        check(index);
+        return ends[index] - begin(index);
+    }
+
+    /**
+     * このレコードを文字列の配列に変換します。
+     * @return 1レコードのデータ配列
+     */
+    public String[] toArray() {
+        String[] values = new String[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = new String(buffer, begin(i), ends[i] - begin(i));
+        }
+        return values;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    /**
+     * 内部状態を初期化し、次のレコードを格納できるようにします。
+     */
+    protected void reset() {
+        position = 0;
+        start = 0;
+        size = 0;
+    }
+
+    /**
+     * 現在のカラムに1文字追加します。
+     * @param c 文字
+     */
+    protected void append(char c) {
+        if (position == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length << 1);
+        }
+        buffer[position++] = c;
+    }
+
+    /**
+     * 現在のカラムを確定し、次のカラムの格納を開始します。
+     */
+    protected void end() {
+        if (size == ends.length) {
+            ends = Arrays.copyOf(ends, ends.length << 1);
+            columns = Arrays.copyOf(columns, columns.length << 1);
+        }
+        ends[size++] = position;
+        start = position;
+    }
+
+    /**
+     * 現在のカラムに格納した文字を破棄します。
+     */
+    protected void discard() {
+        position = start;
+    }
+
+    /**
+     * 現在のカラムに格納されている文字数を返却します。
+     * @return 文字数
+     */
+    protected int pending() {
+        return position - start;
+    }
+
+    /**
+     * 現在のカラムに格納されている文字がすべて空白文字かどうかを判定します。
+     * @return すべて空白文字の場合はtrue
+     */
+    protected boolean blank() {
+        for (int i = start; i < position; i++) {
+            if (!Character.isWhitespace(buffer[i])) return false;
+        }
+        return true;
+    }
+
+    private int begin(int index) {
+        return index == 0 ? 0 : ends[index - 1];
+    }
+
+    private void check(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    /**
+     * 行ビューの1カラムを参照する{@link CharSequence}です。
+     * @author ITOCHU Techno-Solutions Corporation.
+     */
+    private final class Column implements CharSequence {
+
+        private final int index;
+
+        private Column(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int length() {
+            return ends[index] - begin(index);
+        }
+
+        @Override
+        public char charAt(int i) {
+            if (i < 0 || i >= length()) {
+                throw new IndexOutOfBoundsException("index: " + i);
+            }
+            return buffer[begin(index) + i];
+        }
+
+        @Override
+        public CharSequence subSequence(int s, int e) {
+            return toString().substring(s, e);
+        }
+
+        @Override
+        public String toString() {
+            return new String(buffer, begin(index), length());
+        }
+    }
+
+}
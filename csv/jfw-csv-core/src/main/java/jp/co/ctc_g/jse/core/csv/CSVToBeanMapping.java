@@ -22,18 +22,25 @@ import java.beans.PropertyEditor;
 import java.beans.PropertyEditorSupport;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import jp.co.ctc_g.jfw.core.internal.InternalException;
 import jp.co.ctc_g.jfw.core.internal.InternalMessages;
 import jp.co.ctc_g.jfw.core.internal.TargetThrowsException;
 import jp.co.ctc_g.jfw.core.util.Beans;
+import jp.co.ctc_g.jfw.core.util.Maps;
+import jp.co.ctc_g.jfw.core.util.Reflects;
 import jp.co.ctc_g.jfw.core.util.Strings;
 import jp.co.ctc_g.jfw.core.util.typeconverter.TypeConversionException;
 import jp.co.ctc_g.jfw.core.util.typeconverter.TypeConverters;
 import au.com.bytecode.opencsv.CSVReader;
+import au.com.bytecode.opencsv.bean.ColumnPositionMappingStrategy;
 import au.com.bytecode.opencsv.bean.CsvToBean;
 import au.com.bytecode.opencsv.bean.MappingStrategy;
 
@@ -45,6 +52,12 @@ import au.com.bytecode.opencsv.bean.MappingStrategy;
  * OpenCSVでは1行単位のコンバートに対応していないため、拡張しました。
  * このクラスは基盤内部でのみ利用可能です。
  * </p>
+ * <p>
+ * カラムとプロパティの対応(プロパティディスクリプタ、書込メソッド、トリムの要否)は、
+ * ビーンの型とマッピングの組み合わせ毎に一度だけ解析され、バインダの配列としてキャッシュされます。
+ * プロパティエディタはインスタンス毎にカラム単位で保持されるため、
+ * 1カラムあたりの処理は変換と書込メソッドの呼び出しのみとなります。
+ * </p>
  * @param <T> マッピング対象の型
  * @author ITOCHU Techno-Solutions Corporation.
  */
@@ -60,6 +73,18 @@ public class CSVToBeanMapping<T> extends CsvToBean<T> {
 
     private ShortEditor shortEditor = new ShortEditor();
 
+    private static final ConcurrentMap<Key, Binder[]> COMPILED = new ConcurrentHashMap<Key, Binder[]>();
+
+    private Class<?> type;
+
+    private String[] mapping;
+
+    private Binder[] binders;
+
+    private PropertyEditor[] editors;
+
+    private boolean[] resolved;
+
     /**
      * デフォルトコンストラクタです。
      */
@@ -90,40 +115,113 @@ public class CSVToBeanMapping<T> extends CsvToBean<T> {
     }
 
     private T convert(MappingStrategy<T> mapper, String[] line) throws IllegalAccessException, InvocationTargetException, InstantiationException, IntrospectionException {
+        Binder[] binders = binders(mapper, line.length);
         T bean = mapper.createBean();
-        List<BindError> errors = new ArrayList<BindError>();
-        for (int col = 0; col < line.length; col++) {
-            PropertyDescriptor prop = mapper.findDescriptor(col);
-            if (prop != null) {
-                Class<?> propertyType = prop.getPropertyType();
-                String propertyName = prop.getName();
-                String value = checkForTrim(line[col], prop);
+        List<BindError> errors = null;
+        int size = Math.min(line.length, binders.length);
+        for (int col = 0; col < size; col++) {
+            Binder binder = binders[col];
+            if (binder != null) {
+                String value = binder.trim ? line[col].trim() : line[col];
                 if (Strings.isEmpty(value)) {
                     continue;
                 }
+                if (binder.unwritable()) {
+                    errors = add(errors, bean, binder, Strings.substitute(R.getString("E-CSV#0021"), Maps.hash("property", binder.name)));
+                    continue;
+                }
                 try {
-                    Object obj = convertValue(value, prop);
-                    Object converted = TypeConverters.convert(obj, propertyType);
-                    Beans.writePropertyValueNamed(propertyName, bean, converted);
+                    Object obj = convertValue(value, col, binder);
+                    binder.write(bean, TypeConverters.convert(obj, binder.type));
                 } catch (TargetThrowsException e) {
-                    errors.add(new BindError(bean.getClass().getSimpleName(), propertyName, e.getMessage()));
+                    errors = add(errors, bean, binder, e);
                 } catch (TypeConversionException e) {
-                    errors.add(new BindError(bean.getClass().getSimpleName(), propertyName, e.getMessage()));
+                    errors = add(errors, bean, binder, e);
                 } catch (NumberFormatException e) {
-                    errors.add(new BindError(bean.getClass().getSimpleName(), propertyName, e.getMessage()));
+                    errors = add(errors, bean, binder, e);
                 }
             }
         }
-        if (!errors.isEmpty()) throw new BindException(R.getString("E-CSV#0010"), errors);
+        if (errors != null) throw new BindException(R.getString("E-CSV#0010"), errors);
         return bean;
     }
 
-    private String checkForTrim(String s, PropertyDescriptor prop) {
-        return trimmableProperty(prop) ? s.trim() : s;
+    private List<BindError> add(List<BindError> errors, Object bean, Binder binder, RuntimeException e) {
+        return add(errors, bean, binder, e.getMessage());
     }
 
-    private boolean trimmableProperty(PropertyDescriptor prop) {
-        return !prop.getPropertyType().getName().contains("String");
+    private List<BindError> add(List<BindError> errors, Object bean, Binder binder, String message) {
+        List<BindError> list = errors != null ? errors : new ArrayList<BindError>();
+        list.add(new BindError(bean.getClass().getSimpleName(), binder.name, message));
+        return list;
+    }
+
+    private Object convertValue(String value, int col, Binder binder) throws InstantiationException, IllegalAccessException {
+        if (!resolved[col]) {
+            editors[col] = getPropertyEditor(binder.descriptor);
+            resolved[col] = true;
+        }
+        PropertyEditor editor = editors[col];
+        if (editor == null) return value;
+        editor.setAsText(value);
+        return editor.getValue();
+    }
+
+    /**
+     * 指定されたマッピング情報に対応するバインダの配列を返却します。
+     * {@link ColumnPositionMappingStrategy}の場合はビーンの型とマッピングの組み合わせ毎にキャッシュされたものを、
+     * それ以外の場合は都度生成したものを返却します。
+     * @param mapper {@link MappingStrategy}
+     * @param columns 1レコードのカラム数
+     * @return バインダの配列
+     * @throws IntrospectionException プロパティの解析に失敗した場合
+     */
+    private Binder[] binders(MappingStrategy<T> mapper, int columns) throws IntrospectionException {
+        Binder[] compiled;
+        if (mapper.getClass() == ColumnPositionMappingStrategy.class) {
+            ColumnPositionMappingStrategy<T> strategy = (ColumnPositionMappingStrategy<T>) mapper;
+            String[] mapping = strategy.getColumnMapping();
+            if (binders != null && type == strategy.getType() && Arrays.equals(this.mapping, mapping)) {
+                return binders;
+            }
+            compiled = lookup(strategy, mapping);
+            this.type = strategy.getType();
+            this.mapping = mapping;
+        } else {
+            // 独自のMappingStrategyはカラムとプロパティの対応が固定とは限らないため、キャッシュしません。
+            compiled = compile(mapper, columns);
+            this.type = null;
+            this.mapping = null;
+        }
+        if (compiled != binders) {
+            binders = compiled;
+            editors = new PropertyEditor[compiled.length];
+            resolved = new boolean[compiled.length];
+        }
+        return compiled;
+    }
+
+    private static Binder[] lookup(ColumnPositionMappingStrategy<?> strategy, String[] mapping) throws IntrospectionException {
+        Key key = new Key(strategy.getType(), mapping);
+        Binder[] compiled = COMPILED.get(key);
+        if (compiled == null) {
+            compiled = compile(strategy, mapping != null ? mapping.length : 0);
+            Binder[] existing = COMPILED.putIfAbsent(key, compiled);
+            if (existing != null) compiled = existing;
+        }
+        return compiled;
+    }
+
+    private static Binder[] compile(MappingStrategy<?> mapper, int columns) throws IntrospectionException {
+        Binder[] compiled = new Binder[columns];
+        for (int col = 0; col < columns; col++) {
+            PropertyDescriptor prop = mapper.findDescriptor(col);
+            if (prop != null) {
+                compiled[col] = new Binder(mapper.getClass() == ColumnPositionMappingStrategy.class
+                    ? ((ColumnPositionMappingStrategy<?>) mapper).getType() : null, prop);
+            }
+        }
+        return compiled;
     }
 
     /**
@@ -292,4 +390,100 @@ public class CSVToBeanMapping<T> extends CsvToBean<T> {
         }
 
     }
+
+    /**
+     * ビーンの型とマッピングの組み合わせを表現するキャッシュキーです。
+     * @author ITOCHU Techno-Solutions Corporation.
+     */
+    private static final class Key {
+
+        private final Class<?> type;
+
+        private final String[] mapping;
+
+        private final int hash;
+
+        private Key(Class<?> type, String[] mapping) {
+            this.type = type;
+            this.mapping = mapping;
+            this.hash = 31 * (type != null ? type.hashCode() : 0) + Arrays.hashCode(mapping);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return type == other.type && Arrays.equals(mapping, other.mapping);
+        }
+    }
+
+    /**
+     * 1カラム分の値をプロパティへ書き込むバインダです。
+     * 状態を持たないため、スレッド間で共有されます。
+     * @author ITOCHU Techno-Solutions Corporation.
+     */
+    private static final class Binder {
+
+        private final PropertyDescriptor descriptor;
+
+        private final String name;
+
+        private final Class<?> type;
+
+        private final boolean trim;
+
+        private final boolean resolved;
+
+        private final Method writer;
+
+        private final boolean accessible;
+
+        private Binder(Class<?> owner, PropertyDescriptor descriptor) {
+            this.descriptor = descriptor;
+            this.name = descriptor.getName();
+            this.type = descriptor.getPropertyType();
+            this.trim = !type.getName().contains("String");
+            this.resolved = owner != null;
+            if (resolved) {
+                PropertyDescriptor pd = Beans.findPropertyDescriptorFor(owner, name);
+                this.writer = pd != null ? pd.getWriteMethod() : null;
+            } else {
+                this.writer = null;
+            }
+            this.accessible = accessible(writer);
+        }
+
+        private static boolean accessible(Method method) {
+            if (method == null) return false;
+            try {
+                method.setAccessible(true);
+                return true;
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+
+        /**
+         * 書込メソッドが存在せず、値を設定できないかどうかを判定します。
+         * @return 値を設定できない場合は<code>true</code>
+         */
+        private boolean unwritable() {
+            return resolved && writer == null;
+        }
+
+        private void write(Object bean, Object value) {
+            if (!resolved) {
+                Beans.writePropertyValueNamed(name, bean, value);
+            } else if (accessible) {
+                Reflects.invokeAccessible(writer, bean, value);
+            } else {
+                Reflects.invoke(writer, bean, value);
+            }
+        }
+    }
 }
@@ -20,7 +20,9 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
@@ -28,6 +30,7 @@ import java.util.Arrays;
 import java.util.ResourceBundle;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
 import jp.co.ctc_g.jfw.core.internal.InternalException;
 import jp.co.ctc_g.jfw.core.internal.InternalMessages;
@@ -46,6 +49,29 @@ import au.com.bytecode.opencsv.CSVWriter;
  * <p>
  * このクラスは、CSV書込処理のユーティリティです。
  * </p>
+ * <p>
+ * 通常は{@link #touch()}で生成した一時ファイルへ書き込みますが、
+ * {@link #open(OutputStream)}を利用すると、指定されたストリーム(例えばサーブレットのレスポンス)へ直接書き込むことができます。
+ * この場合、一時ファイルは作成されず、{@link CSVConfig#flushSize()}で指定された行数毎に出力がフラッシュされるため、
+ * 件数に関わらずディスク使用量とクライアントが最初のデータを受け取るまでの時間を一定に保つことができます。
+ * {@link CSVConfig#gzip()}がtrueの場合、出力はGZIP圧縮されます。
+ * </p>
+ * <pre class="brush:java">
+ * response.setContentType("text/csv");
+ * response.setHeader("Content-Encoding", "gzip");
+ * CSVWriters writers = CSVs.writers(CSVConfigs.config().gzip(true)).open(response.getOutputStream());
+ * try {
+ *   writers.write(new String[] {"1", "foo"});
+ * } finally {
+ *   writers.close();
+ * }
+ * </pre>
+ * <p>
+ * {@link CSVConfig#encoder(CSVEncoder)}にエンコーダを設定すると、OpenCSVを経由せず、
+ * 1行分の文字列を再利用可能なバッファ上に組み立ててライタへ直接書き込みます。
+ * 行毎の配列の複製や文字列の生成を行わないため、大量のレコードを出力する場合に有効です。
+ * ライタのバッファサイズは{@link CSVConfig#bufferSize()}で指定できます。
+ * </p>
  * @author ITOCHU Techno-Solutions Corporation.
  */
 public class CSVWriters {
@@ -83,6 +109,31 @@ public class CSVWriters {
      */
     protected CSVWriter csv;
 
+    /**
+     * エンコーダ
+     */
+    protected CSVEncoder encoder;
+
+    /**
+     * 1行分の出力バッファ
+     */
+    private StringBuilder buffer;
+
+    /**
+     * ライタへ書き込む際の文字配列
+     */
+    private char[] chars;
+
+    /**
+     * 直接書き込む対象のストリーム
+     */
+    protected OutputStream out;
+
+    /**
+     * GZIP圧縮ストリーム
+     */
+    protected GZIPOutputStream gzip;
+
     /**
      * 処理件数カウンタ
      */
@@ -118,8 +169,8 @@ public class CSVWriters {
             fos = new FileOutputStream(f, true);
             if (L.isDebugEnabled()) L.debug(Strings.substitute(R.getString("D-CSV#0002"), Maps.hash("filePath", f.getAbsolutePath())));
             osw = new OutputStreamWriter(fos, config.encode());
-            writer = new BufferedWriter(osw);
-            csv = new CSVWriter(writer, config.separator(), config.quote(), config.escape(), config.line());
+            writer = new BufferedWriter(osw, config.bufferSize());
+            prepare();
         } catch (FileNotFoundException e) {
             if (L.isDebugEnabled()) L.debug(R.getString("D-CSV#0003"), e);
             ie = new InternalException(CSVWriters.class, "E-CSV#0001", Maps.hash("filePath", f.getAbsolutePath()), e);
@@ -134,6 +185,54 @@ public class CSVWriters {
         }
     }
 
+    /**
+     * 指定されたストリームへ直接書き込むように初期化します。
+     * @param os 書込み対象のストリーム
+     */
+    protected void initialize(OutputStream os) {
+        InternalException ie = null;
+        try {
+            out = os;
+            OutputStream target = os;
+            if (config.gzip()) {
+                // 呼び出し元のストリームは閉じずに、GZIPOutputStreamのクローズでDeflaterを解放します
+                gzip = new GZIPOutputStream(new NonClosingOutputStream(os));
+                target = gzip;
+            }
+            osw = new OutputStreamWriter(target, config.encode());
+            writer = new BufferedWriter(osw, config.bufferSize());
+            prepare();
+        } catch (UnsupportedEncodingException e) {
+            if (L.isDebugEnabled()) L.debug(R.getString("D-CSV#0003"), e);
+            ie = new InternalException(CSVWriters.class, "E-CSV#0002", Maps.hash("encode", config.encode()), e);
+        } catch (IOException e) {
+            if (L.isDebugEnabled()) L.debug(R.getString("D-CSV#0003"), e);
+            ie = new InternalException(CSVWriters.class, "E-CSV#0020", e);
+        } finally {
+            if (ie != null) {
+                end();
+                csv = null;
+                writer = null;
+                out = null;
+                throw ie;
+            }
+        }
+    }
+
+    /**
+     * ライタへ書き込む準備をします。
+     * エンコーダが設定されている場合はエンコーダを、設定されていない場合はOpenCSVを利用します。
+     */
+    protected void prepare() {
+        encoder = config.encoder();
+        if (encoder != null) {
+            buffer = new StringBuilder(CSVWriter.INITIAL_STRING_SIZE);
+            chars = new char[CSVWriter.INITIAL_STRING_SIZE];
+        } else {
+            csv = new CSVWriter(writer, config.separator(), config.quote(), config.escape(), config.line());
+        }
+    }
+
     /**
      * ストリームを開きます。
      * @return ユーティリティ
@@ -143,6 +242,18 @@ public class CSVWriters {
         return this;
     }
 
+    /**
+     * 一時ファイルを利用せず、指定されたストリームへ直接書き込むように開きます。
+     * 指定されたストリームは{@link #close()}でフラッシュされますが、クローズはされません。
+     * @param os 書込み対象のストリーム
+     * @return ユーティリティ
+     */
+    public CSVWriters open(OutputStream os) {
+        Args.checkNotNull(os);
+        initialize(os);
+        return this;
+    }
+
     /**
      * 一時ファイル名を生成します。
      * @return ユーティリティ
@@ -158,10 +269,50 @@ public class CSVWriters {
      * @return ユーティリティ
      */
     public CSVWriters write(String[] line) {
-        Args.checkNotNull(csv, R.getString("E-CSV#0004"));
+        Args.checkNotNull(writer, R.getString("E-CSV#0004"));
         Args.checkNotNull(line, R.getString("E-CSV#0016"));
-        csv.writeNext(transform(line));
-        up();
+        if (encoder != null) {
+            StringBuilder sb = begin();
+            for (int i = 0; i < line.length; i++) {
+                if (i != 0) sb.append(config.separator());
+                append(sb, line[i]);
+            }
+            end(sb);
+        } else {
+            csv.writeNext(transform(line));
+        }
+        written();
+        return this;
+    }
+
+    /**
+     * 指定された複数行のデータ配列をまとめてファイルに出力します。
+     * @param lines 書込み対象のデータ
+     * @return ユーティリティ
+     */
+    public CSVWriters writeAll(Iterable<String[]> lines) {
+        Args.checkNotNull(lines, R.getString("E-CSV#0016"));
+        for (String[] line : lines) {
+            write(line);
+        }
+        return this;
+    }
+
+    /**
+     * 書き込んだデータをフラッシュします。
+     * @return ユーティリティ
+     */
+    public CSVWriters flush() {
+        Args.checkNotNull(writer, R.getString("E-CSV#0004"));
+        try {
+            if (csv != null) {
+                csv.flush();
+            } else {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new InternalException(CSVWriters.class, "E-CSV#0020", e);
+        }
         return this;
     }
 
@@ -170,6 +321,10 @@ public class CSVWriters {
      * @return ユーティリティ
      */
     public CSVWriters close() {
+        if (out != null) {
+            finish();
+            return this;
+        }
         try {
             if (csv != null) {
                 csv.close();
@@ -189,6 +344,41 @@ public class CSVWriters {
         return this;
     }
 
+    /**
+     * ストリームへ直接書き込んでいる場合に、残りのデータを書き出します。
+     * 指定されたストリームの所有者は呼び出し元であるため、クローズはしません。
+     * GZIP圧縮している場合は、書出しに失敗した場合も圧縮に利用したネイティブメモリを解放します。
+     */
+    protected void finish() {
+        try {
+            if (csv != null) {
+                csv.flush();
+            } else if (writer != null) {
+                writer.flush();
+            }
+            if (gzip != null) {
+                gzip.close();
+                gzip = null;
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new InternalException(CSVWriters.class, "E-CSV#0020", e);
+        } finally {
+            end();
+        }
+    }
+
+    private void end() {
+        if (gzip == null) return;
+        try {
+            gzip.close();
+        } catch (IOException e) {
+            if (L.isDebugEnabled()) L.debug(R.getString("D-CSV#0003"), e);
+        } finally {
+            gzip = null;
+        }
+    }
+
     /**
      * 処理件数を取得します。
      * @return 処理件数
@@ -199,9 +389,11 @@ public class CSVWriters {
 
     /**
      * 書込みファイルのデータを取得します。
+     * {@link #open(OutputStream)}でストリームへ直接書き込んだ場合、一時ファイルは存在しないためnullを返却します。
      * @return {@link DownloadFile}
      */
     public DownloadFile get() {
+        if (out != null) return null;
         return new DownloadFile(tempFileName);
     }
 
@@ -212,6 +404,55 @@ public class CSVWriters {
         counter.incrementAndGet();
     }
 
+    /**
+     * 1行の書込み後に処理カウントをインクリメントし、
+     * ストリームへ直接書き込んでいる場合はフラッシュ間隔に達した時点でフラッシュします。
+     */
+    protected void written() {
+        up();
+        if (out != null && config.flushSize() > 0 && count() % config.flushSize() == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * エンコーダを利用して1行を組み立てるためのバッファを初期化します。
+     * @return 1行分の出力バッファ
+     */
+    protected StringBuilder begin() {
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    /**
+     * 1カラム分の値を変換処理およびエンコードしてバッファへ追加します。
+     * nullは空文字として扱います。
+     * @param sb 1行分の出力バッファ
+     * @param value カラムの値
+     */
+    protected void append(StringBuilder sb, String value) {
+        String v = transformer != null ? transformer.transform(value) : value;
+        encoder.encode(v != null ? v : "", config, sb);
+    }
+
+    /**
+     * バッファに改行コードを追加し、1行分の文字列をライタへ書き込みます。
+     * @param sb 1行分の出力バッファ
+     */
+    protected void end(StringBuilder sb) {
+        sb.append(config.line());
+        int length = sb.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(chars.length << 1, length)];
+        }
+        sb.getChars(0, length, chars, 0);
+        try {
+            writer.write(chars, 0, length);
+        } catch (IOException e) {
+            throw new InternalException(CSVWriters.class, "E-CSV#0020", e);
+        }
+    }
+
     /**
      * nullを空文字へ変換する処理を実施します。
      * @param line 書込み対象のデータ
@@ -235,4 +476,25 @@ public class CSVWriters {
         return transformed;
     }
 
+
+    /**
+     * クローズ時に指定されたストリームをクローズせず、フラッシュのみを行うストリームです。
+     * @author ITOCHU Techno-Solutions Corporation.
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
 }
\ No newline at end of file
@@ -51,6 +51,27 @@ public final class CSVs {
         return new CSVWriters(config);
     }
 
+    /**
+     * JavaBeansをCSVの1レコードとして書き込むユーティリティを取得します。
+     * @param type 書込対象の型
+     * @param <T> 書込対象の型
+     * @return CSV書き込みユーティリティ(JavaBeansマッピング)
+     */
+    public static <T> BeanMappingCSVWriters<T> writers(Class<T> type) {
+        return new BeanMappingCSVWriters<T>(CSVConfigs.config(), type);
+    }
+
+    /**
+     * JavaBeansをCSVの1レコードとして書き込むユーティリティを取得します。
+     * @param config コンフィグ
+     * @param type 書込対象の型
+     * @param <T> 書込対象の型
+     * @return CSV書き込みユーティリティ(JavaBeansマッピング)
+     */
+    public static <T> BeanMappingCSVWriters<T> writers(CSVConfig config, Class<T> type) {
+        return new BeanMappingCSVWriters<T>(config, type);
+    }
+
     /**
      * CSVファイルの読み込みユーティリティを取得します。
      * @param file ファイル名(パスを含む)
@@ -143,4 +164,30 @@ public final class CSVs {
         return readers(new File(file), config, type);
     }
 
+    /**
+     * CSVの1レコードとJavaBeansのマッピングを複数のスレッドで並列に実行するCSV読込ユーティリティのインスタンスを生成します。
+     * @param file ファイル名(パスを含む)
+     * @param config CSVの設定情報
+     * @param type 読込対象の型
+     * @param <T> 読込対象の型
+     * @return CSVファイル並列読込ユーティリティ(JavaBeansマッピング)
+     * @see ParallelBeanMappingCSVReaders
+     */
+    public static <T> ParallelBeanMappingCSVReaders<T> parallelReaders(File file, CSVConfig config, Class<T> type) {
+        return new ParallelBeanMappingCSVReaders<T>(file, config, type);
+    }
+
+    /**
+     * CSVの1レコードとJavaBeansのマッピングを複数のスレッドで並列に実行するCSV読込ユーティリティのインスタンスを生成します。
+     * @param file ファイル名(パスを含む)
+     * @param config CSVの設定情報
+     * @param type 読込対象の型
+     * @param <T> 読込対象の型
+     * @return CSVファイル並列読込ユーティリティ(JavaBeansマッピング)
+     * @see ParallelBeanMappingCSVReaders
+     */
+    public static <T> ParallelBeanMappingCSVReaders<T> parallelReaders(String file, CSVConfig config, Class<T> type) {
+        return parallelReaders(new File(file), config, type);
+    }
+
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.csv;
+
+import jp.co.ctc_g.jse.core.csv.CSVConfigs.CSVConfig;
+import au.com.bytecode.opencsv.CSVWriter;
+
+/**
+ * <p>
+ * このクラスは、OpenCSVの{@link CSVWriter}と同じ規則で値を囲み・エスケープするエンコーダです。
+ * </p>
+ * <p>
+ * 値は{@link CSVConfig#quote()}で囲まれ、値に含まれる囲み文字およびエスケープ文字の前には
+ * {@link CSVConfig#escape()}が付与されます。
+ * 囲み文字・エスケープ文字を含まない値は、文字単位の処理を行わずにそのままバッファへ追加されます。
+ * このクラスは状態を持たないため、複数の{@link CSVWriters}で共有できます。
+ * </p>
+ * @see CSVEncoder
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public class DefaultCSVEncoder implements CSVEncoder {
+
+    /**
+     * デフォルトコンストラクタです。
+     */
+    public DefaultCSVEncoder() {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void encode(CharSequence value, CSVConfig config, StringBuilder out) {
+        char quote = config.quote();
+        char escape = config.escape();
+        if (quote != CSVWriter.NO_QUOTE_CHARACTER) out.append(quote);
+        int length = value.length();
+        int i = 0;
+        while (i < length) {
+            char c = value.charAt(i);
+            if (c == quote || c == escape) break;
+            i++;
+        }
+        if (i == length || escape == CSVWriter.NO_ESCAPE_CHARACTER) {
+            out.append(value);
+        } else {
+            out.append(value, 0, i);
+            for (; i < length; i++) {
+                char c = value.charAt(i);
+                if (c == quote || c == escape) out.append(escape);
+                out.append(c);
+            }
+        }
+        if (quote != CSVWriter.NO_QUOTE_CHARACTER) out.append(quote);
+    }
+
+}
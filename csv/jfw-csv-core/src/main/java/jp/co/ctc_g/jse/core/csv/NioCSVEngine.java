@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.csv;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+import jp.co.ctc_g.jse.core.csv.CSVConfigs.CSVConfig;
+
+/**
+ * <p>
+ * このクラスは、NIOの{@link FileChannel}を利用してCSVファイルを解析するエンジンです。
+ * </p>
+ * <p>
+ * ファイルは{@link CSVConfig#bufferSize()}で指定された大きさのダイレクトバッファへ読み込まれ、
+ * バイト列から直接文字へデコードされた後、1レコード分の値が{@link CSVRow}へ格納されます。
+ * ストリームの多段ラップや行毎の文字列生成を行わないため、巨大なファイルを高速に読み込むことができます。
+ * </p>
+ * <p>
+ * 区切り文字・囲み文字・エスケープ文字・読込開始行・囲み文字以外の文字の扱い・囲み文字の前の空白の扱いは
+ * OpenCSVと同じ規則で解釈しますので、{@link CSVReaders}の利用者はエンジンを意識する必要はありません。
+ * また、囲み文字内の改行はOpenCSVと同様にLFに統一されます。
+ * </p>
+ * <pre class="brush:java">
+ * CSVReaders readers = null;
+ * try {
+ *   readers = CSVs.readers(file, CSVConfigs.config().engine(new NioCSVEngine())).open();
+ *   while (readers.next().hasNext()) {
+ *     CSVRow row = readers.row();
+ *     CharSequence id = row.get(0);
+ *   }
+ * } finally {
+ *   if (readers != null) {
+ *     readers.close();
+ *   }
+ * }
+ * </pre>
+ * @see CSVEngine
+ * @see CSVRow
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public class NioCSVEngine implements CSVEngine {
+
+    /**
+     * バッファサイズの下限です。
+     * 1文字分のバイト列(サロゲートペアを含む)を必ず格納できる大きさを確保します。
+     */
+    protected static final int MINIMUM_BUFFER_SIZE = 16;
+
+    /**
+     * デフォルトコンストラクタです。
+     */
+    public NioCSVEngine() {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RowReader open(File file, CSVConfig config) throws IOException {
+        Charset charset = Charset.forName(config.encode());
+        FileInputStream fis = new FileInputStream(file);
+        return new NioRowReader(fis.getChannel(), charset, config);
+    }
+
+    /**
+     * <p>
+     * このクラスは、{@link FileChannel}からCSVファイルを1レコードずつ読み込むリーダーです。
+     * </p>
+     * @author ITOCHU Techno-Solutions Corporation.
+     */
+    protected static class NioRowReader implements RowReader {
+
+        private final FileChannel channel;
+
+        private final CharsetDecoder decoder;
+
+        private final ByteBuffer bytes;
+
+        private final CharBuffer chars;
+
+        private final char separator;
+
+        private final char quote;
+
+        private final char escape;
+
+        private final boolean strictQuotes;
+
+        private final boolean whitespace;
+
+        private final int skip;
+
+        private final CSVRow row = new CSVRow();
+
+        private char[] copied = new char[256];
+
+        private char[] line;
+
+        private int offset;
+
+        private int length;
+
+        private boolean skipped;
+
+        private boolean skipLF;
+
+        private boolean inField;
+
+        private boolean eof;
+
+        private boolean flushed;
+
+        /**
+         * コンストラクタです。
+         * @param channel 読込対象のチャネル
+         * @param charset ファイルエンコード
+         * @param config 読込の設定
+         */
+        protected NioRowReader(FileChannel channel, Charset charset, CSVConfig config) {
+            this.channel = channel;
+            this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            int size = Math.max(config.bufferSize(), MINIMUM_BUFFER_SIZE);
+            this.bytes = ByteBuffer.allocateDirect(size);
+            this.chars = CharBuffer.allocate(size);
+            this.chars.flip();
+            this.separator = config.separator();
+            this.quote = config.quote();
+            this.escape = config.escape();
+            this.strictQuotes = config.strictQuotes();
+            this.whitespace = config.whitespace();
+            this.skip = config.index();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public CSVRow readRow() throws IOException {
+            if (!skipped) {
+                for (int i = 0; i < skip; i++) {
+                    if (!readLine()) break;
+                }
+                skipped = true;
+            }
+            row.reset();
+            boolean pending = false;
+            do {
+                if (!readLine()) {
+                    if (!pending) return null;
+                    // 囲み文字が閉じられないまま終端に達した場合、OpenCSVと同様に未完のカラムは破棄します。
+                    row.discard();
+                    return row.size() > 0 ? row : null;
+                }
+                pending = parse(pending);
+            } while (pending);
+            return row;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        /**
+         * 読み込んだ1行を解析し、行ビューへ格納します。
+         * 解析規則はOpenCSVの{@code CSVParser}と同一です。
+         * @param pending 前の行から囲み文字が継続している場合はtrue
+         * @return 囲み文字が次の行へ継続する場合はtrue
+         */
+        private boolean parse(boolean pending) {
+            boolean inQuotes = pending;
+            char[] a = line;
+            int end = offset + length;
+            for (int p = offset; p < end; p++) {
+                char c = a[p];
+                if (c == escape) {
+                    if ((inQuotes || inField) && p + 1 < end && (a[p + 1] == quote || a[p + 1] == escape)) {
+                        row.append(a[++p]);
+                    }
+                } else if (c == quote) {
+                    if ((inQuotes || inField) && p + 1 < end && a[p + 1] == quote) {
+                        row.append(a[++p]);
+                    } else {
+                        if (!strictQuotes && p - offset > 2 && a[p - 1] != separator && p + 1 < end && a[p + 1] != separator) {
+                            if (whitespace && row.pending() > 0 && row.blank()) {
+                                row.discard();
+                            } else {
+                                row.append(c);
+                            }
+                        }
+                        inQuotes = !inQuotes;
+                    }
+                    inField = !inField;
+                } else if (c == separator && !inQuotes) {
+                    row.end();
+                    inField = false;
+                } else if (!strictQuotes || inQuotes) {
+                    row.append(c);
+                    inField = true;
+                }
+            }
+            if (inQuotes) {
+                row.append('\n');
+                return true;
+            }
+            row.end();
+            return false;
+        }
+
+        /**
+         * 改行コード(CR、LF、CRLF)で区切られた1行を読み込みます。
+         * 行がバッファ内に収まっている場合はバッファを直接参照し、
+         * バッファの境界をまたぐ場合のみ行を複製します。
+         * @return 行を読み込めた場合はtrue、ファイルの終端に達した場合はfalse
+         * @throws IOException 読込中にIO例外が発生した場合
+         */
+        private boolean readLine() throws IOException {
+            int count = 0;
+            boolean spanned = false;
+            for (;;) {
+                if (!chars.hasRemaining() && !fill()) {
+                    if (!spanned) return false;
+                    line = copied;
+                    offset = 0;
+                    length = count;
+                    return true;
+                }
+                char[] a = chars.array();
+                int base = chars.arrayOffset();
+                int start = base + chars.position();
+                int limit = base + chars.limit();
+                if (skipLF) {
+                    skipLF = false;
+                    if (a[start] == '\n') {
+                        chars.position(++start - base);
+                        if (start == limit) continue;
+                    }
+                }
+                int i = start;
+                while (i < limit && a[i] != '\n' && a[i] != '\r') i++;
+                if (i == limit) {
+                    count = copy(a, start, i, count);
+                    spanned = true;
+                    chars.position(limit - base);
+                    continue;
+                }
+                int next = i + 1;
+                if (a[i] == '\r') {
+                    if (next < limit) {
+                        if (a[next] == '\n') next++;
+                    } else {
+                        skipLF = true;
+                    }
+                }
+                chars.position(next - base);
+                if (spanned) {
+                    line = copied;
+                    offset = 0;
+                    length = copy(a, start, i, count);
+                } else {
+                    line = a;
+                    offset = start;
+                    length = i - start;
+                }
+                return true;
+            }
+        }
+
+        private int copy(char[] a, int from, int to, int count) {
+            int n = to - from;
+            if (count + n > copied.length) {
+                char[] expanded = new char[Math.max(copied.length << 1, count + n)];
+                System.arraycopy(copied, 0, expanded, 0, count);
+                copied = expanded;
+            }
+            System.arraycopy(a, from, copied, count, n);
+            return count + n;
+        }
+
+        /**
+         * チャネルからバイト列を読み込み、文字バッファへデコードします。
+         * @return デコードされた文字が存在する場合はtrue
+         * @throws IOException 読込中にIO例外が発生した場合
+         */
+        private boolean fill() throws IOException {
+            chars.clear();
+            while (!flushed) {
+                if (!eof && channel.read(bytes) < 0) {
+                    eof = true;
+                }
+                bytes.flip();
+                CoderResult result = decoder.decode(bytes, chars, eof);
+                bytes.compact();
+                if (eof && result.isUnderflow()) {
+                    decoder.flush(chars);
+                    flushed = true;
+                }
+                if (chars.position() > 0 || result.isOverflow()) break;
+            }
+            chars.flip();
+            return chars.hasRemaining();
+        }
+    }
+
+}
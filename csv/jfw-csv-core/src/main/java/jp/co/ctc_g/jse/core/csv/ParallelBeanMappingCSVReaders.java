@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.csv;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jp.co.ctc_g.jfw.core.internal.InternalException;
+import jp.co.ctc_g.jfw.core.internal.InternalMessages;
+import jp.co.ctc_g.jfw.core.util.Args;
+import jp.co.ctc_g.jse.core.csv.CSVConfigs.CSVConfig;
+import au.com.bytecode.opencsv.bean.ColumnPositionMappingStrategy;
+
+/**
+ * <p>
+ * このクラスは、CSVファイルの1レコードとJavaBeansのプロパティとのマッピングおよびバリデーションを
+ * 複数のスレッドで並列に実行するCSV読込ユーティリティです。
+ * </p>
+ * <p>
+ * CSVファイルの解析は呼び出し元のスレッドで行い、
+ * 解析したレコードを{@link #chunk(int)}件ずつのチャンクに分割してスレッドプールへ投入します。
+ * チャンクの境界は解析済みのレコード単位で決まるため、囲み文字内の改行によってレコードが分断されることはありません。
+ * 各スレッドはチャンク内のレコードをJavaBeansにマッピングし、
+ * {@link CSVConfig#validator(javax.validation.Validator)}が設定されている場合はバリデーションを実行します。
+ * マッピングされたJavaBeansは呼び出し元のスレッドから{@link BeanMappingCall}へ渡されます。
+ * {@link #ordered(boolean)}にtrueを指定した場合(デフォルト)はファイル内の順序通りに、
+ * falseを指定した場合は処理が完了したチャンクから順に渡されます。
+ * いずれの場合も、{@link BindError}のメッセージや{@link BeanMappingCall#call(Object, int)}に渡される
+ * レコードの位置はファイル内の位置と一致します。
+ * </p>
+ * <p>
+ * 大きなファイルを読み込む場合は、{@link NioCSVEngine}と組み合わせて利用すると効果的です。
+ * 以下に実装例を示します。
+ * <pre class="brush:java">
+ * ParallelBeanMappingCSVReaders&lt;UserProfile&gt; readers =
+ *     CSVs.parallelReaders(file, CSVConfigs.config().index(1).engine(new NioCSVEngine()).validator(validator), UserProfile.class);
+ * readers.threads(8).chunk(1000).ordered(false).parse(new BeanMappingCall&lt;UserProfile&gt;() {
+ *     public void call(UserProfile profile, int index) {
+ *         dao.insert(profile);
+ *     }
+ * });
+ * if (readers.hasError()) {
+ *     throw new BindException("W-CSV#001", readers.getBindError());
+ * }
+ * </pre>
+ * </p>
+ * @param <T> 読込対象の型
+ * @see BeanMappingCSVReaders
+ * @see BeanMappingCall
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public class ParallelBeanMappingCSVReaders<T> {
+
+    private static final ResourceBundle R = InternalMessages.getBundle(ParallelBeanMappingCSVReaders.class);
+
+    /**
+     * チャンク1つあたりのデフォルトのレコード数です。
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private final File file;
+
+    private final CSVConfig config;
+
+    private final Class<T> type;
+
+    private String[] mapping;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    private int chunk = DEFAULT_CHUNK_SIZE;
+
+    private boolean ordered = true;
+
+    private ExecutorService executor;
+
+    private List<BindError> bindErrors = new ArrayList<BindError>();
+
+    /**
+     * コンストラクタです。
+     * @param file 読込対象のファイル
+     * @param config ユーティリティの設定情報
+     * @param type 読込対象の型
+     */
+    protected ParallelBeanMappingCSVReaders(File file, CSVConfig config, Class<T> type) {
+        Args.checkNotNull(type, R.getString("E-CSV#0014"));
+        this.file = file;
+        this.config = config;
+        this.type = type;
+        this.mapping = BeanMappingCSVReaders.resolve(type);
+    }
+
+    /**
+     * データをオブジェクトへマッピングするプロパティ名を設定します。
+     * 設定しない場合は{@link CSVColumn}もしくはプロパティの定義順で解決します。
+     * @param m プロパティ名
+     * @return ユーティリティ
+     */
+    public ParallelBeanMappingCSVReaders<T> mapping(String[] m) {
+        this.mapping = m;
+        return this;
+    }
+
+    /**
+     * マッピングを実行するスレッド数を設定します。
+     * デフォルトは利用可能なプロセッサ数です。
+     * {@link #executor(ExecutorService)}を設定した場合は、同時に投入するチャンク数の上限の算出にのみ利用されます。
+     * @param t スレッド数
+     * @return ユーティリティ
+     */
+    public ParallelBeanMappingCSVReaders<T> threads(int t) {
+        Args.checkPositive(t);
+        this.threads = t;
+        return this;
+    }
+
+    /**
+     * チャンク1つあたりのレコード数を設定します。
+     * デフォルトは{@link #DEFAULT_CHUNK_SIZE}です。
+     * @param c チャンク1つあたりのレコード数
+     * @return ユーティリティ
+     */
+    public ParallelBeanMappingCSVReaders<T> chunk(int c) {
+        Args.checkPositive(c);
+        this.chunk = c;
+        return this;
+    }
+
+    /**
+     * JavaBeansをファイル内の順序通りに渡すかどうかを設定します。
+     * falseを指定した場合は処理が完了したチャンクから順に渡すため、スループットが向上します。
+     * デフォルトはtrueです。
+     * @param o ファイル内の順序通りに渡す場合はtrue
+     * @return ユーティリティ
+     */
+    public ParallelBeanMappingCSVReaders<T> ordered(boolean o) {
+        this.ordered = o;
+        return this;
+    }
+
+    /**
+     * マッピングを実行するスレッドプールを設定します。
+     * 設定しない場合は{@link #threads(int)}で指定されたスレッド数のプールを
+     * {@link #parse(BeanMappingCall)}の実行毎に生成し、終了時に破棄します。
+     * 設定されたスレッドプールは、このクラスでは終了しません。
+     * @param e スレッドプール
+     * @return ユーティリティ
+     */
+    public ParallelBeanMappingCSVReaders<T> executor(ExecutorService e) {
+        this.executor = e;
+        return this;
+    }
+
+    /**
+     * CSVファイルを読み込み、JavaBeansにマッピングしたデータを1レコードずつコールバックへ渡します。
+     * 型変換に失敗したレコードが存在する場合は、以降の処理を中断し{@link BindException}をスローします。
+     * @param call コールバック
+     * @return 読み込んだレコード数
+     */
+    public int parse(BeanMappingCall<T> call) {
+        Args.checkNotNull(call);
+        Args.checkNotNull(mapping, R.getString("E-CSV#0015"));
+        bindErrors = new ArrayList<BindError>();
+        ExecutorService pool = executor != null ? executor : Executors.newFixedThreadPool(threads);
+        CompletionService<Chunk<T>> completion = ordered ? null : new ExecutorCompletionService<Chunk<T>>(pool);
+        LinkedList<Future<Chunk<T>>> inflight = new LinkedList<Future<Chunk<T>>>();
+        CSVReaders reader = new CSVReaders(file, config);
+        int first = 1;
+        try {
+            reader.open();
+            List<String[]> rows = new ArrayList<String[]>(chunk);
+            while (reader.next().hasNext()) {
+                rows.add(reader.get());
+                if (rows.size() == chunk) {
+                    inflight.add(submit(pool, completion, new Task(first, rows)));
+                    first += rows.size();
+                    rows = new ArrayList<String[]>(chunk);
+                    if (inflight.size() >= threads * 2) {
+                        deliver(completion, inflight, call);
+                    }
+                }
+            }
+            if (!rows.isEmpty()) {
+                inflight.add(submit(pool, completion, new Task(first, rows)));
+                first += rows.size();
+            }
+            while (!inflight.isEmpty()) {
+                deliver(completion, inflight, call);
+            }
+        } finally {
+            for (Future<Chunk<T>> f : inflight) {
+                f.cancel(true);
+            }
+            if (executor == null) {
+                pool.shutdownNow();
+            }
+            reader.close();
+        }
+        return first - 1;
+    }
+
+    /**
+     * バリデーションエラーの情報を取得します。
+     * @return {@link BindError}のリスト
+     */
+    public List<BindError> getBindError() {
+        return bindErrors;
+    }
+
+    /**
+     * バリデーションエラーが1レコードでも存在するかどうかを返します。
+     * @return true: バリデーションエラーあり、false:バリデーションエラーなし
+     */
+    public boolean hasError() {
+        return !bindErrors.isEmpty();
+    }
+
+    private Future<Chunk<T>> submit(ExecutorService pool, CompletionService<Chunk<T>> completion, Task task) {
+        return completion != null ? completion.submit(task) : pool.submit(task);
+    }
+
+    private void deliver(CompletionService<Chunk<T>> completion, LinkedList<Future<Chunk<T>>> inflight, BeanMappingCall<T> call) {
+        Chunk<T> c = null;
+        try {
+            if (completion != null) {
+                Future<Chunk<T>> f = completion.take();
+                inflight.remove(f);
+                c = f.get();
+            } else {
+                c = inflight.removeFirst().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalException(ParallelBeanMappingCSVReaders.class, "E-CSV#0019", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new InternalException(ParallelBeanMappingCSVReaders.class, "E-CSV#0019", e.getCause());
+        }
+        bindErrors.addAll(c.errors);
+        for (int i = 0; i < c.beans.size(); i++) {
+            T bean = c.beans.get(i);
+            if (bean != null) {
+                call.call(bean, c.first + i);
+            }
+        }
+    }
+
+    /**
+     * チャンク1つ分のマッピング結果です。
+     * @param <T> 読込対象の型
+     */
+    private static final class Chunk<T> {
+
+        private final int first;
+
+        private final List<T> beans;
+
+        private final List<BindError> errors = new ArrayList<BindError>();
+
+        private Chunk(int first, int size) {
+            this.first = first;
+            this.beans = new ArrayList<T>(size);
+        }
+    }
+
+    /**
+     * チャンク1つ分のレコードをマッピングおよびバリデーションするタスクです。
+     */
+    private final class Task implements Callable<Chunk<T>> {
+
+        private final int first;
+
+        private final List<String[]> rows;
+
+        private Task(int first, List<String[]> rows) {
+            this.first = first;
+            this.rows = rows;
+        }
+
+        @Override
+        public Chunk<T> call() {
+            // CSVToBeanMappingおよびMappingStrategyはスレッドセーフではないため、タスク毎に生成します。
+            ColumnPositionMappingStrategy<T> strategy = new ColumnPositionMappingStrategy<T>();
+            strategy.setType(type);
+            strategy.setColumnMapping(mapping);
+            CSVToBeanMapping<T> parser = new CSVToBeanMapping<T>();
+            Chunk<T> c = new Chunk<T>(first, rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                if (Thread.currentThread().isInterrupted()) break;
+                T bean = parser.parse(strategy, null, rows.get(i));
+                if (bean != null) {
+                    BeanMappingCSVReaders.validate(config, bean, first + i, c.errors);
+                }
+                c.beans.add(bean);
+            }
+            return c;
+        }
+    }
+
+}
@@ -16,6 +16,7 @@
 
 package jp.co.ctc_g.jse.core.csv.mybatis;
 
+import java.io.OutputStream;
 import java.util.ResourceBundle;
 
 import jp.co.ctc_g.jfw.core.internal.InternalMessages;
@@ -81,6 +82,21 @@ import org.slf4j.LoggerFactory;
  *   }
  * }
  * </pre>
+ * <p>
+ * 一時ファイルを作成せず、検索結果を受け取りながらレスポンスへ直接書き込む場合は、
+ * {@link #open(OutputStream, CSVConfig)}でオープンします。
+ * 出力は{@link CSVConfig#flushSize()}行毎にフラッシュされ、{@link CSVConfig#gzip()}がtrueの場合はGZIP圧縮されます。
+ * </p>
+ * <pre class="brush:java">
+ * AbstractCSVResultHandlerImpl handler = new HogeCSVResultHandler();
+ * try {
+ *   handler.open(response.getOutputStream(), CSVConfigs.config().gzip(true));
+ *   handler.header();
+ *   template.select("list", handler);
+ * } finally {
+ *   handler.close();
+ * }
+ * </pre>
  * @see CSVResultHandler
  * @author ITOCHU Techno-Solutions Corporation.
  */
@@ -143,6 +159,24 @@ public abstract class AbstractCSVResultHandlerImpl implements CSVResultHandler {
         csv = CSVs.writers(config).touch().open();
     }
 
+    /**
+     * 一時ファイルを利用せず、指定されたストリームへ直接書き込むようにオープンします。
+     * このメソッドは{@link CSVResultHandler}の既存の実装クラスとの互換性を保つため、このクラスにのみ定義されています。
+     * @param out 書込み対象のストリーム
+     */
+    public void open(OutputStream out) {
+        csv = CSVs.writers().open(out);
+    }
+
+    /**
+     * 一時ファイルを利用せず、指定されたストリームへ直接書き込むようにオープンします。
+     * @param out 書込み対象のストリーム
+     * @param config CSV出力の設定
+     */
+    public void open(OutputStream out, CSVConfig config) {
+        csv = CSVs.writers(config).open(out);
+    }
+
     /**
      * CSVのストリームを閉じます。
      * 必ずストリームをクローズするようにしてください。handler
@@ -155,6 +189,7 @@ public abstract class AbstractCSVResultHandlerImpl implements CSVResultHandler {
 
     /**
      * {@inheritDoc}
+     * ストリームへ直接書き込んだ場合はnullを返却します。
      */
     @Override
     public DownloadFile get() {
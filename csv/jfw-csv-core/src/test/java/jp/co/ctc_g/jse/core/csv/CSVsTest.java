@@ -20,6 +20,8 @@ import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -30,14 +32,23 @@ import java.io.Reader;
 import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+import javax.validation.Validation;
 
 import jp.co.ctc_g.jfw.core.internal.InternalException;
 import jp.co.ctc_g.jfw.core.util.Dates;
 import jp.co.ctc_g.jfw.test.unit.FileInitailize;
+import jp.co.ctc_g.jse.core.csv.CSVConfigs.CSVConfig;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
@@ -445,6 +456,144 @@ public class CSVsTest {
 
     }
 
+    public static class NioCSVEngineTest {
+
+        @Rule
+        public ExpectedException thrown = ExpectedException.none();
+
+        @Rule
+        public FileInitailize file = new FileInitailize(NioCSVEngineTest.class);
+
+        private CSVReaders readers;
+
+        @After
+        public void teardown() {
+            if (readers != null) {
+                readers.close();
+            }
+            file.delete();
+        }
+
+        @Test
+        public void OpenCSVと同じ結果で読み込める() throws Exception {
+            String[] files = {
+                "CSVsTest-デフォルト設定で読み込める.csv",
+                "CSVsTest-区切り文字が入り混じっていても正常に読み込める.csv",
+                "CSVsTest-区切り文字がペアでない場合.csv",
+                "CSVsTest-指定した区切り文字ではない場合.csv",
+                "CSVsTest-データの途中に改行コードがある場合.csv",
+                "CSVsTest-ヘッダ.csv",
+                "CSVsTest-値が設定されていない場合.csv",
+                "CSVsTest-特殊文字が含まれる場合.csv",
+                "CSVsTest-改行コードのみの行がある場合.csv",
+                "CSVsTest-区切り文字変更.tsv",
+                "CSVsTest-囲み文字変更.csv",
+                "CSVsTest-囲み文字の前に空白.csv",
+                "CSVsTest-囲み文字.csv"
+            };
+            CSVConfigs.CSVConfig[] configs = {
+                CSVConfigs.config(),
+                CSVConfigs.config().escape('\''),
+                CSVConfigs.config().index(1),
+                CSVConfigs.config().separator('\t'),
+                CSVConfigs.config().quote('\''),
+                CSVConfigs.config().strictQuotes(true),
+                CSVConfigs.config().whitespace(false)
+            };
+            for (String name : files) {
+                File f = file.copy(name, "temp.csv");
+                for (CSVConfigs.CSVConfig config : configs) {
+                    List<String[]> expected = readAll(CSVs.readers(f, config));
+                    assertEquals(name, expected, readAll(CSVs.readers(f, config.engine(new NioCSVEngine()))));
+                    // バッファの境界をまたぐ行も同じ結果になること
+                    assertEquals(name, expected, readAll(CSVs.readers(f, config.engine(new NioCSVEngine()).bufferSize(1))));
+                    config.engine(null).bufferSize(CSVConfigs.BUFFER_SIZE);
+                }
+                f.delete();
+            }
+        }
+
+        @Test
+        public void 行ビューで読み込める() throws Exception {
+            File f = file.copy("CSVsTest-デフォルト設定で読み込める.csv", "temp.csv");
+            readers = CSVs.readers(f, CSVConfigs.config().engine(new NioCSVEngine())).open();
+            CSVRow row = readers.next().row();
+            assertThat(readers.count(), is(1));
+            assertThat(row.size(), is(6));
+            assertThat(row.get(0).toString(), is("1"));
+            assertThat(row.get(2).length(), is(7));
+            assertThat(row.get(2).charAt(4), is('年'));
+            assertThat(row.getString(3), is("2013/12/12"));
+            readers.next();
+            assertThat(readers.hasNext(), is(false));
+        }
+
+        @Test
+        public void 解析エンジンを利用しない場合は行ビューを取得できない() throws Exception {
+            thrown.expect(InternalException.class);
+            thrown.expectMessage("解析エンジンが設定されていないため、行ビューを取得できません。");
+            File f = file.copy("CSVsTest-デフォルト設定で読み込める.csv", "temp.csv");
+            readers = CSVs.readers(f).open();
+            readers.next().row();
+        }
+
+        @Test
+        public void 解析エンジンでも長さチェックができる() throws Exception {
+            thrown.expect(InternalException.class);
+            thrown.expectMessage("指定された長さと読込行の長さが一致しません。");
+            File f = file.copy("CSVsTest-区切り文字がペアでない場合.csv", "temp.csv");
+            readers = CSVs.readers(f, CSVConfigs.config().engine(new NioCSVEngine()).check(true).length(6)).open();
+            readers.next().row();
+        }
+
+        @Test
+        public void 解析エンジンでファイルが見つからなければ例外がスローされる() {
+            thrown.expect(InternalException.class);
+            thrown.expectMessage("指定されたファイルが見つかりません。");
+            CSVs.readers("temp.csv", CSVConfigs.config().engine(new NioCSVEngine())).open();
+        }
+
+        @Test
+        public void 解析エンジンでサポートされないファイルエンコードが指定された場合は例外がスローされる() throws Exception {
+            thrown.expect(InternalException.class);
+            thrown.expectMessage("指定されたエンコードがサポートされていません。");
+            File f = file.copy("CSVsTest-デフォルト設定で読み込める.csv", "temp.csv");
+            readers = CSVs.readers(f, CSVConfigs.config().engine(new NioCSVEngine()).encode("unsupported")).open();
+        }
+
+        @Test
+        public void 解析エンジンでもドメインとして取得できる() throws Exception {
+            File f = file.copy("CSVsTest-ドメインとしての取得ができる.csv", "temp.csv");
+            BeanMappingCSVReaders<AnnotationTestBean> r = CSVs.readers(f, CSVConfigs.config().engine(new NioCSVEngine()), AnnotationTestBean.class);
+            readers = r.open();
+            r.next();
+            AnnotationTestBean bean = r.parse();
+            assertThat(bean, is(notNullValue()));
+            assertThat(r.count(), is(1));
+        }
+
+        private static List<String[]> readAll(CSVReaders r) {
+            List<String[]> rows = new ArrayList<String[]>();
+            try {
+                r.open();
+                while (r.next().hasNext()) {
+                    rows.add(r.get());
+                }
+            } finally {
+                r.close();
+            }
+            return rows;
+        }
+
+        private static void assertEquals(String message, List<String[]> expected, List<String[]> actual) {
+            assertThat(message, actual.size(), is(expected.size()));
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(message, Arrays.asList(actual.get(i)), is(Arrays.asList(expected.get(i))));
+            }
+        }
+
+    }
+
     public static class BeanMappingCSVReadersTest {
 
         @Rule
@@ -651,6 +800,208 @@ public class CSVsTest {
 
     }
 
+    public static class ParallelBeanMappingCSVReadersTest {
+
+        @Rule
+        public ExpectedException thrown = ExpectedException.none();
+
+        @Rule
+        public FileInitailize file = new FileInitailize(ParallelBeanMappingCSVReadersTest.class);
+
+        @After
+        public void teardown() {
+            file.delete();
+        }
+
+        @Test
+        public void ファイル内の順序通りにドメインを取得できる() throws Exception {
+            File f = create(2500);
+            final List<Integer> indexes = new ArrayList<Integer>();
+            final List<ParallelTestBean> beans = new ArrayList<ParallelTestBean>();
+            int count = CSVs.parallelReaders(f, CSVConfigs.config(), ParallelTestBean.class).threads(4).chunk(100)
+                .parse(new BeanMappingCall<ParallelTestBean>() {
+                    @Override
+                    public void call(ParallelTestBean bean, int index) {
+                        indexes.add(index);
+                        beans.add(bean);
+                    }
+                });
+            assertThat(count, is(2500));
+            assertThat(beans.size(), is(2500));
+            for (int i = 0; i < beans.size(); i++) {
+                assertThat(indexes.get(i), is(i + 1));
+                assertThat(beans.get(i).getId(), is(i + 1));
+                assertThat(beans.get(i).getName(), is("name" + (i + 1)));
+            }
+        }
+
+        @Test
+        public void 順序を保証せずにドメインを取得できる() throws Exception {
+            File f = create(2500);
+            final Map<Integer, ParallelTestBean> beans = new HashMap<Integer, ParallelTestBean>();
+            int count = CSVs.parallelReaders(f, CSVConfigs.config().engine(new NioCSVEngine()), ParallelTestBean.class)
+                .threads(4).chunk(64).ordered(false)
+                .parse(new BeanMappingCall<ParallelTestBean>() {
+                    @Override
+                    public void call(ParallelTestBean bean, int index) {
+                        beans.put(index, bean);
+                    }
+                });
+            assertThat(count, is(2500));
+            assertThat(beans.size(), is(2500));
+            for (Map.Entry<Integer, ParallelTestBean> e : beans.entrySet()) {
+                assertThat(e.getValue().getId(), is(e.getKey()));
+            }
+        }
+
+        @Test
+        public void バリデーションエラーの行番号がファイル内の位置と一致する() throws Exception {
+            File f = create(1000);
+            ParallelBeanMappingCSVReaders<ParallelTestBean> readers = CSVs.parallelReaders(f,
+                CSVConfigs.config().validator(Validation.buildDefaultValidatorFactory().getValidator()).template("${index}:${path}"),
+                ParallelTestBean.class);
+            readers.threads(4).chunk(10).ordered(false).parse(new BeanMappingCall<ParallelTestBean>() {
+                @Override
+                public void call(ParallelTestBean bean, int index) {}
+            });
+            assertThat(readers.hasError(), is(true));
+            List<String> messages = new ArrayList<String>();
+            for (BindError error : readers.getBindError()) {
+                messages.add(error.getMessage());
+            }
+            assertThat(messages.size(), is(10));
+            for (int i = 991; i <= 1000; i++) {
+                assertThat(messages, hasItem(i + ":id"));
+            }
+        }
+
+        @Test
+        public void 型変換でエラーになる場合は例外がスローされる() throws Exception {
+            thrown.expect(BindException.class);
+            File f = file.copy("CSVsTest-ドメインとして取得する際に型変換でエラーとなる場合.csv", "temp.csv");
+            CSVs.parallelReaders(f, CSVConfigs.config(), AnnotationTestBean.class).parse(new BeanMappingCall<AnnotationTestBean>() {
+                @Override
+                public void call(AnnotationTestBean bean, int index) {}
+            });
+        }
+
+        private File create(int rows) throws IOException {
+            File f = file.newFile("parallel.csv");
+            StringBuilder sb = new StringBuilder();
+            for (int i = 1; i <= rows; i++) {
+                sb.append(i).append(",\"name").append(i).append(i % 7 == 0 ? "\r\nnext" : "").append("\"\r\n");
+            }
+            FileUtils.writeStringToFile(f, sb.toString(), CSVConfigs.FILE_ENCODE);
+            return f;
+        }
+
+    }
+
+    public static class CSVToBeanMappingTest {
+
+        private static final String[] MAPPING = {"str", "date", "dateTime", "integer", "lng", "bigInteger", "bigDecimal"};
+
+        private ColumnPositionMappingStrategy<AnnotationTestBean> strategy() {
+            ColumnPositionMappingStrategy<AnnotationTestBean> strategy = new ColumnPositionMappingStrategy<AnnotationTestBean>();
+            strategy.setType(AnnotationTestBean.class);
+            strategy.setColumnMapping(MAPPING);
+            return strategy;
+        }
+
+        @Test
+        public void 同じマッピングで繰り返し変換できる() {
+            CSVToBeanMapping<AnnotationTestBean> parser = new CSVToBeanMapping<AnnotationTestBean>();
+            ColumnPositionMappingStrategy<AnnotationTestBean> strategy = strategy();
+            for (int i = 0; i < 3; i++) {
+                AnnotationTestBean bean = parser.parse(strategy, null, new String[] {" a ", "2013/04/05", "x", " 08 ", "9", "10", "11.5"});
+                assertThat(bean.getStr(), is(" a "));
+                assertThat(bean.getDate(), is(Dates.makeFrom(2013, 4, 5)));
+                assertThat(bean.getInteger(), is(8));
+                assertThat(bean.getLng(), is(9L));
+                assertThat(bean.getBigInteger(), is(new BigInteger("10")));
+                assertThat(bean.getBigDecimal(), is(new BigDecimal("11.5")));
+            }
+            AnnotationTestBean other = new CSVToBeanMapping<AnnotationTestBean>().parse(strategy(), null, new String[] {"b", "", "", "1"});
+            assertThat(other.getStr(), is("b"));
+            assertThat(other.getDate(), nullValue());
+            assertThat(other.getInteger(), is(1));
+        }
+
+        @Test
+        public void マッピングを変更すると対応するプロパティへ書き込まれる() {
+            CSVToBeanMapping<AnnotationTestBean> parser = new CSVToBeanMapping<AnnotationTestBean>();
+            ColumnPositionMappingStrategy<AnnotationTestBean> strategy = strategy();
+            assertThat(parser.parse(strategy, null, new String[] {"a"}).getStr(), is("a"));
+            strategy.setColumnMapping(new String[] {"dateTime", "str"});
+            AnnotationTestBean bean = parser.parse(strategy, null, new String[] {"a", "b"});
+            assertThat(bean.getDateTime(), is("a"));
+            assertThat(bean.getStr(), is("b"));
+        }
+
+        @Test
+        public void 変換エラーはカラム毎に集約される() {
+            CSVToBeanMapping<AnnotationTestBean> parser = new CSVToBeanMapping<AnnotationTestBean>();
+            try {
+                parser.parse(strategy(), null, new String[] {"a", "b", "c", "d", "e"});
+                fail();
+            } catch (BindException e) {
+                assertThat(e.getErrors().size(), is(3));
+                assertThat(e.getErrors().get(0).getFieldName(), is("date"));
+                assertThat(e.getErrors().get(1).getFieldName(), is("integer"));
+                assertThat(e.getErrors().get(2).getFieldName(), is("lng"));
+            }
+        }
+
+        @Test
+        public void 独自のマッピング戦略でも変換できる() {
+            CSVToBeanMapping<AnnotationTestBean> parser = new CSVToBeanMapping<AnnotationTestBean>();
+            ColumnPositionMappingStrategy<AnnotationTestBean> strategy = new ColumnPositionMappingStrategy<AnnotationTestBean>() {
+                @Override
+                protected String getColumnName(int col) {
+                    return col == 0 ? "integer" : null;
+                }
+            };
+            strategy.setType(AnnotationTestBean.class);
+            AnnotationTestBean bean = parser.parse(strategy, null, new String[] {"12", "x"});
+            assertThat(bean.getInteger(), is(12));
+            assertThat(bean.getStr(), nullValue());
+        }
+
+        @Test
+        public void 書込メソッドのないプロパティへのマッピングは変換エラーとなる() {
+            CSVToBeanMapping<ReadOnlyBean> parser = new CSVToBeanMapping<ReadOnlyBean>();
+            ColumnPositionMappingStrategy<ReadOnlyBean> strategy = new ColumnPositionMappingStrategy<ReadOnlyBean>();
+            strategy.setType(ReadOnlyBean.class);
+            strategy.setColumnMapping(new String[] {"name", "code"});
+            assertThat(parser.parse(strategy, null, new String[] {"a", ""}).getName(), is("a"));
+            try {
+                parser.parse(strategy, null, new String[] {"a", "b"});
+                fail();
+            } catch (BindException e) {
+                assertThat(e.getErrors().size(), is(1));
+                assertThat(e.getErrors().get(0).getFieldName(), is("code"));
+                assertThat(e.getErrors().get(0).getMessage(), containsString("code"));
+            }
+        }
+
+        public static class ReadOnlyBean {
+
+            private String name;
+
+            public String getName() {
+                return name;
+            }
+
+            public void setName(String name) {
+                this.name = name;
+            }
+
+            public String getCode() {
+                return "code";
+            }
+        }
+    }
+
     public static class CSVWritersTest {
 
         @Rule
@@ -694,6 +1045,67 @@ public class CSVsTest {
             assertThat(content, is(file.load("CSVsTest-OPEN後に書き込みできる.csv")));
         }
 
+        @Test
+        public void ストリームへ直接書き込みできる() throws Exception {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            CSVWriters writers = CSVs.writers().open(out);
+            writers.write(new String[] {
+                "いろは", "<,>", "<\t>", "<\\t>"
+            });
+            writers.write(new String[] {
+                "<'>", "<\">", "<\r\n>"
+            });
+            writers.close();
+            assertThat(writers.get(), nullValue());
+            assertThat(out.toString("MS932"), is("\"いろは\",\"<,>\",\"<\t>\",\"<\\\\t>\"\r\n\"<'>\",\"<\\\">\",\"<\r\n>\"\r\n"));
+        }
+
+        @Test
+        public void ストリームへの書込みはフラッシュ間隔毎に出力される() throws Exception {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            CSVWriters writers = CSVs.writers(CSVConfigs.config().flushSize(2)).open(out);
+            writers.write(new String[] {"1"});
+            assertThat(out.size(), is(0));
+            writers.write(new String[] {"2"});
+            assertThat(out.toString("MS932"), is("\"1\"\r\n\"2\"\r\n"));
+            writers.write(new String[] {"3"});
+            writers.close();
+            assertThat(out.toString("MS932"), is("\"1\"\r\n\"2\"\r\n\"3\"\r\n"));
+        }
+
+        @Test
+        public void ストリームへGZIP圧縮して書き込みできる() throws Exception {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            CSVWriters writers = CSVs.writers(CSVConfigs.config().encode("UTF-8").gzip(true)).open(out);
+            for (int i = 0; i < 3000; i++) {
+                writers.write(new String[] {String.valueOf(i), "テスト"});
+            }
+            writers.close();
+            Reader reader = new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), "UTF-8");
+            List<String> lines = IOUtils.readLines(reader);
+            assertThat(lines.size(), is(3000));
+            assertThat(lines.get(0), is("\"0\",\"テスト\""));
+            assertThat(lines.get(2999), is("\"2999\",\"テスト\""));
+        }
+
+        @Test
+        public void GZIP圧縮のストリームを解放しても指定されたストリームはクローズされない() throws Exception {
+            final AtomicBoolean closed = new AtomicBoolean();
+            ByteArrayOutputStream out = new ByteArrayOutputStream() {
+                @Override
+                public void close() throws IOException {
+                    closed.set(true);
+                }
+            };
+            CSVWriters writers = CSVs.writers(CSVConfigs.config().encode("UTF-8").gzip(true)).open(out);
+            writers.write(new String[] {"1", "テスト"});
+            writers.close();
+            assertThat(writers.gzip, nullValue());
+            assertThat(closed.get(), is(false));
+            Reader reader = new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), "UTF-8");
+            assertThat(IOUtils.readLines(reader).get(0), is("\"1\",\"テスト\""));
+        }
+
         @Test
         public void 区切り文字を変更して書き込みできる() throws Exception {
             CSVWriters writers = CSVs.writers(CSVConfigs.config()
@@ -732,6 +1144,83 @@ public class CSVsTest {
             assertThat(content, is(file.load("CSVsTest-囲み文字を変更して書き込みできる.csv")));
         }
 
+        @Test
+        public void エンコーダを利用してもOpenCSVと同じ内容が書き込まれる() throws Exception {
+            String[][] lines = {
+                {}, {null}, {"いろは", "<,>", "<\t>", "<\\t>"}, {"<'>", "<\">", "<\r\n>"}, {"\"\"", "\\", "", "\u0000"}
+            };
+            CSVConfig[] configs = {
+                CSVConfigs.config(),
+                CSVConfigs.config().separator('\t').escape('\"'),
+                CSVConfigs.config().quote('\'').escape('\''),
+                CSVConfigs.config().quote(CSVWriter.NO_QUOTE_CHARACTER),
+                CSVConfigs.config().escape(CSVWriter.NO_ESCAPE_CHARACTER).line("\n")
+            };
+            for (CSVConfig config : configs) {
+                ByteArrayOutputStream expected = new ByteArrayOutputStream();
+                CSVs.writers(config.encoder(null)).open(expected).writeAll(Arrays.asList(lines)).close();
+                ByteArrayOutputStream actual = new ByteArrayOutputStream();
+                CSVWriters writers = CSVs.writers(config.encoder(new DefaultCSVEncoder()).bufferSize(1)).open(actual);
+                writers.writeAll(Arrays.asList(lines)).close();
+                assertThat(writers.count(), is(lines.length));
+                assertThat(actual.toString("MS932"), is(expected.toString("MS932")));
+            }
+        }
+
+        @Test
+        public void エンコーダを利用してファイルへ書き込みできる() throws Exception {
+            CSVWriters writers = CSVs.writers(CSVConfigs.config().tempDir(file.getRoot().getAbsolutePath()).encoder(new DefaultCSVEncoder())).touch().open();
+            writers.write(new String[] {});
+            writers.write(new String[] {
+                null
+            });
+            writers.write(new String[] {
+                "いろは", "<,>", "<\t>", "<\\t>"
+            });
+            writers.write(new String[] {
+                "<'>", "<\">", "<\r\n>"
+            });
+            DownloadFile f = writers.get();
+            writers.close();
+            String content = FileUtils.readFileToString(new File(f.getTempFileName()), "MS932");
+            assertThat(content, is(file.load("CSVsTest-OPEN後に書き込みできる.csv")));
+        }
+
+        @Test
+        public void ビーンを書き込みできる() throws Exception {
+            AnnotationTestBean bean = new AnnotationTestBean();
+            bean.setStr("a\"b");
+            bean.setInteger(8);
+            bean.setLng(9L);
+            bean.setBigDecimal(new BigDecimal("11.5"));
+            List<AnnotationTestBean> beans = Arrays.asList(bean, new AnnotationTestBean());
+            String expected = "\"a\\\"b\",\"\",\"\",\"8\",\"9\",\"\",\"11.5\"\r\n\"\",\"\",\"\",\"\",\"\",\"\",\"\"\r\n";
+            ByteArrayOutputStream plain = new ByteArrayOutputStream();
+            BeanMappingCSVWriters<AnnotationTestBean> writers = CSVs.writers(CSVConfigs.config(), AnnotationTestBean.class).open(plain);
+            writers.writeBeans(beans).close();
+            assertThat(writers.count(), is(2));
+            assertThat(plain.toString("MS932"), is(expected));
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            writers = CSVs.writers(CSVConfigs.config().encoder(new DefaultCSVEncoder()), AnnotationTestBean.class).open(encoded);
+            writers.writeBeans(beans).close();
+            assertThat(writers.count(), is(2));
+            assertThat(encoded.toString("MS932"), is(expected));
+        }
+
+        @Test
+        public void ビーンの書き込み項目を指定できる() throws Exception {
+            AnnotationTestBean bean = new AnnotationTestBean();
+            bean.setStr("a");
+            bean.setInteger(1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            CSVs.writers(CSVConfigs.config().encoder(new DefaultCSVEncoder()), AnnotationTestBean.class)
+                .mapping(new String[] {"integer", "unknown", "str"})
+                .open(out)
+                .write(bean)
+                .close();
+            assertThat(out.toString("MS932"), is("\"1\",\"\",\"a\"\r\n"));
+        }
+
         @Test
         public void CSVWriterをクローズ中に例外が発生した場合は例外が変換される() throws Exception {
             thrown.expect(InternalException.class);
@@ -19,8 +19,10 @@ package jp.co.ctc_g.jse.core.csv.mybatis;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -116,6 +118,24 @@ public class AbstractCSVResultHandlerImplTest {
             assertThat(count.get(), is(75));
         }
 
+        @Test
+        @DatabaseInitialize
+        public void 検索結果をストリームへ直接出力できる() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                ((AbstractCSVResultHandlerImpl) handler).open(out, config);
+                handler.header();
+                session.select("jp.co.ctc_g.jse.core.csv.mybatis.MobilePhoneDaoImpl.listBy", new MobilePhoneCriteria(), handler);
+            } finally {
+                handler.close();
+            }
+            assertThat(handler.get(), nullValue());
+            assertThat(count.get(), is(75));
+            String[] lines = out.toString(config.encode()).split("\r\n");
+            assertThat(lines.length, is(76));
+            assertThat(lines[0], containsString("端末ID"));
+        }
+
         @Test
         @DatabaseInitialize
         public void 検索結果がないときにCSVファイルが出力できる() {
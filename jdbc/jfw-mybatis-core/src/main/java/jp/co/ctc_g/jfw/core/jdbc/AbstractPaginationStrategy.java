@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc;
+
+import jp.co.ctc_g.jfw.paginate.Paginatable;
+import jp.co.ctc_g.jfw.paginate.Paginates.Origin;
+
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * <p>
+ * このクラスは、{@link PaginationStrategy}の実装が共通して利用する機能を提供する抽象クラスです。
+ * </p>
+ * <p>
+ * トータル件数を別途問い合わせない場合、トータル件数はページの開始位置と検索結果の件数から算出されます。
+ * ページの開始位置のオリジンは{@link PartialListResultHandler}と同様に、
+ * {@link Paginatable}が利用された場合は{@link Origin#FIRST}、
+ * {@link RowBounds}が利用された場合は{@link Origin#ZERO}がデフォルトです。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see PaginationStrategy
+ * @see Origin
+ */
+public abstract class AbstractPaginationStrategy implements PaginationStrategy {
+
+    private Origin paginatableOrigin = Origin.FIRST;
+    private Origin rowBoundsOrigin = Origin.ZERO;
+
+    /**
+     * デフォルトコンストラクタです。
+     */
+    protected AbstractPaginationStrategy() {}
+
+    /**
+     * 指定されたページの開始位置より前に存在する要素の数を返却します。
+     * @param offset ページの開始位置
+     * @param origin オフセットのオリジン（0オリジン or 1オリジン）
+     * @return ページの開始位置より前に存在する要素の数
+     */
+    protected int countPreceding(int offset, Origin origin) {
+        return Math.max(offset - origin.getOrigin(), 0);
+    }
+
+    /**
+     * {@link Paginatable}が利用された場合のオリジンを返却します。
+     * @return オリジン
+     * @see Origin
+     */
+    public String getPaginatableOrigin() {
+        return paginatableOrigin.name();
+    }
+
+    /**
+     * {@link Paginatable}が利用された場合のオリジンを設定します。
+     * @param paginatableOrigin オリジン
+     * @see Origin
+     */
+    public void setPaginatableOrigin(String paginatableOrigin) {
+        this.paginatableOrigin = Origin.valueOf(paginatableOrigin);
+    }
+
+    /**
+     * {@link RowBounds}が利用された場合のオリジンを返却します。
+     * @return オリジン
+     * @see Origin
+     */
+    public String getRowBoundsOrigin() {
+        return rowBoundsOrigin.name();
+    }
+
+    /**
+     * {@link RowBounds}が利用された場合のオリジンを設定します。
+     * @param rowBoundsOrigin オリジン
+     * @see Origin
+     */
+    public void setRowBoundsOrigin(String rowBoundsOrigin) {
+        this.rowBoundsOrigin = Origin.valueOf(rowBoundsOrigin);
+    }
+
+    /**
+     * {@link Paginatable}が利用された場合のオリジンを返却します。
+     * @return オリジン
+     */
+    protected Origin paginatableOrigin() {
+        return paginatableOrigin;
+    }
+
+    /**
+     * {@link RowBounds}が利用された場合のオリジンを返却します。
+     * @return オリジン
+     */
+    protected Origin rowBoundsOrigin() {
+        return rowBoundsOrigin;
+    }
+}
@@ -0,0 +1,483 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package jp.co.ctc_g.jfw.core.jdbc;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jp.co.ctc_g.jfw.core.util.Args;
+import jp.co.ctc_g.jfw.core.util.Beans;
+import jp.co.ctc_g.jfw.core.util.Reflects;
+import jp.co.ctc_g.jfw.paginate.Paginatable;
+
+/**
+ * <p>
+ * このクラスは、ページング検索時に取得したトータル件数をキャッシュします。
+ * </p>
+ * <p>
+ * ページ遷移のたびに同じ検索条件でトータル件数取得SQLが発行されることを避けるため、
+ * {@link JxSqlSession}はこのキャッシュが設定されている場合、
+ * トータル件数取得SQLのIDと、ページング情報(オフセット、リミット、テイル)を除いた検索条件の内容をキーとして
+ * トータル件数をキャッシュします。
+ * 検索条件はJavaビーン、マップ、コレクション、配列を辿ってその値をキーに複写するため、
+ * キャッシュ後に検索条件のインスタンスが変更されてもキャッシュには影響しません。
+ * Javaビーンは{@link Beans}と同様に、読み取りメソッドを持つプロパティと<code>public</code>なインスタンスフィールドを辿ります。
+ * ただし、循環参照などにより辿る階層が深すぎる検索条件や、読み取れるプロパティを持たない検索条件はキャッシュの対象外となります。
+ * </p>
+ * <p>
+ * キャッシュされたトータル件数は、{@link #setTimeToLive(long) 生存期間}を過ぎると破棄されます。
+ * また、{@link #setMaxSize(int) 最大件数}を超えた場合は、最も長い間参照されていないものから破棄されます。
+ * {@link JxSqlSession}を介して<code>insert</code>、<code>update</code>、<code>delete</code>が実行された場合、
+ * そのSQLのIDと同じ名前空間に属するトータル件数はすべて無効になります。
+ * なお、他のアプリケーションやこのキャッシュを共有しない{@link JxSqlSession}による更新は検知できないため、
+ * 生存期間は許容できる範囲の短さに設定してください。
+ * </p>
+ * <p>
+ * このキャッシュは{@link JxSqlSessionFactoryBuilder}に設定して利用します。
+ * <pre class="brush:xml">
+ * &lt;bean id="jxSqlSessionFactoryBuilder"
+ *   class="jp.co.ctc_g.jfw.core.jdbc.JxSqlSessionFactoryBuilder"&gt;
+ *   &lt;property name="countCache"&gt;
+ *     &lt;bean class="jp.co.ctc_g.jfw.core.jdbc.CountCache"&gt;
+ *       &lt;property name="timeToLive" value="30000" /&gt;
+ *       &lt;property name="maxSize" value="500" /&gt;
+ *     &lt;/bean&gt;
+ *   &lt;/property&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ * キャッシュのヒット数、ミス数、破棄数は{@link #getHitCount()}、{@link #getMissCount()}、
+ * {@link #getEvictionCount()}により参照できます。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see JxSqlSession
+ * @see JxSqlSessionFactoryBuilder
+ */
+public class CountCache {
+
+    /**
+     * デフォルトの生存期間(ミリ秒)です。デフォルト値は<code>60000</code>です。
+     */
+    public static final long DEFAULT_TIME_TO_LIVE = 60000L;
+
+    /**
+     * デフォルトの最大件数です。デフォルト値は<code>1000</code>です。
+     */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    /**
+     * 検索条件を辿る階層の上限です。
+     */
+    protected static final int MAX_DEPTH = 8;
+
+    /**
+     * 検索条件がキャッシュの対象外であることを表します。
+     */
+    protected static final Object UNCACHEABLE = new Object();
+
+    private static final Set<String> PAGING_PROPERTIES = new HashSet<String>();
+    static {
+        PAGING_PROPERTIES.add("offset");
+        PAGING_PROPERTIES.add("limit");
+        PAGING_PROPERTIES.add("tail");
+    }
+
+    private static final ConcurrentMap<Class<?>, Member[]> READERS = new ConcurrentHashMap<Class<?>, Member[]>();
+
+    private static final Member[] UNREADABLE = new Member[0];
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+    private int maxSize = DEFAULT_MAX_SIZE;
+
+    private final Map<Key, Cached> entries = new LinkedHashMap<Key, Cached>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Cached> eldest) {
+            if (size() > maxSize) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<String, AtomicLong>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * デフォルトコンストラクタです。
+     */
+    public CountCache() {}
+
+    /**
+     * トータル件数のキャッシュキーを生成します。
+     * キーには生成時点の名前空間の世代が記録されるため、トータル件数取得SQLを発行する前に生成してください。
+     * @param statement ページング検索用SQLのID
+     * @param countStatement トータル件数取得SQLのID
+     * @param parameter 検索条件を保持しているパラメータ
+     * @return キャッシュキー。検索条件がキャッシュの対象外の場合はnull
+     */
+    public Key keyFor(String statement, String countStatement, Object parameter) {
+        Object condition = canonicalize(parameter, 0);
+        if (condition == UNCACHEABLE) return null;
+        String namespace = namespaceOf(statement);
+        return new Key(namespace, countStatement, condition, generationOf(namespace).get());
+    }
+
+    /**
+     * キャッシュされたトータル件数を返却します。
+     * @param key キャッシュキー
+     * @return トータル件数。キャッシュされていない場合、あるいは無効になっている場合はnull
+     */
+    public Integer get(Key key) {
+        Args.checkNotNull(key);
+        Cached entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && !entry.isAlive(generationOf(key.namespace).get(), System.currentTimeMillis())) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.count;
+    }
+
+    /**
+     * トータル件数をキャッシュします。
+     * キーの生成後に同じ名前空間が更新されていた場合、トータル件数はキャッシュされません。
+     * @param key キャッシュキー
+     * @param count トータル件数
+     */
+    public void put(Key key, Integer count) {
+        Args.checkNotNull(key);
+        if (count == null || key.generation != generationOf(key.namespace).get()) return;
+        long expiresAt = timeToLive > 0 ? System.currentTimeMillis() + timeToLive : Long.MAX_VALUE;
+        synchronized (entries) {
+            entries.put(key, new Cached(count, key.generation, expiresAt));
+        }
+    }
+
+    /**
+     * 指定されたSQLのIDと同じ名前空間に属するトータル件数をすべて無効にします。
+     * @param statement 更新系SQLのID
+     */
+    public void invalidate(String statement) {
+        generationOf(namespaceOf(statement)).incrementAndGet();
+    }
+
+    /**
+     * キャッシュされたトータル件数をすべて破棄します。
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * キャッシュされているトータル件数の数を返却します。
+     * 無効になったものの、まだ破棄されていないものも含みます。
+     * @return キャッシュされているトータル件数の数
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * キャッシュのヒット数を返却します。
+     * @return ヒット数
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * キャッシュのミス数を返却します。
+     * @return ミス数
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * 生存期間の経過、無効化、最大件数の超過により破棄された数を返却します。
+     * @return 破棄数
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * キャッシュのヒット率を返却します。
+     * @return ヒット率。一度も参照されていない場合は<code>0.0</code>
+     */
+    public double getHitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /**
+     * 生存期間(ミリ秒)を返却します。
+     * @return 生存期間
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * 生存期間(ミリ秒)を設定します。
+     * <code>0</code>以下の値が設定された場合、生存期間による破棄は行いません。
+     * @param timeToLive 生存期間
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * 最大件数を返却します。
+     * @return 最大件数
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * 最大件数を設定します。
+     * @param maxSize 最大件数
+     */
+    public void setMaxSize(int maxSize) {
+        Args.checkPositive(maxSize);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * SQLのIDから名前空間を取得します。
+     * @param statement SQLのID
+     * @return 名前空間。SQLのIDが名前空間を含まない場合は空文字
+     */
+    protected String namespaceOf(String statement) {
+        if (statement == null) return "";
+        int index = statement.lastIndexOf('.');
+        return index > 0 ? statement.substring(0, index) : "";
+    }
+
+    /**
+     * 検索条件の値を、キャッシュキーとして比較可能な不変の値に変換します。
+     * @param value 検索条件の値
+     * @param depth 現在の階層
+     * @return 変換された値。変換できない場合は{@link #UNCACHEABLE}
+     */
+    protected Object canonicalize(Object value, int depth) {
+        if (value == null
+                || value instanceof String
+                || value instanceof Number
+                || value instanceof Boolean
+                || value instanceof Character
+                || value instanceof Enum
+                || value instanceof Class) {
+            return value;
+        }
+        if (depth >= MAX_DEPTH) return UNCACHEABLE;
+        if (value instanceof Date) {
+            return canonical(value.getClass(), ((Date) value).getTime());
+        }
+        if (value instanceof Map) {
+            Map<Object, Object> canonical = new HashMap<Object, Object>();
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                Object v = canonicalize(e.getValue(), depth + 1);
+                if (v == UNCACHEABLE) return UNCACHEABLE;
+                canonical.put(e.getKey(), v);
+            }
+            return canonical;
+        }
+        if (value instanceof Collection) {
+            Collection<Object> canonical = value instanceof Set
+                    ? new HashSet<Object>() : new ArrayList<Object>();
+            for (Object element : (Collection<?>) value) {
+                Object v = canonicalize(element, depth + 1);
+                if (v == UNCACHEABLE) return UNCACHEABLE;
+                canonical.add(v);
+            }
+            return canonical;
+        }
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            List<Object> canonical = new ArrayList<Object>(length);
+            for (int i = 0; i < length; i++) {
+                Object v = canonicalize(Array.get(value, i), depth + 1);
+                if (v == UNCACHEABLE) return UNCACHEABLE;
+                canonical.add(v);
+            }
+            return canonical;
+        }
+        Member[] readers = readersOf(value.getClass());
+        if (readers == UNREADABLE) return UNCACHEABLE;
+        List<Object> canonical = new ArrayList<Object>(readers.length + 1);
+        canonical.add(value.getClass());
+        for (Member reader : readers) {
+            Object v = canonicalize(read(reader, value), depth + 1);
+            if (v == UNCACHEABLE) return UNCACHEABLE;
+            canonical.add(v);
+        }
+        return canonical;
+    }
+
+    private static List<Object> canonical(Object type, Object value) {
+        List<Object> canonical = new ArrayList<Object>(2);
+        canonical.add(type);
+        canonical.add(value);
+        return canonical;
+    }
+
+    private static Object read(Member reader, Object value) {
+        return reader instanceof Method
+                ? Reflects.invokeAccessible((Method) reader, value, NO_ARGUMENTS)
+                : Reflects.read((Field) reader, value);
+    }
+
+    private static Member[] readersOf(Class<?> type) {
+        Member[] readers = READERS.get(type);
+        if (readers == null) {
+            boolean paginatable = Paginatable.class.isAssignableFrom(type);
+            boolean readable = false;
+            Set<String> names = new HashSet<String>();
+            List<Member> found = new ArrayList<Member>();
+            for (PropertyDescriptor pd : Beans.findPropertyDescriptorsFor(type)) {
+                Method reader = pd.getReadMethod();
+                if (reader == null || reader.getDeclaringClass() == Object.class) continue;
+                readable = true;
+                names.add(pd.getName());
+                if (paginatable && PAGING_PROPERTIES.contains(pd.getName())) continue;
+                reader.setAccessible(true);
+                found.add(reader);
+            }
+            // Beansと同様に、読み取りメソッドを持たないpublicなインスタンスフィールドもプロパティとして扱います
+            for (Field field : type.getFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || !names.add(field.getName())) continue;
+                readable = true;
+                if (paginatable && PAGING_PROPERTIES.contains(field.getName())) continue;
+                found.add(field);
+            }
+            readers = readable ? found.toArray(new Member[found.size()]) : UNREADABLE;
+            Member[] cached = READERS.putIfAbsent(type, readers);
+            if (cached != null) readers = cached;
+        }
+        return readers;
+    }
+
+    private AtomicLong generationOf(String namespace) {
+        AtomicLong generation = generations.get(namespace);
+        if (generation == null) {
+            generation = new AtomicLong();
+            AtomicLong cached = generations.putIfAbsent(namespace, generation);
+            if (cached != null) generation = cached;
+        }
+        return generation;
+    }
+
+    /**
+     * <p>
+     * このクラスは、トータル件数のキャッシュキーです。
+     * </p>
+     * @author ITOCHU Techno-Solutions Corporation.
+     */
+    public static final class Key {
+
+        private final String namespace;
+        private final String countStatement;
+        private final Object condition;
+        private final long generation;
+        private final int hash;
+
+        private Key(String namespace, String countStatement, Object condition, long generation) {
+            this.namespace = namespace;
+            this.countStatement = countStatement;
+            this.condition = condition;
+            this.generation = generation;
+            this.hash = 31 * (countStatement != null ? countStatement.hashCode() : 0)
+                    + (condition != null ? condition.hashCode() : 0);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object another) {
+            if (this == another) return true;
+            if (!(another instanceof Key)) return false;
+            Key friend = (Key) another;
+            return hash == friend.hash
+                    && (countStatement == null ? friend.countStatement == null : countStatement.equals(friend.countStatement))
+                    && (condition == null ? friend.condition == null : condition.equals(friend.condition));
+        }
+    }
+
+    private static final class Cached {
+
+        private final Integer count;
+        private final long generation;
+        private final long expiresAt;
+
+        private Cached(Integer count, long generation, long expiresAt) {
+            this.count = count;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isAlive(long currentGeneration, long now) {
+            return generation == currentGeneration && now < expiresAt;
+        }
+    }
+}
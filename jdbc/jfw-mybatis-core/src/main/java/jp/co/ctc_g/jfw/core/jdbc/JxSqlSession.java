@@ -17,8 +17,10 @@
 package jp.co.ctc_g.jfw.core.jdbc;
 
 import java.sql.Connection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import jp.co.ctc_g.jfw.core.util.Args;
 import jp.co.ctc_g.jfw.core.util.typeconverter.TypeConverters;
@@ -43,6 +45,8 @@ import org.apache.ibatis.session.SqlSession;
  * @see PaginationEnableMatcher
  * @see CountSqlResolver
  * @see PaginatedResultHandler
+ * @see PaginationStrategy
+ * @see CountCache
  * @see Paginatable
  */
 public class JxSqlSession implements SqlSession {
@@ -52,6 +56,10 @@ public class JxSqlSession implements SqlSession {
     private PaginationEnableMatcher paginationEnableMatcher;
     private CountSqlResolver countSqlResolver;
     private PaginatedResultHandler paginatedResultHandler;
+    private PaginationStrategy paginationStrategy;
+    private CountCache countCache;
+
+    private Set<String> writtenStatements;
 
     /**
      * デフォルトコンストラクタです。
@@ -68,30 +76,88 @@ public class JxSqlSession implements SqlSession {
 
     /**
      * {@link Paginatable} を利用してページング検索をします。
+     * {@link PaginationStrategy}が設定されている場合は、ページング検索をそれに委譲します。
      * @param statement 実行するSQLのID
      * @param parameter 検索条件とページング情報を肘しているパラメータ
      * @return ページングされた検索結果
      */
     protected <E> List<E> selectListWithPaginating(String statement, Paginatable parameter) {
+        if (paginationStrategy != null) {
+            return paginationStrategy.selectList(delegate, statement, parameter, paginatedResultHandler);
+        }
         String countStatement = countSqlResolver.resolve(statement, parameter);
-        Integer count = count(countStatement, parameter);
+        Integer count = count(statement, countStatement, parameter);
         List<E> result = delegate.selectList(statement, parameter);
         return paginatedResultHandler.createPaginatedResult(countStatement, parameter, count, result);
     }
 
     /**
-     * {@link Paginatable} を利用してページング検索をします。
+     * {@link RowBounds} を利用してページング検索をします。
+     * {@link PaginationStrategy}が設定されている場合は、ページング検索をそれに委譲します。
      * @param statement 実行するSQLのID
-     * @param parameter 検索条件とページング情報を保持しているパラメータ
+     * @param parameter 検索条件を保持しているパラメータ
+     * @param rowBounds ページング境界
      * @return ページングされた検索結果
      */
     protected <E> List<E> selectListWithPaginating(String statement, Object parameter, RowBounds rowBounds) {
+        if (paginationStrategy != null) {
+            return paginationStrategy.selectList(delegate, statement, parameter, rowBounds, paginatedResultHandler);
+        }
         String countStatement = countSqlResolver.resolve(statement, parameter);
-        Integer count = count(countStatement, parameter);
+        Integer count = count(statement, countStatement, parameter);
         List<E> result = delegate.selectList(statement, parameter, rowBounds);
         return paginatedResultHandler.createPaginatedResult(countStatement, parameter, rowBounds, count, result);
     }
 
+    /**
+     * トータル件数を取得します。
+     * {@link CountCache}が設定されている場合、キャッシュされたトータル件数が有効であればそれを返却し、
+     * そうでなければ{@link #count(String, Object)}により取得したトータル件数をキャッシュします。
+     * @param statement ページング検索用SQLのID
+     * @param countStatement トータル件数取得SQLのID
+     * @param parameter 検索条件を保持しているパラメータ
+     * @return トータル件数
+     */
+    protected Integer count(String statement, String countStatement, Object parameter) {
+        if (countCache == null) {
+            return count(countStatement, parameter);
+        }
+        CountCache.Key key = countCache.keyFor(statement, countStatement, parameter);
+        if (key == null) {
+            return count(countStatement, parameter);
+        }
+        Integer count = countCache.get(key);
+        if (count == null) {
+            count = count(countStatement, parameter);
+            countCache.put(key, count);
+        }
+        return count;
+    }
+
+    /**
+     * 更新系SQLの実行をキャッシュに通知し、同じ名前空間のトータル件数を無効にします。
+     * 無効化はトランザクションの終了時にも再度行われるため、
+     * コミット前の更新結果を反映したトータル件数がキャッシュに残ることはありません。
+     * @param statement 実行した更新系SQLのID
+     */
+    protected void written(String statement) {
+        if (countCache == null) return;
+        countCache.invalidate(statement);
+        if (writtenStatements == null) writtenStatements = new HashSet<String>();
+        writtenStatements.add(statement);
+    }
+
+    /**
+     * トランザクションの終了をキャッシュに通知し、このセッションで更新した名前空間のトータル件数を無効にします。
+     */
+    protected void completed() {
+        if (countCache == null || writtenStatements == null) return;
+        for (String statement : writtenStatements) {
+            countCache.invalidate(statement);
+        }
+        writtenStatements.clear();
+    }
+
     /**
      * トータル件数を取得します。
      * @param statement 発行するSQLのID
@@ -172,6 +238,40 @@ public class JxSqlSession implements SqlSession {
         this.paginatedResultHandler = paginatedResultHandler;
     }
 
+    /**
+     * {@link PaginationStrategy}を返却します。
+     * @return {@link PaginationStrategy}
+     */
+    public PaginationStrategy getPaginationStrategy() {
+        return paginationStrategy;
+    }
+
+    /**
+     * {@link PaginationStrategy}を設定します。
+     * nullが設定された場合は、トータル件数取得SQLとページング検索用SQLを発行してページングします。
+     * @param paginationStrategy {@link PaginationStrategy}
+     */
+    public void setPaginationStrategy(PaginationStrategy paginationStrategy) {
+        this.paginationStrategy = paginationStrategy;
+    }
+
+    /**
+     * {@link CountCache}を返却します。
+     * @return {@link CountCache}
+     */
+    public CountCache getCountCache() {
+        return countCache;
+    }
+
+    /**
+     * {@link CountCache}を設定します。
+     * nullが設定された場合は、トータル件数をキャッシュしません。
+     * @param countCache {@link CountCache}
+     */
+    public void setCountCache(CountCache countCache) {
+        this.countCache = countCache;
+    }
+
     /**
      * {@link PaginationEnableMatcher}を返却します。
      * @return {@link PaginationEnableMatcher}
@@ -265,92 +365,135 @@ public class JxSqlSession implements SqlSession {
     }
 
     /**
-     * このメソッドは {@link org.apache.ibatis.session.SqlSession#insert(String)} への単純な委譲です。
+     * このメソッドは {@link org.apache.ibatis.session.SqlSession#insert(String)} への委譲です。
+     * {@link CountCache}が設定されている場合は、同じ名前空間のトータル件数を無効にします。
      * {@inheritDoc}
      */
     public int insert(String statement) {
-        return delegate.insert(statement);
+        int affected = delegate.insert(statement);
+        written(statement);
+        return affected;
     }
 
     /**
-     * このメソッドは {@link org.apache.ibatis.session.SqlSession#insert(String, Object)} への単純な委譲です。
+     * このメソッドは {@link org.apache.ibatis.session.SqlSession#insert(String, Object)} への委譲です。
+     * {@link CountCache}が設定されている場合は、同じ名前空間のトータル件数を無効にします。
      * {@inheritDoc}
      */
     public int insert(String statement, Object parameter) {
-        return delegate.insert(statement, parameter);
+        int affected = delegate.insert(statement, parameter);
+        written(statement);
+        return affected;
     }
 
     /**
-     * このメソッドは {@link org.apache.ibatis.session.SqlSession#update(String)} への単純な委譲です。
+     * このメソッドは {@link org.apache.ibatis.session.SqlSession#update(String)} への委譲です。
+     * {@link CountCache}が設定されている場合は、同じ名前空間のトータル件数を無効にします。
      * {@inheritDoc}
      */
     public int update(String statement) {
-        return delegate.update(statement);
+        int affected = delegate.update(statement);
+        written(statement);
+        return affected;
     }
 
     /**
-     * このメソッドは {@link org.apache.ibatis.session.SqlSession#update(String, Object)} への単純な委譲です。
+     * このメソッドは {@link org.apache.ibatis.session.SqlSession#update(String, Object)} への委譲です。
+     * {@link CountCache}が設定されている場合は、同じ名前空間のトータル件数を無効にします。
      * {@inheritDoc}
      */
     public int update(String statement, Object parameter) {
-        return delegate.update(statement, parameter);
+        int affected = delegate.update(statement, parameter);
+        written(statement);
+        return affected;
     }
 
     /**
-     * このメソッドは {@link org.apache.ibatis.session.SqlSession#delete(String)} への単純な委譲です。
+     * このメソッドは {@link org.apache.ibatis.session.SqlSession#delete(String)} への委譲です。
+     * {@link CountCache}が設定されている場合は、同じ名前空間のトータル件数を無効にします。
      * {@inheritDoc}
      */
     public int delete(String statement) {
-        return delegate.delete(statement);
+        int affected = delegate.delete(statement);
+        written(statement);
+        return affected;
     }
 
     /**
-     * このメソッドは {@link org.apache.ibatis.session.SqlSession#delete(String, Object)} への単純な委譲です。
+     * このメソッドは {@link org.apache.ibatis.session.SqlSession#delete(String, Object)} への委譲です。
+     * {@link CountCache}が設定されている場合は、同じ名前空間のトータル件数を無効にします。
      * {@inheritDoc}
      */
     public int delete(String statement, Object parameter) {
-        return delegate.delete(statement, parameter);
+        int affected = delegate.delete(statement, parameter);
+        written(statement);
+        return affected;
     }
 
 
     /**
-     * このメソッドは {@link org.apache.ibatis.session.SqlSession#commit()} への単純な委譲です。
+     * このメソッドは {@link org.apache.ibatis.session.SqlSession#commit()} への委譲です。
+     * {@link CountCache}が設定されている場合は、このセッションで更新した名前空間のトータル件数を無効にします。
      * {@inheritDoc}
      */
     public void commit() {
-        delegate.commit();
+        try {
+            delegate.commit();
+        } finally {
+            completed();
+        }
     }
 
     /**
-     * このメソッドは {@link org.apache.ibatis.session.SqlSession#commit(boolean)} への単純な委譲です。
+     * このメソッドは {@link org.apache.ibatis.session.SqlSession#commit(boolean)} への委譲です。
+     * {@link CountCache}が設定されている場合は、このセッションで更新した名前空間のトータル件数を無効にします。
      * {@inheritDoc}
      */
     public void commit(boolean force) {
-        delegate.commit(force);
+        try {
+            delegate.commit(force);
+        } finally {
+            completed();
+        }
     }
 
     /**
-     * このメソッドは {@link org.apache.ibatis.session.SqlSession#rollback()} への単純な委譲です。
+     * このメソッドは {@link org.apache.ibatis.session.SqlSession#rollback()} への委譲です。
+     * {@link CountCache}が設定されている場合は、このセッションで更新した名前空間のトータル件数を無効にします。
      * {@inheritDoc}
      */
     public void rollback() {
-        delegate.rollback();
+        try {
+            delegate.rollback();
+        } finally {
+            completed();
+        }
     }
 
     /**
-     * このメソッドは {@link org.apache.ibatis.session.SqlSession#rollback(boolean)} への単純な委譲です。
+     * このメソッドは {@link org.apache.ibatis.session.SqlSession#rollback(boolean)} への委譲です。
+     * {@link CountCache}が設定されている場合は、このセッションで更新した名前空間のトータル件数を無効にします。
      * {@inheritDoc}
      */
     public void rollback(boolean force) {
-        delegate.rollback(force);
+        try {
+            delegate.rollback(force);
+        } finally {
+            completed();
+        }
     }
 
     /**
-     * このメソッドは {@link org.apache.ibatis.session.SqlSession#close()} への単純な委譲です。
+     * このメソッドは {@link org.apache.ibatis.session.SqlSession#close()} への委譲です。
+     * {@link CountCache}が設定されている場合は、このセッションで更新した名前空間のトータル件数を無効にします。
      * {@inheritDoc}
      */
     public void close() {
-        delegate.close();
+        try {
+            delegate.close();
+        } finally {
+            completed();
+        }
     }
 
     /**
@@ -44,6 +44,8 @@ public class JxSqlSessionFactory implements SqlSessionFactory {
     private PaginationEnableMatcher paginationEnableMatcher;
     private CountSqlResolver countSqlResolver;
     private PaginatedResultHandler paginatedResultHandler;
+    private PaginationStrategy paginationStrategy;
+    private CountCache countCache;
 
     /**
      * デフォルトコンストラクタです。
@@ -68,6 +70,8 @@ public class JxSqlSessionFactory implements SqlSessionFactory {
         jxsession.setPaginationEnableMatcher(paginationEnableMatcher);
         jxsession.setCountSqlResolver(countSqlResolver);
         jxsession.setPaginatedResultHandler(paginatedResultHandler);
+        jxsession.setPaginationStrategy(paginationStrategy);
+        jxsession.setCountCache(countCache);
         return jxsession;
     }
 
@@ -206,4 +210,38 @@ public class JxSqlSessionFactory implements SqlSessionFactory {
     public void setPaginationEnableMatcher(PaginationEnableMatcher paginationEnableMatcher) {
         this.paginationEnableMatcher = paginationEnableMatcher;
     }
+
+    /**
+     * {@link PaginationStrategy}を返却します。
+     * @return {@link PaginationStrategy}
+     */
+    public PaginationStrategy getPaginationStrategy() {
+        return paginationStrategy;
+    }
+
+    /**
+     * {@link PaginationStrategy}を設定します。
+     * nullが設定された場合は、トータル件数取得SQLとページング検索用SQLを発行してページングします。
+     * @param paginationStrategy {@link PaginationStrategy}
+     */
+    public void setPaginationStrategy(PaginationStrategy paginationStrategy) {
+        this.paginationStrategy = paginationStrategy;
+    }
+
+    /**
+     * {@link CountCache}を返却します。
+     * @return {@link CountCache}
+     */
+    public CountCache getCountCache() {
+        return countCache;
+    }
+
+    /**
+     * {@link CountCache}を設定します。
+     * nullが設定された場合は、トータル件数をキャッシュしません。
+     * @param countCache {@link CountCache}
+     */
+    public void setCountCache(CountCache countCache) {
+        this.countCache = countCache;
+    }
 }
@@ -24,12 +24,14 @@ import org.apache.ibatis.session.SqlSessionFactoryBuilder;
  * <p>
  * このクラスは、J-Frameworkにより拡張された{@link SqlSessionFactoryBuilder}です。
  * {@link JxSqlSessionFactory}に対して{@link PaginationEnableMatcher}、
- * {@link CountSqlResolver}、{@link PaginatedResultHandler}を設定します。
+ * {@link CountSqlResolver}、{@link PaginatedResultHandler}、{@link PaginationStrategy}、{@link CountCache}を設定します。
  * </p>
  * @author ITOCHU Techno-Solutions Corporation.
  * @see JxSqlSession
  * @see JxSqlSessionFactory
  * @see PaginatedResultHandler
+ * @see PaginationStrategy
+ * @see CountCache
  * @see PaginationEnableMatcher
  * @see CountSqlResolver
  */
@@ -38,6 +40,8 @@ public class JxSqlSessionFactoryBuilder extends SqlSessionFactoryBuilder {
     private PaginationEnableMatcher paginationEnableMatcher = new DefaultPaginationEnableMatcher();
     private CountSqlResolver countSqlResolver = new DefaultCountSqlResolver();
     private PaginatedResultHandler paginatedResultHandler = new PartialListResultHandler();
+    private PaginationStrategy paginationStrategy;
+    private CountCache countCache;
 
     /**
      * デフォルトコンストラクタです。
@@ -56,6 +60,8 @@ public class JxSqlSessionFactoryBuilder extends SqlSessionFactoryBuilder {
         factory.setPaginationEnableMatcher(paginationEnableMatcher);
         factory.setCountSqlResolver(countSqlResolver);
         factory.setPaginatedResultHandler(paginatedResultHandler);
+        factory.setPaginationStrategy(paginationStrategy);
+        factory.setCountCache(countCache);
         return factory;
     }
 
@@ -108,4 +114,38 @@ public class JxSqlSessionFactoryBuilder extends SqlSessionFactoryBuilder {
             PaginatedResultHandler paginatedResultHandler) {
         this.paginatedResultHandler = paginatedResultHandler;
     }
+
+    /**
+     * {@link PaginationStrategy}を返却します。
+     * @return {@link PaginationStrategy}
+     */
+    public PaginationStrategy getPaginationStrategy() {
+        return paginationStrategy;
+    }
+
+    /**
+     * {@link PaginationStrategy}を設定します。
+     * デフォルトはnullであり、その場合は、トータル件数取得SQLとページング検索用SQLを発行してページングします。
+     * @param paginationStrategy {@link PaginationStrategy}
+     */
+    public void setPaginationStrategy(PaginationStrategy paginationStrategy) {
+        this.paginationStrategy = paginationStrategy;
+    }
+
+    /**
+     * {@link CountCache}を返却します。
+     * @return {@link CountCache}
+     */
+    public CountCache getCountCache() {
+        return countCache;
+    }
+
+    /**
+     * {@link CountCache}を設定します。
+     * nullが設定された場合は、トータル件数をキャッシュしません。
+     * @param countCache {@link CountCache}
+     */
+    public void setCountCache(CountCache countCache) {
+        this.countCache = countCache;
+    }
 }
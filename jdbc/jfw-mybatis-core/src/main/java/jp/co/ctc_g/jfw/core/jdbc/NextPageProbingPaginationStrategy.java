@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jp.co.ctc_g.jfw.paginate.Paginatable;
+
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+
+/**
+ * <p>
+ * このクラスは、トータル件数を取得せずに、次ページの有無のみを判定する{@link PaginationStrategy}の実装です。
+ * </p>
+ * <p>
+ * ページング検索用SQLをリミットより1件多く検索し、リミットを超えた要素が存在すれば次ページが存在すると判定します。
+ * トータル件数取得SQLは発行されないため、データベースへの問い合わせは1回になり、
+ * トータル件数取得SQL(<code>::count</code>)を定義する必要もありません。
+ * {@link Paginatable}が利用された場合は、検索中のみリミットと終了位置を1つずつ増やしてからSQLを発行しますので、
+ * ページング検索用SQLは従来通り<code>#{limit}</code>や<code>#{tail}</code>を利用して記述してください。
+ * </p>
+ * <p>
+ * 加工された検索結果の{@link jp.co.ctc_g.jfw.core.util.PartialList#getElementCount() elementCount}は、
+ * 次ページが存在しない場合は正確なトータル件数に、
+ * 次ページが存在する場合は現在のページまでの件数に1を加えた値になります。
+ * よって、{@link jp.co.ctc_g.jfw.core.util.PartialList#getPartCount() partCount}は、
+ * 次ページが存在する場合は現在のページのインデクスに1を加えた値となり、
+ * ページングタグライブラリは「次へ」のリンクを表示することができます。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see PaginationStrategy
+ * @see JxSqlSessionFactoryBuilder#setPaginationStrategy(PaginationStrategy)
+ */
+public class NextPageProbingPaginationStrategy extends AbstractPaginationStrategy {
+
+    /**
+     * デフォルトコンストラクタです。
+     */
+    public NextPageProbingPaginationStrategy() {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> List<E> selectList(SqlSession session, String statement, Paginatable parameter, PaginatedResultHandler handler) {
+        int limit = parameter.getLimit();
+        List<E> result;
+        if (limit == Integer.MAX_VALUE) {
+            result = session.selectList(statement, parameter);
+        } else {
+            int tail = parameter.getTail();
+            parameter.setLimit(limit + 1);
+            parameter.setTail(tail + 1);
+            try {
+                result = session.selectList(statement, parameter);
+            } finally {
+                parameter.setLimit(limit);
+                parameter.setTail(tail);
+            }
+        }
+        int total = countPreceding(parameter.getOffset(), paginatableOrigin()) + result.size();
+        return handler.createPaginatedResult(statement, parameter, total, trim(result, limit));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> List<E> selectList(SqlSession session, String statement, Object parameter, RowBounds rowBounds, PaginatedResultHandler handler) {
+        int limit = rowBounds.getLimit();
+        RowBounds probe = limit == RowBounds.NO_ROW_LIMIT ? rowBounds : new RowBounds(rowBounds.getOffset(), limit + 1);
+        List<E> result = session.selectList(statement, parameter, probe);
+        int total = countPreceding(rowBounds.getOffset(), rowBoundsOrigin()) + result.size();
+        return handler.createPaginatedResult(statement, parameter, rowBounds, total, trim(result, limit));
+    }
+
+    /**
+     * 次ページの有無の判定のために余分に検索した要素を取り除きます。
+     * @param result 検索結果
+     * @param limit リミット
+     * @return リミットを超えた要素を取り除いた検索結果
+     * @param <E> 検索結果の型
+     */
+    protected <E> List<E> trim(List<E> result, int limit) {
+        return result.size() > limit ? new ArrayList<E>(result.subList(0, limit)) : result;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc;
+
+import java.util.List;
+
+import jp.co.ctc_g.jfw.paginate.Paginatable;
+
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+
+/**
+ * <p>
+ * このインタフェースは、ページング検索の実行方法を表現します。
+ * </p>
+ * <p>
+ * {@link JxSqlSession}は、デフォルトではトータル件数取得SQL({@link CountSqlResolver}により解決されます)と
+ * ページング検索用SQLの2つのSQLを発行してページングします。
+ * このインタフェースの実装を設定すると、ページング検索はその実装に委譲されるため、
+ * トータル件数を同じSQLで取得したり、トータル件数の取得そのものを省略したりすることで、
+ * データベースへの問い合わせを1回にすることができます。
+ * フレームワークは以下の実装を提供しています。
+ * </p>
+ * <ul>
+ * <li>{@link WindowCountPaginationStrategy} : ウィンドウ関数(<code>COUNT(*) OVER()</code>)の結果からトータル件数を取得します</li>
+ * <li>{@link NextPageProbingPaginationStrategy} : 1件多く検索し、次ページの有無のみを判定します</li>
+ * </ul>
+ * <p>
+ * このインタフェースを実装したクラスは主として {@link JxSqlSession} から利用されますが、
+ * 設定は {@link JxSqlSessionFactoryBuilder} に対して行ないます。
+ * </p>
+ * <pre class="brush:xml">
+ * &lt;bean id="jxSqlSessionFactoryBuilder"
+ *   class="jp.co.ctc_g.jfw.core.jdbc.JxSqlSessionFactoryBuilder"&gt;
+ *   &lt;property name="paginationStrategy"&gt;
+ *     &lt;bean class="jp.co.ctc_g.jfw.core.jdbc.NextPageProbingPaginationStrategy" /&gt;
+ *   &lt;/property&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see JxSqlSession
+ * @see JxSqlSessionFactoryBuilder
+ * @see PaginatedResultHandler
+ */
+public interface PaginationStrategy {
+
+    /**
+     * {@link Paginatable} を利用してページング検索をします。
+     * @param session 検索に利用するSqlSession
+     * @param statement 実行するSQLのID
+     * @param parameter 検索条件とページング情報を保持しているパラメータ
+     * @param handler 検索結果を加工する{@link PaginatedResultHandler}
+     * @return ページングされた検索結果
+     * @param <E> 検索結果の型
+     */
+    <E> List<E> selectList(SqlSession session, String statement, Paginatable parameter, PaginatedResultHandler handler);
+
+    /**
+     * {@link RowBounds} を利用してページング検索をします。
+     * @param session 検索に利用するSqlSession
+     * @param statement 実行するSQLのID
+     * @param parameter 検索条件を保持しているパラメータ
+     * @param rowBounds ページング境界
+     * @param handler 検索結果を加工する{@link PaginatedResultHandler}
+     * @return ページングされた検索結果
+     * @param <E> 検索結果の型
+     */
+    <E> List<E> selectList(SqlSession session, String statement, Object parameter, RowBounds rowBounds, PaginatedResultHandler handler);
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc;
+
+import java.util.List;
+import java.util.Map;
+
+import jp.co.ctc_g.jfw.core.util.Args;
+import jp.co.ctc_g.jfw.core.util.Beans;
+import jp.co.ctc_g.jfw.core.util.typeconverter.TypeConverters;
+import jp.co.ctc_g.jfw.paginate.Paginatable;
+
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+
+/**
+ * <p>
+ * このクラスは、ページング検索用SQLに含まれるウィンドウ関数の結果からトータル件数を取得する{@link PaginationStrategy}の実装です。
+ * </p>
+ * <p>
+ * ページング検索用SQLの選択リストに<code>COUNT(*) OVER()</code>を追加すると、
+ * 各行にページングする前のトータル件数が格納されます。
+ * この実装は、検索結果の先頭要素から{@link #setCountProperty(String) カウントプロパティ}の値を読み取り、トータル件数とします。
+ * トータル件数取得SQLは発行されないため、データベースへの問い合わせは1回になり、検索条件の評価も1回で済みます。
+ * </p>
+ * <pre class="brush:xml">
+ * &lt;select id="listFooWithPaginating" parameterType="FooCriteria" resultType="Foo"&gt;
+ *   select
+ *     f.*, count(*) over() as total_count
+ *   from
+ *     FOO f
+ *   order by f.ID
+ *   limit #{limit} offset #{offset}
+ * &lt;/select&gt;
+ * </pre>
+ * <p>
+ * 検索結果の要素がJavaビーンの場合はカウントプロパティの値を読み取ります。
+ * 要素が{@link Map}の場合はカウントプロパティと同じ名前のキーの値を読み取りますが、
+ * 見つからない場合は大文字小文字とアンダースコアを無視して一致するキーの値を読み取ります
+ * (つまり、デフォルトの<code>totalCount</code>は<code>TOTAL_COUNT</code>にも一致します)。
+ * </p>
+ * <p>
+ * 検索結果が空の場合や、カウントプロパティの値が取得できない場合は、
+ * ページの開始位置と検索結果の件数から算出した件数をトータル件数とします。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see PaginationStrategy
+ * @see JxSqlSessionFactoryBuilder#setPaginationStrategy(PaginationStrategy)
+ */
+public class WindowCountPaginationStrategy extends AbstractPaginationStrategy {
+
+    /**
+     * デフォルトのカウントプロパティです。デフォルト値は<code>totalCount</code>です。
+     */
+    public static final String DEFAULT_COUNT_PROPERTY = "totalCount";
+
+    private String countProperty = DEFAULT_COUNT_PROPERTY;
+
+    /**
+     * デフォルトコンストラクタです。
+     */
+    public WindowCountPaginationStrategy() {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> List<E> selectList(SqlSession session, String statement, Paginatable parameter, PaginatedResultHandler handler) {
+        List<E> result = session.selectList(statement, parameter);
+        int total = count(result, countPreceding(parameter.getOffset(), paginatableOrigin()));
+        return handler.createPaginatedResult(statement, parameter, total, result);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> List<E> selectList(SqlSession session, String statement, Object parameter, RowBounds rowBounds, PaginatedResultHandler handler) {
+        List<E> result = session.selectList(statement, parameter, rowBounds);
+        int total = count(result, countPreceding(rowBounds.getOffset(), rowBoundsOrigin()));
+        return handler.createPaginatedResult(statement, parameter, rowBounds, total, result);
+    }
+
+    /**
+     * 検索結果からトータル件数を取得します。
+     * @param result 検索結果
+     * @param preceding ページの開始位置より前に存在する要素の数
+     * @return トータル件数
+     */
+    protected int count(List<?> result, int preceding) {
+        if (result.isEmpty() || result.get(0) == null) return preceding + result.size();
+        Object value = read(result.get(0));
+        if (value == null) return preceding + result.size();
+        Integer count = TypeConverters.convert(value, Integer.class);
+        return Args.proper(count, 0);
+    }
+
+    private Object read(Object element) {
+        if (!(element instanceof Map)) return Beans.readPropertyValueNamed(countProperty, element);
+        Map<?, ?> row = (Map<?, ?>) element;
+        Object value = row.get(countProperty);
+        if (value != null) return value;
+        String expected = normalize(countProperty);
+        for (Map.Entry<?, ?> e : row.entrySet()) {
+            if (e.getKey() != null && expected.equalsIgnoreCase(normalize(e.getKey().toString()))) return e.getValue();
+        }
+        return null;
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "");
+    }
+
+    /**
+     * カウントプロパティを返却します。
+     * @return カウントプロパティ
+     */
+    public String getCountProperty() {
+        return countProperty;
+    }
+
+    /**
+     * カウントプロパティを設定します。
+     * @param countProperty カウントプロパティ
+     */
+    public void setCountProperty(String countProperty) {
+        this.countProperty = Args.proper(countProperty, DEFAULT_COUNT_PROPERTY);
+    }
+}
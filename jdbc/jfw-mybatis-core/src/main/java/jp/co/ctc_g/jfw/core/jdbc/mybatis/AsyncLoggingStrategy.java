@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc.mybatis;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jp.co.ctc_g.jfw.core.util.Args;
+
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * <p>
+ * SQLのログ出力を専用のスレッドで非同期に実行する{@link LoggingStrategy}の実装です。
+ * </p>
+ * <p>
+ * {@link DefaultLoggingStrategy}はクエリ実行スレッドでSQLを組み立て、ログを出力するため、
+ * アペンダの出力が遅い場合にはその時間がそのままクエリの応答時間に加算されます。
+ * このクラスはログ出力要求を固定長のリングバッファ({@link ArrayBlockingQueue})に格納し、
+ * 単一のログ出力スレッドが委譲先の{@link LoggingStrategy}にログを出力します。
+ * {@link QueryLogger}と組み合わせた場合、SQL文の組み立て({@link DeferredQuery#render()})もログ出力スレッドで実行されます。
+ * </p>
+ * <h3>利用方法</h3>
+ * <p>
+ * {@link QueryLoggingInterceptor}は{@link LoggingStrategy}型のBeanを利用するため、以下のように定義します。
+ * </p>
+ * <pre>
+ * &lt;bean id=&quot;loggingStrategy&quot; class=&quot;jp.co.ctc_g.jfw.core.jdbc.mybatis.AsyncLoggingStrategy&quot;&gt;
+ *     &lt;property name=&quot;delegate&quot;&gt;
+ *         &lt;bean class=&quot;jp.co.ctc_g.jfw.core.jdbc.mybatis.DefaultLoggingStrategy&quot;&gt;
+ *             &lt;constructor-arg value=&quot;DEBUG&quot; /&gt;
+ *         &lt;/bean&gt;
+ *     &lt;/property&gt;
+ *     &lt;property name=&quot;capacity&quot; value=&quot;4096&quot; /&gt;
+ *     &lt;property name=&quot;overflowPolicy&quot; value=&quot;SAMPLE&quot; /&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ * <h3>バッファが溢れた場合の振る舞い</h3>
+ * <p>
+ * {@link OverflowPolicy}で指定します。デフォルトは{@link OverflowPolicy#DROP}です。
+ * 破棄したログの件数は{@link #getDroppedCount()}で取得できます。
+ * </p>
+ * <p>
+ * アプリケーションの終了時({@link #destroy()})には、バッファに残っているログをすべて出力してからログ出力スレッドを停止します。
+ * 停止後、あるいは停止と競合したログ出力要求は、破棄せずにクエリ実行スレッドで出力します。
+ * {@link OverflowPolicy#BLOCK}で待機しているクエリ実行スレッドも、停止を検知すると待機をやめて自スレッドで出力します。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see QueryLogger
+ */
+public class AsyncLoggingStrategy implements LoggingStrategy, DisposableBean {
+
+    /**
+     * バッファが溢れた場合の振る舞いです。
+     */
+    public enum OverflowPolicy {
+        /** バッファに空きがない場合はログを破棄します。 */
+        DROP,
+        /** バッファに空きができるまでクエリ実行スレッドを待機させます。 */
+        BLOCK,
+        /** バッファの使用量が半分を超えた場合は{@link AsyncLoggingStrategy#setSampleInterval(int) 一定間隔}でのみログを受け付け、それ以外は破棄します。 */
+        SAMPLE
+    }
+
+    /** バッファの容量のデフォルト値です。 */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /** {@link OverflowPolicy#SAMPLE}でログを受け付ける間隔のデフォルト値です。 */
+    public static final int DEFAULT_SAMPLE_INTERVAL = 10;
+
+    private static final long POLL_MILLIS = 100L;
+
+    private static final long SHUTDOWN_MILLIS = 10000L;
+
+    private LoggingStrategy delegate = new DefaultLoggingStrategy();
+
+    private int capacity = DEFAULT_CAPACITY;
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+    private int sampleInterval = DEFAULT_SAMPLE_INTERVAL;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong sampled = new AtomicLong();
+
+    private volatile BlockingQueue<Object> queue;
+
+    private volatile boolean running;
+
+    private Thread consumer;
+
+    /**
+     * デフォルトコンストラクタです。
+     * {@link DefaultLoggingStrategy}に委譲します。
+     */
+    public AsyncLoggingStrategy() {}
+
+    /**
+     * コンストラクタです。
+     * @param delegate 委譲先の{@link LoggingStrategy}
+     */
+    public AsyncLoggingStrategy(LoggingStrategy delegate) {
+        setDelegate(delegate);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * 組み立て済みのSQL文をバッファに格納します。
+     * </p>
+     */
+    @Override
+    public void log(String sql) {
+        enqueue(sql);
+    }
+
+    /**
+     * SQL文の組み立てを遅延させたログ出力要求をバッファに格納します。
+     * {@link DeferredQuery#render()}はログ出力スレッドで呼び出されます。
+     * @param query SQL文の組み立てを遅延させたログ出力要求
+     */
+    public void log(DeferredQuery query) {
+        enqueue(query);
+    }
+
+    /**
+     * ログ出力が有効かどうかを返却します。
+     * 委譲先が{@link DefaultLoggingStrategy}の場合はそのログレベルが有効かどうか、それ以外の場合は常に{@code true}を返却します。
+     * @return ログ出力が有効な場合は{@code true}
+     */
+    public boolean isEnabled() {
+        return !(delegate instanceof DefaultLoggingStrategy) || ((DefaultLoggingStrategy) delegate).isEnabled();
+    }
+
+    private void enqueue(Object entry) {
+        BlockingQueue<Object> q = start();
+        if (!running) {
+            // 停止後はクエリ実行スレッドで出力します
+            write(entry);
+            return;
+        }
+        offer(q, entry);
+        if (!running) {
+            // 格納と停止が競合した場合はログ出力スレッドが既に終了している可能性があるため、
+            // バッファに残っているログをクエリ実行スレッドで出力します
+            drain(q);
+        }
+    }
+
+    private void offer(BlockingQueue<Object> q, Object entry) {
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    while (!q.offer(entry, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                        if (!running) {
+                            // 停止後はバッファに空きができる保証がないため、クエリ実行スレッドで出力します
+                            write(entry);
+                            break;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.incrementAndGet();
+                }
+                break;
+            case SAMPLE:
+                if (q.size() * 2 >= capacity && sampled.incrementAndGet() % sampleInterval != 0) {
+                    dropped.incrementAndGet();
+                    break;
+                }
+                if (!q.offer(entry)) {
+                    dropped.incrementAndGet();
+                }
+                break;
+            case DROP:
+            default:
+                if (!q.offer(entry)) {
+                    dropped.incrementAndGet();
+                }
+                break;
+        }
+    }
+
+    private BlockingQueue<Object> start() {
+        BlockingQueue<Object> q = queue;
+        if (q != null) return q;
+        synchronized (this) {
+            if (queue == null) {
+                final BlockingQueue<Object> created = new ArrayBlockingQueue<Object>(capacity);
+                running = true;
+                consumer = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        consume(created);
+                    }
+                }, "jfw-query-logger");
+                consumer.setDaemon(true);
+                consumer.start();
+                queue = created;
+            }
+            return queue;
+        }
+    }
+
+    private void consume(BlockingQueue<Object> q) {
+        while (running || !q.isEmpty()) {
+            Object entry;
+            try {
+                entry = q.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // 停止要求を受けた場合は、残りのログを出力してから終了します
+                running = false;
+                continue;
+            }
+            if (entry != null) {
+                write(entry);
+            }
+        }
+    }
+
+    private void drain(BlockingQueue<Object> q) {
+        Object entry;
+        while ((entry = q.poll()) != null) {
+            write(entry);
+        }
+    }
+
+    private void write(Object entry) {
+        try {
+            String sql = entry instanceof DeferredQuery ? ((DeferredQuery) entry).render() : (String) entry;
+            delegate.log(sql);
+        } catch (RuntimeException e) {
+            // ログ出力の失敗によってログ出力スレッドを停止させません
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * バッファに残っているログをすべて出力し、ログ出力スレッドを停止します。
+     * </p>
+     */
+    @Override
+    public void destroy() throws Exception {
+        Thread t;
+        synchronized (this) {
+            t = consumer;
+            running = false;
+        }
+        if (t != null) {
+            t.join(SHUTDOWN_MILLIS);
+            if (!t.isAlive()) {
+                drain(queue);
+            }
+        }
+    }
+
+    /**
+     * バッファが溢れた、あるいはログ出力に失敗したことにより破棄したログの件数を返却します。
+     * @return 破棄したログの件数
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * 出力待ちのログの件数を返却します。
+     * @return 出力待ちのログの件数
+     */
+    public int getQueueSize() {
+        BlockingQueue<Object> q = queue;
+        return q != null ? q.size() : 0;
+    }
+
+    /**
+     * 委譲先の{@link LoggingStrategy}を設定します。
+     * @param delegate 委譲先の{@link LoggingStrategy}
+     */
+    public void setDelegate(LoggingStrategy delegate) {
+        Args.checkNotNull(delegate);
+        this.delegate = delegate;
+    }
+
+    /**
+     * バッファの容量を設定します。
+     * ログ出力スレッドの開始後に変更しても反映されません。
+     * デフォルトは{@value #DEFAULT_CAPACITY}です。
+     * @param capacity バッファの容量
+     */
+    public synchronized void setCapacity(int capacity) {
+        Args.checkPositive(capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * バッファが溢れた場合の振る舞いを設定します。
+     * @param overflowPolicy バッファが溢れた場合の振る舞い
+     */
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        Args.checkNotNull(overflowPolicy);
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * {@link OverflowPolicy#SAMPLE}でログを受け付ける間隔を設定します。
+     * デフォルトは{@value #DEFAULT_SAMPLE_INTERVAL}で、バッファの使用量が半分を超えている間は10件に1件のみ受け付けます。
+     * @param sampleInterval ログを受け付ける間隔
+     */
+    public void setSampleInterval(int sampleInterval) {
+        Args.checkPositive(sampleInterval);
+        this.sampleInterval = sampleInterval;
+    }
+}
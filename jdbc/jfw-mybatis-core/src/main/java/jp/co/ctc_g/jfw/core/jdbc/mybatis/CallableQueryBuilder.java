@@ -48,9 +48,8 @@ public class CallableQueryBuilder extends PlaceholderQueryBuilder implements Que
 
     @Override
     public String build(QueryInformation queryInformation) {
-        List<Object> parameterList = createParameterList(queryInformation) ;
-        String query = replacePlaceholder(queryInformation.getCallableQuery(), parameterList);
-        return normalized(query);
+        List<Object> parameterList = createParameterList(queryInformation);
+        return render(queryInformation, queryInformation.getCallableQuery(), parameterList);
     }
 
     @Override
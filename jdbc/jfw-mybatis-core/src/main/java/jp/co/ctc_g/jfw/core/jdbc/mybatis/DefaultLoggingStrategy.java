@@ -124,6 +124,29 @@ public class DefaultLoggingStrategy implements LoggingStrategy {
         this.logLevel = DEFAULT_LOG_LEVEL;
     }
 
+    /**
+     * 設定されたログレベルでログ出力が有効かどうかを返却します。
+     * {@link QueryLoggingInterceptor}はこの結果が{@code false}の場合、SQLの組み立て自体を省略します。
+     * @return ログ出力が有効な場合は{@code true}
+     */
+    public boolean isEnabled() {
+        switch(this.logLevel) {
+            case TRACE:
+                return log.isTraceEnabled();
+            case DEBUG:
+                return log.isDebugEnabled();
+            case WARN:
+                return log.isWarnEnabled();
+            case ERROR:
+                return log.isErrorEnabled();
+            case FATAL:
+                return log.isFatalEnabled();
+            case INFO:
+            default:
+                return log.isInfoEnabled();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
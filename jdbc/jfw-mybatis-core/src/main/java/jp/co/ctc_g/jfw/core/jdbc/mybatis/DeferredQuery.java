@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc.mybatis;
+
+/**
+ * <p>
+ * ログ出力するSQL文の組み立てを遅延させるためのインタフェースです。
+ * </p>
+ * <p>
+ * {@link NormalizationQueryBuilder#defer(QueryInformation)}は、SQL文とパラメータのリテラル表現をクエリ実行スレッドで取得してこのインタフェースの実装に保持し、
+ * SQL文の解析、プレースホルダーの置換、正規化を{@link #render()}の呼び出しまで遅延させます。
+ * パラメータのオブジェクトへの参照は保持しないため、クエリ実行後にパラメータが変更されてもログには反映されません。
+ * {@link AsyncLoggingStrategy}は{@link #render()}をログ出力スレッドで呼び出します。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see AsyncLoggingStrategy
+ */
+public interface DeferredQuery {
+
+    /**
+     * ログ出力するSQL文を組み立てます。
+     * @return ログ出力するSQL文
+     */
+    String render();
+}
@@ -24,9 +24,8 @@ package jp.co.ctc_g.jfw.core.jdbc.mybatis;
  * <p>
  * SQL文の正規化とは以下を意味します。
  * <ul>
- *   <li>改行コードの除外</li>
- *   <li>連続したスペースを1個のスペースに置換</li>
- *   <li>連続したタブを1個のスペースに置換</li>
+ *   <li>改行コード、スペース、タブの連続を1個のスペースに置換</li>
+ *   <li>文字列リテラル、引用符付き識別子、コメントの内部は置換の対象外</li>
  * </ul>
  * </p>
  */
@@ -47,6 +46,14 @@ public abstract class NormalizationQueryBuilder implements QueryBuilder {
         this.normalize = normalize;
     }
 
+    /**
+     * 正規化するかどうかを返却します。
+     * @return 正規化する場合は{@code true}
+     */
+    protected boolean isNormalize() {
+        return normalize;
+    }
+
     /**
      *
      * @param targetSql 正規化対象のSQL文
@@ -56,9 +63,23 @@ public abstract class NormalizationQueryBuilder implements QueryBuilder {
         if (!normalize)
             return targetSql;
 
-        return targetSql.replaceAll("\r\n", "")
-                        .replaceAll("[\n\r]", "")
-                        .replaceAll("[\\s]+", " ")
-                        .replaceAll("[\\t]+", " ");
+        return SqlTemplate.parse(targetSql, true).render(null, null);
+    }
+
+    /**
+     * ログ出力するSQL文の組み立てを遅延させます。
+     * このクラスの実装は{@link #build(QueryInformation)}を即座に実行し、その結果を返却する{@link DeferredQuery}を返却します。
+     * サブクラスは、クエリ実行スレッドで必要な値だけを取得するようにこのメソッドをオーバーライドできます。
+     * @param queryInformation ログ出力用のSQL生成に使用する情報
+     * @return ログ出力するSQL文を組み立てる{@link DeferredQuery}
+     */
+    public DeferredQuery defer(QueryInformation queryInformation) {
+        final String sql = build(queryInformation);
+        return new DeferredQuery() {
+            @Override
+            public String render() {
+                return sql;
+            }
+        };
     }
 }
@@ -17,12 +17,20 @@
 package jp.co.ctc_g.jfw.core.jdbc.mybatis;
 
 import java.util.List;
-import java.util.regex.Matcher;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.mapping.MappedStatement;
 
 /**
  * <p>
  * プリペアードクエリ、コーラブルクエリのプレースホルダー置換処理の実装を提供する{@link QueryBuilder}の抽象クラスです。
  * </p>
+ * <p>
+ * プレースホルダーの置換は{@link SqlTemplate}により1回の走査で行われ、文字列リテラルやコメント内の{@code ?}は置換されません。
+ * SQL文の解析結果は{@link MappedStatement}のIDごとにキャッシュされ、同一のSQL文であれば再利用されます。
+ * 動的SQLによりSQL文が変化した場合は、再度解析してキャッシュを更新します。
+ * </p>
  * @author ITOCHU Techno-Solutions Corporation.
  */
 public abstract class PlaceholderQueryBuilder extends NormalizationQueryBuilder implements QueryBuilder {
@@ -31,6 +39,10 @@ public abstract class PlaceholderQueryBuilder extends NormalizationQueryBuilder
 
     private static final LiteralConvertorRegistory LITERAL_CONVERTOR_REGISTORY = LiteralConvertorRegistory.getInstance();
 
+    private static final int MAX_CACHED_TEMPLATES = 1024;
+
+    private final ConcurrentMap<String, SqlTemplate> templates = new ConcurrentHashMap<String, SqlTemplate>();
+
     protected abstract List<Object> createParameterList(QueryInformation queryLoggingSource);
 
     /**
@@ -46,18 +58,64 @@ public abstract class PlaceholderQueryBuilder extends NormalizationQueryBuilder
         super(normalize);
     }
 
-    @SuppressWarnings({ "unchecked", "rawtypes" })
+    /**
+     * プレースホルダーをパラメータで置換します。
+     * 正規化は行いません。
+     * @param query SQL文
+     * @param parameterList パラメータのリスト
+     * @return プレースホルダーを置換したSQL文
+     */
     protected String replacePlaceholder(String query, List<Object> parameterList) {
-        for (Object value : parameterList) {
-            String literalString;
-            if (value != null) {
-                LiteralConvertor lc = LITERAL_CONVERTOR_REGISTORY.getConverter(value.getClass());
-                literalString = lc.convert(value);
-            } else {
-                literalString = LITERAL_CONVERTOR_REGISTORY.getConverter(null).convert(value);
+        return SqlTemplate.parse(query, false).render(parameterList, LITERAL_CONVERTOR_REGISTORY);
+    }
+
+    /**
+     * プレースホルダーをパラメータで置換し、正規化が有効であれば正規化したSQL文を返却します。
+     * @param queryInformation クエリー情報
+     * @param query SQL文
+     * @param parameterList パラメータのリスト
+     * @return ログ出力するSQL文
+     */
+    protected String render(QueryInformation queryInformation, String query, List<Object> parameterList) {
+        return template(queryInformation, query).render(parameterList, LITERAL_CONVERTOR_REGISTORY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * SQL文の取得とパラメータのリテラルへの変換のみを行い、SQL文の解析とプレースホルダーの置換は
+     * {@link DeferredQuery#render()}の呼び出し時に行います。
+     * パラメータはこのメソッドの呼び出し時点でリテラルに変換するため、その後にパラメータのオブジェクトが変更されてもログには反映されません。
+     * </p>
+     */
+    @Override
+    public DeferredQuery defer(QueryInformation queryInformation) {
+        final String[] literals = SqlTemplate.literals(createParameterList(queryInformation), LITERAL_CONVERTOR_REGISTORY);
+        final String query = queryInformation.getPreparedQuery() != null
+            ? queryInformation.getPreparedQuery() : queryInformation.getCallableQuery();
+        MappedStatement ms = queryInformation.getMappedStatement();
+        final String id = ms != null ? ms.getId() : null;
+        return new DeferredQuery() {
+            @Override
+            public String render() {
+                return template(id, query).render(literals);
+            }
+        };
+    }
+
+    private SqlTemplate template(QueryInformation queryInformation, String query) {
+        MappedStatement ms = queryInformation.getMappedStatement();
+        return template(ms != null ? ms.getId() : null, query);
+    }
+
+    private SqlTemplate template(String id, String query) {
+        SqlTemplate template = id != null ? templates.get(id) : null;
+        if (template == null || !template.getSql().equals(query)) {
+            template = SqlTemplate.parse(query, isNormalize());
+            if (id != null && (templates.size() < MAX_CACHED_TEMPLATES || templates.containsKey(id))) {
+                templates.put(id, template);
             }
-            query = query.replaceFirst(PLACEHOLDER_STRING, Matcher.quoteReplacement(literalString));
         }
-        return query;
+        return template;
     }
 }
@@ -67,8 +67,7 @@ public class PreparedQueryBuilder extends PlaceholderQueryBuilder implements Que
     @Override
     public String build(QueryInformation queryInformation) {
         List<Object> parameterList = createParameterList(queryInformation);
-        String query = replacePlaceholder(queryInformation.getPreparedQuery(), parameterList);
-        return normalized(query);
+        return render(queryInformation, queryInformation.getPreparedQuery(), parameterList);
     }
 
     /*
@@ -21,6 +21,7 @@ import java.util.List;
 
 import jp.co.ctc_g.jfw.core.internal.InternalException;
 
+import org.apache.ibatis.executor.statement.BaseStatementHandler;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
@@ -30,7 +31,9 @@ import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
 /**
@@ -41,6 +44,20 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
  */
 public class QueryInformation {
 
+    /*
+     * リフレクションによるフィールドの解決と型ハンドラの登録はクエリ発行ごとに行うとコストが高いため、
+     * クラスのロード時に一度だけ実行し、全インスタンスで共有します。
+     */
+    private static final Field DELEGATE_FIELD = accessible(RoutingStatementHandler.class, "delegate");
+
+    private static final Field MAPPED_STATEMENT_FIELD = accessible(BaseStatementHandler.class, "mappedStatement");
+
+    private static final TypeHandlerRegistry TYPE_HANDLER_REGISTRY = new TypeHandlerRegistry();
+
+    private static final ObjectFactory OBJECT_FACTORY = new DefaultObjectFactory();
+
+    private static final ObjectWrapperFactory OBJECT_WRAPPER_FACTORY = new DefaultObjectWrapperFactory();
+
     private String query;
 
     private String preparedQuery;
@@ -77,34 +94,52 @@ public class QueryInformation {
      */
     public QueryInformation(StatementHandler statementHandler) {
         try {
-            this.typeHandlerRegistry = new TypeHandlerRegistry();
             this.statementHandler = getConcreteStatementHandler(statementHandler);
-            this.mappedStatement = getMappedStatement(this.statementHandler);
-            this.boundSql = this.statementHandler.getBoundSql();
-            this.parameterObject = this.boundSql.getParameterObject();
-            this.parameterMappingList = boundSql.getParameterMappings();
-            this.sqlCommandType = mappedStatement.getSqlCommandType();
-            this.statementType = mappedStatement.getStatementType();
-            this.metaObject = parameterObject == null ? null : MetaObject.forObject(parameterObject, new DefaultObjectFactory(), new DefaultObjectWrapperFactory());
-
-            switch (statementType) {
-                case STATEMENT:
-                    this.query = boundSql.getSql();
-                    break;
-                case PREPARED:
-                    this.preparedQuery = boundSql.getSql();
-                    break;
-                case CALLABLE:
-                    this.callableQuery = boundSql.getSql();
-                    break;
-                default:
-                    throw new InternalException(QueryInformation.class, "");
-            }
+            initialize(getMappedStatement(this.statementHandler), this.statementHandler.getBoundSql());
+        } catch (Exception e) {
+            throw new InternalException(QueryInformation.class, "E-JDBC-MYBATIS#0002", e);
+        }
+    }
+
+    /**
+     * コンストラクタです。
+     * {@link StatementHandler}を経由せずに、{@link MappedStatement}と{@link BoundSql}からクエリー情報を構築します。
+     * 解析に失敗した場合に{@link InternalException}をスローします。
+     * @param mappedStatement {@link MappedStatement}
+     * @param boundSql {@link BoundSql}
+     */
+    public QueryInformation(MappedStatement mappedStatement, BoundSql boundSql) {
+        try {
+            initialize(mappedStatement, boundSql);
         } catch (Exception e) {
             throw new InternalException(QueryInformation.class, "E-JDBC-MYBATIS#0002", e);
         }
     }
 
+    private void initialize(MappedStatement mappedStatement, BoundSql boundSql) {
+        this.typeHandlerRegistry = TYPE_HANDLER_REGISTRY;
+        this.mappedStatement = mappedStatement;
+        this.boundSql = boundSql;
+        this.parameterObject = boundSql.getParameterObject();
+        this.parameterMappingList = boundSql.getParameterMappings();
+        this.sqlCommandType = mappedStatement.getSqlCommandType();
+        this.statementType = mappedStatement.getStatementType();
+
+        switch (statementType) {
+            case STATEMENT:
+                this.query = boundSql.getSql();
+                break;
+            case PREPARED:
+                this.preparedQuery = boundSql.getSql();
+                break;
+            case CALLABLE:
+                this.callableQuery = boundSql.getSql();
+                break;
+            default:
+                throw new InternalException(QueryInformation.class, "");
+        }
+    }
+
     /**
      * SQLを返却します。
      * @return SQL
@@ -161,6 +196,14 @@ public class QueryInformation {
         return this.callableQuery;
     }
 
+    /**
+     * {@link MappedStatement}を返却します。
+     * @return {@link MappedStatement}
+     */
+    public MappedStatement getMappedStatement() {
+        return this.mappedStatement;
+    }
+
     /**
      * {@link BoundSql}を返却します。
      * @return {@link BoundSql}
@@ -182,6 +225,9 @@ public class QueryInformation {
      * @return {@link MetaObject}
      */
     public MetaObject getMetaObject() {
+        if (this.metaObject == null && this.parameterObject != null) {
+            this.metaObject = MetaObject.forObject(parameterObject, OBJECT_FACTORY, OBJECT_WRAPPER_FACTORY);
+        }
         return this.metaObject;
     }
 
@@ -194,15 +240,23 @@ public class QueryInformation {
     }
 
     private StatementHandler getConcreteStatementHandler(StatementHandler handler) throws Exception {
-        RoutingStatementHandler routingStatementHandler = (RoutingStatementHandler)handler;
-        Field filed = routingStatementHandler.getClass().getDeclaredField("delegate");
-        filed.setAccessible(true);
-        return (StatementHandler)filed.get(routingStatementHandler);        
+        if (DELEGATE_FIELD == null) throw new NoSuchFieldException("delegate");
+        return (StatementHandler)DELEGATE_FIELD.get((RoutingStatementHandler)handler);
     }
 
     private MappedStatement getMappedStatement(StatementHandler handler) throws Exception {
-        Field filed = handler.getClass().getSuperclass().getDeclaredField("mappedStatement");
-        filed.setAccessible(true);
-        return (MappedStatement)filed.get(handler);
+        if (MAPPED_STATEMENT_FIELD == null) throw new NoSuchFieldException("mappedStatement");
+        return (MappedStatement)MAPPED_STATEMENT_FIELD.get(handler);
+    }
+
+    private static Field accessible(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (Exception e) {
+            // MyBatisの内部構造が想定と異なる場合は、インスタンス生成時にInternalExceptionとして通知します
+            return null;
+        }
     }
 }
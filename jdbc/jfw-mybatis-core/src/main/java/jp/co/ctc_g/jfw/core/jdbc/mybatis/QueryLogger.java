@@ -162,10 +162,31 @@ public class QueryLogger implements InitializingBean {
      */
     public void log(QueryInformation queryLoggingSource) {
         QueryBuilder builder = queryBuilderFactory.getBuilder(queryLoggingSource.getStatementType());
+        if (loggingStrategy instanceof AsyncLoggingStrategy && builder instanceof NormalizationQueryBuilder) {
+            // SQL文の組み立てはログ出力スレッドで行います
+            ((AsyncLoggingStrategy) loggingStrategy).log(((NormalizationQueryBuilder) builder).defer(queryLoggingSource));
+            return;
+        }
         String sql = builder.build(queryLoggingSource);
         this.loggingStrategy.log(sql);
     }
 
+    /**
+     * SQLのログ出力が有効かどうかを返却します。
+     * ログ出力処理が{@link DefaultLoggingStrategy}、{@link AsyncLoggingStrategy}の場合は、そのログレベルが有効かどうかを返却します。
+     * それ以外のログ出力処理の場合は、出力の要否を判断できないため常に{@code true}を返却します。
+     * @return SQLのログ出力が有効な場合は{@code true}
+     */
+    public boolean isEnabled() {
+        if (loggingStrategy instanceof DefaultLoggingStrategy) {
+            return ((DefaultLoggingStrategy) loggingStrategy).isEnabled();
+        }
+        if (loggingStrategy instanceof AsyncLoggingStrategy) {
+            return ((AsyncLoggingStrategy) loggingStrategy).isEnabled();
+        }
+        return true;
+    }
+
     /**
      * SQLのログ出力処理を設定します。
      * @param loggingStrategy SQLのログ出力処理
@@ -61,15 +61,15 @@ public class QueryLoggingInterceptor implements Interceptor, BeanFactoryAware, I
      * {@inheritDoc}
      * <p>
      * {@code StatementHandler}へのクエリ実行要求をインターセプトし、 SQLのロギング機構を起動します。
+     * ログ出力が無効な場合は、クエリー情報の解析とSQLの組み立てを行わずにクエリ実行要求を続行します。
      * </p>
      */
     @Override
     public Object intercept(Invocation invocation) throws Throwable {
-        QueryInformation queryInformation = new QueryInformation((StatementHandler)invocation.getTarget());
-        Object result;
-        queryLogger.log(queryInformation);
-        result = invocation.proceed();
-        return result;
+        if (queryLogger.isEnabled()) {
+            queryLogger.log(new QueryInformation((StatementHandler)invocation.getTarget()));
+        }
+        return invocation.proceed();
     }
 
     /**
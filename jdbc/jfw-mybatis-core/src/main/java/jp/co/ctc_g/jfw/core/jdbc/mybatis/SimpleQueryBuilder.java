@@ -45,4 +45,21 @@ public class SimpleQueryBuilder extends NormalizationQueryBuilder implements Que
     public String build(QueryInformation queryInformation) {
         return normalized(queryInformation.getQuery());
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * SQL文のみを取得し、正規化は{@link DeferredQuery#render()}の呼び出し時に行います。
+     * </p>
+     */
+    @Override
+    public DeferredQuery defer(QueryInformation queryInformation) {
+        final String query = queryInformation.getQuery();
+        return new DeferredQuery() {
+            @Override
+            public String render() {
+                return normalized(query);
+            }
+        };
+    }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc.mybatis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * ログ出力するSQLを、プレースホルダーで区切られた断片に分割して保持するクラスです。
+ * </p>
+ * <p>
+ * SQL文は1回の走査で字句解析され、文字列リテラル({@code '...'})、引用符付き識別子({@code "..."})、
+ * 行コメント({@code -- ...})、ブロックコメント({@code /* ... *}{@code /})の内部にある{@code ?}はプレースホルダーとみなしません。
+ * 正規化が有効な場合は、同じ走査の中でリテラルとコメントの外側にある連続した空白文字(改行、タブを含む)を1個のスペースに置換します。
+ * </p>
+ * <p>
+ * 解析結果は不変であるため、同一のSQL文に対して複数のスレッドから{@link #render(List, LiteralConvertorRegistory)}を呼び出すことができます。
+ * {@link PlaceholderQueryBuilder}は{@link org.apache.ibatis.mapping.MappedStatement}のIDごとにこのクラスのインスタンスをキャッシュします。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see PlaceholderQueryBuilder
+ */
+public final class SqlTemplate {
+
+    private final String sql;
+
+    private final String[] fragments;
+
+    private final int length;
+
+    private SqlTemplate(String sql, String[] fragments) {
+        this.sql = sql;
+        this.fragments = fragments;
+        int l = 0;
+        for (String f : fragments) {
+            l += f.length();
+        }
+        this.length = l;
+    }
+
+    /**
+     * SQL文を解析します。
+     * @param sql 解析対象のSQL文
+     * @param normalize 正規化するかどうか
+     * @return 解析結果
+     */
+    public static SqlTemplate parse(String sql, boolean normalize) {
+        List<String> fragments = new ArrayList<String>();
+        StringBuilder current = new StringBuilder(sql.length());
+        int n = sql.length();
+        int i = 0;
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"') {
+                int end = skipQuoted(sql, i, c);
+                current.append(sql, i, end);
+                i = end;
+            } else if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                end = end < 0 ? n : end;
+                current.append(sql, i, end);
+                i = end;
+            } else if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                end = end < 0 ? n : end + 2;
+                current.append(sql, i, end);
+                i = end;
+            } else if (c == '?') {
+                fragments.add(current.toString());
+                current.setLength(0);
+                i++;
+            } else if (normalize && Character.isWhitespace(c)) {
+                while (i < n && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                current.append(' ');
+            } else {
+                current.append(c);
+                i++;
+            }
+        }
+        fragments.add(current.toString());
+        return new SqlTemplate(sql, fragments.toArray(new String[fragments.size()]));
+    }
+
+    private static int skipQuoted(String sql, int start, char quote) {
+        int n = sql.length();
+        int i = start + 1;
+        while (i < n) {
+            if (sql.charAt(i) == quote) {
+                // 引用符の2文字連続はエスケープされた引用符です
+                if (i + 1 < n && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return n;
+    }
+
+    /**
+     * 解析元のSQL文を返却します。
+     * @return 解析元のSQL文
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * プレースホルダーの数を返却します。
+     * @return プレースホルダーの数
+     */
+    public int getPlaceholderCount() {
+        return fragments.length - 1;
+    }
+
+    /**
+     * プレースホルダーをパラメータのSQLリテラル表現で置換したSQL文を返却します。
+     * パラメータがプレースホルダーより少ない場合、残りのプレースホルダーは{@code ?}のまま出力されます。
+     * パラメータがプレースホルダーより多い場合、余ったパラメータは無視されます。
+     * @param parameterList パラメータのリスト
+     * @param registory SQLリテラルへの変換に利用するレジストリ
+     * @return プレースホルダーを置換したSQL文
+     */
+    public String render(List<Object> parameterList, LiteralConvertorRegistory registory) {
+        return render(literals(parameterList, registory));
+    }
+
+    /**
+     * プレースホルダーを変換済みのSQLリテラル表現で置換したSQL文を返却します。
+     * リテラル表現がプレースホルダーより少ない場合、残りのプレースホルダーは{@code ?}のまま出力されます。
+     * @param literals {@link #literals(List, LiteralConvertorRegistory)}で変換したSQLリテラル表現
+     * @return プレースホルダーを置換したSQL文
+     */
+    public String render(String[] literals) {
+        int size = literals == null ? 0 : literals.length;
+        StringBuilder sb = new StringBuilder(length + fragments.length * 8);
+        sb.append(fragments[0]);
+        for (int i = 1; i < fragments.length; i++) {
+            int index = i - 1;
+            sb.append(index < size ? literals[index] : "?");
+            sb.append(fragments[i]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * パラメータをSQLリテラル表現に変換します。
+     * 変換結果は文字列であるため、変換後にパラメータのオブジェクトが変更されても影響を受けません。
+     * @param parameterList パラメータのリスト
+     * @param registory SQLリテラルへの変換に利用するレジストリ
+     * @return パラメータのSQLリテラル表現
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static String[] literals(List<Object> parameterList, LiteralConvertorRegistory registory) {
+        int size = parameterList == null ? 0 : parameterList.size();
+        String[] literals = new String[size];
+        for (int i = 0; i < size; i++) {
+            Object value = parameterList.get(i);
+            LiteralConvertor lc = registory.getConverter(value != null ? value.getClass() : null);
+            literals[i] = lc.convert(value);
+        }
+        return literals;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc.mybatis.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import jp.co.ctc_g.jfw.core.util.LatencyHistogram;
+
+/**
+ * <p>
+ * 1つの{@link org.apache.ibatis.mapping.MappedStatement}に対する実行回数、処理時間、処理件数を集計するクラスです。
+ * </p>
+ * <p>
+ * 集計値はすべて{@link AtomicLong}と{@link LatencyHistogram}で保持しているため、
+ * 複数のスレッドから同時に{@link #record(long, long, boolean)}を呼び出してもロックの競合は発生しません。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see StatementMetricsRegistry
+ */
+public class StatementMetrics {
+
+    private final String id;
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong errorCount = new AtomicLong();
+
+    private final AtomicLong slowCount = new AtomicLong();
+
+    private final AtomicLong rows = new AtomicLong();
+
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    /**
+     * コンストラクタです。
+     * @param id {@link org.apache.ibatis.mapping.MappedStatement}のID
+     */
+    public StatementMetrics(String id) {
+        this.id = id;
+    }
+
+    /**
+     * 1回の実行結果を記録します。
+     * @param nanos 処理時間(ナノ秒)
+     * @param rowCount 取得あるいは更新した件数
+     * @param failed 例外が発生したかどうか
+     */
+    public void record(long nanos, long rowCount, boolean failed) {
+        count.incrementAndGet();
+        if (failed) {
+            errorCount.incrementAndGet();
+        }
+        if (rowCount > 0) {
+            rows.addAndGet(rowCount);
+        }
+        totalNanos.addAndGet(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * 処理時間が閾値を超えた回数を1増やします。
+     */
+    public void recordSlow() {
+        slowCount.incrementAndGet();
+    }
+
+    /**
+     * 集計値をすべて破棄します。
+     */
+    public void reset() {
+        count.set(0L);
+        errorCount.set(0L);
+        slowCount.set(0L);
+        rows.set(0L);
+        totalNanos.set(0L);
+        maxNanos.set(0L);
+        histogram.reset();
+    }
+
+    /**
+     * {@link org.apache.ibatis.mapping.MappedStatement}のIDを返却します。
+     * @return {@link org.apache.ibatis.mapping.MappedStatement}のID
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * 実行回数を返却します。
+     * @return 実行回数
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * 例外が発生した回数を返却します。
+     * @return 例外が発生した回数
+     */
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    /**
+     * 処理時間が閾値を超えた回数を返却します。
+     * @return 処理時間が閾値を超えた回数
+     */
+    public long getSlowCount() {
+        return slowCount.get();
+    }
+
+    /**
+     * 取得あるいは更新した件数の合計を返却します。
+     * @return 件数の合計
+     */
+    public long getRows() {
+        return rows.get();
+    }
+
+    /**
+     * 処理時間の合計(ナノ秒)を返却します。
+     * @return 処理時間の合計(ナノ秒)
+     */
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    /**
+     * 処理時間の最大値(ナノ秒)を返却します。
+     * @return 処理時間の最大値(ナノ秒)
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * 処理時間の分布を返却します。
+     * @return 処理時間の分布
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * 現在の集計値のスナップショットを作成します。
+     * @return 集計値のスナップショット
+     */
+    public StatementStatistics snapshot() {
+        long c = count.get();
+        long total = totalNanos.get();
+        return new StatementStatistics(
+            id,
+            c,
+            errorCount.get(),
+            slowCount.get(),
+            rows.get(),
+            toMillis(total),
+            c == 0 ? 0.0 : toMillis(total) / c,
+            toMillis(maxNanos.get()),
+            histogram.getPercentile(0.50),
+            histogram.getPercentile(0.95),
+            histogram.getPercentile(0.99));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1000000.0;
+    }
+}
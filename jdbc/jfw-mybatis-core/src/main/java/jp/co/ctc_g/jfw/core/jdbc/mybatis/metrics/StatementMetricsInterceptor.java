@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc.mybatis.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Properties;
+import java.util.ResourceBundle;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import jp.co.ctc_g.jfw.core.internal.InternalException;
+import jp.co.ctc_g.jfw.core.internal.InternalMessages;
+import jp.co.ctc_g.jfw.core.jdbc.mybatis.DefaultLoggingStrategy;
+import jp.co.ctc_g.jfw.core.jdbc.mybatis.LoggingStrategy;
+import jp.co.ctc_g.jfw.core.jdbc.mybatis.QueryBuilderFactory;
+import jp.co.ctc_g.jfw.core.jdbc.mybatis.QueryInformation;
+import jp.co.ctc_g.jfw.core.util.Maps;
+import jp.co.ctc_g.jfw.core.util.Strings;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * <p>
+ * SQLの実行時間を計測するためのMyBatis専用インターセプタです。
+ * MyBatisの{@link Executor}への問い合わせ、更新要求をインターセプトし、
+ * {@link MappedStatement}のIDごとに実行回数、処理時間の合計と最大値、処理時間の分布、取得あるいは更新した件数を集計します。
+ * </p>
+ * <h3>利用方法</h3>
+ * <p>
+ * {@link jp.co.ctc_g.jfw.core.jdbc.mybatis.QueryLoggingInterceptor}と同様に、MyBatisのプラグインとして設定します。
+ * </p>
+ * <pre>
+ * &lt;bean id=&quot;sqlSessionFactory&quot; class=&quot;org.mybatis.spring.SqlSessionFactoryBean&quot;&gt;
+ *     &lt;property name=&quot;dataSource&quot; ref=&quot;dataSource&quot; /&gt;
+ *     &lt;property name=&quot;plugins&quot; &gt;
+ *         &lt;list&gt;
+ *             &lt;ref bean=&quot;statementMetricsInterceptor&quot; /&gt;
+ *         &lt;/list&gt;
+ *     &lt;/property&gt;
+ * &lt;/bean&gt;
+ *
+ * &lt;bean id=&quot;statementMetricsInterceptor&quot;
+ *     class=&quot;jp.co.ctc_g.jfw.core.jdbc.mybatis.metrics.StatementMetricsInterceptor&quot; &gt;
+ *     &lt;property name=&quot;slowQueryThresholdMillis&quot; value=&quot;500&quot; /&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ * <h3>JMX</h3>
+ * <p>
+ * 集計値は{@link StatementMetricsMXBean}として、プラットフォームMBeanサーバに登録されます。
+ * 名前は{@value #DEFAULT_OBJECT_NAME}にインスタンス毎の<code>id</code>キーを付加したもので、
+ * 複数の{@code SqlSessionFactory}に設定した場合や、アプリケーションを再デプロイした場合も重複しません。
+ * 登録先や名前は{@link #setMbeanServer(MBeanServer)}、{@link #setObjectName(String)}で変更できます。
+ * 登録しない場合は{@link #setRegisterMBean(boolean)}に{@code false}を設定して下さい。
+ * </p>
+ * <h3>スロークエリログ</h3>
+ * <p>
+ * 処理時間が{@link #setSlowQueryThresholdMillis(long) 閾値}以上の場合、
+ * パラメータを埋め込んだSQLを{@link LoggingStrategy}によりログ出力します。
+ * デフォルトでは、このクラスのFQCNをカテゴリとしてWARNレベルで出力します。
+ * SQLの組み立てはスロークエリの場合のみ行うため、閾値未満の実行に対するオーバヘッドは時刻の取得とカウンタの更新のみです。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see StatementMetricsRegistry
+ */
+@Intercepts({
+    @Signature(type=Executor.class, method="query", args={MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+    @Signature(type=Executor.class, method="update", args={MappedStatement.class, Object.class})})
+public class StatementMetricsInterceptor implements Interceptor, InitializingBean, DisposableBean {
+
+    /** MBeanのデフォルトの名前です。実際にはインスタンス毎の<code>id</code>キーが付加されます。 */
+    public static final String DEFAULT_OBJECT_NAME = "jp.co.ctc_g.jfw.core.jdbc.mybatis:type=StatementMetrics";
+
+    private static final ResourceBundle R = InternalMessages.getBundle(StatementMetricsInterceptor.class);
+
+    private StatementMetricsRegistry registry = new StatementMetricsRegistry();
+
+    private LoggingStrategy slowQueryLoggingStrategy = new DefaultLoggingStrategy(StatementMetricsInterceptor.class.getName(), "WARN");
+
+    private QueryBuilderFactory queryBuilderFactory = new QueryBuilderFactory(true);
+
+    private MBeanServer mbeanServer;
+
+    private String objectName;
+
+    private boolean registerMBean = true;
+
+    private ObjectName registeredName;
+
+    /**
+     * デフォルトコンストラクタです。
+     */
+    public StatementMetricsInterceptor() {}
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * {@link Executor}への問い合わせ、更新要求をインターセプトし、処理時間と件数を記録します。
+     * </p>
+     */
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        long start = System.nanoTime();
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            long rows = rows(result);
+            StatementMetrics metrics = registry.get(ms.getId());
+            metrics.record(elapsed, rows, failed);
+            long threshold = registry.getSlowQueryThresholdMillis();
+            if (threshold >= 0 && elapsed >= threshold * 1000000L) {
+                metrics.recordSlow();
+                logSlowQuery(ms, args[1], elapsed, rows);
+            }
+        }
+    }
+
+    private long rows(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        } else if (result instanceof Integer) {
+            return ((Integer) result).longValue();
+        }
+        return 0L;
+    }
+
+    /**
+     * スロークエリのログを出力します。
+     * @param ms 実行された{@link MappedStatement}
+     * @param parameter パラメータ
+     * @param elapsed 処理時間(ナノ秒)
+     * @param rows 取得あるいは更新した件数
+     */
+    protected void logSlowQuery(MappedStatement ms, Object parameter, long elapsed, long rows) {
+        String sql;
+        try {
+            BoundSql boundSql = ms.getBoundSql(parameter);
+            sql = queryBuilderFactory.getBuilder(ms.getStatementType()).build(new QueryInformation(ms, boundSql));
+        } catch (RuntimeException e) {
+            // SQLの組み立てに失敗した場合でも、SQLの実行結果には影響させません
+            sql = "";
+        }
+        slowQueryLoggingStrategy.log(Strings.substitute(R.getString("W-JDBC-MYBATIS-METRICS#0001"),
+            Maps.hash("id", ms.getId())
+                .map("elapsed", String.valueOf(elapsed / 1000000L))
+                .map("rows", String.valueOf(rows))
+                .map("sql", sql)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object plugin(Object target) {
+        return Plugin.wrap(target, this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setProperties(Properties properties) {}
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * 集計値をMBeanとして登録します。
+     * </p>
+     */
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (!registerMBean) return;
+        if (mbeanServer == null) {
+            mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        }
+        String candidate = objectName != null
+            ? objectName
+            : DEFAULT_OBJECT_NAME + ",id=" + Integer.toHexString(System.identityHashCode(this));
+        try {
+            ObjectName name = new ObjectName(candidate);
+            mbeanServer.registerMBean(registry, name);
+            registeredName = name;
+        } catch (Exception e) {
+            throw new InternalException(StatementMetricsInterceptor.class, "E-JDBC-MYBATIS-METRICS#0001", Maps.hash("name", candidate), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * 登録したMBeanを登録解除します。
+     * </p>
+     */
+    @Override
+    public void destroy() throws Exception {
+        if (registeredName != null) {
+            mbeanServer.unregisterMBean(registeredName);
+            registeredName = null;
+        }
+    }
+
+    /**
+     * 集計値を保持する{@link StatementMetricsRegistry}を返却します。
+     * @return {@link StatementMetricsRegistry}
+     */
+    public StatementMetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * 集計値を保持する{@link StatementMetricsRegistry}を設定します。
+     * 複数の{@code SqlSessionFactory}の集計値をまとめる場合に利用します。
+     * @param registry {@link StatementMetricsRegistry}
+     */
+    public void setRegistry(StatementMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * スロークエリと判定する処理時間の閾値(ミリ秒)を設定します。
+     * デフォルトは{@value StatementMetricsRegistry#DEFAULT_SLOW_QUERY_THRESHOLD_MILLIS}ミリ秒です。
+     * 負の値を設定した場合は、スロークエリログを出力しません。
+     * @param slowQueryThresholdMillis 閾値(ミリ秒)
+     */
+    public void setSlowQueryThresholdMillis(long slowQueryThresholdMillis) {
+        this.registry.setSlowQueryThresholdMillis(slowQueryThresholdMillis);
+    }
+
+    /**
+     * スロークエリのログ出力処理を設定します。
+     * @param slowQueryLoggingStrategy スロークエリのログ出力処理
+     */
+    public void setSlowQueryLoggingStrategy(LoggingStrategy slowQueryLoggingStrategy) {
+        this.slowQueryLoggingStrategy = slowQueryLoggingStrategy;
+    }
+
+    /**
+     * スロークエリログのSQLを正規化するかどうかを設定します。
+     * デフォルトは{@code true}です。
+     * @param normalize 正規化するかどうか
+     */
+    public void setNormalize(boolean normalize) {
+        this.queryBuilderFactory = new QueryBuilderFactory(normalize);
+    }
+
+    /**
+     * MBeanを登録する{@link MBeanServer}を設定します。
+     * 指定しない場合はプラットフォームMBeanサーバに登録します。
+     * @param mbeanServer {@link MBeanServer}
+     */
+    public void setMbeanServer(MBeanServer mbeanServer) {
+        this.mbeanServer = mbeanServer;
+    }
+
+    /**
+     * 登録したMBeanの名前を返却します。
+     * @return MBeanの名前。登録していない場合は{@code null}
+     */
+    public ObjectName getRegisteredName() {
+        return registeredName;
+    }
+
+    /**
+     * MBeanの名前を設定します。
+     * 指定しない場合は{@value #DEFAULT_OBJECT_NAME}にインスタンス毎の<code>id</code>キーを付加した名前となります。
+     * @param objectName MBeanの名前
+     */
+    public void setObjectName(String objectName) {
+        this.objectName = objectName;
+    }
+
+    /**
+     * MBeanを登録するかどうかを設定します。
+     * デフォルトは{@code true}です。
+     * @param registerMBean MBeanを登録するかどうか
+     */
+    public void setRegisterMBean(boolean registerMBean) {
+        this.registerMBean = registerMBean;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc.mybatis.metrics;
+
+import java.util.List;
+
+/**
+ * <p>
+ * SQLの実行時間の集計値をJMXで公開するためのインタフェースです。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see StatementMetricsRegistry
+ */
+public interface StatementMetricsMXBean {
+
+    /**
+     * 集計対象の{@link org.apache.ibatis.mapping.MappedStatement}のIDの一覧を返却します。
+     * @return IDの一覧
+     */
+    List<String> getStatementIds();
+
+    /**
+     * すべての{@link org.apache.ibatis.mapping.MappedStatement}の集計値を返却します。
+     * @return 集計値の一覧
+     */
+    List<StatementStatistics> getStatistics();
+
+    /**
+     * 指定された{@link org.apache.ibatis.mapping.MappedStatement}の集計値を返却します。
+     * @param id {@link org.apache.ibatis.mapping.MappedStatement}のID
+     * @return 集計値。集計対象でない場合は{@code null}
+     */
+    StatementStatistics getStatistics(String id);
+
+    /**
+     * スロークエリと判定する処理時間の閾値(ミリ秒)を返却します。
+     * @return 閾値(ミリ秒)。負の値の場合はスロークエリの判定を行いません
+     */
+    long getSlowQueryThresholdMillis();
+
+    /**
+     * スロークエリと判定する処理時間の閾値(ミリ秒)を設定します。
+     * @param slowQueryThresholdMillis 閾値(ミリ秒)。負の値の場合はスロークエリの判定を行いません
+     */
+    void setSlowQueryThresholdMillis(long slowQueryThresholdMillis);
+
+    /**
+     * すべての集計値を破棄します。
+     */
+    void reset();
+}
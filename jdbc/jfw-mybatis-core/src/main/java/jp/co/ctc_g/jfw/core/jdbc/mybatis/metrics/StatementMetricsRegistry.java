@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc.mybatis.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ * {@link org.apache.ibatis.mapping.MappedStatement}のIDごとに{@link StatementMetrics}を保持するクラスです。
+ * {@link StatementMetricsMXBean}の実装として、集計値をJMXで公開します。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see StatementMetricsInterceptor
+ */
+public class StatementMetricsRegistry implements StatementMetricsMXBean {
+
+    /** スロークエリと判定する処理時間の閾値(ミリ秒)のデフォルト値です。 */
+    public static final long DEFAULT_SLOW_QUERY_THRESHOLD_MILLIS = 1000L;
+
+    private final ConcurrentMap<String, StatementMetrics> metrics = new ConcurrentHashMap<String, StatementMetrics>();
+
+    private volatile long slowQueryThresholdMillis = DEFAULT_SLOW_QUERY_THRESHOLD_MILLIS;
+
+    /**
+     * デフォルトコンストラクタです。
+     */
+    public StatementMetricsRegistry() {}
+
+    /**
+     * 指定されたIDの{@link StatementMetrics}を返却します。
+     * 存在しない場合は作成します。
+     * @param id {@link org.apache.ibatis.mapping.MappedStatement}のID
+     * @return {@link StatementMetrics}
+     */
+    public StatementMetrics get(String id) {
+        StatementMetrics m = metrics.get(id);
+        if (m == null) {
+            StatementMetrics created = new StatementMetrics(id);
+            m = metrics.putIfAbsent(id, created);
+            if (m == null) {
+                m = created;
+            }
+        }
+        return m;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> getStatementIds() {
+        List<String> ids = new ArrayList<String>(metrics.keySet());
+        Collections.sort(ids);
+        return ids;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<StatementStatistics> getStatistics() {
+        List<StatementStatistics> statistics = new ArrayList<StatementStatistics>();
+        for (String id : getStatementIds()) {
+            statistics.add(metrics.get(id).snapshot());
+        }
+        return statistics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StatementStatistics getStatistics(String id) {
+        StatementMetrics m = metrics.get(id);
+        return m != null ? m.snapshot() : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSlowQueryThresholdMillis() {
+        return slowQueryThresholdMillis;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setSlowQueryThresholdMillis(long slowQueryThresholdMillis) {
+        this.slowQueryThresholdMillis = slowQueryThresholdMillis;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        for (StatementMetrics m : metrics.values()) {
+            m.reset();
+        }
+    }
+}
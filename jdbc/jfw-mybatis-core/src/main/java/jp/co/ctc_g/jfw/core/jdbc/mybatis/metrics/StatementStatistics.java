@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc.mybatis.metrics;
+
+import java.beans.ConstructorProperties;
+import java.io.Serializable;
+
+/**
+ * <p>
+ * {@link StatementMetrics}のある時点の集計値を保持する不変クラスです。
+ * JMXでは{@link javax.management.openmbean.CompositeData}として公開されます。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see StatementMetricsMXBean
+ */
+public class StatementStatistics implements Serializable {
+
+    private static final long serialVersionUID = 4630394850447127312L;
+
+    private final String id;
+
+    private final long count;
+
+    private final long errorCount;
+
+    private final long slowCount;
+
+    private final long rows;
+
+    private final double totalMillis;
+
+    private final double meanMillis;
+
+    private final double maxMillis;
+
+    private final double p50Millis;
+
+    private final double p95Millis;
+
+    private final double p99Millis;
+
+    /**
+     * コンストラクタです。
+     * @param id {@link org.apache.ibatis.mapping.MappedStatement}のID
+     * @param count 実行回数
+     * @param errorCount 例外が発生した回数
+     * @param slowCount 処理時間が閾値を超えた回数
+     * @param rows 取得あるいは更新した件数の合計
+     * @param totalMillis 処理時間の合計(ミリ秒)
+     * @param meanMillis 処理時間の平均(ミリ秒)
+     * @param maxMillis 処理時間の最大値(ミリ秒)
+     * @param p50Millis 処理時間の50パーセンタイル(ミリ秒)
+     * @param p95Millis 処理時間の95パーセンタイル(ミリ秒)
+     * @param p99Millis 処理時間の99パーセンタイル(ミリ秒)
+     */
+    @ConstructorProperties({"id", "count", "errorCount", "slowCount", "rows", "totalMillis", "meanMillis", "maxMillis", "p50Millis", "p95Millis", "p99Millis"})
+    public StatementStatistics(String id, long count, long errorCount, long slowCount, long rows,
+            double totalMillis, double meanMillis, double maxMillis, double p50Millis, double p95Millis, double p99Millis) {
+        this.id = id;
+        this.count = count;
+        this.errorCount = errorCount;
+        this.slowCount = slowCount;
+        this.rows = rows;
+        this.totalMillis = totalMillis;
+        this.meanMillis = meanMillis;
+        this.maxMillis = maxMillis;
+        this.p50Millis = p50Millis;
+        this.p95Millis = p95Millis;
+        this.p99Millis = p99Millis;
+    }
+
+    /**
+     * {@link org.apache.ibatis.mapping.MappedStatement}のIDを返却します。
+     * @return {@link org.apache.ibatis.mapping.MappedStatement}のID
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * 実行回数を返却します。
+     * @return 実行回数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 例外が発生した回数を返却します。
+     * @return 例外が発生した回数
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * 処理時間が閾値を超えた回数を返却します。
+     * @return 処理時間が閾値を超えた回数
+     */
+    public long getSlowCount() {
+        return slowCount;
+    }
+
+    /**
+     * 取得あるいは更新した件数の合計を返却します。
+     * @return 件数の合計
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * 処理時間の合計(ミリ秒)を返却します。
+     * @return 処理時間の合計(ミリ秒)
+     */
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    /**
+     * 処理時間の平均(ミリ秒)を返却します。
+     * @return 処理時間の平均(ミリ秒)
+     */
+    public double getMeanMillis() {
+        return meanMillis;
+    }
+
+    /**
+     * 処理時間の最大値(ミリ秒)を返却します。
+     * @return 処理時間の最大値(ミリ秒)
+     */
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    /**
+     * 処理時間の50パーセンタイル(ミリ秒)を返却します。
+     * @return 処理時間の50パーセンタイル(ミリ秒)
+     */
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    /**
+     * 処理時間の95パーセンタイル(ミリ秒)を返却します。
+     * @return 処理時間の95パーセンタイル(ミリ秒)
+     */
+    public double getP95Millis() {
+        return p95Millis;
+    }
+
+    /**
+     * 処理時間の99パーセンタイル(ミリ秒)を返却します。
+     * @return 処理時間の99パーセンタイル(ミリ秒)
+     */
+    public double getP99Millis() {
+        return p99Millis;
+    }
+}
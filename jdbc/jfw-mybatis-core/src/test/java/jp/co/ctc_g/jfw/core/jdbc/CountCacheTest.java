@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import jp.co.ctc_g.jfw.paginate.Paginates;
+
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CountCacheTest {
+
+    protected CountCache cache;
+
+    @Before
+    public void instantiate() {
+        cache = new CountCache();
+    }
+
+    @Test
+    public void ページング情報が異なるだけの検索条件は同じキーになる() {
+        JxSqlSessionIntegrationTestCriteria first = new JxSqlSessionIntegrationTestCriteria();
+        Paginates.set(first, 1, 10);
+        JxSqlSessionIntegrationTestCriteria second = new JxSqlSessionIntegrationTestCriteria();
+        Paginates.set(second, 3, 10);
+        cache.put(cache.keyFor("ns.list", "ns.list::count", first), 25);
+        assertThat(cache.get(cache.keyFor("ns.list", "ns.list::count", second)), is(25));
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(0L));
+    }
+
+    @Test
+    public void 検索条件の内容が異なる場合は別のキーになる() {
+        Map<String, Object> first = new HashMap<String, Object>();
+        first.put("name", "foo");
+        Map<String, Object> second = new HashMap<String, Object>();
+        second.put("name", "bar");
+        cache.put(cache.keyFor("ns.list", "ns.list::count", first), 25);
+        assertThat(cache.get(cache.keyFor("ns.list", "ns.list::count", second)), is(nullValue()));
+        assertThat(cache.getMissCount(), is(1L));
+        first.put("name", "bar");
+        assertThat(cache.get(cache.keyFor("ns.list", "ns.list::count", first)), is(nullValue()));
+    }
+
+    @Test
+    public void 同じ名前空間の更新でトータル件数が無効になる() {
+        cache.put(cache.keyFor("ns.list", "ns.list::count", null), 25);
+        cache.put(cache.keyFor("other.list", "other.list::count", null), 5);
+        cache.invalidate("ns.insert");
+        assertThat(cache.get(cache.keyFor("ns.list", "ns.list::count", null)), is(nullValue()));
+        assertThat(cache.get(cache.keyFor("other.list", "other.list::count", null)), is(5));
+        assertThat(cache.getEvictionCount(), is(1L));
+    }
+
+    @Test
+    public void 更新前に生成したキーではキャッシュされない() {
+        CountCache.Key key = cache.keyFor("ns.list", "ns.list::count", null);
+        cache.invalidate("ns.update");
+        cache.put(key, 25);
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void 生存期間を過ぎたトータル件数は破棄される() throws Exception {
+        cache.setTimeToLive(1);
+        cache.put(cache.keyFor("ns.list", "ns.list::count", null), 25);
+        Thread.sleep(20);
+        assertThat(cache.get(cache.keyFor("ns.list", "ns.list::count", null)), is(nullValue()));
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void 最大件数を超えると最も参照されていないものから破棄される() {
+        cache.setMaxSize(2);
+        cache.put(cache.keyFor("ns.list", "ns.a::count", null), 1);
+        cache.put(cache.keyFor("ns.list", "ns.b::count", null), 2);
+        cache.get(cache.keyFor("ns.list", "ns.a::count", null));
+        cache.put(cache.keyFor("ns.list", "ns.c::count", null), 3);
+        assertThat(cache.size(), is(2));
+        assertThat(cache.get(cache.keyFor("ns.list", "ns.a::count", null)), is(1));
+        assertThat(cache.get(cache.keyFor("ns.list", "ns.b::count", null)), is(nullValue()));
+        assertThat(cache.getEvictionCount(), is(1L));
+    }
+
+    @Test
+    public void publicフィールドの値が異なる検索条件は別のキーになる() {
+        cache.put(cache.keyFor("ns.find", "ns.find::count", new PublicFieldCriteria("alice")), 42);
+        assertThat(cache.keyFor("ns.find", "ns.find::count", new PublicFieldCriteria("alice")),
+                is(cache.keyFor("ns.find", "ns.find::count", new PublicFieldCriteria("alice"))));
+        assertThat(cache.get(cache.keyFor("ns.find", "ns.find::count", new PublicFieldCriteria("bob"))), is(nullValue()));
+        assertThat(cache.get(cache.keyFor("ns.find", "ns.find::count", new PublicFieldCriteria("alice"))), is(42));
+    }
+
+    @Test
+    public void 読み取れるプロパティを持たない検索条件はキャッシュの対象外となる() {
+        assertThat(cache.keyFor("ns.find", "ns.find::count", new Object()), is(nullValue()));
+    }
+
+    @Test
+    public void JxSqlSessionはページ遷移でトータル件数取得SQLを再発行しない() {
+        SqlSession delegate = mock(SqlSession.class);
+        JxSqlSession session = session(delegate);
+        doReturn(25).when(delegate).selectOne(eq("ns.listWithPaginating::count"), any());
+        doReturn(new ArrayList<Object>()).when(delegate).selectList(eq("ns.listWithPaginating"), any());
+        for (int page = 1; page <= 3; page++) {
+            JxSqlSessionIntegrationTestCriteria query = new JxSqlSessionIntegrationTestCriteria();
+            Paginates.set(query, page, 10);
+            session.selectList("ns.listWithPaginating", query);
+        }
+        verify(delegate, times(1)).selectOne(eq("ns.listWithPaginating::count"), any());
+        assertThat(cache.getHitCount(), is(2L));
+        assertThat(cache.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void JxSqlSessionで更新するとトータル件数取得SQLが再発行される() {
+        SqlSession delegate = mock(SqlSession.class);
+        JxSqlSession session = session(delegate);
+        doReturn(25).when(delegate).selectOne(eq("ns.listWithPaginating::count"), any());
+        doReturn(new ArrayList<Object>()).when(delegate).selectList(eq("ns.listWithPaginating"), any());
+        JxSqlSessionIntegrationTestCriteria query = new JxSqlSessionIntegrationTestCriteria();
+        Paginates.set(query, 1, 10);
+        session.selectList("ns.listWithPaginating", query);
+        session.insert("ns.insert", new Object());
+        session.selectList("ns.listWithPaginating", query);
+        session.commit();
+        session.selectList("ns.listWithPaginating", query);
+        verify(delegate, times(3)).selectOne(eq("ns.listWithPaginating::count"), any());
+    }
+
+    public static class PublicFieldCriteria {
+
+        public static final String TYPE = "criteria";
+
+        public String name;
+
+        public PublicFieldCriteria(String name) {
+            this.name = name;
+        }
+    }
+
+    private JxSqlSession session(SqlSession delegate) {
+        JxSqlSession session = new JxSqlSession(delegate);
+        session.setPaginationEnableMatcher(new DefaultPaginationEnableMatcher());
+        session.setCountSqlResolver(new DefaultCountSqlResolver());
+        session.setPaginatedResultHandler(new PartialListResultHandler());
+        session.setCountCache(cache);
+        return session;
+    }
+}
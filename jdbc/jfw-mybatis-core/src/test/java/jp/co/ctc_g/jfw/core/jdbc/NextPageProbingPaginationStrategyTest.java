@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jp.co.ctc_g.jfw.core.util.PartialList;
+import jp.co.ctc_g.jfw.paginate.Paginates;
+
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class NextPageProbingPaginationStrategyTest {
+
+    protected NextPageProbingPaginationStrategy strategy;
+    protected SqlSession session;
+
+    @Before
+    public void instantiate() {
+        strategy = new NextPageProbingPaginationStrategy();
+        session = mock(SqlSession.class);
+    }
+
+    @Test
+    public void Paginatableで次ページが存在する場合はリミットまでに切り詰められる() {
+        final JxSqlSessionIntegrationTestCriteria query = new JxSqlSessionIntegrationTestCriteria();
+        Paginates.set(query, 2, 10);
+        final List<Integer> limits = new ArrayList<Integer>();
+        doAnswer(new Answer<List<Integer>>() {
+            @Override
+            public List<Integer> answer(InvocationOnMock invocation) {
+                limits.add(query.getLimit());
+                limits.add(query.getTail());
+                return rows(11);
+            }
+        }).when(session).selectList("list", query);
+        List<Integer> result = strategy.selectList(session, "list", query, new PartialListResultHandler());
+        assertThat(limits.get(0), is(11));
+        assertThat(limits.get(1), is(21));
+        assertThat(query.getLimit(), is(10));
+        assertThat(query.getTail(), is(20));
+        PartialList<Integer> partial = (PartialList<Integer>) result;
+        assertThat(partial.size(), is(10));
+        assertThat(partial.getElementCount(), is(21));
+        assertThat(partial.getPartIndex(), is(2));
+        assertThat(partial.getPartCount(), is(3));
+        verify(session, times(1)).selectList(anyString(), Matchers.any());
+    }
+
+    @Test
+    public void Paginatableで次ページが存在しない場合はトータル件数が算出される() {
+        JxSqlSessionIntegrationTestCriteria query = new JxSqlSessionIntegrationTestCriteria();
+        Paginates.set(query, 2, 10);
+        doReturn(rows(5)).when(session).selectList("list", query);
+        PartialList<Integer> partial =
+                (PartialList<Integer>) strategy.<Integer>selectList(session, "list", query, new PartialListResultHandler());
+        assertThat(partial.size(), is(5));
+        assertThat(partial.getElementCount(), is(15));
+        assertThat(partial.getPartIndex(), is(2));
+        assertThat(partial.getPartCount(), is(2));
+    }
+
+    @Test
+    public void RowBoundsでは1件多く検索される() {
+        Object parameter = new Object();
+        doReturn(rows(11)).when(session).selectList(eq("list"), same(parameter), Matchers.any(RowBounds.class));
+        PartialList<Integer> partial = (PartialList<Integer>) strategy.<Integer>selectList(
+                session, "list", parameter, new RowBounds(10, 10), new PartialListResultHandler());
+        ArgumentCaptor<RowBounds> bounds = ArgumentCaptor.forClass(RowBounds.class);
+        verify(session).selectList(eq("list"), same(parameter), bounds.capture());
+        assertThat(bounds.getValue().getOffset(), is(10));
+        assertThat(bounds.getValue().getLimit(), is(11));
+        assertThat(partial.size(), is(10));
+        assertThat(partial.getElementCount(), is(21));
+        assertThat(partial.getPartIndex(), is(2));
+        assertThat(partial.getPartCount(), is(3));
+    }
+
+    private static List<Integer> rows(int size) {
+        List<Integer> rows = new ArrayList<Integer>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(i);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jp.co.ctc_g.jfw.core.util.PartialList;
+import jp.co.ctc_g.jfw.paginate.Paginates;
+
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+
+public class WindowCountPaginationStrategyTest {
+
+    protected WindowCountPaginationStrategy strategy;
+    protected SqlSession session;
+
+    @Before
+    public void instantiate() {
+        strategy = new WindowCountPaginationStrategy();
+        session = mock(SqlSession.class);
+    }
+
+    @Test
+    public void Javaビーンのカウントプロパティからトータル件数を取得できる() {
+        JxSqlSessionIntegrationTestCriteria query = new JxSqlSessionIntegrationTestCriteria();
+        Paginates.set(query, 1, 10);
+        List<WindowCountPaginationStrategyTestBean> rows = new ArrayList<WindowCountPaginationStrategyTestBean>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(new WindowCountPaginationStrategyTestBean(35L));
+        }
+        doReturn(rows).when(session).selectList("list", query);
+        PartialList<WindowCountPaginationStrategyTestBean> partial = (PartialList<WindowCountPaginationStrategyTestBean>)
+                strategy.<WindowCountPaginationStrategyTestBean>selectList(session, "list", query, new PartialListResultHandler());
+        assertThat(partial.getElementCount(), is(35));
+        assertThat(partial.getPartCount(), is(4));
+        assertThat(partial.getPartIndex(), is(1));
+        verify(session, times(1)).selectList(anyString(), Matchers.any());
+    }
+
+    @Test
+    public void マップのキーは大文字小文字とアンダースコアを無視して一致する() {
+        Map<String, Object> row = new HashMap<String, Object>();
+        row.put("ID", 1);
+        row.put("TOTAL_COUNT", 42L);
+        Object parameter = new Object();
+        doReturn(Collections.singletonList(row)).when(session).selectList(eq("list"), same(parameter), Matchers.any(RowBounds.class));
+        PartialList<Map<String, Object>> partial = (PartialList<Map<String, Object>>)
+                strategy.<Map<String, Object>>selectList(session, "list", parameter, new RowBounds(40, 10), new PartialListResultHandler());
+        assertThat(partial.getElementCount(), is(42));
+        assertThat(partial.getPartCount(), is(5));
+        assertThat(partial.getPartIndex(), is(5));
+    }
+
+    @Test
+    public void カウントプロパティを変更できる() {
+        strategy.setCountProperty("cnt");
+        Map<String, Object> row = new HashMap<String, Object>();
+        row.put("cnt", "7");
+        Object parameter = new Object();
+        doReturn(Collections.singletonList(row)).when(session).selectList(eq("list"), same(parameter), Matchers.any(RowBounds.class));
+        PartialList<Map<String, Object>> partial = (PartialList<Map<String, Object>>)
+                strategy.<Map<String, Object>>selectList(session, "list", parameter, new RowBounds(0, 10), new PartialListResultHandler());
+        assertThat(partial.getElementCount(), is(7));
+    }
+
+    @Test
+    public void 検索結果が空の場合はページの開始位置からトータル件数が算出される() {
+        JxSqlSessionIntegrationTestCriteria query = new JxSqlSessionIntegrationTestCriteria();
+        Paginates.set(query, 1, 10);
+        doReturn(new ArrayList<Object>()).when(session).selectList("list", query);
+        PartialList<Object> partial =
+                (PartialList<Object>) strategy.<Object>selectList(session, "list", query, new PartialListResultHandler());
+        assertThat(partial.getElementCount(), is(0));
+        assertThat(partial.getPartCount(), is(0));
+    }
+}
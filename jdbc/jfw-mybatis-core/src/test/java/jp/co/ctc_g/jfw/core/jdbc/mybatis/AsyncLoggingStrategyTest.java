@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc.mybatis;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jp.co.ctc_g.jfw.core.jdbc.mybatis.AsyncLoggingStrategy.OverflowPolicy;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class AsyncLoggingStrategyTest {
+
+    private AsyncLoggingStrategy strategy;
+
+    @After
+    public void teardown() throws Exception {
+        if (strategy != null) {
+            strategy.destroy();
+        }
+    }
+
+    @Test
+    public void ログが順に出力される() throws Exception {
+        RecordingStrategy delegate = new RecordingStrategy();
+        strategy = new AsyncLoggingStrategy(delegate);
+        for (int i = 0; i < 100; i++) {
+            strategy.log("select " + i);
+        }
+        strategy.destroy();
+        assertThat(delegate.logs.size(), is(100));
+        for (int i = 0; i < 100; i++) {
+            assertThat(delegate.logs.get(i), is("select " + i));
+        }
+        assertThat(strategy.getDroppedCount(), is(0L));
+    }
+
+    @Test
+    public void SQL文の組み立てはログ出力スレッドで行われる() throws Exception {
+        RecordingStrategy delegate = new RecordingStrategy();
+        strategy = new AsyncLoggingStrategy(delegate);
+        final List<String> threads = Collections.synchronizedList(new ArrayList<String>());
+        strategy.log(new DeferredQuery() {
+            @Override
+            public String render() {
+                threads.add(Thread.currentThread().getName());
+                return "select 1";
+            }
+        });
+        strategy.destroy();
+        assertThat(threads, is(Collections.singletonList("jfw-query-logger")));
+        assertThat(delegate.logs, is(Collections.singletonList("select 1")));
+    }
+
+    @Test
+    public void DROPの場合はバッファが溢れたログを破棄する() throws Exception {
+        BlockingStrategy delegate = new BlockingStrategy();
+        strategy = new AsyncLoggingStrategy(delegate);
+        strategy.setCapacity(2);
+        strategy.log("first");
+        delegate.entered.await(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 5; i++) {
+            strategy.log("select " + i);
+        }
+        assertThat(strategy.getDroppedCount(), is(3L));
+        delegate.release.countDown();
+        strategy.destroy();
+        assertThat(delegate.logs.size(), is(3));
+    }
+
+    @Test
+    public void BLOCKの場合はバッファに空きができるまで待機する() throws Exception {
+        final BlockingStrategy delegate = new BlockingStrategy();
+        strategy = new AsyncLoggingStrategy(delegate);
+        strategy.setCapacity(1);
+        strategy.setOverflowPolicy(OverflowPolicy.BLOCK);
+        strategy.log("first");
+        delegate.entered.await(5, TimeUnit.SECONDS);
+        strategy.log("second");
+        final CountDownLatch done = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                strategy.log("third");
+                done.countDown();
+            }
+        }).start();
+        assertThat(done.await(200, TimeUnit.MILLISECONDS), is(false));
+        delegate.release.countDown();
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        strategy.destroy();
+        assertThat(delegate.logs.size(), is(3));
+        assertThat(strategy.getDroppedCount(), is(0L));
+    }
+
+    @Test
+    public void SAMPLEの場合はバッファの使用量が半分を超えると間引く() throws Exception {
+        BlockingStrategy delegate = new BlockingStrategy();
+        strategy = new AsyncLoggingStrategy(delegate);
+        strategy.setCapacity(100);
+        strategy.setOverflowPolicy(OverflowPolicy.SAMPLE);
+        strategy.setSampleInterval(10);
+        strategy.log("first");
+        delegate.entered.await(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 150; i++) {
+            strategy.log("select " + i);
+        }
+        // 50件はそのまま受け付け、残り100件は10件に1件のみ受け付けます
+        assertThat(strategy.getQueueSize(), is(60));
+        assertThat(strategy.getDroppedCount(), is(90L));
+        delegate.release.countDown();
+    }
+
+    @Test
+    public void ログレベルが無効な場合() {
+        strategy = new AsyncLoggingStrategy(new DefaultLoggingStrategy("jp.co.ctc_g.jfw.core.jdbc.mybatis.disabled", "INFO"));
+        assertThat(strategy.isEnabled(), is(false));
+        assertThat(new QueryLogger(true) {{ setLoggingStrategy(strategy); }}.isEnabled(), is(false));
+    }
+
+    @Test
+    public void 停止後はクエリ実行スレッドで出力する() throws Exception {
+        RecordingStrategy delegate = new RecordingStrategy();
+        strategy = new AsyncLoggingStrategy(delegate);
+        strategy.log("select 1");
+        strategy.destroy();
+        strategy.log("select 2");
+        assertThat(delegate.logs.size(), is(2));
+    }
+
+    @Test
+    public void BLOCKで待機中に停止した場合はクエリ実行スレッドで出力する() throws Exception {
+        final BlockingStrategy delegate = new BlockingStrategy() {
+            @Override
+            public void log(String sql) {
+                if (sql.equals("first")) {
+                    super.log(sql);
+                } else {
+                    logs.add(sql);
+                }
+            }
+        };
+        strategy = new AsyncLoggingStrategy(delegate);
+        strategy.setCapacity(1);
+        strategy.setOverflowPolicy(OverflowPolicy.BLOCK);
+        strategy.log("first");
+        delegate.entered.await(5, TimeUnit.SECONDS);
+        strategy.log("second");
+        final CountDownLatch done = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                strategy.log("third");
+                done.countDown();
+            }
+        }).start();
+        assertThat(done.await(200, TimeUnit.MILLISECONDS), is(false));
+        Thread stopper = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    strategy.destroy();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        stopper.start();
+        // ログ出力スレッドが出力中のままでも、待機していたクエリ実行スレッドは自スレッドで出力して復帰します
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(delegate.logs.contains("third"), is(true));
+        assertThat(delegate.logs.contains("first"), is(false));
+        delegate.release.countDown();
+        stopper.join(5000);
+        assertThat(delegate.logs.size(), is(3));
+        assertThat(strategy.getDroppedCount(), is(0L));
+    }
+
+    @Test
+    public void パラメータはログ出力要求の格納時点の値で出力される() throws Exception {
+        final StringBuilder parameter = new StringBuilder("before");
+        PlaceholderQueryBuilder builder = new PlaceholderQueryBuilder() {
+            @Override
+            protected List<Object> createParameterList(QueryInformation queryInformation) {
+                return Collections.<Object>singletonList(parameter);
+            }
+
+            @Override
+            public String build(QueryInformation queryInformation) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        QueryInformation information = new QueryInformation() {
+            @Override
+            public String getPreparedQuery() {
+                return "select * from t where a = ?";
+            }
+        };
+        BlockingStrategy delegate = new BlockingStrategy();
+        strategy = new AsyncLoggingStrategy(delegate);
+        strategy.log("first");
+        delegate.entered.await(5, TimeUnit.SECONDS);
+        strategy.log(builder.defer(information));
+        parameter.replace(0, parameter.length(), "after");
+        delegate.release.countDown();
+        strategy.destroy();
+        assertThat(delegate.logs.get(1), is("select * from t where a = before"));
+    }
+
+    static class RecordingStrategy implements LoggingStrategy {
+
+        final List<String> logs = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public void log(String sql) {
+            logs.add(sql);
+        }
+    }
+
+    static class BlockingStrategy extends RecordingStrategy {
+
+        final CountDownLatch entered = new CountDownLatch(1);
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void log(String sql) {
+            entered.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.log(sql);
+        }
+    }
+}
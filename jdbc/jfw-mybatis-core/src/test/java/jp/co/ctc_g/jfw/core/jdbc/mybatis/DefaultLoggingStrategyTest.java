@@ -17,6 +17,7 @@
 package jp.co.ctc_g.jfw.core.jdbc.mybatis;
 
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
 import java.io.ByteArrayOutputStream;
@@ -88,4 +89,15 @@ public class DefaultLoggingStrategyTest {
         assertThat(new String(buffer.toByteArray()), containsString("ERROR select 1 from dual;"));
     }
 
+    @Test
+    public void ログレベルが有効な場合() {
+        assertThat(new DefaultLoggingStrategy().isEnabled(), is(true));
+        assertThat(new DefaultLoggingStrategy("TRACE").isEnabled(), is(true));
+    }
+
+    @Test
+    public void ログレベルが無効な場合() {
+        assertThat(new DefaultLoggingStrategy("jp.co.ctc_g.jfw.core.jdbc.mybatis.disabled", "FATAL").isEnabled(), is(false));
+    }
+
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc.mybatis;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+
+import jp.co.ctc_g.jfw.core.internal.InternalException;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Invocation;
+import org.junit.Test;
+import org.springframework.beans.factory.BeanFactory;
+
+public class QueryLoggingInterceptorTest {
+
+    private QueryLoggingInterceptor create(LoggingStrategy strategy) throws Exception {
+        BeanFactory beanFactory = mock(BeanFactory.class);
+        when(beanFactory.getBean(LoggingStrategy.class)).thenReturn(strategy);
+        QueryLoggingInterceptor interceptor = new QueryLoggingInterceptor();
+        interceptor.setBeanFactory(beanFactory);
+        interceptor.afterPropertiesSet();
+        return interceptor;
+    }
+
+    private Invocation invocation(StatementHandler handler) throws Exception {
+        return new Invocation(handler, StatementHandler.class.getMethod("prepare", Connection.class), new Object[] {null});
+    }
+
+    @Test
+    public void ログ出力が無効な場合はクエリー情報を解析せずに実行する() throws Throwable {
+        LoggingStrategy strategy = new DefaultLoggingStrategy("jp.co.ctc_g.jfw.core.jdbc.mybatis.disabled", "INFO");
+        StatementHandler handler = mock(StatementHandler.class);
+        create(strategy).intercept(invocation(handler));
+        verify(handler).prepare(null);
+    }
+
+    @Test(expected = InternalException.class)
+    public void ログ出力が有効な場合はクエリー情報を解析する() throws Throwable {
+        LoggingStrategy strategy = mock(LoggingStrategy.class);
+        StatementHandler handler = mock(StatementHandler.class);
+        try {
+            create(strategy).intercept(invocation(handler));
+        } finally {
+            verify(strategy, never()).log(any(String.class));
+            verify(handler, never()).prepare(any(Connection.class));
+        }
+    }
+}
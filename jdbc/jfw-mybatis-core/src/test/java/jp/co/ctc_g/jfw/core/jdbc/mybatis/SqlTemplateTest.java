@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc.mybatis;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class SqlTemplateTest {
+
+    private static final LiteralConvertorRegistory REGISTORY = LiteralConvertorRegistory.getInstance();
+
+    @Test
+    public void プレースホルダーが順に置換される() {
+        SqlTemplate template = SqlTemplate.parse("select * from t where a = ? and b = ?", false);
+        assertThat(template.getPlaceholderCount(), is(2));
+        assertThat(template.render(Arrays.<Object>asList("x", 1), REGISTORY), is("select * from t where a = 'x' and b = 1"));
+    }
+
+    @Test
+    public void nullはNULLリテラルに置換される() {
+        SqlTemplate template = SqlTemplate.parse("update t set a = ?", false);
+        List<Object> parameters = new ArrayList<Object>();
+        parameters.add(null);
+        assertThat(template.render(parameters, REGISTORY), is("update t set a = " + REGISTORY.getConverter(null).convert(null)));
+    }
+
+    @Test
+    public void リテラルとコメント内のプレースホルダーは置換されない() {
+        SqlTemplate template = SqlTemplate.parse("select '?', 'it''s ?', \"?\" /* ? */ from t -- ?\nwhere a = ?", false);
+        assertThat(template.getPlaceholderCount(), is(1));
+        assertThat(template.render(Arrays.<Object>asList(1), REGISTORY), is("select '?', 'it''s ?', \"?\" /* ? */ from t -- ?\nwhere a = 1"));
+    }
+
+    @Test
+    public void パラメータ値に含まれるプレースホルダーは置換されない() {
+        SqlTemplate template = SqlTemplate.parse("select * from t where a = ? and b = ?", false);
+        assertThat(template.render(Arrays.<Object>asList("?", "$1"), REGISTORY), is("select * from t where a = '?' and b = '$1'"));
+    }
+
+    @Test
+    public void パラメータが不足する場合はプレースホルダーが残る() {
+        SqlTemplate template = SqlTemplate.parse("select * from t where a = ? and b = ?", false);
+        assertThat(template.render(Arrays.<Object>asList(1), REGISTORY), is("select * from t where a = 1 and b = ?"));
+        assertThat(template.render(Arrays.<Object>asList(1, 2, 3), REGISTORY), is("select * from t where a = 1 and b = 2"));
+    }
+
+    @Test
+    public void 正規化するとリテラルの外側の空白文字が1個のスペースになる() {
+        SqlTemplate template = SqlTemplate.parse("select\r\n  a,\t\tb\n from t\n where c = '  x\n'", true);
+        assertThat(template.render(null, REGISTORY), is("select a, b from t where c = '  x\n'"));
+    }
+
+    @Test
+    public void 閉じられていないリテラルは末尾までリテラルとみなす() {
+        SqlTemplate template = SqlTemplate.parse("select ? from t where a = 'abc ?", false);
+        assertThat(template.getPlaceholderCount(), is(1));
+    }
+
+    @Test
+    public void 大量のプレースホルダーを置換できる() {
+        StringBuilder sql = new StringBuilder("select * from t where id in (?");
+        List<Object> parameters = new ArrayList<Object>();
+        parameters.add(0);
+        StringBuilder expected = new StringBuilder("select * from t where id in (0");
+        for (int i = 1; i < 5000; i++) {
+            sql.append(", ?");
+            parameters.add(i);
+            expected.append(", ").append(i);
+        }
+        sql.append(")");
+        expected.append(")");
+        SqlTemplate template = SqlTemplate.parse(sql.toString(), true);
+        assertThat(template.getPlaceholderCount(), is(5000));
+        assertThat(template.render(parameters, REGISTORY), is(expected.toString()));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc.mybatis.metrics;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import jp.co.ctc_g.jfw.core.jdbc.mybatis.QueryLoggerIntegrationTestBeanMapper;
+import jp.co.ctc_g.jfw.core.jdbc.mybatis.QueryLoggerTestBean;
+import jp.co.ctc_g.jfw.test.unit.DatabaseInitialize;
+import jp.co.ctc_g.jfw.test.unit.J2Unit4ClassRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+
+@RunWith(J2Unit4ClassRunner.class)
+@ContextConfiguration(locations = "/jp/co/ctc_g/jfw/core/jdbc/mybatis/metrics/StatementMetricsIntegrationTestContext.xml")
+public class StatementMetricsIntegrationTest {
+
+    private static final String ID = "jp.co.ctc_g.jfw.core.jdbc.mybatis.QueryLoggerIntegrationTestBeanMapper.findByPreparedQuery";
+
+    @Autowired
+    protected QueryLoggerIntegrationTestBeanMapper mapper;
+
+    @Autowired
+    protected StatementMetricsInterceptor interceptor;
+
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    private PrintStream original;
+
+    @Before
+    public void readyBuffer() {
+        original = System.out;
+        System.setOut(new PrintStream(buffer));
+        interceptor.getRegistry().reset();
+    }
+
+    @After
+    public void resetBuffer() {
+        buffer.reset();
+        System.setOut(original);
+    }
+
+    @Test
+    @DatabaseInitialize
+    public void 実行回数と件数がJMXで公開される() throws Exception {
+        QueryLoggerTestBean bean = new QueryLoggerTestBean();
+        bean.setId(2);
+        mapper.findByPreparedQuery(bean);
+        mapper.findByPreparedQuery(bean);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("jp.co.ctc_g.jfw.core.jdbc.mybatis:type=StatementMetrics,name=StatementMetricsIntegrationTest");
+        CompositeData statistics = (CompositeData) server.invoke(name, "getStatistics", new Object[] {ID}, new String[] {String.class.getName()});
+        assertThat((Long) statistics.get("count"), is(2L));
+        assertThat((Long) statistics.get("rows"), is(2L));
+        assertThat((Long) statistics.get("errorCount"), is(0L));
+    }
+
+    @Test
+    @DatabaseInitialize
+    public void スロークエリログにパラメータを埋め込んだSQLが出力される() throws Exception {
+        QueryLoggerTestBean bean = new QueryLoggerTestBean();
+        bean.setId(3);
+        mapper.findByPreparedQuery(bean);
+        String log = new String(buffer.toByteArray(), "UTF-8");
+        assertThat(log, containsString(ID));
+        assertThat(log, containsString("from QUERY_LOGGER_INTEGRATION_TEST where id = 3"));
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.jdbc.mybatis.metrics;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import jp.co.ctc_g.jfw.core.jdbc.mybatis.LoggingStrategy;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class StatementMetricsInterceptorTest {
+
+    private Configuration configuration;
+
+    private MappedStatement select;
+
+    private MappedStatement update;
+
+    private Executor target;
+
+    private LoggingStrategy strategy;
+
+    private StatementMetricsInterceptor interceptor;
+
+    private Executor executor;
+
+    private Map<String, Object> parameter;
+
+    @Before
+    public void setup() {
+        configuration = new Configuration();
+        List<ParameterMapping> mappings = Arrays.asList(new ParameterMapping.Builder(configuration, "id", Integer.class).build());
+        select = new MappedStatement.Builder(configuration, "test.find",
+            new StaticSqlSource(configuration, "select *\n  from t\n where id = ?", mappings), SqlCommandType.SELECT).build();
+        update = new MappedStatement.Builder(configuration, "test.update",
+            new StaticSqlSource(configuration, "update t set a = 1 where id = ?", mappings), SqlCommandType.UPDATE).build();
+        target = mock(Executor.class);
+        strategy = mock(LoggingStrategy.class);
+        interceptor = new StatementMetricsInterceptor();
+        interceptor.setRegisterMBean(false);
+        interceptor.setSlowQueryLoggingStrategy(strategy);
+        executor = (Executor) interceptor.plugin(target);
+        parameter = new HashMap<String, Object>();
+        parameter.put("id", 10);
+    }
+
+    @Test
+    public void 問い合わせの回数と件数が記録される() throws Exception {
+        when(target.query(select, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER)).thenReturn(Arrays.<Object>asList("a", "b"));
+        executor.query(select, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+        executor.query(select, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+        StatementStatistics statistics = interceptor.getRegistry().getStatistics("test.find");
+        assertThat(statistics.getCount(), is(2L));
+        assertThat(statistics.getRows(), is(4L));
+        assertThat(statistics.getErrorCount(), is(0L));
+        assertThat(statistics.getSlowCount(), is(0L));
+        verify(strategy, never()).log(anyString());
+    }
+
+    @Test
+    public void 更新件数が記録される() throws Exception {
+        when(target.update(update, parameter)).thenReturn(3);
+        executor.update(update, parameter);
+        StatementStatistics statistics = interceptor.getRegistry().getStatistics("test.update");
+        assertThat(statistics.getCount(), is(1L));
+        assertThat(statistics.getRows(), is(3L));
+    }
+
+    @Test
+    public void 例外が発生した回数が記録される() throws Exception {
+        SQLException cause = new SQLException("error");
+        when(target.update(update, parameter)).thenThrow(cause);
+        try {
+            executor.update(update, parameter);
+            fail();
+        } catch (SQLException e) {
+            assertThat(e, is(cause));
+        }
+        StatementStatistics statistics = interceptor.getRegistry().getStatistics("test.update");
+        assertThat(statistics.getCount(), is(1L));
+        assertThat(statistics.getErrorCount(), is(1L));
+    }
+
+    @Test
+    public void 閾値以上の場合はスロークエリログが出力される() throws Exception {
+        interceptor.setSlowQueryThresholdMillis(0L);
+        when(target.query(select, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER)).thenReturn(Collections.emptyList());
+        executor.query(select, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(strategy).log(captor.capture());
+        assertThat(captor.getValue(), containsString("test.find"));
+        assertThat(captor.getValue(), containsString("select * from t where id = 10"));
+        assertThat(interceptor.getRegistry().getStatistics("test.find").getSlowCount(), is(1L));
+    }
+
+    @Test
+    public void 閾値が負の場合はスロークエリログが出力されない() throws Exception {
+        interceptor.setSlowQueryThresholdMillis(-1L);
+        executor.update(update, parameter);
+        verify(strategy, never()).log(anyString());
+    }
+
+    @Test
+    public void 集計値を破棄する() throws Exception {
+        executor.update(update, parameter);
+        interceptor.getRegistry().reset();
+        assertThat(interceptor.getRegistry().getStatistics("test.update").getCount(), is(0L));
+        assertThat(interceptor.getRegistry().getStatementIds(), is(Arrays.asList("test.update")));
+    }
+
+    @Test
+    public void 名前を指定しない場合は重複しない名前でMBeanが登録される() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        StatementMetricsInterceptor first = new StatementMetricsInterceptor();
+        StatementMetricsInterceptor second = new StatementMetricsInterceptor();
+        first.setMbeanServer(server);
+        second.setMbeanServer(server);
+        first.afterPropertiesSet();
+        second.afterPropertiesSet();
+        ObjectName name = first.getRegisteredName();
+        assertThat(name.getKeyProperty("type"), is("StatementMetrics"));
+        assertThat(name.equals(second.getRegisteredName()), is(false));
+        assertThat(server.isRegistered(name), is(true));
+        first.destroy();
+        second.destroy();
+        assertThat(server.isRegistered(name), is(false));
+        assertThat(first.getRegisteredName(), is(nullValue()));
+    }
+}
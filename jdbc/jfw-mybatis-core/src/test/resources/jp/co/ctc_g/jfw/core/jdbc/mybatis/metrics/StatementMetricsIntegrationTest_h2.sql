@@ -0,0 +1,17 @@
+DROP TABLE IF EXISTS QUERY_LOGGER_INTEGRATION_TEST;
+
+CREATE TABLE IF NOT EXISTS QUERY_LOGGER_INTEGRATION_TEST (
+  ID INTEGER PRIMARY KEY,
+  STR VARCHAR(32),
+  SQL_DATE DATE,
+  TM TIME,
+  TS TIMESTAMP,
+  UTL_DATE DATE
+);
+
+DROP SEQUENCE IF EXISTS QUERY_LOGGER_INTEGRATION_TEST_SEQUENCE;
+
+CREATE SEQUENCE IF NOT EXISTS QUERY_LOGGER_INTEGRATION_TEST_SEQUENCE START WITH 1 INCREMENT BY 1;
+INSERT INTO QUERY_LOGGER_INTEGRATION_TEST VALUES (nextval('QUERY_LOGGER_INTEGRATION_TEST_SEQUENCE'), '1', '2011-11-01', '09:00:01', '2011-11-01 09:00:01.000000000', '2011-12-01');
+INSERT INTO QUERY_LOGGER_INTEGRATION_TEST VALUES (nextval('QUERY_LOGGER_INTEGRATION_TEST_SEQUENCE'), '2', '2011-11-02', '09:00:02', '2011-11-02 09:00:02.000000000', '2011-12-02');
+INSERT INTO QUERY_LOGGER_INTEGRATION_TEST VALUES (nextval('QUERY_LOGGER_INTEGRATION_TEST_SEQUENCE'), '3', '2011-11-03', '09:00:03', '2011-11-03 09:00:03.000000000', '2011-12-03');
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.entity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ * このクラスは、{@link ErrorMessage}をJSON形式で書き出すユーティリティです。
+ * </p>
+ * <p>
+ * 例外が大量に発生した場合でもレスポンスの構築の負荷を抑えるため、
+ * ステータスコード、エラーコード、エラーメッセージからなる静的な部分は
+ * UTF-8のバイト列として組み合わせごとにキャッシュし、
+ * リクエストごとに異なるUUIDとバリデーションメッセージのみを都度書き出します。
+ * キャッシュする組み合わせの数は{@value #MAX_CACHED_FRAGMENTS}件までで、
+ * それを超えた組み合わせはキャッシュせずに書き出します。
+ * </p>
+ * <p>
+ * 書き出す内容は、Jacksonで{@link ErrorMessage}を変換した場合と同じです。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public final class ErrorMessageJsonWriter {
+
+    /**
+     * キャッシュする静的な部分の最大数です。
+     */
+    public static final int MAX_CACHED_FRAGMENTS = 512;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final String[] ESCAPES = new String[128];
+    static {
+        for (int i = 0; i < 0x20; i++) {
+            ESCAPES[i] = String.format("\\u%04X", i);
+        }
+        ESCAPES['"'] = "\\\"";
+        ESCAPES['\\'] = "\\\\";
+        ESCAPES['\b'] = "\\b";
+        ESCAPES['\t'] = "\\t";
+        ESCAPES['\n'] = "\\n";
+        ESCAPES['\f'] = "\\f";
+        ESCAPES['\r'] = "\\r";
+    }
+
+    private static final ConcurrentMap<Key, byte[]> FRAGMENTS = new ConcurrentHashMap<Key, byte[]>();
+
+    /**
+     * コンストラクタです。
+     * インスタンスの生成を抑止します。
+     */
+    private ErrorMessageJsonWriter() {}
+
+    /**
+     * 指定された{@link ErrorMessage}をJSON形式のバイト列に変換します。
+     * @param error 変換対象の{@link ErrorMessage}
+     * @return UTF-8でエンコードしたJSON
+     */
+    public static byte[] toByteArray(ErrorMessage error) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        try {
+            write(error, out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 指定された{@link ErrorMessage}をJSON形式で書き出します。
+     * @param error 書き出し対象の{@link ErrorMessage}
+     * @param out 書き出し先
+     * @throws IOException 書き出しに失敗した場合
+     */
+    public static void write(ErrorMessage error, OutputStream out) throws IOException {
+        out.write('{');
+        if (error.getId() != null) {
+            StringBuilder sb = new StringBuilder(48);
+            sb.append("\"id\":");
+            quote(sb, error.getId());
+            sb.append(',');
+            out.write(sb.toString().getBytes(UTF8));
+        }
+        out.write(fragment(error.getStatus(), error.getCode(), error.getMessage()));
+        List<ValidationMessage> validations = error.getValidationMessages();
+        if (validations != null) {
+            StringBuilder sb = new StringBuilder(64 * (validations.size() + 1));
+            sb.append(",\"validationMessages\":[");
+            boolean first = true;
+            for (ValidationMessage v : validations) {
+                if (!first) sb.append(',');
+                first = false;
+                sb.append("{\"path\":");
+                quote(sb, v.getPath());
+                sb.append(",\"message\":");
+                quote(sb, v.getMessage());
+                sb.append('}');
+            }
+            sb.append(']');
+            out.write(sb.toString().getBytes(UTF8));
+        }
+        out.write('}');
+    }
+
+    /**
+     * キャッシュしている静的な部分をすべて破棄します。
+     */
+    public static void clearCache() {
+        FRAGMENTS.clear();
+    }
+
+    private static byte[] fragment(int status, String code, String message) {
+        Key key = new Key(status, code, message);
+        byte[] cached = FRAGMENTS.get(key);
+        if (cached != null) return cached;
+        StringBuilder sb = new StringBuilder(64);
+        sb.append("\"status\":").append(status);
+        if (code != null) {
+            sb.append(",\"code\":");
+            quote(sb, code);
+        }
+        sb.append(",\"message\":");
+        quote(sb, message);
+        byte[] bytes = sb.toString().getBytes(UTF8);
+        if (FRAGMENTS.size() < MAX_CACHED_FRAGMENTS) FRAGMENTS.putIfAbsent(key, bytes);
+        return bytes;
+    }
+
+    private static void quote(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 128 && ESCAPES[c] != null) {
+                sb.append(ESCAPES[c]);
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    private static final class Key {
+
+        private final int status;
+
+        private final String code;
+
+        private final String message;
+
+        private final int hash;
+
+        private Key(int status, String code, String message) {
+            this.status = status;
+            this.code = code;
+            this.message = message;
+            int h = status;
+            h = 31 * h + (code != null ? code.hashCode() : 0);
+            h = 31 * h + (message != null ? message.hashCode() : 0);
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return status == other.status
+                && (code == null ? other.code == null : code.equals(other.code))
+                && (message == null ? other.message == null : message.equals(other.message));
+        }
+    }
+
+}
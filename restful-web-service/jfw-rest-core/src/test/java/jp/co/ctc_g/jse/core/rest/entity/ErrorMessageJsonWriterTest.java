@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.entity;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ErrorMessageJsonWriterTest {
+
+    private ObjectMapper mapper;
+
+    private ErrorMessage error;
+
+    @Before
+    public void setup() {
+        mapper = new ObjectMapper();
+        error = new ErrorMessage();
+        error.setStatus(404);
+        error.setCode("W-REST-CLIENT#404");
+        error.setMessage("リソースが見つかりません。");
+    }
+
+    @Test
+    public void Jacksonと同じJSONが書き出される() throws Exception {
+        assertThat(json(error), is(mapper.writeValueAsString(error)));
+    }
+
+    @Test
+    public void IDとバリデーションメッセージが書き出される() throws Exception {
+        error.setId(UUID.randomUUID().toString());
+        List<ValidationMessage> msgs = new ArrayList<ValidationMessage>();
+        msgs.add(new ValidationMessage("id", "必須です。"));
+        msgs.add(new ValidationMessage(null, "100文字以内で入力してください。"));
+        error.setValidationMessages(msgs);
+        assertThat(json(error), is(mapper.writeValueAsString(error)));
+    }
+
+    @Test
+    public void NULLのプロパティはJacksonと同じく扱われる() throws Exception {
+        error.setCode(null);
+        error.setMessage(null);
+        assertThat(json(error), is(mapper.writeValueAsString(error)));
+    }
+
+    @Test
+    public void 特殊文字がエスケープされる() throws Exception {
+        error.setMessage("\"quote\" \\ / \b\f\n\r\t \u0001  ");
+        assertThat(json(error), is(mapper.writeValueAsString(error)));
+    }
+
+    @Test
+    public void キャッシュされた部分が再利用される() throws Exception {
+        String first = json(error);
+        error.setId("abc");
+        String second = json(error);
+        error.setId(null);
+        assertThat(json(error), is(first));
+        assertThat(second, is(mapper.writeValueAsString(error).replace("{", "{\"id\":\"abc\",")));
+    }
+
+    private static String json(ErrorMessage error) throws Exception {
+        return new String(ErrorMessageJsonWriter.toByteArray(error), "UTF-8");
+    }
+}
@@ -23,6 +23,7 @@ import jp.co.ctc_g.jse.core.rest.jersey.exception.mapper.ApplicationRecoverableE
 import jp.co.ctc_g.jse.core.rest.jersey.exception.mapper.ApplicationUnrecoverableExceptionMapper;
 import jp.co.ctc_g.jse.core.rest.jersey.exception.mapper.BadRequestExceptionMapper;
 import jp.co.ctc_g.jse.core.rest.jersey.exception.mapper.ClientErrorExceptionMapper;
+import jp.co.ctc_g.jse.core.rest.jersey.exception.mapper.ErrorMessageBodyWriter;
 import jp.co.ctc_g.jse.core.rest.jersey.exception.mapper.InternalServerErrorExceptionMapper;
 import jp.co.ctc_g.jse.core.rest.jersey.exception.mapper.NotAcceptableExceptionMapper;
 import jp.co.ctc_g.jse.core.rest.jersey.exception.mapper.NotAllowedExceptionMapper;
@@ -71,6 +72,10 @@ import jp.co.ctc_g.jse.core.rest.jersey.exception.mapper.ValidationExceptionMapp
  * </ol>
  * 詳細はそれぞれの例外ハンドラを参照してください。
  * </p>
+ * <p>
+ * また、{@link #getMessageBodyWriters()}で取得できるプロバイダを登録すると、
+ * 例外ハンドラが返却するエラーレスポンスを事前に変換したバイト列を利用して書き出します。
+ * </p>
  * @author ITOCHU Techno-Solutions Corporation.
  */
 public final class JerseyConfigs {
@@ -104,4 +109,17 @@ public final class JerseyConfigs {
         return classes;
     }
 
+    /**
+     * フレームワークが提供する以下のエラーレスポンスのプロバイダのクラス情報を取得します。
+     * <ul>
+     * <li>{@link ErrorMessageBodyWriter}</li>
+     * </ul>
+     * @return MessageBodyWriter
+     */
+    public static Set<Class<?>> getMessageBodyWriters() {
+        Set<Class<?>> classes = new LinkedHashSet<Class<?>>();
+        classes.add(ErrorMessageBodyWriter.class);
+        return classes;
+    }
+
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.jersey.exception.mapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import jp.co.ctc_g.jse.core.rest.entity.ErrorMessage;
+import jp.co.ctc_g.jse.core.rest.entity.ErrorMessageJsonWriter;
+
+/**
+ * <p>
+ * このクラスは、例外ハンドラが返却する{@link ErrorMessage}をJSON形式で書き出すプロバイダです。
+ * </p>
+ * <p>
+ * {@link ErrorMessageJsonWriter}を利用し、エラーレスポンスの静的な部分は事前に変換したバイト列を書き出します。
+ * 書き出す内容はJacksonのプロバイダと同じですが、
+ * エラーが大量に発生した場合のシリアライズの負荷を抑えることができます。
+ * {@link ErrorMessage}専用のプロバイダであるため、登録するとJacksonのプロバイダより優先して利用されます。
+ * </p>
+ * @see jp.co.ctc_g.jse.core.rest.jersey.config.JerseyConfigs#getMessageBodyWriters()
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class ErrorMessageBodyWriter implements MessageBodyWriter<ErrorMessage> {
+
+    /**
+     * デフォルトコンストラクタです。
+     */
+    public ErrorMessageBodyWriter() {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return ErrorMessage.class.isAssignableFrom(type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSize(ErrorMessage error, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(ErrorMessage error, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException, WebApplicationException {
+        ErrorMessageJsonWriter.write(error, entityStream);
+    }
+
+}
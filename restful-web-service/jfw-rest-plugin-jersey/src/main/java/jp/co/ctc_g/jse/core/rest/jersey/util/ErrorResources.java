@@ -20,6 +20,8 @@ import java.util.Locale;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 import java.util.ResourceBundle.Control;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import jp.co.ctc_g.jfw.core.internal.InternalMessages;
 import jp.co.ctc_g.jfw.core.util.Maps;
@@ -36,6 +38,11 @@ import org.slf4j.LoggerFactory;
  * <p>
  * ロケールが指定されなかった場合はデフォルトのロケールを利用します。
  * </p>
+ * <p>
+ * 解決したメッセージはキーとロケールの組み合わせごとにキャッシュします。
+ * 404や400のエラーが大量に発生した場合でも、リソースバンドルの検索はキーとロケールごとに1度のみとなります。
+ * キャッシュの有効期間は{@link ErrorMessageCacheControl}によるリソースバンドルの有効期間と同じです。
+ * </p>
  * @author ITOCHU Techno-Solutions Corporation.
  */
 public final class ErrorResources {
@@ -43,6 +50,8 @@ public final class ErrorResources {
     private static final Logger L = LoggerFactory.getLogger(ErrorResources.class);
     private static final ResourceBundle R = InternalMessages.getBundle(ErrorResources.class);
     private static final String RESOURCE_NAME = "ErrorMessages";
+    private static final int MAX_CACHED_MESSAGES = 1024;
+    private static final ConcurrentMap<String, CachedMessage> CACHE = new ConcurrentHashMap<String, CachedMessage>();
 
     /**
      * コンストラクタです。
@@ -69,16 +78,43 @@ public final class ErrorResources {
      */
     public static String find(String key, Locale locale) {
         if (Strings.isEmpty(key)) return key;
+        Locale current = locale != null ? locale : Locale.getDefault();
+        String cacheKey = current.toString() + '|' + key;
+        long now = System.currentTimeMillis();
+        CachedMessage cached = CACHE.get(cacheKey);
+        if (cached != null && cached.expires > now) return cached.message;
         String msg = key;
+        ErrorMessageCacheControl control = new ErrorMessageCacheControl(Control.FORMAT_PROPERTIES);
         try {
-            msg = ResourceBundle.getBundle(RESOURCE_NAME, locale != null ? locale : Locale.getDefault(),
-                new ErrorMessageCacheControl(Control.FORMAT_PROPERTIES)).getString(key);
+            msg = ResourceBundle.getBundle(RESOURCE_NAME, current, control).getString(key);
         } catch (MissingResourceException e) {
             if (L.isDebugEnabled()) {
                 L.debug(Strings.substitute(R.getString("D-REST-JERSEY-UTIL#0001"), Maps.hash("key", key)));
             }
         }
+        if (cached != null || CACHE.size() < MAX_CACHED_MESSAGES) {
+            CACHE.put(cacheKey, new CachedMessage(msg, now + control.getTimeToLive(RESOURCE_NAME, current)));
+        }
         return msg;
     }
 
+    /**
+     * キャッシュしているメッセージをすべて破棄します。
+     */
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    private static final class CachedMessage {
+
+        private final String message;
+
+        private final long expires;
+
+        private CachedMessage(String message, long expires) {
+            this.message = message;
+            this.expires = expires;
+        }
+    }
+
 }
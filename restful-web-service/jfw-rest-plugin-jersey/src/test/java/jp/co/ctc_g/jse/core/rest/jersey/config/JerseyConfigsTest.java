@@ -31,4 +31,10 @@ public class JerseyConfigsTest {
         assertThat(classes.size(), is(14));
     }
 
+    @Test
+    public void 想定したMessageBodyWriterが返却される() {
+        Set<Class<?>> classes = JerseyConfigs.getMessageBodyWriters();
+        assertThat(classes.size(), is(1));
+    }
+
 }
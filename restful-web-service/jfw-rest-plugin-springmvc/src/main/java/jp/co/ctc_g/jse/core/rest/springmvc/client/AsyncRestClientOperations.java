@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.client;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.web.client.AsyncRestOperations;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * <p>
+ * このクラスは、J-Frameworkにより拡張された {@link AsyncRestOperations} です。
+ * {@link RestClientOperations}の非同期版であり、AsyncRestOperationsのラッパーとして動作します。
+ * </p>
+ * <p>
+ * 各メソッドはリクエストの完了を待たずに{@link ListenableFuture}を返却します。
+ * 処理結果は{@link ListenableFuture#get()}で取得するか、
+ * {@link ListenableFuture#addCallback(org.springframework.util.concurrent.ListenableFutureCallback)}
+ * で登録したコールバックで受け取って下さい。
+ * 通信時に発生した例外は、{@link ListenableFuture#get()}の呼び出し時、
+ * またはコールバックの{@code onFailure}に通知されます。
+ * </p>
+ * @see AsyncRestOperations
+ * @see AsyncRestClientTemplate
+ * @see RestClientOperations
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public interface AsyncRestClientOperations extends AsyncRestOperations {
+
+    /**
+     * GETで対象URLに非同期にアクセスします。
+     * 処理結果のBodyのみ必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    <T> ListenableFuture<T> get(Target target, Class<T> responseType) throws RestClientException;
+
+    /**
+     * GETで対象URLに非同期にアクセスします。
+     * 処理結果のステータスコードやヘッダなどが必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    <T> ListenableFuture<ResponseEntity<T>> getForEntity(Target target, Class<T> responseType) throws RestClientException;
+
+    /**
+     * 複数の対象URLにGETで並行してアクセスし、すべての処理結果を待ち合わせます。
+     * 処理結果のBodyは対象URLと同じ順序で返却されます。
+     * 指定された時間内にすべての処理が完了しない場合、未完了の処理はキャンセルされます。
+     * @param targets 対象URLのリスト
+     * @param responseType レスポンスのタイプ
+     * @param timeout すべての処理の完了を待つ時間
+     * @param unit timeoutの単位
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果のリスト
+     * @throws RestClientException 通信時に発生する例外、または指定された時間内に処理が完了しなかった場合
+     */
+    <T> List<T> getAll(List<Target> targets, Class<T> responseType, long timeout, TimeUnit unit) throws RestClientException;
+
+    /**
+     * DELETEで対象URLに非同期にアクセスします。
+     * データがない場合かつ処理結果のBodyのみ必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    <T> ListenableFuture<T> delete(Target target, Class<T> responseType) throws RestClientException;
+
+    /**
+     * DELETEで対象URLに非同期にアクセスします。
+     * 処理結果のBodyのみ必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param entity 処理データなどを格納したオブジェクト
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    <T> ListenableFuture<T> delete(Target target, Entity<?> entity, Class<T> responseType) throws RestClientException;
+
+    /**
+     * DELETEで対象URLに非同期にアクセスします。
+     * データがない場合かつ処理結果のステータスコードやヘッダなどが必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    <T> ListenableFuture<ResponseEntity<T>> deleteForEntity(Target target, Class<T> responseType) throws RestClientException;
+
+    /**
+     * DELETEで対象URLに非同期にアクセスします。
+     * 処理結果のステータスコードやヘッダなどが必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param entity 処理データなどを格納したオブジェクト
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    <T> ListenableFuture<ResponseEntity<T>> deleteForEntity(Target target, Entity<?> entity, Class<T> responseType) throws RestClientException;
+
+    /**
+     * POSTで対象URLに非同期にアクセスします。
+     * 処理結果のBodyのみ必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param entity 処理データなどを格納したオブジェクト
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    <T> ListenableFuture<T> post(Target target, Entity<?> entity, Class<T> responseType) throws RestClientException;
+
+    /**
+     * POSTで対象URLに非同期にアクセスします。
+     * 処理結果のステータスコードやヘッダなどが必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param entity 処理データなどを格納したオブジェクト
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    <T> ListenableFuture<ResponseEntity<T>> postForEntity(Target target, Entity<?> entity, Class<T> responseType) throws RestClientException;
+
+    /**
+     * PUTで対象URLに非同期にアクセスします。
+     * 処理結果のBodyのみ必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param entity 処理データなどを格納したオブジェクト
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信中に発生する例外
+     */
+    <T> ListenableFuture<T> put(Target target, Entity<?> entity, Class<T> responseType) throws RestClientException;
+
+    /**
+     * PUTで対象URLに非同期にアクセスします。
+     * 処理結果のステータスコードやヘッダなどが必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param entity 処理データなどを格納したオブジェクト
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return レスポンスエンティティ
+     * @throws RestClientException 通信中に発生する例外
+     */
+    <T> ListenableFuture<ResponseEntity<T>> putForEntity(Target target, Entity<?> entity, Class<T> responseType) throws RestClientException;
+
+}
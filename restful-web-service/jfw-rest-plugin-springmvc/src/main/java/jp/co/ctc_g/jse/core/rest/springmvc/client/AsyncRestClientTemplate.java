@@ -0,0 +1,755 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.client;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import jp.co.ctc_g.jfw.core.internal.InternalMessages;
+import jp.co.ctc_g.jfw.core.util.Args;
+import jp.co.ctc_g.jfw.core.util.Maps;
+import jp.co.ctc_g.jfw.core.util.Strings;
+import jp.co.ctc_g.jse.core.rest.springmvc.client.exception.DeadlineExceededException;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureAdapter;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.web.client.AsyncRequestCallback;
+import org.springframework.web.client.AsyncRestOperations;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestOperations;
+
+/**
+ * <p>
+ * このクラスは、{@link AsyncRestClientOperations}を実装したクラスです。
+ * {@link RestClientTemplate}の非同期版であり、{@link Target}と{@link Entity}を利用して
+ * 非同期にRESTクライアントとして開発できるように{@link AsyncRestOperations}を拡張しています。
+ * </p>
+ * <p>
+ * このクラスを利用する場合は以下のようにSpringの設定ファイルに登録する必要があります。
+ * <pre>
+ *  &lt;bean id="asyncRestTemplate" class="org.springframework.web.client.AsyncRestTemplate"&gt;
+ *    &lt;property name="errorHandler"&gt;
+ *      &lt;bean class="jp.co.ctc_g.jse.core.rest.springmvc.client.handler.RestClientResponseErrorHandler" /&gt;
+ *    &lt;/property&gt;
+ *  &lt;/bean&gt;
+ *  &lt;bean id="asyncRestClientTemplate" class="jp.co.ctc_g.jse.core.rest.springmvc.client.AsyncRestClientTemplate"&gt;
+ *    &lt;property name="delegate" ref="asyncRestTemplate" /&gt;
+ *  &lt;/bean&gt;
+ * </pre>
+ * SpringMVCデフォルトの{@link org.springframework.web.client.AsyncRestTemplate}をBeanとして登録し、
+ * これをdelegateプロパティにインジェクションします。
+ * AsyncRestTemplateに{@link jp.co.ctc_g.jse.core.rest.springmvc.client.handler.RestClientResponseErrorHandler}
+ * を設定することで、{@link RestClientTemplate}と同様にHTTPステータスコードに対応した例外が通知されます。
+ * </p>
+ * <p>
+ * 複数のリクエストを並行して発行する場合は、{@link #getAll(List, Class, long, TimeUnit)}
+ * または{@link #join(List, long, TimeUnit)}を利用して下さい。
+ * {@link #join(List, long, TimeUnit)}は、すべての処理結果を1つの期限で待ち合わせ、
+ * 期限を超えた場合は未完了の処理をキャンセルして{@link DeadlineExceededException}をスローします。
+ * <pre class="brush:java">
+ * List&lt;ListenableFuture&lt;Book&gt;&gt; futures = new ArrayList&lt;ListenableFuture&lt;Book&gt;&gt;();
+ * for (String id : ids) {
+ *     futures.add(template.get(Target.target(url + "/books/{id}", id), Book.class));
+ * }
+ * List&lt;Book&gt; books = AsyncRestClientTemplate.join(futures, 3, TimeUnit.SECONDS);
+ * </pre>
+ * </p>
+ * @see AsyncRestClientOperations
+ * @see RestClientTemplate
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public class AsyncRestClientTemplate implements AsyncRestClientOperations {
+
+    private static final ResourceBundle R = InternalMessages.getBundle(AsyncRestClientTemplate.class);
+
+    /**
+     * 拡張していない部分は処理を{@link AsyncRestOperations}に委譲します。
+     */
+    private AsyncRestOperations delegate;
+
+    /**
+     * デフォルトコンストラクタです。
+     */
+    public AsyncRestClientTemplate() {}
+
+    /**
+     * コンストラクタです。
+     * @param delegate 拡張していない部分は処理を{@link AsyncRestOperations}に委譲します。
+     */
+    public AsyncRestClientTemplate(AsyncRestOperations delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * {@link AsyncRestOperations}を設定します。
+     * @param delegate AsyncRestOperationsのインスタンス
+     */
+    public void setDelegate(AsyncRestOperations delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * {@link AsyncRestOperations}を取得します。
+     * @return AsyncRestOperationsのインスタンス
+     */
+    protected AsyncRestOperations getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * 複数の非同期処理の結果を、指定された時間を期限として待ち合わせます。
+     * 処理結果は引数のリストと同じ順序で返却されます。
+     * 期限はすべての処理で共有されるため、個々の処理毎に待機時間が延長されることはありません。
+     * 処理結果はコールバックで収集されるため、いずれかの処理が失敗した時点で待ち合わせを終了します。
+     * いずれかの処理が失敗した場合や期限を超えた場合、未完了の処理はキャンセルされます。
+     * なお、{@link org.springframework.http.client.SimpleClientHttpRequestFactory}は
+     * レスポンスステータスの読み込みを処理結果の取得時まで遅延するため、期限を厳密に守ることができません。
+     * この場合は、読み込みタイムアウトを併せて設定して下さい。
+     * 処理中に発生した{@link RestClientException}は、そのままスローされます。
+     * @param futures 非同期処理のリスト
+     * @param timeout すべての処理の完了を待つ時間
+     * @param unit timeoutの単位
+     * @param <T> 処理結果のタイプ
+     * @return 処理結果のリスト
+     * @throws DeadlineExceededException 指定された時間内にすべての処理が完了しなかった場合
+     * @throws RestClientException 処理中に例外が発生した場合、または待機中に割り込まれた場合
+     */
+    public static <T> List<T> join(List<? extends ListenableFuture<? extends T>> futures, long timeout, TimeUnit unit)
+            throws RestClientException {
+        Args.checkNotNull(futures);
+        Args.checkNotNull(unit);
+        JoinCallback<T> joined = new JoinCallback<T>(futures.size());
+        boolean completed = false;
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                futures.get(i).addCallback(joined.at(i));
+            }
+            if (!joined.await(timeout, unit)) {
+                throw new DeadlineExceededException(Strings.substitute(R.getString("E-SPRINGMVC-REST-CLIENT#0002"),
+                    Maps.hash("timeout", String.valueOf(unit.toMillis(timeout)))));
+            }
+            Throwable failure = joined.failure();
+            if (failure != null) {
+                if (failure instanceof ExecutionException && failure.getCause() != null) failure = failure.getCause();
+                if (failure instanceof RestClientException) throw (RestClientException) failure;
+                throw new RestClientException(R.getString("E-SPRINGMVC-REST-CLIENT#0004"), failure);
+            }
+            completed = true;
+            return joined.results();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RestClientException(R.getString("E-SPRINGMVC-REST-CLIENT#0003"), e);
+        } finally {
+            if (!completed) {
+                for (Future<? extends T> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * GETで対象URLに非同期にアクセスします。
+     * 処理結果のBodyのみ必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    @Override
+    public <T> ListenableFuture<T> get(Target target, Class<T> responseType) throws RestClientException {
+        return body(getForEntity(target, responseType));
+    }
+
+    /**
+     * GETで対象URLに非同期にアクセスします。
+     * 処理結果のステータスコードやヘッダなどが必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    @Override
+    public <T> ListenableFuture<ResponseEntity<T>> getForEntity(Target target, Class<T> responseType) throws RestClientException {
+        return get(target.getUrl(), responseType);
+    }
+
+    /**
+     * 複数の対象URLにGETで並行してアクセスし、すべての処理結果を待ち合わせます。
+     * 処理結果のBodyは対象URLと同じ順序で返却されます。
+     * 指定された時間内にすべての処理が完了しない場合、未完了の処理はキャンセルされます。
+     * @param targets 対象URLのリスト
+     * @param responseType レスポンスのタイプ
+     * @param timeout すべての処理の完了を待つ時間
+     * @param unit timeoutの単位
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果のリスト
+     * @throws RestClientException 通信時に発生する例外、または指定された時間内に処理が完了しなかった場合
+     * @see #join(List, long, TimeUnit)
+     */
+    @Override
+    public <T> List<T> getAll(List<Target> targets, Class<T> responseType, long timeout, TimeUnit unit) throws RestClientException {
+        Args.checkNotNull(targets);
+        List<ListenableFuture<T>> futures = new ArrayList<ListenableFuture<T>>(targets.size());
+        try {
+            for (Target target : targets) {
+                futures.add(get(target, responseType));
+            }
+        } catch (RestClientException e) {
+            for (ListenableFuture<T> future : futures) {
+                future.cancel(true);
+            }
+            throw e;
+        }
+        return join(futures, timeout, unit);
+    }
+
+    /**
+     * GETで対象URLに非同期にアクセスします。
+     * @param url 対象URL
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    protected <T> ListenableFuture<ResponseEntity<T>> get(URI url, Class<T> responseType) throws RestClientException {
+        return delegate.exchange(url, HttpMethod.GET, null, responseType);
+    }
+
+    /**
+     * DELETEで対象URLに非同期にアクセスします。
+     * データがない場合かつ処理結果のBodyのみ必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    @Override
+    public <T> ListenableFuture<T> delete(Target target, Class<T> responseType) throws RestClientException {
+        return body(deleteForEntity(target, responseType));
+    }
+
+    /**
+     * DELETEで対象URLに非同期にアクセスします。
+     * 処理結果のBodyのみ必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param entity 処理データなどを格納したオブジェクト
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    @Override
+    public <T> ListenableFuture<T> delete(Target target, Entity<?> entity, Class<T> responseType) throws RestClientException {
+        return body(deleteForEntity(target, entity, responseType));
+    }
+
+    /**
+     * DELETEで対象URLに非同期にアクセスします。
+     * データがない場合かつ処理結果のステータスコードやヘッダなどが必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    @Override
+    public <T> ListenableFuture<ResponseEntity<T>> deleteForEntity(Target target, Class<T> responseType) throws RestClientException {
+        return delete(target.getUrl(), null, responseType);
+    }
+
+    /**
+     * DELETEで対象URLに非同期にアクセスします。
+     * 処理結果のステータスコードやヘッダなどが必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param entity 処理データなどを格納したオブジェクト
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    @Override
+    public <T> ListenableFuture<ResponseEntity<T>> deleteForEntity(Target target, Entity<?> entity, Class<T> responseType) throws RestClientException {
+        return delete(target.getUrl(), entity, responseType);
+    }
+
+    /**
+     * DELETEで対象URLに非同期にアクセスします。
+     * @param url 対象URL
+     * @param data 処理データ
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    protected <T> ListenableFuture<ResponseEntity<T>> delete(URI url, Entity<?> data, Class<T> responseType) throws RestClientException {
+        return delegate.exchange(url, HttpMethod.DELETE, data != null ? data.get() : null, responseType);
+    }
+
+    /**
+     * POSTで対象URLに非同期にアクセスします。
+     * 処理結果のBodyのみ必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param entity 処理データなどを格納したオブジェクト
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    @Override
+    public <T> ListenableFuture<T> post(Target target, Entity<?> entity, Class<T> responseType) throws RestClientException {
+        return body(postForEntity(target, entity, responseType));
+    }
+
+    /**
+     * POSTで対象URLに非同期にアクセスします。
+     * 処理結果のステータスコードやヘッダなどが必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param entity 処理データなどを格納したオブジェクト
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    @Override
+    public <T> ListenableFuture<ResponseEntity<T>> postForEntity(Target target, Entity<?> entity, Class<T> responseType) throws RestClientException {
+        return post(target.getUrl(), entity, responseType);
+    }
+
+    /**
+     * POSTで対象URLに非同期にアクセスします。
+     * @param url 対象URL
+     * @param data 処理データ
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return レスポンスエンティティ
+     * @throws RestClientException 通信中に発生する例外
+     */
+    protected <T> ListenableFuture<ResponseEntity<T>> post(URI url, Entity<?> data, Class<T> responseType) throws RestClientException {
+        return delegate.exchange(url, HttpMethod.POST, data != null ? data.get() : null, responseType);
+    }
+
+    /**
+     * PUTで対象URLに非同期にアクセスします。
+     * 処理結果のBodyのみ必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param entity 処理データなどを格納したオブジェクト
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信中に発生する例外
+     */
+    @Override
+    public <T> ListenableFuture<T> put(Target target, Entity<?> entity, Class<T> responseType) throws RestClientException {
+        return body(putForEntity(target, entity, responseType));
+    }
+
+    /**
+     * PUTで対象URLに非同期にアクセスします。
+     * 処理結果のステータスコードやヘッダなどが必要な場合はこのメソッドを利用して下さい。
+     * @param target 対象URL
+     * @param entity 処理データなどを格納したオブジェクト
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return レスポンスエンティティ
+     * @throws RestClientException 通信中に発生する例外
+     */
+    @Override
+    public <T> ListenableFuture<ResponseEntity<T>> putForEntity(Target target, Entity<?> entity, Class<T> responseType) throws RestClientException {
+        return put(target.getUrl(), entity, responseType);
+    }
+
+    /**
+     * PUTで対象URLに非同期にアクセスします。
+     * @param url 対象URL
+     * @param data 処理データ
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return レスポンスエンティティ
+     * @throws RestClientException 通信中に発生する例外
+     */
+    protected <T> ListenableFuture<ResponseEntity<T>> put(URI url, Entity<?> data, Class<T> responseType) throws RestClientException {
+        return delegate.exchange(url, HttpMethod.PUT, data != null ? data.get() : null, responseType);
+    }
+
+    /**
+     * レスポンスエンティティの非同期処理結果を、Bodyのみの非同期処理結果に変換します。
+     * @param entity レスポンスエンティティの非同期処理結果
+     * @param <T> レスポンスのタイプ
+     * @return Bodyの非同期処理結果
+     */
+    protected <T> ListenableFuture<T> body(ListenableFuture<ResponseEntity<T>> entity) {
+        return new ListenableFutureAdapter<T, ResponseEntity<T>>(entity) {
+            @Override
+            protected T adapt(ResponseEntity<T> adapteeResult) throws ExecutionException {
+                return adapteeResult.getBody();
+            }
+        };
+    }
+
+    /**
+     * {@link #join(List, long, TimeUnit)}で複数の非同期処理の結果を収集するコールバックです。
+     * いずれかの処理が失敗した時点で待ち合わせを終了します。
+     * @param <T> 処理結果のタイプ
+     */
+    private static final class JoinCallback<T> {
+
+        private final Object[] results;
+
+        private final CountDownLatch latch;
+
+        private volatile Throwable failure;
+
+        private JoinCallback(int size) {
+            this.results = new Object[size];
+            this.latch = new CountDownLatch(size);
+        }
+
+        private ListenableFutureCallback<T> at(final int index) {
+            return new ListenableFutureCallback<T>() {
+                @Override
+                public void onSuccess(T result) {
+                    results[index] = result;
+                    latch.countDown();
+                }
+                @Override
+                public void onFailure(Throwable t) {
+                    if (failure == null) failure = t;
+                    while (latch.getCount() > 0) {
+                        latch.countDown();
+                    }
+                }
+            };
+        }
+
+        private boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            return latch.await(timeout, unit);
+        }
+
+        private Throwable failure() {
+            return failure;
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<T> results() {
+            List<T> list = new ArrayList<T>(results.length);
+            for (Object result : results) {
+                list.add((T) result);
+            }
+            return list;
+        }
+    }
+
+    // 以下、単純な委譲 ---------------------------------------------------------------
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#getRestOperations()} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public RestOperations getRestOperations() {
+        return delegate.getRestOperations();
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#getForEntity(String, Class, Object...)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ListenableFuture<ResponseEntity<T>> getForEntity(String url, Class<T> responseType, Object... uriVariables) throws RestClientException {
+        return delegate.getForEntity(url, responseType, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#getForEntity(String, Class, Map)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ListenableFuture<ResponseEntity<T>> getForEntity(String url, Class<T> responseType, Map<String, ?> uriVariables) throws RestClientException {
+        return delegate.getForEntity(url, responseType, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#getForEntity(URI, Class)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ListenableFuture<ResponseEntity<T>> getForEntity(URI url, Class<T> responseType) throws RestClientException {
+        return delegate.getForEntity(url, responseType);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#headForHeaders(String, Object...)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public ListenableFuture<HttpHeaders> headForHeaders(String url, Object... uriVariables) throws RestClientException {
+        return delegate.headForHeaders(url, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#headForHeaders(String, Map)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public ListenableFuture<HttpHeaders> headForHeaders(String url, Map<String, ?> uriVariables) throws RestClientException {
+        return delegate.headForHeaders(url, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#headForHeaders(URI)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public ListenableFuture<HttpHeaders> headForHeaders(URI url) throws RestClientException {
+        return delegate.headForHeaders(url);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#postForLocation(String, HttpEntity, Object...)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public ListenableFuture<URI> postForLocation(String url, HttpEntity<?> request, Object... uriVariables) throws RestClientException {
+        return delegate.postForLocation(url, request, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#postForLocation(String, HttpEntity, Map)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public ListenableFuture<URI> postForLocation(String url, HttpEntity<?> request, Map<String, ?> uriVariables) throws RestClientException {
+        return delegate.postForLocation(url, request, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#postForLocation(URI, HttpEntity)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public ListenableFuture<URI> postForLocation(URI url, HttpEntity<?> request) throws RestClientException {
+        return delegate.postForLocation(url, request);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#postForEntity(String, HttpEntity, Class, Object...)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ListenableFuture<ResponseEntity<T>> postForEntity(String url, HttpEntity<?> request, Class<T> responseType, Object... uriVariables) throws RestClientException {
+        return delegate.postForEntity(url, request, responseType, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#postForEntity(String, HttpEntity, Class, Map)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ListenableFuture<ResponseEntity<T>> postForEntity(String url, HttpEntity<?> request, Class<T> responseType, Map<String, ?> uriVariables) throws RestClientException {
+        return delegate.postForEntity(url, request, responseType, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#postForEntity(URI, HttpEntity, Class)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ListenableFuture<ResponseEntity<T>> postForEntity(URI url, HttpEntity<?> request, Class<T> responseType) throws RestClientException {
+        return delegate.postForEntity(url, request, responseType);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#put(String, HttpEntity, Object...)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public ListenableFuture<?> put(String url, HttpEntity<?> request, Object... uriVariables) throws RestClientException {
+        return delegate.put(url, request, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#put(String, HttpEntity, Map)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public ListenableFuture<?> put(String url, HttpEntity<?> request, Map<String, ?> uriVariables) throws RestClientException {
+        return delegate.put(url, request, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#put(URI, HttpEntity)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public ListenableFuture<?> put(URI url, HttpEntity<?> request) throws RestClientException {
+        return delegate.put(url, request);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#delete(String, Object...)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public ListenableFuture<?> delete(String url, Object... uriVariables) throws RestClientException {
+        return delegate.delete(url, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#delete(String, Map)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public ListenableFuture<?> delete(String url, Map<String, ?> uriVariables) throws RestClientException {
+        return delegate.delete(url, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#delete(URI)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public ListenableFuture<?> delete(URI url) throws RestClientException {
+        return delegate.delete(url);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#optionsForAllow(String, Object...)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public ListenableFuture<Set<HttpMethod>> optionsForAllow(String url, Object... uriVariables) throws RestClientException {
+        return delegate.optionsForAllow(url, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#optionsForAllow(String, Map)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public ListenableFuture<Set<HttpMethod>> optionsForAllow(String url, Map<String, ?> uriVariables) throws RestClientException {
+        return delegate.optionsForAllow(url, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#optionsForAllow(URI)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public ListenableFuture<Set<HttpMethod>> optionsForAllow(URI url) throws RestClientException {
+        return delegate.optionsForAllow(url);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#exchange(String, HttpMethod, HttpEntity, Class, Object...)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ListenableFuture<ResponseEntity<T>> exchange(String url, HttpMethod method, HttpEntity<?> requestEntity, Class<T> responseType, Object... uriVariables) throws RestClientException {
+        return delegate.exchange(url, method, requestEntity, responseType, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#exchange(String, HttpMethod, HttpEntity, Class, Map)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ListenableFuture<ResponseEntity<T>> exchange(String url, HttpMethod method, HttpEntity<?> requestEntity, Class<T> responseType, Map<String, ?> uriVariables) throws RestClientException {
+        return delegate.exchange(url, method, requestEntity, responseType, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#exchange(URI, HttpMethod, HttpEntity, Class)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ListenableFuture<ResponseEntity<T>> exchange(URI url, HttpMethod method, HttpEntity<?> requestEntity, Class<T> responseType) throws RestClientException {
+        return delegate.exchange(url, method, requestEntity, responseType);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#exchange(String, HttpMethod, HttpEntity, ParameterizedTypeReference, Object...)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ListenableFuture<ResponseEntity<T>> exchange(String url, HttpMethod method, HttpEntity<?> requestEntity, ParameterizedTypeReference<T> responseType, Object... uriVariables) throws RestClientException {
+        return delegate.exchange(url, method, requestEntity, responseType, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#exchange(String, HttpMethod, HttpEntity, ParameterizedTypeReference, Map)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ListenableFuture<ResponseEntity<T>> exchange(String url, HttpMethod method, HttpEntity<?> requestEntity, ParameterizedTypeReference<T> responseType, Map<String, ?> uriVariables) throws RestClientException {
+        return delegate.exchange(url, method, requestEntity, responseType, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#exchange(URI, HttpMethod, HttpEntity, ParameterizedTypeReference)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ListenableFuture<ResponseEntity<T>> exchange(URI url, HttpMethod method, HttpEntity<?> requestEntity, ParameterizedTypeReference<T> responseType) throws RestClientException {
+        return delegate.exchange(url, method, requestEntity, responseType);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#execute(String, HttpMethod, AsyncRequestCallback, ResponseExtractor, Object...)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ListenableFuture<T> execute(String url, HttpMethod method, AsyncRequestCallback requestCallback, ResponseExtractor<T> responseExtractor, Object... uriVariables) throws RestClientException {
+        return delegate.execute(url, method, requestCallback, responseExtractor, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#execute(String, HttpMethod, AsyncRequestCallback, ResponseExtractor, Map)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ListenableFuture<T> execute(String url, HttpMethod method, AsyncRequestCallback requestCallback, ResponseExtractor<T> responseExtractor, Map<String, ?> uriVariables) throws RestClientException {
+        return delegate.execute(url, method, requestCallback, responseExtractor, uriVariables);
+    }
+
+    /**
+     * このメソッドは {@link AsyncRestOperations#execute(URI, HttpMethod, AsyncRequestCallback, ResponseExtractor)} への単純な委譲です。
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ListenableFuture<T> execute(URI url, HttpMethod method, AsyncRequestCallback requestCallback, ResponseExtractor<T> responseExtractor) throws RestClientException {
+        return delegate.execute(url, method, requestCallback, responseExtractor);
+    }
+}
@@ -0,0 +1,468 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.client;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.routing.HttpRoutePlanner;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.DefaultProxyRoutePlanner;
+import org.apache.http.impl.conn.DefaultRoutePlanner;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.util.Assert;
+
+/**
+ * <p>
+ * このクラスは、{@link org.springframework.web.client.RestOperations}で外部システムとHTTP通信を行う場合に、
+ * コネクションプールを利用する設定を行います。
+ * </p>
+ * <p>
+ * コネクションプールの最大コネクション数・ルート(接続先)ごとの最大コネクション数に加え、
+ * 接続先ごとの最大コネクション数の上書き、接続タイムアウト、プールからのコネクション取得タイムアウト、
+ * 読込タイムアウト、Keep-Aliveの保持時間を設定できます。
+ * また、バックグラウンドのスレッドで、有効期限切れのコネクションと一定時間利用されていないコネクションを定期的に破棄します。
+ * 以下が設定例です。
+ * <pre>
+ * &lt;bean id="httpClientFactory" class="jp.co.ctc_g.jse.core.rest.springmvc.client.PooledClientHttpRequestFactory"&gt;
+ *    &lt;property name="maxTotal" value="200" /&gt;
+ *    &lt;property name="defaultMaxPerRoute" value="20" /&gt;
+ *    &lt;property name="maxPerRoute"&gt;
+ *      &lt;map&gt;
+ *        &lt;entry key="http://api.xx.xx:8080" value="50" /&gt;
+ *      &lt;/map&gt;
+ *    &lt;/property&gt;
+ *    &lt;property name="connectTimeout" value="5000" /&gt;
+ *    &lt;property name="connectionRequestTimeout" value="3000" /&gt;
+ * &lt;/bean&gt;
+ * &lt;bean id="restTemplate" class="org.springframework.web.client.RestTemplate"&gt;
+ *    &lt;property name="requestFactory" ref="httpClientFactory" /&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ * </p>
+ * <p>
+ * コネクションプールの利用状況は{@link #getTotalStats()}と{@link #getRouteStats()}で取得できます。
+ * ルートごとの統計情報には、最大コネクション数を上書きしたルートと、実際に通信を行ったルートが含まれます。
+ * Springの{@link org.springframework.jmx.export.MBeanExporter}などでこのクラスを公開することで、
+ * 貸出中(leased)・待機中(pending)・利用可能(available)のコネクション数を監視できます。
+ * </p>
+ * <p>
+ * プロキシサーバを経由する場合は{@link #setProxy(String)}でプロキシを設定してください。
+ * プロキシのユーザ認証が必要な場合は{@link ProxyClientHttpRequestFactory}を利用してください。
+ * </p>
+ * @see ProxyClientHttpRequestFactory
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public class PooledClientHttpRequestFactory extends HttpComponentsClientHttpRequestFactory implements InitializingBean {
+
+    private static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 200;
+
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+
+    private static final int DEFAULT_READ_TIMEOUT_MILLISECONDS = (60 * 1000);
+
+    private static final int DEFAULT_CONNECT_TIMEOUT_MILLISECONDS = (10 * 1000);
+
+    private static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT_MILLISECONDS = (10 * 1000);
+
+    private static final long DEFAULT_KEEP_ALIVE_MILLISECONDS = (30 * 1000);
+
+    private static final long DEFAULT_IDLE_TIMEOUT_MILLISECONDS = (30 * 1000);
+
+    private static final long DEFAULT_EVICTION_INTERVAL_MILLISECONDS = (5 * 1000);
+
+    private static final int MAX_RECORDED_ROUTES = 1024;
+
+    private int maxTotal = DEFAULT_MAX_TOTAL_CONNECTIONS;
+
+    private int defaultMaxPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+
+    private Map<String, Integer> maxPerRoute = Collections.emptyMap();
+
+    private int readTimeout = DEFAULT_READ_TIMEOUT_MILLISECONDS;
+
+    private int connectTimeout = DEFAULT_CONNECT_TIMEOUT_MILLISECONDS;
+
+    private int connectionRequestTimeout = DEFAULT_CONNECTION_REQUEST_TIMEOUT_MILLISECONDS;
+
+    private long keepAlive = DEFAULT_KEEP_ALIVE_MILLISECONDS;
+
+    private long timeToLive = -1;
+
+    private long idleTimeout = DEFAULT_IDLE_TIMEOUT_MILLISECONDS;
+
+    private long evictionInterval = DEFAULT_EVICTION_INTERVAL_MILLISECONDS;
+
+    private HttpHost proxy;
+
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    private final ConcurrentMap<HttpRoute, Boolean> routes = new ConcurrentHashMap<HttpRoute, Boolean>();
+
+    private IdleConnectionEvictor evictor;
+
+    /**
+     * コンストラクタです。
+     */
+    public PooledClientHttpRequestFactory() {}
+
+    /**
+     * プロパティの設定が終了したあとにコネクションプールとHttpClientのインスタンスを生成します。
+     * コネクションの破棄間隔が正の値の場合は、コネクションを破棄するスレッドを開始します。
+     * {@inheritDoc}
+     */
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        connectionManager = new PoolingHttpClientConnectionManager(timeToLive, TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(defaultMaxPerRoute);
+        for (Map.Entry<String, Integer> e : maxPerRoute.entrySet()) {
+            Assert.notNull(e.getValue(), "ルートごとの最大コネクション数(maxPerRoute)の値は必須です。");
+            HttpRoute route = createRoute(e.getKey());
+            connectionManager.setMaxPerRoute(route, e.getValue());
+            routes.put(route, Boolean.TRUE);
+        }
+
+        HttpClientBuilder builder = HttpClients.custom();
+        builder.setConnectionManager(connectionManager);
+        builder.setRoutePlanner(new RecordingRoutePlanner(createRoutePlanner()));
+        builder.setKeepAliveStrategy(createKeepAliveStrategy());
+        builder.setDefaultRequestConfig(RequestConfig.custom()
+            .setSocketTimeout(readTimeout)
+            .setConnectTimeout(connectTimeout)
+            .setConnectionRequestTimeout(connectionRequestTimeout)
+            .build());
+        customize(builder);
+        setHttpClient(builder.build());
+
+        if (evictionInterval > 0) {
+            evictor = new IdleConnectionEvictor(connectionManager, evictionInterval, idleTimeout);
+            evictor.start();
+        }
+    }
+
+    /**
+     * コネクションを破棄するスレッドを停止し、HttpClientを終了します。
+     * {@inheritDoc}
+     */
+    @Override
+    public void destroy() throws Exception {
+        if (evictor != null) {
+            evictor.shutdown();
+            evictor = null;
+        }
+        super.destroy();
+    }
+
+    /**
+     * HttpClientを生成する直前に呼び出されます。
+     * サブクラスで認証情報などを追加する場合にオーバーライドしてください。
+     * @param builder HttpClientのビルダー
+     */
+    protected void customize(HttpClientBuilder builder) {}
+
+    /**
+     * 接続先のルートを決定する{@link HttpRoutePlanner}を生成します。
+     * プロキシが設定されている場合は、プロキシを経由するルートを決定します。
+     * @return ルートを決定するインスタンス
+     */
+    protected HttpRoutePlanner createRoutePlanner() {
+        return proxy != null ? new DefaultProxyRoutePlanner(proxy) : new DefaultRoutePlanner(DefaultSchemePortResolver.INSTANCE);
+    }
+
+    /**
+     * Keep-Aliveの保持時間を決定する{@link ConnectionKeepAliveStrategy}を生成します。
+     * レスポンスのKeep-Aliveヘッダにtimeoutが指定されている場合はその値を、
+     * 指定されていない場合は{@link #setKeepAlive(long)}で設定された値を保持時間とします。
+     * @return Keep-Aliveの保持時間を決定するインスタンス
+     */
+    protected ConnectionKeepAliveStrategy createKeepAliveStrategy() {
+        final long defaultDuration = keepAlive;
+        return new ConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                if (duration > 0) return duration;
+                return defaultDuration > 0 ? defaultDuration : -1;
+            }
+        };
+    }
+
+    /**
+     * コネクションプール全体の統計情報を返却します。
+     * @return 統計情報。コネクションプールが生成されていない場合はnull
+     */
+    public PoolStats getTotalStats() {
+        return connectionManager != null ? connectionManager.getTotalStats() : null;
+    }
+
+    /**
+     * ルートごとのコネクションプールの統計情報を返却します。
+     * キーは接続先のURI(例：http://api.xx.xx:8080)です。
+     * プロキシを経由するルートの場合は、接続先のURIの後ろにプロキシのURIを付加します。
+     * @return 統計情報
+     */
+    public Map<String, PoolStats> getRouteStats() {
+        if (connectionManager == null) return Collections.emptyMap();
+        Map<String, PoolStats> stats = new LinkedHashMap<String, PoolStats>();
+        for (HttpRoute route : routes.keySet()) {
+            stats.put(describe(route), connectionManager.getStats(route));
+        }
+        return stats;
+    }
+
+    /**
+     * コネクションプールを返却します。
+     * @return コネクションプール。生成されていない場合はnull
+     */
+    protected PoolingHttpClientConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    private HttpRoute createRoute(String uri) {
+        URI u = URI.create(uri.indexOf("://") < 0 ? "http://" + uri : uri);
+        Assert.hasText(u.getHost(), "ルートごとの最大コネクション数(maxPerRoute)のキーが不正です。");
+        String scheme = u.getScheme() != null ? u.getScheme() : "http";
+        boolean secure = "https".equalsIgnoreCase(scheme);
+        int port = u.getPort() > 0 ? u.getPort() : (secure ? 443 : 80);
+        HttpHost target = new HttpHost(u.getHost(), port, scheme);
+        return proxy != null ? new HttpRoute(target, null, proxy, secure) : new HttpRoute(target, null, secure);
+    }
+
+    private static String describe(HttpRoute route) {
+        HttpHost proxy = route.getProxyHost();
+        return proxy != null
+            ? route.getTargetHost().toURI() + " via " + proxy.toURI()
+            : route.getTargetHost().toURI();
+    }
+
+    /**
+     * 最大コネクション数を設定します。
+     * デフォルトは200です。
+     * @param maxTotal 最大コネクション数
+     */
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    /**
+     * ルートごとのデフォルトの最大値を設定します。
+     * デフォルトは20です。
+     * @param defaultMaxPerRoute ルートごとのデフォルト最大値
+     */
+    public void setDefaultMaxPerRoute(int defaultMaxPerRoute) {
+        this.defaultMaxPerRoute = defaultMaxPerRoute;
+    }
+
+    /**
+     * ルートごとの最大コネクション数を設定します。
+     * キーは接続先のURI(例：http://api.xx.xx:8080)、値は最大コネクション数です。
+     * スキームを省略した場合はhttp、ポート番号を省略した場合はスキームのデフォルトのポート番号とみなします。
+     * @param maxPerRoute ルートごとの最大コネクション数
+     */
+    public void setMaxPerRoute(Map<String, Integer> maxPerRoute) {
+        this.maxPerRoute = maxPerRoute != null ? new HashMap<String, Integer>(maxPerRoute) : Collections.<String, Integer>emptyMap();
+    }
+
+    /**
+     * 読込のタイムアウトを設定します。
+     * デフォルトは1分です。
+     * なお、設定はミリ秒となります。(1分の場合：60*1000=60000)
+     * @param readTimeout 読込のタイムアウト値
+     */
+    @Override
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * 接続のタイムアウトを設定します。
+     * デフォルトは10秒です。
+     * なお、設定はミリ秒となります。
+     * @param connectTimeout 接続のタイムアウト値
+     */
+    @Override
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * コネクションプールからコネクションを取得する際のタイムアウトを設定します。
+     * ルートごとの最大コネクション数に達している場合、この時間だけ空きを待ちます。
+     * デフォルトは10秒です。
+     * なお、設定はミリ秒となります。
+     * @param connectionRequestTimeout コネクション取得のタイムアウト値
+     */
+    public void setConnectionRequestTimeout(int connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    /**
+     * レスポンスにKeep-Aliveのtimeoutが指定されていない場合の、コネクションの保持時間を設定します。
+     * 0以下を設定した場合は、無期限に保持します。
+     * デフォルトは30秒です。
+     * なお、設定はミリ秒となります。
+     * @param keepAlive コネクションの保持時間
+     */
+    public void setKeepAlive(long keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * コネクションの生存期間を設定します。
+     * 生存期間を超えたコネクションは再利用されません。
+     * 0以下を設定した場合は、無期限となります。
+     * デフォルトは無期限です。
+     * なお、設定はミリ秒となります。
+     * @param timeToLive コネクションの生存期間
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * 利用されていないコネクションを破棄するまでの時間を設定します。
+     * 0以下を設定した場合は、有効期限切れのコネクションのみ破棄します。
+     * デフォルトは30秒です。
+     * なお、設定はミリ秒となります。
+     * @param idleTimeout コネクションを破棄するまでの時間
+     */
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * コネクションを破棄するスレッドの実行間隔を設定します。
+     * 0以下を設定した場合は、スレッドを開始しません。
+     * デフォルトは5秒です。
+     * なお、設定はミリ秒となります。
+     * @param evictionInterval 実行間隔
+     */
+    public void setEvictionInterval(long evictionInterval) {
+        this.evictionInterval = evictionInterval;
+    }
+
+    /**
+     * 経由するプロキシを設定します。
+     * 形式は<code>ホスト名:ポート番号</code>です。
+     * @param proxy プロキシ
+     */
+    public void setProxy(String proxy) {
+        if (proxy == null) {
+            this.proxy = null;
+            return;
+        }
+        URI u = URI.create(proxy.indexOf("://") < 0 ? "http://" + proxy : proxy);
+        Assert.hasText(u.getHost(), "プロキシ(proxy)の形式が不正です。");
+        this.proxy = new HttpHost(u.getHost(), u.getPort(), u.getScheme());
+    }
+
+    /**
+     * 経由するプロキシを設定します。
+     * @param host プロキシのホスト名
+     * @param port プロキシのポート番号
+     */
+    protected void setProxy(String host, int port) {
+        this.proxy = new HttpHost(host, port);
+    }
+
+    /**
+     * 実際に通信を行ったルートを記録する{@link HttpRoutePlanner}です。
+     * @author ITOCHU Techno-Solutions Corporation.
+     */
+    private final class RecordingRoutePlanner implements HttpRoutePlanner {
+
+        private final HttpRoutePlanner delegate;
+
+        private RecordingRoutePlanner(HttpRoutePlanner delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpRoute determineRoute(HttpHost host, HttpRequest request, HttpContext context) throws HttpException {
+            HttpRoute route = delegate.determineRoute(host, request, context);
+            if (!routes.containsKey(route) && routes.size() < MAX_RECORDED_ROUTES) {
+                routes.putIfAbsent(route, Boolean.TRUE);
+            }
+            return route;
+        }
+    }
+
+    /**
+     * 有効期限切れのコネクションと、一定時間利用されていないコネクションを定期的に破棄するスレッドです。
+     * @author ITOCHU Techno-Solutions Corporation.
+     */
+    private static final class IdleConnectionEvictor extends Thread {
+
+        private final PoolingHttpClientConnectionManager manager;
+
+        private final long interval;
+
+        private final long idleTimeout;
+
+        private volatile boolean shutdown;
+
+        private IdleConnectionEvictor(PoolingHttpClientConnectionManager manager, long interval, long idleTimeout) {
+            super("jfw-http-connection-evictor");
+            this.manager = manager;
+            this.interval = interval;
+            this.idleTimeout = idleTimeout;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!shutdown) {
+                    Thread.sleep(interval);
+                    manager.closeExpiredConnections();
+                    if (idleTimeout > 0) {
+                        manager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // 停止要求
+            }
+        }
+
+        private void shutdown() {
+            shutdown = true;
+            interrupt();
+        }
+    }
+
+}
@@ -16,18 +16,11 @@
 
 package jp.co.ctc_g.jse.core.rest.springmvc.client;
 
-import org.apache.http.HttpHost;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
-import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.DefaultProxyRoutePlanner;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
-import org.springframework.beans.factory.InitializingBean;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.util.Assert;
 
@@ -72,21 +65,29 @@ import org.springframework.util.Assert;
  * &lt;/bean&lt;
  * </pre>
  * </p>
+ * <p>
+ * コネクションプールの設定や統計情報の取得は{@link PooledClientHttpRequestFactory}と同様です。
+ * ただし、従来の振る舞いを変えないよう、デフォルト値は以下のとおり{@link PooledClientHttpRequestFactory}と異なります。
+ * </p>
+ * <ul>
+ *   <li>最大コネクション数は100、ルートごとの最大コネクション数は5です。</li>
+ *   <li>接続のタイムアウトとコネクションプールからのコネクション取得のタイムアウトは設定しません(無期限に待機します)。</li>
+ *   <li>レスポンスにKeep-Aliveのtimeoutが指定されていない場合、コネクションを無期限に保持します。</li>
+ *   <li>利用されていないコネクションを破棄するスレッドは開始しません。</li>
+ * </ul>
+ * <p>
+ * これらは各プロパティを設定することで変更できます。
+ * </p>
+ * @see PooledClientHttpRequestFactory
  * @author ITOCHU Techno-Solutions Corporation.
  */
-public class ProxyClientHttpRequestFactory extends HttpComponentsClientHttpRequestFactory implements InitializingBean {
+public class ProxyClientHttpRequestFactory extends PooledClientHttpRequestFactory {
 
     private static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 100;
 
     private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 5;
 
-    private static final int DEFAULT_READ_TIMEOUT_MILLISECONDS = (60 * 1000);
-
-    private int maxTotal = DEFAULT_MAX_TOTAL_CONNECTIONS;
-
-    private int defaultMaxPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
-
-    private int readTimeout = DEFAULT_READ_TIMEOUT_MILLISECONDS;
+    private static final int UNDEFINED_TIMEOUT = -1;
 
     private String proxyHost;
 
@@ -101,7 +102,14 @@ public class ProxyClientHttpRequestFactory extends HttpComponentsClientHttpReque
     /**
      * コンストラクタです。
      */
-    public ProxyClientHttpRequestFactory() {}
+    public ProxyClientHttpRequestFactory() {
+        setMaxTotal(DEFAULT_MAX_TOTAL_CONNECTIONS);
+        setDefaultMaxPerRoute(DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+        setConnectTimeout(UNDEFINED_TIMEOUT);
+        setConnectionRequestTimeout(UNDEFINED_TIMEOUT);
+        setKeepAlive(-1);
+        setEvictionInterval(0);
+    }
 
     /**
      * プロパティの設定が終了したあとにHttpClientのインスタンスを生成し、プロキシの設定を行います。
@@ -112,25 +120,25 @@ public class ProxyClientHttpRequestFactory extends HttpComponentsClientHttpReque
 
         Assert.notNull(proxyHost, "プロキシホスト(proxyHost)は必須です。");
         Assert.notNull(proxyPort, "プロキシポート番号(proxyPort)は必須です。");
-
-        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
-        connectionManager.setMaxTotal(maxTotal);
-        connectionManager.setDefaultMaxPerRoute(defaultMaxPerRoute);
-
-        HttpClientBuilder builder = HttpClients.custom();
-        builder.setConnectionManager(connectionManager);
         if (authentication) {
             Assert.notNull(username, "ユーザ認証がtrueに設定された場合、ユーザ名(username)は必須です。");
             Assert.notNull(password, "ユーザ認証がtrueに設定された場合、パスワード(password)は必須です。");
-            DefaultProxyRoutePlanner routePlanner = new DefaultProxyRoutePlanner(new HttpHost(proxyHost, Integer.parseInt(proxyPort)));
-            builder.setRoutePlanner(routePlanner);
+        }
+        setProxy(proxyHost, Integer.parseInt(proxyPort));
+        super.afterPropertiesSet();
+    }
+
+    /**
+     * ユーザ認証が必要な場合は、プロキシの認証情報を設定します。
+     * {@inheritDoc}
+     */
+    @Override
+    protected void customize(HttpClientBuilder builder) {
+        if (authentication) {
             CredentialsProvider credsProvider = new BasicCredentialsProvider();
             credsProvider.setCredentials(new AuthScope(proxyHost, Integer.parseInt(proxyPort)), new UsernamePasswordCredentials(username, password));
             builder.setDefaultCredentialsProvider(credsProvider);
         }
-        builder.setDefaultRequestConfig(RequestConfig.custom().setSocketTimeout(readTimeout).build());
-        CloseableHttpClient client = builder.build();
-        setHttpClient(client);
     }
 
     /**
@@ -175,33 +183,4 @@ public class ProxyClientHttpRequestFactory extends HttpComponentsClientHttpReque
         this.password = password;
     }
 
-    /**
-     * 最大コネクション数を設定します。
-     * デフォルトは100です。
-     * @param maxTotal 最大コネクション数
-     */
-    public void setMaxTotal(int maxTotal) {
-        this.maxTotal = maxTotal;
-    }
-
-    /**
-     * ルートごとのデフォルトの最大値を設定します。
-     * デフォルトは5です。
-     * @param defaultMaxPerRoute ルートごとのデフォルト最大値
-     */
-    public void setDefaultMaxPerRoute(int defaultMaxPerRoute) {
-        this.defaultMaxPerRoute = defaultMaxPerRoute;
-    }
-
-    /**
-     * 読込のタイムアウトを設定します。
-     * デフォルトは1分です。
-     * なお、設定はミリ秒となります。(1分の場合：60*1000=60000)
-     * @param readTimeout コネクションのタイムアウト値
-     */
-    @Override
-    public void setReadTimeout(int readTimeout) {
-        this.readTimeout = readTimeout;
-    }
-    
 }
@@ -16,6 +16,8 @@
 
 package jp.co.ctc_g.jse.core.rest.springmvc.client;
 
+import jp.co.ctc_g.jse.core.rest.springmvc.client.policy.ResiliencePolicy;
+
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -27,6 +29,8 @@ import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestOperations;
 
 import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -51,6 +55,10 @@ import java.util.Set;
  * SpringMVCデフォルトの{@link org.springframework.web.client.RestTemplate}をBeanとして登録し、
  * これをdelegateプロパティにインジェクションします。
  * </p>
+ * <p>
+ * また、{@link #setPolicies(Map)}で接続先のホストごとに{@link ResiliencePolicy}を設定すると、
+ * {@link Target}を利用した通信にサーキットブレーカ、バルクヘッド、リトライを適用します。
+ * </p>
  * @see RestClientOperations
  * @author ITOCHU Techno-Solutions Corporation.
  */
@@ -61,6 +69,16 @@ public class RestClientTemplate implements RestClientOperations {
      */
     private RestOperations delegate;
 
+    /**
+     * 接続先のホストごとの障害対策ポリシーです。
+     */
+    private Map<String, ResiliencePolicy> policies = Collections.emptyMap();
+
+    /**
+     * 接続先に対応するポリシーが存在しない場合に適用する障害対策ポリシーです。
+     */
+    private ResiliencePolicy defaultPolicy;
+
     /**
      * デフォルトコンストラクタです。
      */
@@ -89,6 +107,61 @@ public class RestClientTemplate implements RestClientOperations {
     protected RestOperations getDelegate() {
         return delegate;
     }
+
+    /**
+     * 接続先のホストごとの障害対策ポリシーを設定します。
+     * キーにはホスト名、もしくは<code>ホスト名:ポート番号</code>を指定します。
+     * 両方が設定されている場合は<code>ホスト名:ポート番号</code>が優先されます。
+     * @param policies 接続先のホストごとの障害対策ポリシー
+     */
+    public void setPolicies(Map<String, ResiliencePolicy> policies) {
+        this.policies = policies != null ? new HashMap<String, ResiliencePolicy>(policies) : Collections.<String, ResiliencePolicy>emptyMap();
+    }
+
+    /**
+     * 接続先に対応するポリシーが存在しない場合に適用する障害対策ポリシーを設定します。
+     * @param defaultPolicy 障害対策ポリシー
+     */
+    public void setDefaultPolicy(ResiliencePolicy defaultPolicy) {
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    /**
+     * 対象URLに適用する障害対策ポリシーを取得します。
+     * @param url 対象URL
+     * @return 障害対策ポリシー。適用しない場合はnull
+     */
+    protected ResiliencePolicy getPolicy(URI url) {
+        String host = url.getHost();
+        if (host != null && !policies.isEmpty()) {
+            ResiliencePolicy policy = url.getPort() != -1 ? policies.get(host + ":" + url.getPort()) : null;
+            if (policy == null) policy = policies.get(host);
+            if (policy != null) return policy;
+        }
+        return defaultPolicy;
+    }
+
+    /**
+     * 障害対策ポリシーを適用して対象URLにアクセスします。
+     * @param url 対象URL
+     * @param method HTTPメソッド
+     * @param requestEntity リクエスト
+     * @param responseType レスポンスのタイプ
+     * @param <T> レスポンスのタイプ
+     * @return 処理結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    protected <T> ResponseEntity<T> exchangeWithPolicy(final URI url, final HttpMethod method, final HttpEntity<?> requestEntity,
+        final Class<T> responseType) throws RestClientException {
+        ResiliencePolicy policy = getPolicy(url);
+        if (policy == null) return delegate.exchange(url, method, requestEntity, responseType);
+        return policy.execute(method, url, new ResiliencePolicy.Invocation<ResponseEntity<T>>() {
+            @Override
+            public ResponseEntity<T> invoke() throws RestClientException {
+                return delegate.exchange(url, method, requestEntity, responseType);
+            }
+        });
+    }
     
     /**
      * GETで対象URLにアクセスします。
@@ -128,7 +201,7 @@ public class RestClientTemplate implements RestClientOperations {
      * @throws RestClientException 通信時に発生する例外
      */
     protected <T> ResponseEntity<T> get(URI url, Class<T> responseType) throws RestClientException {
-        return delegate.exchange(url, HttpMethod.GET, null, responseType);
+        return exchangeWithPolicy(url, HttpMethod.GET, null, responseType);
     }
 
     /**
@@ -199,7 +272,7 @@ public class RestClientTemplate implements RestClientOperations {
      * @throws RestClientException 通信時に発生する例外
      */
     protected <T> ResponseEntity<T> delete(URI url, Entity<?> data, Class<T> responseType) throws RestClientException {
-        return delegate.exchange(url, HttpMethod.DELETE, data != null ? data.get() : null, responseType);
+        return exchangeWithPolicy(url, HttpMethod.DELETE, data != null ? data.get() : null, responseType);
     }
 
     /**
@@ -242,7 +315,7 @@ public class RestClientTemplate implements RestClientOperations {
      * @throws RestClientException 通信中に発生する例外
      */
     protected <T> ResponseEntity<T> post(URI url, Entity<?> data, Class<T> responseType) throws RestClientException {
-        return delegate.exchange(url, HttpMethod.POST, data != null ? data.get() : null, responseType);
+        return exchangeWithPolicy(url, HttpMethod.POST, data != null ? data.get() : null, responseType);
     }
 
 
@@ -285,7 +358,7 @@ public class RestClientTemplate implements RestClientOperations {
      * @throws RestClientException 通信中に発生する例外
      */
     protected <T> ResponseEntity<T> put(URI url, Entity<?> data, Class<T> responseType) throws RestClientException {
-        return delegate.exchange(url, HttpMethod.PUT, data != null ? data.get() : null, responseType);
+        return exchangeWithPolicy(url, HttpMethod.PUT, data != null ? data.get() : null, responseType);
     }
     
     // 以下、単純な委譲 ---------------------------------------------------------------
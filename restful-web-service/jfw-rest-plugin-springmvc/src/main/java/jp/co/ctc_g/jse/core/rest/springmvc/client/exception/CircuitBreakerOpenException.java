@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.client.exception;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * <p>
+ * このクラスは、接続先のサーキットブレーカの回路が開いているため、通信を行わなかったときにスローされる例外です。
+ * </p>
+ * @see jp.co.ctc_g.jse.core.rest.springmvc.client.policy.CircuitBreaker
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+@SuppressWarnings("serial")
+public class CircuitBreakerOpenException extends RestClientException {
+
+    /**
+     * コンストラクタです。
+     * @param message メッセージ
+     */
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,698 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.client.interceptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jp.co.ctc_g.jfw.core.util.Args;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+
+/**
+ * <p>
+ * このクラスは、REST通信時のGETリクエストの結果をHTTPのキャッシュ制御に従ってキャッシュします。
+ * 他のサービスからマスタデータのような更新頻度の低いデータを取得する場合に、通信回数を削減できます。
+ * </p>
+ * <p>
+ * 1つの{@link org.springframework.web.client.RestTemplate}が複数の利用者のリクエストを中継する場合を想定し、
+ * キャッシュは利用者間で共有される(shared)キャッシュとして動作し、以下の規則に従います。
+ * <ul>
+ * <li>キャッシュ対象はステータスコード200のGETリクエストのみです。</li>
+ * <li>レスポンスのCache-Controlヘッダにno-storeまたはprivateが指定されている場合、またはVaryヘッダに*が指定されている場合はキャッシュしません。</li>
+ * <li>リクエストにAuthorizationヘッダが指定されている場合は、レスポンスのCache-Controlヘッダに
+ *     public、s-maxage、must-revalidateのいずれかが指定されている場合のみキャッシュします(RFC 7234 3.2)。
+ *     それ以外の場合はキャッシュを参照せずに通信し、レスポンスもキャッシュしません。</li>
+ * <li>有効期限はCache-Controlヘッダのs-maxage、max-age、Expiresヘッダの順に決定します。
+ *     いずれも指定されていない場合、またはno-cacheが指定されている場合は、有効期限切れのエントリとして保持します。</li>
+ * <li>有効期限切れのエントリにETagヘッダ、Last-Modifiedヘッダが存在する場合は、
+ *     If-None-Match、If-Modified-Sinceヘッダを付与した条件付きリクエストで再検証し、
+ *     ステータスコード304が返却された場合はキャッシュしたレスポンスを返却します。</li>
+ * <li>リクエストのCache-Controlヘッダにno-storeが指定されている場合はキャッシュを利用せず、no-cacheが指定されている場合は必ず再検証します。</li>
+ * <li>Varyヘッダに指定されたリクエストヘッダの値が異なる場合は、キャッシュを利用しません。</li>
+ * </ul>
+ * キャッシュの容量はエントリ数とボディの合計バイト数で制限され、超過した場合は最も長く利用されていないエントリから破棄します。
+ * また、同じURLへのGETリクエストが同時に発行された場合、実際の通信は1回だけ行い、
+ * 後続のリクエストはその結果がキャッシュされるのを待ってからキャッシュを参照します。
+ * </p>
+ * <p>
+ * このインタセプタを利用するには、{@link org.springframework.web.client.RestTemplate#setInterceptors(List)}に登録する必要があります。
+ * 以下に設定例を示します。
+ * <pre class="brush:java">
+ * &lt;bean id="cachingInterceptor" class="jp.co.ctc_g.jse.core.rest.springmvc.client.interceptor.CachingInterceptor"&gt;
+ *  &lt;property name="maxEntries" value="1000" /&gt;
+ *  &lt;property name="maxBytes" value="10485760" /&gt;
+ * &lt;/bean&gt;
+ * &lt;bean id="template" class="org.springframework.web.client.RestTemplate"&gt;
+ *  &lt;property name="interceptors"&gt;
+ *   &lt;list&gt;
+ *    &lt;ref bean="cachingInterceptor" /&gt;
+ *   &lt;/list&gt;
+ *  &lt;/property&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ * </p>
+ * @see ClientHttpRequestInterceptor
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public class CachingInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final Logger L = LoggerFactory.getLogger(CachingInterceptor.class);
+
+    /** エントリ数の上限のデフォルト値です。 */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    /** ボディの合計バイト数の上限のデフォルト値(10MB)です。 */
+    public static final long DEFAULT_MAX_BYTES = 10L * 1024 * 1024;
+
+    /** 1エントリのボディのバイト数の上限のデフォルト値(1MB)です。 */
+    public static final int DEFAULT_MAX_ENTRY_BYTES = 1024 * 1024;
+
+    private static final String CACHE_CONTROL = "Cache-Control";
+
+    private static final String VARY = "Vary";
+
+    private static final String AGE = "Age";
+
+    private static final String AUTHORIZATION = "Authorization";
+
+    private static final String[] REVALIDATED_HEADERS = {
+        CACHE_CONTROL, "Date", "Expires", "ETag", "Last-Modified", VARY
+    };
+
+    private volatile int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    private volatile long maxBytes = DEFAULT_MAX_BYTES;
+
+    private volatile int maxEntryBytes = DEFAULT_MAX_ENTRY_BYTES;
+
+    private long bytes;
+
+    private final Map<String, Cached> entries = new LinkedHashMap<String, Cached>(16, 0.75f, true);
+
+    private final ConcurrentMap<String, CountDownLatch> inFlight = new ConcurrentHashMap<String, CountDownLatch>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong revalidationCount = new AtomicLong();
+
+    private final AtomicLong collapsedCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * コンストラクタです。
+     */
+    public CachingInterceptor() {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+        throws IOException {
+        if (request.getMethod() != HttpMethod.GET) return execution.execute(request, body);
+        Directives directives = Directives.of(request.getHeaders());
+        if (directives.noStore) return execution.execute(request, body);
+        String key = request.getURI().toASCIIString();
+        boolean waited = false;
+        for (;;) {
+            Cached cached = lookup(key, request);
+            if (cached != null && !directives.noCache && cached.isFresh(System.currentTimeMillis())) {
+                hitCount.incrementAndGet();
+                return cached.toResponse(System.currentTimeMillis());
+            }
+            if (waited) return fetch(key, request, body, execution, cached);
+            CountDownLatch latch = new CountDownLatch(1);
+            CountDownLatch leader = inFlight.putIfAbsent(key, latch);
+            if (leader == null) {
+                try {
+                    return fetch(key, request, body, execution, cached);
+                } finally {
+                    inFlight.remove(key, latch);
+                    latch.countDown();
+                }
+            }
+            // 同じURLへのリクエストが通信中のため、その結果を待ってからキャッシュを参照します
+            collapsedCount.incrementAndGet();
+            try {
+                leader.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            waited = true;
+        }
+    }
+
+    /**
+     * キャッシュのヒット数を返却します。
+     * @return ヒット数
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * キャッシュのミス数を返却します。再検証した場合もミスとして計上します。
+     * @return ミス数
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * 条件付きリクエストで再検証し、キャッシュが有効であった(ステータスコード304)回数を返却します。
+     * @return 再検証の成功数
+     */
+    public long getRevalidationCount() {
+        return revalidationCount.get();
+    }
+
+    /**
+     * 同時に発行された同じURLへのリクエストを、先行するリクエストの完了まで待たせた回数を返却します。
+     * @return 待機させた回数
+     */
+    public long getCollapsedCount() {
+        return collapsedCount.get();
+    }
+
+    /**
+     * 容量の超過により破棄したエントリ数を返却します。
+     * @return 破棄したエントリ数
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * キャッシュされているエントリ数を返却します。
+     * @return エントリ数
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * キャッシュされているボディの合計バイト数を返却します。
+     * @return 合計バイト数
+     */
+    public long getBytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    /**
+     * キャッシュをすべて破棄します。
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    /**
+     * 指定されたURLのキャッシュを破棄します。
+     * @param url URL
+     */
+    public void invalidate(String url) {
+        synchronized (entries) {
+            Cached removed = entries.remove(url);
+            if (removed != null) bytes -= removed.body.length;
+        }
+    }
+
+    /**
+     * エントリ数の上限を設定します。
+     * デフォルトは1000です。
+     * @param maxEntries エントリ数の上限
+     */
+    public void setMaxEntries(int maxEntries) {
+        Args.checkPositive(maxEntries);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * キャッシュするボディの合計バイト数の上限を設定します。
+     * デフォルトは10MBです。
+     * @param maxBytes 合計バイト数の上限
+     */
+    public void setMaxBytes(long maxBytes) {
+        Args.checkTrue(maxBytes > 0);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * キャッシュする1レスポンスのボディのバイト数の上限を設定します。
+     * これを超えるレスポンスはキャッシュしません。
+     * デフォルトは1MBです。
+     * @param maxEntryBytes 1レスポンスのバイト数の上限
+     */
+    public void setMaxEntryBytes(int maxEntryBytes) {
+        Args.checkPositive(maxEntryBytes);
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    private ClientHttpResponse fetch(String key, HttpRequest request, byte[] body,
+            ClientHttpRequestExecution execution, Cached cached) throws IOException {
+        missCount.incrementAndGet();
+        HttpRequest actual = request;
+        if (cached != null && cached.hasValidator()) {
+            actual = conditional(request, cached);
+        }
+        long requestTime = System.currentTimeMillis();
+        ClientHttpResponse response = execution.execute(actual, body);
+        long responseTime = System.currentTimeMillis();
+        if (actual != request && response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+            revalidationCount.incrementAndGet();
+            HttpHeaders headers = response.getHeaders();
+            response.close();
+            Cached refreshed = cached.refresh(headers, requestTime, responseTime);
+            if (refreshed != null) {
+                store(key, refreshed);
+            } else {
+                invalidate(key);
+                refreshed = cached;
+            }
+            if (L.isDebugEnabled()) L.debug("revalidated: " + key);
+            return refreshed.toResponse(responseTime);
+        }
+        if (!isCacheable(response, request)) {
+            return response;
+        }
+        InputStream in = response.getBody();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            if (in != null && !read(in, out, maxEntryBytes)) {
+                // 上限を超えるレスポンスはキャッシュせず、読み込んだ部分と残りを連結して返却します
+                return new PartiallyReadResponse(response, new SequenceInputStream(new ByteArrayInputStream(out.toByteArray()), in));
+            }
+        } catch (IOException e) {
+            response.close();
+            throw e;
+        }
+        byte[] content = out.toByteArray();
+        Cached entry = Cached.of(response, content, request.getHeaders(), requestTime, responseTime);
+        ClientHttpResponse buffered = Cached.toResponse(response.getRawStatusCode(), response.getStatusText(), response.getHeaders(), content);
+        response.close();
+        if (entry != null) {
+            store(key, entry);
+        } else {
+            invalidate(key);
+        }
+        return buffered;
+    }
+
+    private Cached lookup(String key, HttpRequest request) {
+        Cached cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached == null || !cached.matches(request.getHeaders())) return null;
+        // 認証されたリクエストには、共有が許可されたレスポンスのみ返却します
+        return !isAuthorized(request) || cached.shareable ? cached : null;
+    }
+
+    private void store(String key, Cached entry) {
+        synchronized (entries) {
+            Cached previous = entries.put(key, entry);
+            if (previous != null) bytes -= previous.body.length;
+            bytes += entry.body.length;
+            while (entries.size() > maxEntries || (bytes > maxBytes && entries.size() > 1)) {
+                Map.Entry<String, Cached> eldest = entries.entrySet().iterator().next();
+                bytes -= eldest.getValue().body.length;
+                entries.remove(eldest.getKey());
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    private static boolean isCacheable(ClientHttpResponse response, HttpRequest request) throws IOException {
+        if (response.getRawStatusCode() != HttpStatus.OK.value()) return false;
+        HttpHeaders headers = response.getHeaders();
+        Directives directives = Directives.of(headers);
+        if (directives.noStore || directives.isPrivate) return false;
+        if (isAuthorized(request) && !directives.isShareable()) return false;
+        return !headers.containsKey(VARY) || !varyNames(headers).contains("*");
+    }
+
+    private static boolean isAuthorized(HttpRequest request) {
+        return request.getHeaders().containsKey(AUTHORIZATION);
+    }
+
+    private static HttpRequest conditional(HttpRequest request, Cached cached) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.putAll(request.getHeaders());
+        String etag = cached.headers.getETag();
+        if (etag != null) headers.setIfNoneMatch(etag);
+        long lastModified = date(cached.headers, "Last-Modified");
+        if (lastModified > 0) headers.setIfModifiedSince(lastModified);
+        return new HttpRequestWrapper(request) {
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    private static boolean read(InputStream in, ByteArrayOutputStream out, int limit) throws IOException {
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+            if (out.size() > limit) return false;
+        }
+        return true;
+    }
+
+    private static List<String> varyNames(HttpHeaders headers) {
+        List<String> values = headers.get(VARY);
+        if (values == null) return Collections.emptyList();
+        List<String> names = new ArrayList<String>();
+        for (String value : values) {
+            for (String name : value.split(",")) {
+                String trimmed = name.trim();
+                if (trimmed.length() > 0) names.add(trimmed.toLowerCase(Locale.ENGLISH));
+            }
+        }
+        return names;
+    }
+
+    private static long date(HttpHeaders headers, String name) {
+        try {
+            if (name.equals("Date")) return headers.getDate();
+            if (name.equals("Expires")) return headers.getExpires();
+            return headers.getLastModified();
+        } catch (IllegalArgumentException e) {
+            // 不正な日付(Expires: 0 など)は過去の日時とみなします
+            return 0;
+        }
+    }
+
+    /**
+     * ボディの一部を読み込んだレスポンスです。
+     */
+    private static final class PartiallyReadResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+
+        private final InputStream body;
+
+        private PartiallyReadResponse(ClientHttpResponse delegate, InputStream body) {
+            this.delegate = delegate;
+            this.body = body;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return delegate.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    /**
+     * Cache-Controlヘッダの解析結果です。
+     */
+    private static final class Directives {
+
+        private boolean noStore;
+
+        private boolean noCache;
+
+        private boolean isPrivate;
+
+        private boolean isPublic;
+
+        private boolean mustRevalidate;
+
+        private long maxAge = -1;
+
+        private long sharedMaxAge = -1;
+
+        private static Directives of(HttpHeaders headers) {
+            Directives d = new Directives();
+            List<String> values = headers.get(CACHE_CONTROL);
+            if (values == null) return d;
+            for (String value : values) {
+                for (String token : value.split(",")) {
+                    String directive = token.trim().toLowerCase(Locale.ENGLISH);
+                    if (directive.equals("no-store")) {
+                        d.noStore = true;
+                    } else if (directive.equals("no-cache") || directive.startsWith("no-cache=")) {
+                        d.noCache = true;
+                    } else if (directive.equals("private") || directive.startsWith("private=")) {
+                        d.isPrivate = true;
+                    } else if (directive.equals("public")) {
+                        d.isPublic = true;
+                    } else if (directive.equals("must-revalidate")) {
+                        d.mustRevalidate = true;
+                    } else if (directive.startsWith("max-age=")) {
+                        d.maxAge = seconds(d, directive.substring(8));
+                    } else if (directive.startsWith("s-maxage=")) {
+                        d.sharedMaxAge = seconds(d, directive.substring(9));
+                    }
+                }
+            }
+            return d;
+        }
+
+        private static long seconds(Directives d, String value) {
+            try {
+                return Long.parseLong(value.replace("\"", "").trim());
+            } catch (NumberFormatException e) {
+                d.noCache = true;
+                return -1;
+            }
+        }
+
+        private boolean isShareable() {
+            return isPublic || sharedMaxAge >= 0 || mustRevalidate;
+        }
+    }
+
+    /**
+     * キャッシュされたレスポンスです。
+     */
+    private static final class Cached {
+
+        private final int status;
+
+        private final String statusText;
+
+        private final HttpHeaders headers;
+
+        private final byte[] body;
+
+        private final Map<String, List<String>> varied;
+
+        private final long responseTime;
+
+        private final long initialAge;
+
+        private final long freshness;
+
+        private final boolean shareable;
+
+        private Cached(int status, String statusText, HttpHeaders headers, byte[] body,
+                Map<String, List<String>> varied, long responseTime, long initialAge, long freshness) {
+            this.shareable = Directives.of(headers).isShareable();
+            this.status = status;
+            this.statusText = statusText;
+            this.headers = headers;
+            this.body = body;
+            this.varied = varied;
+            this.responseTime = responseTime;
+            this.initialAge = initialAge;
+            this.freshness = freshness;
+        }
+
+        private static Cached of(ClientHttpResponse response, byte[] body, HttpHeaders requestHeaders,
+                long requestTime, long responseTime) throws IOException {
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(response.getHeaders());
+            return of(response.getRawStatusCode(), response.getStatusText(), headers, body, requestHeaders, requestTime, responseTime);
+        }
+
+        private static Cached of(int status, String statusText, HttpHeaders headers, byte[] body,
+                HttpHeaders requestHeaders, long requestTime, long responseTime) {
+            Directives directives = Directives.of(headers);
+            long freshness;
+            if (directives.noCache) {
+                freshness = 0;
+            } else if (directives.sharedMaxAge >= 0) {
+                freshness = directives.sharedMaxAge * 1000;
+            } else if (directives.maxAge >= 0) {
+                freshness = directives.maxAge * 1000;
+            } else if (headers.containsKey("Expires")) {
+                long date = date(headers, "Date");
+                freshness = Math.max(0, date(headers, "Expires") - (date > 0 ? date : responseTime));
+            } else {
+                freshness = 0;
+            }
+            Cached probe = new Cached(status, statusText, headers, body, null, responseTime, 0, freshness);
+            if (freshness == 0 && !probe.hasValidator()) {
+                // 有効期限も検証子もないレスポンスは再利用できないため、キャッシュしません
+                return null;
+            }
+            Map<String, List<String>> varied = new HashMap<String, List<String>>();
+            for (String name : varyNames(headers)) {
+                varied.put(name, requestHeaders.get(name));
+            }
+            return new Cached(status, statusText, headers, body, varied, responseTime,
+                age(headers, requestTime, responseTime), freshness);
+        }
+
+        private static long age(HttpHeaders headers, long requestTime, long responseTime) {
+            long age = 0;
+            String value = headers.getFirst(AGE);
+            if (value != null) {
+                try {
+                    age = Long.parseLong(value.trim()) * 1000;
+                } catch (NumberFormatException e) {
+                    age = 0;
+                }
+            }
+            long date = date(headers, "Date");
+            long apparent = date > 0 ? Math.max(0, responseTime - date) : 0;
+            return Math.max(apparent, age) + (responseTime - requestTime);
+        }
+
+        private Cached refresh(HttpHeaders revalidated, long requestTime, long responseTime) {
+            HttpHeaders merged = new HttpHeaders();
+            merged.putAll(headers);
+            for (String name : REVALIDATED_HEADERS) {
+                List<String> values = revalidated.get(name);
+                if (values != null) merged.put(name, values);
+            }
+            Directives directives = Directives.of(merged);
+            if (directives.noStore || directives.isPrivate) return null;
+            Cached refreshed = of(status, statusText, merged, body, new HttpHeaders(), requestTime, responseTime);
+            if (refreshed == null) return null;
+            return new Cached(status, statusText, merged, body, varied, responseTime, refreshed.initialAge, refreshed.freshness);
+        }
+
+        private boolean hasValidator() {
+            return headers.getETag() != null || date(headers, "Last-Modified") > 0;
+        }
+
+        private boolean isFresh(long now) {
+            return currentAge(now) < freshness;
+        }
+
+        private long currentAge(long now) {
+            return initialAge + Math.max(0, now - responseTime);
+        }
+
+        private boolean matches(HttpHeaders requestHeaders) {
+            for (Map.Entry<String, List<String>> e : varied.entrySet()) {
+                List<String> actual = requestHeaders.get(e.getKey());
+                if (actual == null ? e.getValue() != null : !actual.equals(e.getValue())) return false;
+            }
+            return true;
+        }
+
+        private ClientHttpResponse toResponse(long now) {
+            HttpHeaders copy = new HttpHeaders();
+            copy.putAll(headers);
+            copy.set(AGE, String.valueOf(currentAge(now) / 1000));
+            return toResponse(status, statusText, copy, body);
+        }
+
+        private static ClientHttpResponse toResponse(final int status, final String statusText,
+                HttpHeaders headers, final byte[] body) {
+            final HttpHeaders readOnly = HttpHeaders.readOnlyHttpHeaders(headers);
+            return new ClientHttpResponse() {
+                @Override
+                public HttpStatus getStatusCode() throws IOException {
+                    return HttpStatus.valueOf(status);
+                }
+                @Override
+                public int getRawStatusCode() throws IOException {
+                    return status;
+                }
+                @Override
+                public String getStatusText() throws IOException {
+                    return statusText;
+                }
+                @Override
+                public HttpHeaders getHeaders() {
+                    return readOnly;
+                }
+                @Override
+                public InputStream getBody() throws IOException {
+                    return new ByteArrayInputStream(body);
+                }
+                @Override
+                public void close() {}
+            };
+        }
+    }
+
+}
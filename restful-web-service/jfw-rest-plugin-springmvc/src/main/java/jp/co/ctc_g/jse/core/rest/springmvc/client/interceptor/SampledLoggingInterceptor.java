@@ -0,0 +1,530 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.client.interceptor;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jp.co.ctc_g.jfw.core.util.LatencyHistogram;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * <p>
+ * このクラスは、REST通信時のリクエスト情報とレスポンス情報を、本番環境でも有効にできる負荷でログに出力します。
+ * </p>
+ * <p>
+ * {@link RequestLoggingInterceptor}はデバッグ用途のため、リクエストボディ全体の文字列化やヘッダの整形を
+ * 通信のスレッドで毎回行います。このインタセプタは以下の方法でその負荷を抑えます。
+ * <ul>
+ * <li>ログを出力する通信を{@link #setSampleRate(double)}で指定された割合に間引きます。</li>
+ * <li>ログに出力するボディは{@link #setMaxBodyBytes(int)}で指定されたバイト数までに制限します。
+ *     レスポンスボディは、後続の処理が読み込んだバイト列から先頭部分のみを記録するため、二重に読み込むことはありません。</li>
+ * <li>通信のスレッドでは必要な情報の複製のみを行い、文字列への整形とログ出力はバックグラウンドのスレッドで行います。
+ *     出力待ちが{@link #setQueueCapacity(int)}を超えた場合、そのログは破棄されます。</li>
+ * <li>ロガーのINFOレベルが無効な場合は、所要時間の記録以外は何も行いません。</li>
+ * </ul>
+ * 認証情報がログに残らないよう、{@link #setMaskedHeaders(List)}で指定されたヘッダの値は、
+ * 通信のスレッドで複製する時点で{@value #MASK}に置き換えます。
+ * デフォルトはAuthorization、Proxy-Authorization、Cookie、Set-Cookieです。
+ * また、すべての通信の所要時間(レスポンスヘッダ受信まで)を{@link LatencyHistogram}に記録します。
+ * </p>
+ * <p>
+ * このインタセプタを利用するには、{@link org.springframework.web.client.RestTemplate#setInterceptors(List)}に登録する必要があります。
+ * 以下に設定例を示します。
+ * <pre class="brush:java">
+ * &lt;bean id="loggingInterceptor" class="jp.co.ctc_g.jse.core.rest.springmvc.client.interceptor.SampledLoggingInterceptor"&gt;
+ *  &lt;property name="sampleRate" value="0.01" /&gt;
+ *  &lt;property name="maxBodyBytes" value="512" /&gt;
+ * &lt;/bean&gt;
+ * &lt;bean id="template" class="org.springframework.web.client.RestTemplate"&gt;
+ *  &lt;property name="interceptors"&gt;
+ *   &lt;list&gt;
+ *    &lt;ref bean="loggingInterceptor" /&gt;
+ *   &lt;/list&gt;
+ *  &lt;/property&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ * </p>
+ * @see RequestLoggingInterceptor
+ * @see LatencyHistogram
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public class SampledLoggingInterceptor implements ClientHttpRequestInterceptor, DisposableBean {
+
+    private static final Logger L = LoggerFactory.getLogger(SampledLoggingInterceptor.class);
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final String LS = System.getProperty("line.separator");
+
+    private static final String REQUEST_PREFIX = "> ";
+
+    private static final String RESPONSE_PREFIX = "< ";
+
+    private static final String DELIMITER = ": ";
+
+    /** ログに出力しないヘッダの値を置き換える文字列です。 */
+    public static final String MASK = "******";
+
+    /** 値をログに出力しないヘッダのデフォルト値です。 */
+    public static final List<String> DEFAULT_MASKED_HEADERS = Collections.unmodifiableList(
+        Arrays.asList("Authorization", "Proxy-Authorization", "Cookie", "Set-Cookie"));
+
+    /** ログに出力するボディのバイト数の上限のデフォルト値です。 */
+    public static final int DEFAULT_MAX_BODY_BYTES = 1024;
+
+    /** 出力待ちのログの上限数のデフォルト値です。 */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private volatile double sampleRate = 1.0;
+
+    private volatile int maxBodyBytes = DEFAULT_MAX_BODY_BYTES;
+
+    private volatile boolean async = true;
+
+    private volatile Set<String> maskedHeaders = lowerCase(DEFAULT_MASKED_HEADERS);
+
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    private final AtomicLong calls = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private ThreadPoolExecutor formatter;
+
+    /**
+     * コンストラクタです。
+     */
+    public SampledLoggingInterceptor() {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+        throws IOException {
+        boolean sampled = isEnabled() && sample();
+        Entry entry = sampled ? new Entry(request, body, maxBodyBytes, maskedHeaders) : null;
+        long start = System.nanoTime();
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException e) {
+            histogram.record(System.nanoTime() - start);
+            if (entry != null) {
+                entry.failed(e);
+                submit(entry);
+            }
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        histogram.record(elapsed);
+        if (entry == null) return response;
+        entry.responded(response, elapsed);
+        return new RecordingResponse(response, entry);
+    }
+
+    /**
+     * 所要時間のヒストグラムを返却します。
+     * @return 所要時間のヒストグラム
+     */
+    public LatencyHistogram getLatencyHistogram() {
+        return histogram;
+    }
+
+    /**
+     * 出力待ちの上限を超えたため破棄したログの数を返却します。
+     * @return 破棄したログの数
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * バックグラウンドのスレッドを停止します。
+     * 出力待ちのログは停止前に出力されます。
+     * {@inheritDoc}
+     */
+    @Override
+    public void destroy() throws Exception {
+        ThreadPoolExecutor executor;
+        synchronized (this) {
+            executor = formatter;
+            formatter = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * ログを出力する通信の割合を設定します。
+     * 0.0を設定した場合はログを出力せず、1.0を設定した場合はすべての通信のログを出力します。
+     * デフォルトは1.0です。
+     * @param sampleRate ログを出力する通信の割合(0.0から1.0)
+     */
+    public void setSampleRate(double sampleRate) {
+        if (sampleRate < 0.0 || sampleRate > 1.0) throw new IllegalArgumentException("sampleRate must be between 0.0 and 1.0");
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * ログに出力するボディのバイト数の上限を設定します。
+     * 上限を超えた部分は省略し、省略したことのみを出力します。
+     * デフォルトは1024です。
+     * @param maxBodyBytes ボディのバイト数の上限
+     */
+    public void setMaxBodyBytes(int maxBodyBytes) {
+        if (maxBodyBytes < 0) throw new IllegalArgumentException("maxBodyBytes must not be negative");
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    /**
+     * 値をログに出力しないヘッダを設定します。
+     * ヘッダ名の大文字と小文字は区別しません。
+     * デフォルトは{@link #DEFAULT_MASKED_HEADERS}です。
+     * @param maskedHeaders 値をログに出力しないヘッダ名
+     */
+    public void setMaskedHeaders(List<String> maskedHeaders) {
+        if (maskedHeaders == null) throw new IllegalArgumentException("maskedHeaders must not be null");
+        this.maskedHeaders = lowerCase(maskedHeaders);
+    }
+
+    /**
+     * ログの整形と出力をバックグラウンドのスレッドで行うかどうかを設定します。
+     * デフォルトはtrueです。
+     * @param async バックグラウンドのスレッドで行う場合はtrue
+     */
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    /**
+     * 出力待ちのログの上限数を設定します。
+     * バックグラウンドのスレッドの開始前に設定してください。
+     * デフォルトは1024です。
+     * @param queueCapacity 出力待ちのログの上限数
+     */
+    public synchronized void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity <= 0) throw new IllegalArgumentException("queueCapacity must be positive");
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * ログを出力するかどうかを判定します。
+     * @return ログを出力する場合はtrue
+     */
+    protected boolean isEnabled() {
+        return L.isInfoEnabled();
+    }
+
+    /**
+     * 整形したログを出力します。
+     * このメソッドは、非同期の場合はバックグラウンドのスレッドで呼び出されます。
+     * @param message 整形したログ
+     */
+    protected void write(String message) {
+        L.info(message);
+    }
+
+    private static Set<String> lowerCase(List<String> names) {
+        Set<String> lower = new HashSet<String>();
+        for (String name : names) {
+            lower.add(name.toLowerCase(Locale.ENGLISH));
+        }
+        return lower;
+    }
+
+    private boolean sample() {
+        double rate = sampleRate;
+        if (rate >= 1.0) return true;
+        if (rate <= 0.0) return false;
+        // 呼び出し回数に対して割合が一定になるように、累積値の整数部が変化した呼び出しのみを対象とします
+        long n = calls.getAndIncrement();
+        return (long) ((n + 1) * rate) != (long) (n * rate);
+    }
+
+    private void submit(final Entry entry) {
+        if (!async) {
+            write(entry.format());
+            return;
+        }
+        executor().execute(new Runnable() {
+            @Override
+            public void run() {
+                write(entry.format());
+            }
+        });
+    }
+
+    private synchronized ThreadPoolExecutor executor() {
+        if (formatter == null) {
+            formatter = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "jfw-rest-client-logger");
+                        t.setDaemon(true);
+                        return t;
+                    }
+                },
+                new RejectedExecutionHandler() {
+                    @Override
+                    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+                        dropped.incrementAndGet();
+                    }
+                });
+        }
+        return formatter;
+    }
+
+    /**
+     * 1回の通信のログに必要な情報です。
+     * 通信のスレッドでは値の複製のみを行い、整形は{@link #format()}で行います。
+     */
+    private static final class Entry {
+
+        private final String method;
+
+        private final String uri;
+
+        private final HttpHeaders requestHeaders;
+
+        private final byte[] requestBody;
+
+        private final int requestLength;
+
+        private final int limit;
+
+        private final Set<String> masked;
+
+        private int status = -1;
+
+        private String statusText;
+
+        private HttpHeaders responseHeaders;
+
+        private long elapsed;
+
+        private IOException failure;
+
+        private byte[] responseBody;
+
+        private int responseLength;
+
+        private long responseTotal;
+
+        private Entry(HttpRequest request, byte[] body, int limit, Set<String> masked) {
+            this.masked = masked;
+            this.method = String.valueOf(request.getMethod());
+            this.uri = request.getURI().toASCIIString();
+            this.requestHeaders = copy(request.getHeaders(), masked);
+            this.requestBody = Arrays.copyOf(body, Math.min(body.length, limit));
+            this.requestLength = body.length;
+            this.limit = limit;
+        }
+
+        private void responded(ClientHttpResponse response, long elapsed) throws IOException {
+            this.status = response.getRawStatusCode();
+            this.statusText = response.getStatusText();
+            this.responseHeaders = copy(response.getHeaders(), masked);
+            this.elapsed = elapsed;
+            this.responseBody = new byte[limit];
+        }
+
+        private void failed(IOException e) {
+            this.failure = e;
+        }
+
+        private void read(int b) {
+            if (responseLength < limit) responseBody[responseLength++] = (byte) b;
+            responseTotal++;
+        }
+
+        private void read(byte[] b, int off, int len) {
+            int n = Math.min(len, limit - responseLength);
+            if (n > 0) {
+                System.arraycopy(b, off, responseBody, responseLength, n);
+                responseLength += n;
+            }
+            responseTotal += len;
+        }
+
+        private String format() {
+            StringBuilder sb = new StringBuilder(256);
+            sb.append("Request").append(LS);
+            sb.append(REQUEST_PREFIX).append(method).append(' ').append(uri).append(LS);
+            headers(sb, REQUEST_PREFIX, requestHeaders);
+            body(sb, REQUEST_PREFIX, requestHeaders, requestBody, requestBody.length, requestLength);
+            if (failure != null) {
+                sb.append("Failure").append(LS);
+                sb.append(RESPONSE_PREFIX).append(failure.toString()).append(LS);
+                return sb.toString();
+            }
+            sb.append("Response (").append(TimeUnit.NANOSECONDS.toMillis(elapsed)).append("ms)").append(LS);
+            sb.append(RESPONSE_PREFIX).append(status);
+            if (statusText != null) sb.append(' ').append(statusText);
+            sb.append(LS);
+            headers(sb, RESPONSE_PREFIX, responseHeaders);
+            body(sb, RESPONSE_PREFIX, responseHeaders, responseBody, responseLength, responseTotal);
+            return sb.toString();
+        }
+
+        private static HttpHeaders copy(HttpHeaders headers, Set<String> masked) {
+            HttpHeaders copy = new HttpHeaders();
+            for (Map.Entry<String, List<String>> e : headers.entrySet()) {
+                if (masked.contains(e.getKey().toLowerCase(Locale.ENGLISH))) {
+                    copy.add(e.getKey(), MASK);
+                } else {
+                    copy.put(e.getKey(), e.getValue());
+                }
+            }
+            return copy;
+        }
+
+        private static void headers(StringBuilder sb, String prefix, HttpHeaders headers) {
+            for (Map.Entry<String, List<String>> e : headers.entrySet()) {
+                sb.append(prefix).append(e.getKey()).append(DELIMITER);
+                boolean add = false;
+                for (String s : e.getValue()) {
+                    if (add) sb.append(',');
+                    add = true;
+                    sb.append(s);
+                }
+                sb.append(LS);
+            }
+        }
+
+        private static void body(StringBuilder sb, String prefix, HttpHeaders headers, byte[] body, int length, long total) {
+            if (total == 0) return;
+            sb.append(prefix).append(new String(body, 0, length, charset(headers)));
+            if (total > length) sb.append("...(").append(total - length).append(" bytes omitted)");
+            sb.append(LS);
+        }
+
+        private static Charset charset(HttpHeaders headers) {
+            try {
+                MediaType type = headers.getContentType();
+                if (type != null && type.getCharSet() != null) return type.getCharSet();
+            } catch (RuntimeException e) {
+                // 不正なContent-Typeの場合はUTF-8とみなします
+            }
+            return UTF8;
+        }
+    }
+
+    /**
+     * 後続の処理が読み込んだレスポンスボディの先頭部分を記録し、クローズ時にログを出力するレスポンスです。
+     */
+    private final class RecordingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+
+        private final Entry entry;
+
+        private InputStream body;
+
+        private boolean closed;
+
+        private RecordingResponse(ClientHttpResponse delegate, Entry entry) {
+            this.delegate = delegate;
+            this.entry = entry;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return delegate.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                InputStream in = delegate.getBody();
+                if (in == null) return null;
+                body = new FilterInputStream(in) {
+                    @Override
+                    public int read() throws IOException {
+                        int b = super.read();
+                        if (b >= 0) entry.read(b);
+                        return b;
+                    }
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        int n = super.read(b, off, len);
+                        if (n > 0) entry.read(b, off, n);
+                        return n;
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+            if (!closed) {
+                closed = true;
+                submit(entry);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.client.policy;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jp.co.ctc_g.jfw.core.util.Args;
+
+/**
+ * <p>
+ * このクラスは、接続先ごとの同時通信数を制限するバルクヘッドです。
+ * </p>
+ * <p>
+ * 同時通信数が{@link #setMaxConcurrentCalls(int) maxConcurrentCalls}に達している場合、
+ * {@link #setMaxWaitMillis(long) maxWaitMillis}ミリ秒まで空きを待ち、空かなければ通信を行わずに失敗させます。
+ * 応答が遅延している接続先がスレッドやコネクションプールを占有し、他の接続先への通信を巻き込むことを防ぎます。
+ * </p>
+ * @see ResiliencePolicy
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public class Bulkhead {
+
+    /** 同時通信数の上限のデフォルト値です。 */
+    public static final int DEFAULT_MAX_CONCURRENT_CALLS = 20;
+
+    private int maxConcurrentCalls = DEFAULT_MAX_CONCURRENT_CALLS;
+
+    private long maxWaitMillis = 0L;
+
+    private Semaphore permits = new Semaphore(DEFAULT_MAX_CONCURRENT_CALLS);
+
+    private final AtomicLong acceptedCount = new AtomicLong();
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * コンストラクタです。
+     */
+    public Bulkhead() {}
+
+    /**
+     * 通信を許可するかどうかを判定します。
+     * 許可した場合は、通信の完了後に{@link #release()}を必ず呼び出してください。
+     * @return 通信を許可する場合はtrue
+     */
+    public boolean tryAcquire() {
+        boolean acquired;
+        try {
+            acquired = maxWaitMillis <= 0 ? permits.tryAcquire() : permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (acquired) {
+            acceptedCount.incrementAndGet();
+        } else {
+            rejectedCount.incrementAndGet();
+        }
+        return acquired;
+    }
+
+    /**
+     * 通信の完了を記録します。
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * 実行中の通信数を返却します。
+     * @return 実行中の通信数
+     */
+    public int getActiveCount() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+
+    /**
+     * 許可した通信の累計数を返却します。
+     * @return 許可した通信の累計数
+     */
+    public long getAcceptedCount() {
+        return acceptedCount.get();
+    }
+
+    /**
+     * 同時通信数の上限に達していたために拒否した通信の累計数を返却します。
+     * @return 拒否した通信の累計数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * 同時通信数の上限を設定します。
+     * 通信を開始する前に設定してください。デフォルトは20です。
+     * @param maxConcurrentCalls 同時通信数の上限
+     */
+    public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+        Args.checkPositive(maxConcurrentCalls);
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.permits = new Semaphore(maxConcurrentCalls);
+    }
+
+    /**
+     * 同時通信数の上限に達している場合に空きを待つ時間(ミリ秒)を設定します。
+     * 0以下を指定した場合は待ちません。デフォルトは0です。
+     * @param maxWaitMillis 空きを待つ時間
+     */
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+}
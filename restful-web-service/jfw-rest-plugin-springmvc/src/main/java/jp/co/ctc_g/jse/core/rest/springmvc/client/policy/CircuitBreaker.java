@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.client.policy;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jp.co.ctc_g.jfw.core.util.Args;
+
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * <p>
+ * このクラスは、接続先ごとのサーキットブレーカです。
+ * </p>
+ * <p>
+ * 直近{@link #setWindowMillis(long) windowMillis}ミリ秒の通信結果を{@link #setBuckets(int) buckets}個の区間に分けて集計し、
+ * 通信数が{@link #setMinimumCalls(int) minimumCalls}以上かつ失敗率が{@link #setFailureRateThreshold(double) failureRateThreshold}以上になった場合に
+ * 回路を開き({@link State#OPEN})、以降の通信を接続先に送らずに即座に失敗させます。
+ * {@link #setOpenMillis(long) openMillis}ミリ秒経過すると半開状態({@link State#HALF_OPEN})になり、
+ * {@link #setHalfOpenCalls(int) halfOpenCalls}件の試行通信がすべて成功した場合に回路を閉じます({@link State#CLOSED})。
+ * 試行通信が1件でも失敗した場合は再び回路を開きます。
+ * </p>
+ * <p>
+ * 失敗とみなすのは、I/Oエラー(タイムアウトを含む)と5xxのレスポンスです。
+ * 4xxのレスポンスは接続先が正常に応答したものとして成功とみなします。
+ * また、{@link #setSlowCallMillis(long) slowCallMillis}を指定した場合は、それを超えた通信も失敗とみなします。
+ * 応答が遅延している接続先への通信を早期に遮断することで、スレッドやコネクションの枯渇を防ぎます。
+ * </p>
+ * @see ResiliencePolicy
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public class CircuitBreaker {
+
+    /**
+     * サーキットブレーカの状態です。
+     */
+    public enum State {
+        /** 通信を許可している状態です。 */
+        CLOSED,
+        /** 通信を遮断している状態です。 */
+        OPEN,
+        /** 試行通信のみ許可している状態です。 */
+        HALF_OPEN
+    }
+
+    private long windowMillis = 10000L;
+
+    private int buckets = 10;
+
+    private int minimumCalls = 20;
+
+    private double failureRateThreshold = 0.5;
+
+    private long slowCallMillis = -1L;
+
+    private long openMillis = 30000L;
+
+    private int halfOpenCalls = 3;
+
+    private State state = State.CLOSED;
+
+    private long openedAt;
+
+    private int trials;
+
+    private int trialSuccesses;
+
+    private long[] epochs;
+
+    private long[] successes;
+
+    private long[] failures;
+
+    private final AtomicLong successCount = new AtomicLong();
+
+    private final AtomicLong failureCount = new AtomicLong();
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private final AtomicLong openCount = new AtomicLong();
+
+    /**
+     * コンストラクタです。
+     */
+    public CircuitBreaker() {}
+
+    /**
+     * 通信を許可するかどうかを判定します。
+     * 許可した場合は、通信の完了後に{@link #onSuccess(long)}、{@link #onFailure(long)}、{@link #onIgnore()}のいずれかを必ず呼び出してください。
+     * @return 通信を許可する場合はtrue
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (now() - openedAt < openMillis) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trials = 0;
+            trialSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trials >= halfOpenCalls) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            trials++;
+        }
+        return true;
+    }
+
+    /**
+     * 通信が成功したことを記録します。
+     * @param nanos 通信の所要時間(ナノ秒)
+     */
+    public void onSuccess(long nanos) {
+        boolean slow = slowCallMillis >= 0 && TimeUnit.NANOSECONDS.toMillis(nanos) > slowCallMillis;
+        record(slow);
+    }
+
+    /**
+     * 通信が失敗したことを記録します。
+     * @param nanos 通信の所要時間(ナノ秒)
+     */
+    public void onFailure(long nanos) {
+        record(true);
+    }
+
+    /**
+     * 通信結果を集計の対象としないことを記録します。
+     * 半開状態の場合は、試行通信の枠を返却します。
+     */
+    public synchronized void onIgnore() {
+        if (state == State.HALF_OPEN && trials > 0) trials--;
+    }
+
+    /**
+     * 指定された例外を接続先の障害とみなすかどうかを判定します。
+     * デフォルトでは、I/Oエラーと5xxのレスポンスを障害とみなします。
+     * @param e 通信時に発生した例外
+     * @return 障害とみなす場合はtrue
+     */
+    public boolean isFailure(RestClientException e) {
+        return e instanceof ResourceAccessException || e instanceof HttpServerErrorException;
+    }
+
+    /**
+     * 現在の状態を返却します。
+     * @return 現在の状態
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && now() - openedAt >= openMillis) return State.HALF_OPEN;
+        return state;
+    }
+
+    /**
+     * 直近の集計期間の失敗率を返却します。
+     * @return 失敗率(0.0から1.0)。通信がない場合は0
+     */
+    public synchronized double getFailureRate() {
+        long[] c = window(epoch(now()));
+        long total = c[0] + c[1];
+        return total == 0 ? 0.0 : (double) c[1] / total;
+    }
+
+    /**
+     * 成功した通信の累計数を返却します。
+     * @return 成功した通信の累計数
+     */
+    public long getSuccessCount() {
+        return successCount.get();
+    }
+
+    /**
+     * 失敗した通信(遅延を含む)の累計数を返却します。
+     * @return 失敗した通信の累計数
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * 回路が開いていたために遮断した通信の累計数を返却します。
+     * @return 遮断した通信の累計数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * 回路を開いた累計回数を返却します。
+     * @return 回路を開いた累計回数
+     */
+    public long getOpenCount() {
+        return openCount.get();
+    }
+
+    /**
+     * 集計期間(ミリ秒)を設定します。デフォルトは10000です。
+     * @param windowMillis 集計期間
+     */
+    public synchronized void setWindowMillis(long windowMillis) {
+        Args.checkTrue(windowMillis > 0);
+        this.windowMillis = windowMillis;
+        this.epochs = null;
+    }
+
+    /**
+     * 集計期間の分割数を設定します。デフォルトは10です。
+     * @param buckets 集計期間の分割数
+     */
+    public synchronized void setBuckets(int buckets) {
+        Args.checkPositive(buckets);
+        this.buckets = buckets;
+        this.epochs = null;
+    }
+
+    /**
+     * 失敗率を判定するために必要な集計期間内の最小通信数を設定します。デフォルトは20です。
+     * @param minimumCalls 最小通信数
+     */
+    public synchronized void setMinimumCalls(int minimumCalls) {
+        Args.checkPositive(minimumCalls);
+        this.minimumCalls = minimumCalls;
+    }
+
+    /**
+     * 回路を開く失敗率を設定します。デフォルトは0.5です。
+     * @param failureRateThreshold 失敗率(0.0より大きく1.0以下)
+     */
+    public synchronized void setFailureRateThreshold(double failureRateThreshold) {
+        Args.checkTrue(failureRateThreshold > 0.0 && failureRateThreshold <= 1.0);
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    /**
+     * 失敗とみなす所要時間(ミリ秒)を設定します。
+     * 負の値を指定した場合は、所要時間による判定を行いません。デフォルトは-1です。
+     * @param slowCallMillis 失敗とみなす所要時間
+     */
+    public synchronized void setSlowCallMillis(long slowCallMillis) {
+        this.slowCallMillis = slowCallMillis;
+    }
+
+    /**
+     * 回路を開いてから半開状態にするまでの時間(ミリ秒)を設定します。デフォルトは30000です。
+     * @param openMillis 回路を開いておく時間
+     */
+    public synchronized void setOpenMillis(long openMillis) {
+        Args.checkTrue(openMillis >= 0);
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * 半開状態で許可する試行通信の数を設定します。デフォルトは3です。
+     * @param halfOpenCalls 試行通信の数
+     */
+    public synchronized void setHalfOpenCalls(int halfOpenCalls) {
+        Args.checkPositive(halfOpenCalls);
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /**
+     * 現在時刻(ミリ秒)を返却します。
+     * @return 現在時刻
+     */
+    protected long now() {
+        return System.currentTimeMillis();
+    }
+
+    private synchronized void record(boolean failure) {
+        if (failure) {
+            failureCount.incrementAndGet();
+        } else {
+            successCount.incrementAndGet();
+        }
+        long now = now();
+        switch (state) {
+        case CLOSED:
+            long epoch = epoch(now);
+            int i = (int) (epoch % buckets);
+            if (epochs[i] != epoch) {
+                epochs[i] = epoch;
+                successes[i] = 0;
+                failures[i] = 0;
+            }
+            if (failure) {
+                failures[i]++;
+            } else {
+                successes[i]++;
+            }
+            if (failure) {
+                long[] c = window(epoch);
+                long total = c[0] + c[1];
+                if (total >= minimumCalls && c[1] >= failureRateThreshold * total) open(now);
+            }
+            break;
+        case HALF_OPEN:
+            if (failure) {
+                open(now);
+            } else if (++trialSuccesses >= halfOpenCalls) {
+                state = State.CLOSED;
+                epochs = null;
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    private void open(long now) {
+        state = State.OPEN;
+        openedAt = now;
+        openCount.incrementAndGet();
+    }
+
+    private long epoch(long now) {
+        if (epochs == null) {
+            epochs = new long[buckets];
+            successes = new long[buckets];
+            failures = new long[buckets];
+            Arrays.fill(epochs, -1L);
+        }
+        return now / Math.max(1L, windowMillis / buckets);
+    }
+
+    private long[] window(long epoch) {
+        long[] c = new long[2];
+        for (int i = 0; i < buckets; i++) {
+            if (epochs[i] > epoch - buckets) {
+                c[0] += successes[i];
+                c[1] += failures[i];
+            }
+        }
+        return c;
+    }
+
+}
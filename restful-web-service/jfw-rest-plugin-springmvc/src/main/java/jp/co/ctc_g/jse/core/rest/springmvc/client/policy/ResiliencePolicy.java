@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.client.policy;
+
+import java.net.URI;
+import java.util.ResourceBundle;
+
+import jp.co.ctc_g.jfw.core.internal.InternalMessages;
+import jp.co.ctc_g.jfw.core.util.Maps;
+import jp.co.ctc_g.jfw.core.util.Strings;
+import jp.co.ctc_g.jse.core.rest.springmvc.client.exception.BulkheadFullException;
+import jp.co.ctc_g.jse.core.rest.springmvc.client.exception.CircuitBreakerOpenException;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * <p>
+ * このクラスは、接続先ごとの障害対策をまとめたポリシーです。
+ * </p>
+ * <p>
+ * {@link RetryPolicy}、{@link CircuitBreaker}、{@link Bulkhead}を任意に組み合わせて設定します。
+ * 通信は以下の順序で処理されます。
+ * <ol>
+ * <li>{@link Bulkhead}が同時通信数の上限に達している場合は{@link BulkheadFullException}をスローします。</li>
+ * <li>{@link CircuitBreaker}の回路が開いている場合は{@link CircuitBreakerOpenException}をスローします。</li>
+ * <li>通信を行い、結果を{@link CircuitBreaker}に記録します。</li>
+ * <li>失敗した通信が{@link RetryPolicy}の再実行の対象であれば、待機後に1から再実行します。</li>
+ * </ol>
+ * 回路が開いている場合や同時通信数の上限に達している場合は再実行しません。
+ * </p>
+ * <p>
+ * このポリシーは{@link jp.co.ctc_g.jse.core.rest.springmvc.client.RestClientTemplate#setPolicies(java.util.Map)}で
+ * 接続先のホストごとに設定します。以下に設定例を示します。
+ * <pre>
+ *  &lt;bean id="restClientTemplate" class="jp.co.ctc_g.jse.core.rest.springmvc.client.RestClientTemplate"&gt;
+ *    &lt;property name="delegate" ref="restTemplate" /&gt;
+ *    &lt;property name="policies"&gt;
+ *      &lt;map&gt;
+ *        &lt;entry key="api.example.com"&gt;
+ *          &lt;bean class="jp.co.ctc_g.jse.core.rest.springmvc.client.policy.ResiliencePolicy"&gt;
+ *            &lt;property name="circuitBreaker"&gt;
+ *              &lt;bean class="jp.co.ctc_g.jse.core.rest.springmvc.client.policy.CircuitBreaker"&gt;
+ *                &lt;property name="slowCallMillis" value="2000" /&gt;
+ *              &lt;/bean&gt;
+ *            &lt;/property&gt;
+ *            &lt;property name="bulkhead"&gt;
+ *              &lt;bean class="jp.co.ctc_g.jse.core.rest.springmvc.client.policy.Bulkhead"&gt;
+ *                &lt;property name="maxConcurrentCalls" value="10" /&gt;
+ *              &lt;/bean&gt;
+ *            &lt;/property&gt;
+ *            &lt;property name="retry"&gt;
+ *              &lt;bean class="jp.co.ctc_g.jse.core.rest.springmvc.client.policy.RetryPolicy" /&gt;
+ *            &lt;/property&gt;
+ *          &lt;/bean&gt;
+ *        &lt;/entry&gt;
+ *      &lt;/map&gt;
+ *    &lt;/property&gt;
+ *  &lt;/bean&gt;
+ * </pre>
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public class ResiliencePolicy {
+
+    private static final ResourceBundle R = InternalMessages.getBundle(ResiliencePolicy.class);
+
+    private CircuitBreaker circuitBreaker;
+
+    private Bulkhead bulkhead;
+
+    private RetryPolicy retry;
+
+    /**
+     * ポリシーを適用して実行する通信です。
+     * @param <T> 通信結果の型
+     */
+    public interface Invocation<T> {
+
+        /**
+         * 通信を実行します。
+         * @return 通信結果
+         * @throws RestClientException 通信時に発生する例外
+         */
+        T invoke() throws RestClientException;
+    }
+
+    /**
+     * コンストラクタです。
+     */
+    public ResiliencePolicy() {}
+
+    /**
+     * ポリシーを適用して通信を実行します。
+     * @param method HTTPメソッド
+     * @param url 対象URL
+     * @param invocation 実行する通信
+     * @param <T> 通信結果の型
+     * @return 通信結果
+     * @throws RestClientException 通信時に発生する例外
+     */
+    public <T> T execute(HttpMethod method, URI url, Invocation<T> invocation) throws RestClientException {
+        int attempt = 1;
+        while (true) {
+            try {
+                return attempt(url, invocation);
+            } catch (CircuitBreakerOpenException e) {
+                throw e;
+            } catch (BulkheadFullException e) {
+                throw e;
+            } catch (RestClientException e) {
+                if (retry == null || !retry.isRetryable(method, e)) throw e;
+                if (attempt >= retry.getMaxAttempts()) {
+                    retry.exhausted();
+                    throw e;
+                }
+                if (!retry.backoff(attempt)) throw e;
+                attempt++;
+            }
+        }
+    }
+
+    private <T> T attempt(URI url, Invocation<T> invocation) throws RestClientException {
+        if (bulkhead != null && !bulkhead.tryAcquire()) {
+            throw new BulkheadFullException(Strings.substitute(R.getString("E-SPRINGMVC-REST-CLIENT-POLICY#0002"),
+                Maps.hash("target", url.getHost())));
+        }
+        try {
+            if (circuitBreaker == null) return invocation.invoke();
+            if (!circuitBreaker.tryAcquire()) {
+                throw new CircuitBreakerOpenException(Strings.substitute(R.getString("E-SPRINGMVC-REST-CLIENT-POLICY#0001"),
+                    Maps.hash("target", url.getHost())));
+            }
+            long start = System.nanoTime();
+            boolean recorded = false;
+            try {
+                T result = invocation.invoke();
+                circuitBreaker.onSuccess(System.nanoTime() - start);
+                recorded = true;
+                return result;
+            } catch (RestClientException e) {
+                if (circuitBreaker.isFailure(e)) {
+                    circuitBreaker.onFailure(System.nanoTime() - start);
+                } else {
+                    circuitBreaker.onSuccess(System.nanoTime() - start);
+                }
+                recorded = true;
+                throw e;
+            } finally {
+                if (!recorded) circuitBreaker.onIgnore();
+            }
+        } finally {
+            if (bulkhead != null) bulkhead.release();
+        }
+    }
+
+    /**
+     * サーキットブレーカを返却します。
+     * @return サーキットブレーカ。設定されていない場合はnull
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * サーキットブレーカを設定します。
+     * @param circuitBreaker サーキットブレーカ
+     */
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * バルクヘッドを返却します。
+     * @return バルクヘッド。設定されていない場合はnull
+     */
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    /**
+     * バルクヘッドを設定します。
+     * @param bulkhead バルクヘッド
+     */
+    public void setBulkhead(Bulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    /**
+     * リトライポリシーを返却します。
+     * @return リトライポリシー。設定されていない場合はnull
+     */
+    public RetryPolicy getRetry() {
+        return retry;
+    }
+
+    /**
+     * リトライポリシーを設定します。
+     * @param retry リトライポリシー
+     */
+    public void setRetry(RetryPolicy retry) {
+        this.retry = retry;
+    }
+
+}
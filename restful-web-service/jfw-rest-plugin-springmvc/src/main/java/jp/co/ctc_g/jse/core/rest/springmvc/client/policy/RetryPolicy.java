@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.client.policy;
+
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jp.co.ctc_g.jfw.core.util.Args;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * <p>
+ * このクラスは、冪等なメソッドの通信が一時的な障害で失敗した場合に再実行するリトライポリシーです。
+ * </p>
+ * <p>
+ * 再実行の対象は、{@link #setMethods(Set) methods}に含まれるメソッド(デフォルトはGET、HEAD、OPTIONS、PUT、DELETE、TRACE)で、
+ * I/Oエラー(タイムアウトを含む)もしくは502、503、504のレスポンスにより失敗した通信です。
+ * POSTやPATCHは、接続先で処理が完了している可能性があるため再実行しません。
+ * </p>
+ * <p>
+ * n回目の再実行の前には、0から<code>min(maxBackoffMillis, initialBackoffMillis * multiplier^(n-1))</code>ミリ秒の
+ * ランダムな時間だけ待機します(フルジッタ)。
+ * 複数のクライアントの再実行が同じ時刻に集中し、回復しかけた接続先に再び負荷をかけることを防ぎます。
+ * </p>
+ * @see ResiliencePolicy
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public class RetryPolicy {
+
+    private static final ThreadLocal<Random> RANDOM = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random();
+        }
+    };
+
+    private int maxAttempts = 3;
+
+    private long initialBackoffMillis = 100L;
+
+    private long maxBackoffMillis = 2000L;
+
+    private double multiplier = 2.0;
+
+    private Set<HttpMethod> methods = EnumSet.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS,
+        HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.TRACE);
+
+    private final AtomicLong retryCount = new AtomicLong();
+
+    private final AtomicLong exhaustedCount = new AtomicLong();
+
+    /**
+     * コンストラクタです。
+     */
+    public RetryPolicy() {}
+
+    /**
+     * 指定された通信を再実行するかどうかを判定します。
+     * @param method HTTPメソッド
+     * @param e 通信時に発生した例外
+     * @return 再実行する場合はtrue
+     */
+    public boolean isRetryable(HttpMethod method, RestClientException e) {
+        if (method == null || !methods.contains(method)) return false;
+        if (e instanceof ResourceAccessException) return true;
+        if (e instanceof HttpServerErrorException) {
+            HttpStatus status = ((HttpServerErrorException) e).getStatusCode();
+            return status == HttpStatus.BAD_GATEWAY || status == HttpStatus.SERVICE_UNAVAILABLE || status == HttpStatus.GATEWAY_TIMEOUT;
+        }
+        return false;
+    }
+
+    /**
+     * 指定された回数の再実行の前に待機する時間(ミリ秒)を計算します。
+     * @param retry 再実行の回数(1から)
+     * @return 待機する時間
+     */
+    public long computeBackoff(int retry) {
+        double ceiling = initialBackoffMillis * Math.pow(multiplier, retry - 1);
+        long bound = (long) Math.min(maxBackoffMillis, ceiling);
+        if (bound <= 0) return 0L;
+        return (long) (RANDOM.get().nextDouble() * bound);
+    }
+
+    /**
+     * 再実行の前に待機します。
+     * 待機中に割り込まれた場合はfalseを返却し、再実行を中止します。
+     * @param retry 再実行の回数(1から)
+     * @return 再実行する場合はtrue
+     */
+    protected boolean backoff(int retry) {
+        retryCount.incrementAndGet();
+        long millis = computeBackoff(retry);
+        if (millis <= 0) return true;
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 再実行の上限に達したことを記録します。
+     */
+    protected void exhausted() {
+        exhaustedCount.incrementAndGet();
+    }
+
+    /**
+     * 再実行した累計回数を返却します。
+     * @return 再実行した累計回数
+     */
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * 再実行の上限に達しても成功しなかった通信の累計数を返却します。
+     * @return 再実行の上限に達した通信の累計数
+     */
+    public long getExhaustedCount() {
+        return exhaustedCount.get();
+    }
+
+    /**
+     * 最初の実行を含む最大の実行回数を返却します。
+     * @return 最大の実行回数
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * 最初の実行を含む最大の実行回数を設定します。デフォルトは3です。
+     * @param maxAttempts 最大の実行回数
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        Args.checkPositive(maxAttempts);
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * 1回目の再実行の前に待機する時間の上限(ミリ秒)を設定します。デフォルトは100です。
+     * @param initialBackoffMillis 待機する時間の上限
+     */
+    public void setInitialBackoffMillis(long initialBackoffMillis) {
+        Args.checkTrue(initialBackoffMillis >= 0);
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    /**
+     * 再実行の前に待機する時間の上限(ミリ秒)を設定します。デフォルトは2000です。
+     * @param maxBackoffMillis 待機する時間の上限
+     */
+    public void setMaxBackoffMillis(long maxBackoffMillis) {
+        Args.checkTrue(maxBackoffMillis >= 0);
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * 再実行ごとに待機する時間の上限を増加させる倍率を設定します。デフォルトは2.0です。
+     * @param multiplier 倍率(1.0以上)
+     */
+    public void setMultiplier(double multiplier) {
+        Args.checkTrue(multiplier >= 1.0);
+        this.multiplier = multiplier;
+    }
+
+    /**
+     * 再実行の対象とするHTTPメソッドを設定します。
+     * 冪等でないメソッドを指定する場合は、接続先で重複して処理されても問題がないことを確認してください。
+     * @param methods 再実行の対象とするHTTPメソッド
+     */
+    public void setMethods(Set<HttpMethod> methods) {
+        Args.checkNotNull(methods);
+        this.methods = EnumSet.noneOf(HttpMethod.class);
+        this.methods.addAll(methods);
+    }
+
+}
@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * このパッケージは、RESTクライアントの障害対策(サーキットブレーカ、バルクヘッド、リトライ)を管理します。
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+package jp.co.ctc_g.jse.core.rest.springmvc.client.policy;
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.co.ctc_g.jse.core.rest.springmvc.server.filter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * <p>
+ * このクラスは、固定長のバイト配列を再利用するためのプールです。
+ * </p>
+ * <p>
+ * {@link GZipFilter}のストリーミングモードでは、リクエスト毎に圧縮前後のデータを一時的に保持するバッファが必要になります。
+ * このプールはそのバッファを使い回すことで、リクエスト毎の大きな配列の生成を抑止します。
+ * プールに保持される配列の数には上限があり、上限を超えて返却された配列は破棄されます。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see GZipFilter
+ * @see GZipStreamingResponseStream
+ */
+public class BufferPool {
+
+    private final int bufferSize;
+
+    private final BlockingQueue<byte[]> buffers;
+
+    /**
+     * コンストラクタです。
+     * @param bufferSize バッファの大きさ(バイト)
+     * @param capacity プールに保持するバッファの最大数
+     */
+    public BufferPool(int bufferSize, int capacity) {
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<byte[]>(capacity);
+    }
+
+    /**
+     * バッファを取得します。
+     * プールにバッファが存在しない場合は新たに生成します。
+     * @return バッファ
+     */
+    public byte[] acquire() {
+        byte[] buffer = buffers.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    /**
+     * バッファをプールへ返却します。
+     * @param buffer 返却するバッファ
+     */
+    public void release(byte[] buffer) {
+        if (buffer != null && buffer.length == bufferSize) {
+            buffers.offer(buffer);
+        }
+    }
+
+    /**
+     * バッファの大きさを返却します。
+     * @return バッファの大きさ(バイト)
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
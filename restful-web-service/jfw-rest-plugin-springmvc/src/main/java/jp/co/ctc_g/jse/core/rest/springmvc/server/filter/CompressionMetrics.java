@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.co.ctc_g.jse.core.rest.springmvc.server.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * このクラスは、{@link GZipFilter}のストリーミングモードによるレスポンス圧縮の統計情報を保持します。
+ * </p>
+ * <p>
+ * 圧縮したレスポンス数、圧縮しなかったレスポンス数、圧縮前後のバイト数、
+ * および圧縮処理(ネイティブのzlibの呼び出し)に要した時間を集計します。
+ * 圧縮処理に要した時間はリクエストを処理するスレッド上で計測した経過時間であり、
+ * 圧縮に費やしたCPU時間の近似値として利用できます。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see GZipFilter#getMetrics()
+ */
+public class CompressionMetrics {
+
+    private final AtomicLong compressed = new AtomicLong();
+
+    private final AtomicLong skipped = new AtomicLong();
+
+    private final AtomicLong bytesIn = new AtomicLong();
+
+    private final AtomicLong bytesOut = new AtomicLong();
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    /**
+     * デフォルトコンストラクタです。
+     */
+    public CompressionMetrics() {}
+
+    /**
+     * 圧縮したレスポンスを記録します。
+     * @param in 圧縮前のバイト数
+     * @param out 圧縮後のバイト数
+     * @param elapsed 圧縮処理に要した時間(ナノ秒)
+     */
+    public void compressed(long in, long out, long elapsed) {
+        compressed.incrementAndGet();
+        bytesIn.addAndGet(in);
+        bytesOut.addAndGet(out);
+        nanos.addAndGet(elapsed);
+    }
+
+    /**
+     * 圧縮しなかったレスポンスを記録します。
+     */
+    public void skipped() {
+        skipped.incrementAndGet();
+    }
+
+    /**
+     * 圧縮したレスポンス数を返却します。
+     * @return 圧縮したレスポンス数
+     */
+    public long getCompressedCount() {
+        return compressed.get();
+    }
+
+    /**
+     * 最小サイズに満たない、あるいは圧縮対象外であったために圧縮しなかったレスポンス数を返却します。
+     * @return 圧縮しなかったレスポンス数
+     */
+    public long getSkippedCount() {
+        return skipped.get();
+    }
+
+    /**
+     * 圧縮前のバイト数の合計を返却します。
+     * @return 圧縮前のバイト数
+     */
+    public long getBytesIn() {
+        return bytesIn.get();
+    }
+
+    /**
+     * 圧縮後のバイト数の合計を返却します。
+     * @return 圧縮後のバイト数
+     */
+    public long getBytesOut() {
+        return bytesOut.get();
+    }
+
+    /**
+     * 圧縮率(圧縮後のバイト数 / 圧縮前のバイト数)を返却します。
+     * @return 圧縮率。一度も圧縮していない場合は<code>1.0</code>
+     */
+    public double getCompressionRatio() {
+        long in = bytesIn.get();
+        return in == 0 ? 1.0 : (double) bytesOut.get() / in;
+    }
+
+    /**
+     * 圧縮処理に要した時間の合計(ナノ秒)を返却します。
+     * @return 圧縮処理に要した時間
+     */
+    public long getCompressionTime() {
+        return nanos.get();
+    }
+
+    /**
+     * 圧縮したレスポンス1件あたりの圧縮処理に要した時間(ナノ秒)を返却します。
+     * @return 圧縮処理に要した時間の平均。一度も圧縮していない場合は<code>0</code>
+     */
+    public long getAverageCompressionTime() {
+        long count = compressed.get();
+        return count == 0 ? 0 : nanos.get() / count;
+    }
+
+    /**
+     * 統計情報を初期化します。
+     */
+    public void reset() {
+        compressed.set(0);
+        skipped.set(0);
+        bytesIn.set(0);
+        bytesOut.set(0);
+        nanos.set(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "CompressionMetrics[compressed=" + getCompressedCount()
+                + ", skipped=" + getSkippedCount()
+                + ", bytesIn=" + getBytesIn()
+                + ", bytesOut=" + getBytesOut()
+                + ", ratio=" + getCompressionRatio()
+                + ", time=" + getCompressionTime() + "ns]";
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.co.ctc_g.jse.core.rest.springmvc.server.filter;
+
+/**
+ * <p>
+ * この列挙型は、{@link GZipFilter}のストリーミングモードがサポートするコンテントコーディングを表現します。
+ * </p>
+ * <p>
+ * {@link #negotiate(String, ContentCoding...)}は、HTTPヘッダのAccept-Encodingをq値を考慮して解析し、
+ * サポートするコンテントコーディングの中からクライアントが最も優先するものを選択します。
+ * q値が同じ場合は、引数に指定された順序を優先します。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see GZipFilter
+ */
+public enum ContentCoding {
+
+    /**
+     * gzip形式(RFC1952)です。
+     */
+    GZIP("gzip", "x-gzip"),
+
+    /**
+     * zlib形式(RFC1950)によるdeflateです。
+     */
+    DEFLATE("deflate", null);
+
+    private final String name;
+
+    private final String alias;
+
+    private ContentCoding(String name, String alias) {
+        this.name = name;
+        this.alias = alias;
+    }
+
+    /**
+     * Content-Encodingに指定する名前を返却します。
+     * @return 名前
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 指定された名前のコンテントコーディングを返却します。
+     * @param name 名前(大文字小文字は区別しません)
+     * @return コンテントコーディング
+     * @throws IllegalArgumentException サポートしていない名前の場合
+     */
+    public static ContentCoding of(String name) {
+        ContentCoding coding = find(name != null ? name.trim() : null);
+        if (coding == null) {
+            throw new IllegalArgumentException("Unsupported content coding: " + name);
+        }
+        return coding;
+    }
+
+    /**
+     * Accept-Encodingを解析し、サポートするコンテントコーディングの中からクライアントが最も優先するものを選択します。
+     * <code>*</code>は、明示的に指定されていないすべてのコンテントコーディングに一致します。
+     * q値に<code>0</code>が指定されたコンテントコーディングは選択しません。
+     * @param acceptEncoding HTTPヘッダのAccept-Encodingの値
+     * @param supported サポートするコンテントコーディング(優先する順)
+     * @return 選択されたコンテントコーディング。選択できない場合はnull
+     */
+    public static ContentCoding negotiate(String acceptEncoding, ContentCoding... supported) {
+        if (acceptEncoding == null || supported == null || supported.length == 0) return null;
+        float[] qualities = new float[values().length];
+        boolean[] specified = new boolean[qualities.length];
+        float wildcard = 0f;
+        int length = acceptEncoding.length();
+        int start = 0;
+        while (start < length) {
+            int end = acceptEncoding.indexOf(',', start);
+            if (end < 0) end = length;
+            String element = acceptEncoding.substring(start, end);
+            start = end + 1;
+            int semicolon = element.indexOf(';');
+            String token = (semicolon < 0 ? element : element.substring(0, semicolon)).trim();
+            if (token.length() == 0) continue;
+            float quality = semicolon < 0 ? 1f : quality(element.substring(semicolon + 1));
+            if ("*".equals(token)) {
+                wildcard = quality;
+                continue;
+            }
+            ContentCoding coding = find(token);
+            if (coding != null) {
+                qualities[coding.ordinal()] = Math.max(qualities[coding.ordinal()], quality);
+                specified[coding.ordinal()] = true;
+            }
+        }
+        ContentCoding chosen = null;
+        float best = 0f;
+        for (ContentCoding coding : supported) {
+            if (coding == null) continue;
+            float quality = specified[coding.ordinal()] ? qualities[coding.ordinal()] : wildcard;
+            if (quality > best) {
+                best = quality;
+                chosen = coding;
+            }
+        }
+        return chosen;
+    }
+
+    private static ContentCoding find(String token) {
+        if (token == null) return null;
+        for (ContentCoding coding : values()) {
+            if (coding.name.equalsIgnoreCase(token) || (coding.alias != null && coding.alias.equalsIgnoreCase(token))) {
+                return coding;
+            }
+        }
+        return null;
+    }
+
+    private static float quality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            int equal = parameter.indexOf('=');
+            if (equal < 0 || !"q".equalsIgnoreCase(parameter.substring(0, equal).trim())) continue;
+            try {
+                float quality = Float.parseFloat(parameter.substring(equal + 1).trim());
+                return quality < 0f ? 0f : quality > 1f ? 1f : quality;
+            } catch (NumberFormatException e) {
+                // 不正なq値は受け入れないものとして扱います
+                return 0f;
+            }
+        }
+        return 1f;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.co.ctc_g.jse.core.rest.springmvc.server.filter;
+
+import java.util.zip.Deflater;
+
+/**
+ * <p>
+ * このクラスは、{@link Deflater}をスレッド毎に再利用するためのプールです。
+ * </p>
+ * <p>
+ * {@link Deflater}はインスタンス毎にネイティブのzlibの状態を確保するため、
+ * リクエスト毎に生成と破棄を繰り返すとその確保と解放の負荷が無視できなくなります。
+ * このプールはスレッド毎に形式(gzipとdeflate)毎の{@link Deflater}を1つずつ保持し、
+ * 返却時に{@link Deflater#reset()}して次のリクエストで使い回します。
+ * 同一スレッドで同時に複数取得された場合、プールに保持されていない分は新たに生成し、返却時に破棄します。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see GZipFilter
+ * @see GZipStreamingResponseStream
+ */
+public class DeflaterPool {
+
+    private final int level;
+
+    private final ThreadLocal<Deflater[]> deflaters = new ThreadLocal<Deflater[]>() {
+        @Override
+        protected Deflater[] initialValue() {
+            return new Deflater[2];
+        }
+    };
+
+    /**
+     * コンストラクタです。
+     * @param level 圧縮レベル
+     */
+    public DeflaterPool(int level) {
+        this.level = level;
+    }
+
+    /**
+     * {@link Deflater}を取得します。
+     * @param nowrap zlibのヘッダとトレーラを出力しない場合(gzip形式の場合)はtrue
+     * @return {@link Deflater}
+     */
+    public Deflater acquire(boolean nowrap) {
+        Deflater[] pooled = deflaters.get();
+        int index = nowrap ? 1 : 0;
+        Deflater deflater = pooled[index];
+        if (deflater != null) {
+            pooled[index] = null;
+            return deflater;
+        }
+        return new Deflater(level, nowrap);
+    }
+
+    /**
+     * {@link Deflater}をプールへ返却します。
+     * @param deflater 返却する{@link Deflater}
+     * @param nowrap 取得時に指定した値
+     */
+    public void release(Deflater deflater, boolean nowrap) {
+        if (deflater == null) return;
+        Deflater[] pooled = deflaters.get();
+        int index = nowrap ? 1 : 0;
+        if (pooled[index] == null) {
+            deflater.reset();
+            pooled[index] = deflater;
+        } else {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 圧縮レベルを返却します。
+     * @return 圧縮レベル
+     */
+    public int getLevel() {
+        return level;
+    }
+}
@@ -17,12 +17,15 @@
 package jp.co.ctc_g.jse.core.rest.springmvc.server.filter;
 
 import java.io.IOException;
+import java.util.zip.Deflater;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.propertyeditors.StringArrayPropertyEditor;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 /**
@@ -32,6 +35,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
  * <p>
  * gzip圧縮はrfc2068に基づきクライアントが「accept-encoding」に 「gzip」を指定している場合にレスポンスを圧縮転送します。
  * このクラスはフィルタによりクライアントの「accept-encoding」 を解析し、もしgzip圧縮に対応したクライアントであった場合レスポンスを圧縮します。
+ * 「accept-encoding」はq値を考慮して解析するため、「gzip;q=0」のようにgzipを拒否しているクライアントには圧縮しません。
  * </p>
  * <p>
  * 以下に設定例を示します。
@@ -46,16 +50,104 @@ import org.springframework.web.filter.OncePerRequestFilter;
  *  &lt;/filter-mapping&gt;
  * </pre>
  * </p>
+ * <p>
+ * デフォルトでは、レスポンス全体をメモリ上で圧縮し、<code>Content-Length</code>を設定してから転送します。
+ * 大きなレスポンスを扱う場合は、初期化パラメータ<code>streaming</code>に<code>true</code>を指定してください。
+ * ストリーミングモードでは、{@link BufferPool}から取得した固定長のバッファを通して圧縮結果を逐次転送するため、
+ * レスポンス全体をメモリ上に保持することなく、チャンク形式で転送されます。
+ * また、gzipとdeflateのうちクライアントがq値で最も優先するものを選択して圧縮し(q値が同じ場合は<code>contentCodings</code>の順)、
+ * 圧縮に利用する{@link Deflater}は{@link DeflaterPool}によりスレッド毎に再利用します。
+ * 圧縮率や圧縮処理に要した時間は{@link #getMetrics()}で参照できます。
+ * ストリーミングモードでは、次の初期化パラメータを指定できます。
+ * <ul>
+ * <li><code>minSize</code> : 圧縮を開始する最小サイズ(バイト)です。これに満たないレスポンスは圧縮されません。
+ * デフォルト値は{@link #DEFAULT_MIN_SIZE}で、<code>bufferSize</code>を上限とします。</li>
+ * <li><code>compressionLevel</code> : 圧縮レベル(0～9)です。デフォルト値は{@link Deflater#DEFAULT_COMPRESSION}です。</li>
+ * <li><code>excludedContentTypes</code> : 圧縮対象外とするContent-Typeをカンマ区切りで指定します。前方一致で判定します。
+ * デフォルト値は{@link #DEFAULT_EXCLUDED_CONTENT_TYPES}です。</li>
+ * <li><code>bufferSize</code> : バッファの大きさ(バイト)です。デフォルト値は{@link #DEFAULT_BUFFER_SIZE}です。</li>
+ * <li><code>contentCodings</code> : 利用する圧縮形式(<code>gzip</code>、<code>deflate</code>)を優先する順にカンマ区切りで指定します。
+ * デフォルト値は{@link #DEFAULT_CONTENT_CODINGS}です。</li>
+ * </ul>
+ * <pre class="brush:java">
+ *  &lt;filter&gt;
+ *   &lt;filter-name&gt;gzipFilter&lt;/filter-name&gt;
+ *   &lt;filter-class&gt;jp.co.ctc_g.jse.core.rest.springmvc.server.filter.GZipFilter&lt;/filter-class&gt;
+ *   &lt;init-param&gt;
+ *    &lt;param-name&gt;streaming&lt;/param-name&gt;
+ *    &lt;param-value&gt;true&lt;/param-value&gt;
+ *   &lt;/init-param&gt;
+ *   &lt;init-param&gt;
+ *    &lt;param-name&gt;excludedContentTypes&lt;/param-name&gt;
+ *    &lt;param-value&gt;image/,application/zip&lt;/param-value&gt;
+ *   &lt;/init-param&gt;
+ *  &lt;/filter&gt;
+ * </pre>
+ * </p>
  * @see OncePerRequestFilter
+ * @see GZipStreamingResponseWrapper
+ * @see ContentCoding
+ * @see CompressionMetrics
  * @author ITOCHU Techno-Solutions Corporation.
  */
 public class GZipFilter extends OncePerRequestFilter {
 
+    /**
+     * ストリーミングモードで圧縮を開始するデフォルトの最小サイズ(バイト)です。
+     */
+    public static final int DEFAULT_MIN_SIZE = 1024;
+
+    /**
+     * ストリーミングモードで利用するバッファのデフォルトの大きさ(バイト)です。
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * プールに保持するバッファのデフォルトの最大数です。
+     */
+    public static final int DEFAULT_POOL_CAPACITY = 64;
+
+    /**
+     * ストリーミングモードで圧縮対象外とするデフォルトのContent-Typeです。
+     * 既に圧縮されている形式のみを対象外とします。
+     */
+    public static final String[] DEFAULT_EXCLUDED_CONTENT_TYPES = {
+        "image/", "video/", "audio/", "application/zip", "application/gzip", "application/x-gzip"
+    };
+
+    /**
+     * ストリーミングモードで利用するデフォルトの圧縮形式です。
+     */
+    public static final String[] DEFAULT_CONTENT_CODINGS = {"gzip", "deflate"};
+
+    private boolean streaming;
+
+    private int minSize = DEFAULT_MIN_SIZE;
+
+    private String[] excludedContentTypes = DEFAULT_EXCLUDED_CONTENT_TYPES;
+
+    private ContentCoding[] contentCodings = {ContentCoding.GZIP, ContentCoding.DEFLATE};
+
+    private BufferPool bufferPool = new BufferPool(DEFAULT_BUFFER_SIZE, DEFAULT_POOL_CAPACITY);
+
+    private DeflaterPool deflaterPool = new DeflaterPool(Deflater.DEFAULT_COMPRESSION);
+
+    private final CompressionMetrics metrics = new CompressionMetrics();
+
     /**
      * デフォルトコンストラクタです。
      */
     public GZipFilter() {}
 
+    /**
+     * {@inheritDoc}
+     * 初期化パラメータのカンマ区切りの値を配列として設定できるようにします。
+     */
+    @Override
+    protected void initBeanWrapper(BeanWrapper bw) {
+        bw.registerCustomEditor(String[].class, new StringArrayPropertyEditor());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -63,13 +155,154 @@ public class GZipFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
         throws ServletException, IOException {
         String acceptEncoding = request.getHeader(GZips.ACCEPT_ENCODING);
-        if (acceptEncoding != null && acceptEncoding.contains(GZips.ENCODING_GZIP)) {
+        if (streaming) {
+            ContentCoding coding = ContentCoding.negotiate(acceptEncoding, contentCodings);
+            if (coding != null) {
+                GZipStreamingResponseWrapper responseWrapper = new GZipStreamingResponseWrapper(
+                        response, coding, bufferPool, deflaterPool, metrics, minSize, excludedContentTypes);
+                try {
+                    chain.doFilter(request, responseWrapper);
+                    responseWrapper.close();
+                } finally {
+                    // 後続の処理で例外が発生した場合も、プールから取得したバッファとDeflaterを返却します
+                    responseWrapper.release();
+                }
+            } else {
+                chain.doFilter(request, response);
+            }
+        } else if (ContentCoding.negotiate(acceptEncoding, ContentCoding.GZIP) != null) {
             HttpServletResponse httpResponse = (HttpServletResponse) response;
             GZipResponseWrapper responseWrapper = new GZipResponseWrapper(httpResponse);
-            chain.doFilter(request, responseWrapper);
-            responseWrapper.close();
+            try {
+                chain.doFilter(request, responseWrapper);
+                responseWrapper.close();
+            } finally {
+                responseWrapper.release();
+            }
         } else {
             chain.doFilter(request, response);
         }
     }
+
+    /**
+     * ストリーミングモードかどうかを返却します。
+     * @return ストリーミングモードの場合はtrue
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * ストリーミングモードかどうかを設定します。
+     * @param streaming ストリーミングモードの場合はtrue
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * 圧縮を開始する最小サイズ(バイト)を返却します。
+     * @return 最小サイズ
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * 圧縮を開始する最小サイズ(バイト)を設定します。
+     * @param minSize 最小サイズ
+     */
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    /**
+     * 圧縮レベルを返却します。
+     * @return 圧縮レベル
+     */
+    public int getCompressionLevel() {
+        return deflaterPool.getLevel();
+    }
+
+    /**
+     * 圧縮レベルを設定します。
+     * @param compressionLevel 圧縮レベル(0～9、あるいは{@link Deflater#DEFAULT_COMPRESSION})
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        if ((compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)
+                && compressionLevel != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + compressionLevel);
+        }
+        this.deflaterPool = new DeflaterPool(compressionLevel);
+    }
+
+    /**
+     * 圧縮対象外のContent-Typeを返却します。
+     * @return 圧縮対象外のContent-Type
+     */
+    public String[] getExcludedContentTypes() {
+        return excludedContentTypes;
+    }
+
+    /**
+     * 圧縮対象外のContent-Typeを設定します。
+     * @param excludedContentTypes 圧縮対象外のContent-Type
+     */
+    public void setExcludedContentTypes(String[] excludedContentTypes) {
+        this.excludedContentTypes = excludedContentTypes != null ? excludedContentTypes : new String[0];
+    }
+
+    /**
+     * バッファの大きさ(バイト)を返却します。
+     * @return バッファの大きさ
+     */
+    public int getBufferSize() {
+        return bufferPool.getBufferSize();
+    }
+
+    /**
+     * バッファの大きさ(バイト)を設定します。
+     * @param bufferSize バッファの大きさ
+     */
+    public void setBufferSize(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
+        }
+        this.bufferPool = new BufferPool(bufferSize, DEFAULT_POOL_CAPACITY);
+    }
+
+    /**
+     * 利用する圧縮形式を返却します。
+     * @return 利用する圧縮形式の名前
+     */
+    public String[] getContentCodings() {
+        String[] names = new String[contentCodings.length];
+        for (int i = 0; i < contentCodings.length; i++) {
+            names[i] = contentCodings[i].getName();
+        }
+        return names;
+    }
+
+    /**
+     * 利用する圧縮形式を優先する順に設定します。
+     * @param contentCodings 利用する圧縮形式の名前(<code>gzip</code>、<code>deflate</code>)
+     */
+    public void setContentCodings(String[] contentCodings) {
+        if (contentCodings == null || contentCodings.length == 0) {
+            throw new IllegalArgumentException("Content codings must not be empty.");
+        }
+        ContentCoding[] codings = new ContentCoding[contentCodings.length];
+        for (int i = 0; i < contentCodings.length; i++) {
+            codings[i] = ContentCoding.of(contentCodings[i]);
+        }
+        this.contentCodings = codings;
+    }
+
+    /**
+     * ストリーミングモードによるレスポンス圧縮の統計情報を返却します。
+     * @return 統計情報
+     */
+    public CompressionMetrics getMetrics() {
+        return metrics;
+    }
 }
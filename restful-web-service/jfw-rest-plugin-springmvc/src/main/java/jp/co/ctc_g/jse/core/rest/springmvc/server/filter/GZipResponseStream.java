@@ -77,7 +77,7 @@ public class GZipResponseStream extends ServletOutputStream {
      */
     @Override
     public void close() throws IOException {
-        this.gzipStream.finish();
+        this.gzipStream.close();
         byte[] bytes = this.baos.toByteArray();
         this.response.addHeader("Content-Length", String.valueOf(bytes.length));
         this.response.addHeader("Content-Encoding", "gzip");
@@ -86,6 +86,18 @@ public class GZipResponseStream extends ServletOutputStream {
         this.output.close();
     }
 
+    /**
+     * レスポンスを出力せずに、gzip圧縮に利用した{@link java.util.zip.Deflater Deflater}を解放します.
+     */
+    public void release() {
+        if (this.gzipStream == null) return;
+        try {
+            this.gzipStream.close();
+        } catch (IOException e) {
+            // メモリ上のストリームのため、発生しません
+        }
+    }
+
     /**
      * {@inheritDoc}
      * @see java.io.OutputStream#flush()
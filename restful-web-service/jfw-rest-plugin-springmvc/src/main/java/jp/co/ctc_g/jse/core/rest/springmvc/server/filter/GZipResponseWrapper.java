@@ -73,6 +73,16 @@ public class GZipResponseWrapper extends HttpServletResponseWrapper {
         }
     }
 
+    /**
+     * レスポンスを出力せずに、圧縮に利用したリソースを解放します.
+     * 後続の処理で例外が発生し、{@link #close()}が呼び出されなかった場合に利用します.
+     */
+    public void release() {
+        if (stream instanceof GZipResponseStream) {
+            ((GZipResponseStream) stream).release();
+        }
+    }
+
     /**
      * {@inheritDoc}
      * @see javax.servlet.ServletResponseWrapper#flushBuffer()
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.co.ctc_g.jse.core.rest.springmvc.server.filter;
+
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import javax.servlet.ServletOutputStream;
+
+/**
+ * <p>
+ * このクラスは、サーブレットのレスポンス内容を逐次圧縮して転送するための{@link ServletOutputStream}拡張クラスです。
+ * </p>
+ * <p>
+ * {@link GZipResponseStream}がレスポンス全体をメモリ上で圧縮してから出力するのに対し、
+ * このクラスは{@link BufferPool}から取得した固定長のバッファを通して圧縮結果を逐次出力します。
+ * 圧縮形式は{@link GZipStreamingResponseWrapper#getContentCoding()}に従い、
+ * 圧縮に利用する{@link Deflater}は{@link DeflaterPool}から取得してスレッド毎に再利用します。
+ * <code>Content-Length</code>は設定されないため、レスポンスはチャンク形式で転送されます。
+ * </p>
+ * <p>
+ * 出力されたデータが最小サイズに達するまでは圧縮を開始せず、バッファに保持します。
+ * 最小サイズに達する前にストリームがクローズされた場合、あるいはレスポンスのContent-Typeが圧縮対象外の場合は、
+ * レスポンスを圧縮せずにそのまま出力します。
+ * 圧縮するかどうかの判断は{@link GZipStreamingResponseWrapper}に委譲します。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see GZipStreamingResponseWrapper
+ * @see BufferPool
+ * @see DeflaterPool
+ */
+public class GZipStreamingResponseStream extends ServletOutputStream {
+
+    private static final byte[] HEADER = {
+        (byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private final GZipStreamingResponseWrapper response;
+
+    private final ServletOutputStream output;
+
+    private final BufferPool pool;
+
+    private final int threshold;
+
+    private final DeflaterPool deflaters;
+
+    private final CompressionMetrics metrics;
+
+    private byte[] pending;
+
+    private int count;
+
+    private byte[] buffer;
+
+    private Deflater deflater;
+
+    private boolean nowrap;
+
+    private CRC32 crc;
+
+    private long written;
+
+    private long elapsed;
+
+    private boolean decided;
+
+    private boolean closed;
+
+    /**
+     * コンストラクタです。
+     * @param response 圧縮するかどうかを判断するレスポンスラッパー
+     * @param output ラッピングする元となるサーブレットレスポンスの出力ストリーム
+     * @param pool バッファのプール
+     * @param minSize 圧縮を開始する最小サイズ(バイト)。バッファの大きさを超える場合はバッファの大きさに丸められます
+     * @param deflaters {@link Deflater}のプール
+     * @param metrics 統計情報
+     */
+    public GZipStreamingResponseStream(GZipStreamingResponseWrapper response, ServletOutputStream output,
+            BufferPool pool, int minSize, DeflaterPool deflaters, CompressionMetrics metrics) {
+        this.response = response;
+        this.output = output;
+        this.pool = pool;
+        this.threshold = Math.max(0, Math.min(minSize, pool.getBufferSize()));
+        this.deflaters = deflaters;
+        this.metrics = metrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(byte[] bytes) throws IOException {
+        write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (closed) throw new IOException("Stream already closed.");
+        if (length == 0) return;
+        if (!decided) {
+            if (count + length <= threshold) {
+                if (pending == null) pending = pool.acquire();
+                System.arraycopy(bytes, offset, pending, count, length);
+                count += length;
+                if (count < threshold) return;
+                decide(true);
+                return;
+            }
+            decide(true);
+        }
+        if (deflater != null) {
+            deflate(bytes, offset, length);
+        } else {
+            output.write(bytes, offset, length);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 最小サイズに達しておらず、圧縮するかどうかが決定していない場合は、データを保持したまま何もしません。
+     * Spring MVCのメッセージコンバータのように書込み後に必ずフラッシュする処理があっても、
+     * 最小サイズに満たないレスポンスが圧縮されることはありません。
+     * なお、圧縮中のデータのうち{@link Deflater}の内部に保持されている分は、
+     * 後続のデータとともに圧縮されるまで出力されません。
+     */
+    @Override
+    public void flush() throws IOException {
+        if (closed || !decided) return;
+        output.flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 圧縮中の場合は圧縮形式のトレーラを出力し、バッファと{@link Deflater}をプールへ返却します。
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        try {
+            if (!decided) {
+                decide(false);
+            }
+            if (deflater != null) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    emit(deflate());
+                }
+                if (nowrap) writeTrailer();
+                metrics.compressed(deflater.getBytesRead(), written, elapsed);
+            }
+            output.close();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 残りのデータを出力せずにストリームをクローズし、バッファと{@link Deflater}をプールへ返却します。
+     * 既にクローズされている場合は何もしません。
+     */
+    protected void release() {
+        closed = true;
+        deflaters.release(deflater, nowrap);
+        deflater = null;
+        pool.release(pending);
+        pool.release(buffer);
+        pending = null;
+        buffer = null;
+    }
+
+    /**
+     * 圧縮するかどうかを決定し、保持していたデータを出力します。
+     * @param reached 最小サイズに達した場合はtrue
+     * @throws IOException 出力に失敗した場合
+     */
+    private void decide(boolean reached) throws IOException {
+        decided = true;
+        if (reached && response.startCompression()) {
+            buffer = pool.acquire();
+            nowrap = response.getContentCoding() == ContentCoding.GZIP;
+            deflater = deflaters.acquire(nowrap);
+            if (nowrap) {
+                crc = new CRC32();
+                output.write(HEADER);
+                written += HEADER.length;
+            }
+            if (count > 0) deflate(pending, 0, count);
+        } else {
+            response.skipCompression(count);
+            metrics.skipped();
+            if (count > 0) output.write(pending, 0, count);
+        }
+        count = 0;
+    }
+
+    private void deflate(byte[] bytes, int offset, int length) throws IOException {
+        if (crc != null) crc.update(bytes, offset, length);
+        deflater.setInput(bytes, offset, length);
+        while (!deflater.needsInput()) {
+            emit(deflate());
+        }
+    }
+
+    private int deflate() {
+        // 統計情報には出力に要した時間を含めず、圧縮処理に要した時間のみを計上します
+        long started = System.nanoTime();
+        int n = deflater.deflate(buffer, 0, buffer.length);
+        elapsed += System.nanoTime() - started;
+        return n;
+    }
+
+    private void emit(int n) throws IOException {
+        if (n <= 0) return;
+        output.write(buffer, 0, n);
+        written += n;
+    }
+
+    private void writeTrailer() throws IOException {
+        byte[] trailer = new byte[8];
+        writeInt((int) crc.getValue(), trailer, 0);
+        writeInt((int) deflater.getBytesRead(), trailer, 4);
+        output.write(trailer);
+        written += trailer.length;
+    }
+
+    private static void writeInt(int value, byte[] bytes, int offset) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >> 8);
+        bytes[offset + 2] = (byte) (value >> 16);
+        bytes[offset + 3] = (byte) (value >> 24);
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jp.co.ctc_g.jse.core.rest.springmvc.server.filter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * <p>
+ * このクラスは、サーブレットのレスポンス内容を逐次圧縮転送するための{@link HttpServletResponseWrapper}拡張クラスです。
+ * </p>
+ * <p>
+ * このラッパを通した全てのレスポンスは{@link GZipStreamingResponseStream}を経由して出力されます。
+ * 圧縮を開始するまでの間、アプリケーションが設定した<code>Content-Length</code>は保留され、
+ * 圧縮しないことが決定した場合にのみ元のレスポンスへ設定されます。
+ * 圧縮する場合は<code>Content-Length</code>を設定せずに<code>Content-Encoding</code>と<code>Vary</code>を設定するため、
+ * レスポンスはチャンク形式で転送されます。
+ * </p>
+ * <p>
+ * 次のいずれかに該当するレスポンスは圧縮しません。
+ * <ul>
+ * <li>Content-Typeが圧縮対象外として指定されたものに前方一致する</li>
+ * <li>アプリケーションがContent-Encodingを設定している</li>
+ * <li>出力されたデータの大きさが最小サイズに満たない</li>
+ * </ul>
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see GZipFilter
+ * @see GZipStreamingResponseStream
+ */
+public class GZipStreamingResponseWrapper extends HttpServletResponseWrapper {
+
+    private final HttpServletResponse response;
+
+    private final ContentCoding contentCoding;
+
+    private final BufferPool pool;
+
+    private final DeflaterPool deflaters;
+
+    private final CompressionMetrics metrics;
+
+    private final int minSize;
+
+    private final String[] excludedContentTypes;
+
+    private GZipStreamingResponseStream stream;
+
+    private PrintWriter writer;
+
+    private int contentLength = -1;
+
+    private boolean encoded;
+
+    private boolean decided;
+
+    private boolean compressing;
+
+    /**
+     * コンストラクタです。
+     * @param response サーブレットレスポンス
+     * @param contentCoding 圧縮形式
+     * @param pool バッファのプール
+     * @param deflaters {@link java.util.zip.Deflater Deflater}のプール
+     * @param metrics 統計情報
+     * @param minSize 圧縮を開始する最小サイズ(バイト)
+     * @param excludedContentTypes 圧縮対象外のContent-Type
+     */
+    public GZipStreamingResponseWrapper(HttpServletResponse response, ContentCoding contentCoding,
+            BufferPool pool, DeflaterPool deflaters, CompressionMetrics metrics,
+            int minSize, String[] excludedContentTypes) {
+        super(response);
+        this.response = response;
+        this.contentCoding = contentCoding;
+        this.pool = pool;
+        this.deflaters = deflaters;
+        this.metrics = metrics;
+        this.minSize = minSize;
+        this.excludedContentTypes = excludedContentTypes != null ? excludedContentTypes : new String[0];
+    }
+
+    /**
+     * ストリームをクローズします.
+     * @throws IOException IO例外
+     */
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        } else if (stream != null) {
+            stream.close();
+        } else if (!decided && contentLength >= 0) {
+            // ボディが出力されなかった場合は、保留していたContent-Lengthをそのまま設定します
+            skipCompression(-1);
+        }
+    }
+
+    /**
+     * レスポンスを出力せずに、ストリームが保持しているバッファと{@link java.util.zip.Deflater Deflater}をプールへ返却します。
+     * {@link #close()}の後に呼び出された場合は何もしません。
+     * 後続の処理で例外が発生し、{@link #close()}が呼び出されなかった場合に利用します。
+     */
+    public void release() {
+        if (stream != null) stream.release();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called for this response.");
+        }
+        return stream();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (stream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called for this response.");
+            }
+            writer = new PrintWriter(new OutputStreamWriter(stream(), response.getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        } else if (stream != null) {
+            stream.flush();
+        } else {
+            super.flushBuffer();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 圧縮するかどうかが決定するまで、Content-Lengthは保留されます。
+     */
+    @Override
+    public void setContentLength(int len) {
+        if (decided) {
+            if (!isCompressing()) super.setContentLength(len);
+        } else {
+            contentLength = len;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 圧縮するかどうかが決定するまで、Content-Lengthは保留されます。
+     */
+    @Override
+    public void setHeader(String name, String value) {
+        if (GZips.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLength(value != null ? Integer.parseInt(value.trim()) : -1);
+        } else {
+            if (GZips.CONTENT_ENCODING.equalsIgnoreCase(name)) encoded = true;
+            super.setHeader(name, value);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 圧縮するかどうかが決定するまで、Content-Lengthは保留されます。
+     */
+    @Override
+    public void addHeader(String name, String value) {
+        if (GZips.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLength(value != null ? Integer.parseInt(value.trim()) : -1);
+        } else {
+            if (GZips.CONTENT_ENCODING.equalsIgnoreCase(name)) encoded = true;
+            super.addHeader(name, value);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 圧縮するかどうかが決定するまで、Content-Lengthは保留されます。
+     */
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (GZips.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLength(value);
+        } else {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 圧縮するかどうかが決定するまで、Content-Lengthは保留されます。
+     */
+    @Override
+    public void addIntHeader(String name, int value) {
+        if (GZips.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLength(value);
+        } else {
+            super.addIntHeader(name, value);
+        }
+    }
+
+    /**
+     * 圧縮形式を返却します。
+     * @return 圧縮形式
+     */
+    public ContentCoding getContentCoding() {
+        return contentCoding;
+    }
+
+    /**
+     * レスポンスが圧縮されているかどうかを返却します。
+     * @return 圧縮されている場合はtrue
+     */
+    public boolean isCompressing() {
+        return compressing;
+    }
+
+    /**
+     * レスポンスを圧縮できる場合は、圧縮のためのヘッダを設定します。
+     * このメソッドは{@link GZipStreamingResponseStream}が最小サイズ以上のデータを受け取った時点で呼び出されます。
+     * @return 圧縮を開始する場合はtrue
+     */
+    protected boolean startCompression() {
+        if (!isCompressible()) {
+            skipCompression(-1);
+            return false;
+        }
+        decided = true;
+        compressing = true;
+        super.setHeader(GZips.CONTENT_ENCODING, contentCoding.getName());
+        super.addHeader(GZips.VARY, GZips.ACCEPT_ENCODING);
+        return true;
+    }
+
+    /**
+     * レスポンスを圧縮しないことを決定し、保留していたContent-Lengthを設定します。
+     * @param size 出力済みのデータの大きさ。すべてのデータが出力済みでない場合は<code>-1</code>
+     */
+    protected void skipCompression(int size) {
+        decided = true;
+        if (contentLength >= 0) {
+            super.setContentLength(contentLength);
+        } else if (size >= 0) {
+            super.setContentLength(size);
+        }
+    }
+
+    /**
+     * このレスポンスが圧縮の対象かどうかを判定します。
+     * @return 圧縮の対象の場合はtrue
+     */
+    protected boolean isCompressible() {
+        if (encoded || response.containsHeader(GZips.CONTENT_ENCODING)) return false;
+        String contentType = getContentType();
+        if (contentType == null) return true;
+        contentType = contentType.toLowerCase();
+        for (String excluded : excludedContentTypes) {
+            if (excluded != null && excluded.length() > 0 && contentType.startsWith(excluded.trim().toLowerCase())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private GZipStreamingResponseStream stream() throws IOException {
+        if (stream == null) {
+            stream = new GZipStreamingResponseStream(
+                    this, response.getOutputStream(), pool, minSize, deflaters, metrics);
+        }
+        return stream;
+    }
+}
@@ -40,4 +40,19 @@ public final class GZips {
      */
     public static final String ENCODING_GZIP = "gzip";
 
+    /**
+     * HTTPヘッダのContent-Encodingのキーです。
+     */
+    public static final String CONTENT_ENCODING = "Content-Encoding";
+
+    /**
+     * HTTPヘッダのContent-Lengthのキーです。
+     */
+    public static final String CONTENT_LENGTH = "Content-Length";
+
+    /**
+     * HTTPヘッダのVaryのキーです。
+     */
+    public static final String VARY = "Vary";
+
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.server.handler;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import jp.co.ctc_g.jse.core.rest.entity.ErrorMessage;
+import jp.co.ctc_g.jse.core.rest.entity.ErrorMessageJsonWriter;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+/**
+ * <p>
+ * このクラスは、例外ハンドラが返却する{@link ErrorMessage}をJSON形式で書き出すメッセージコンバータです。
+ * </p>
+ * <p>
+ * {@link ErrorMessageJsonWriter}を利用し、エラーレスポンスの静的な部分は事前に変換したバイト列を書き出します。
+ * 書き出す内容はJacksonのメッセージコンバータと同じですが、
+ * エラーが大量に発生した場合のシリアライズの負荷を抑えることができます。
+ * このコンバータは書き出し専用で、リクエストの読み込みには利用されません。
+ * </p>
+ * <p>
+ * 利用する場合は、Jacksonのメッセージコンバータより前に登録してください。
+ * <pre>
+ * &lt;mvc:annotation-driven&gt;
+ *   &lt;mvc:message-converters register-defaults="true"&gt;
+ *     &lt;bean class="jp.co.ctc_g.jse.core.rest.springmvc.server.handler.ErrorMessageHttpMessageConverter" /&gt;
+ *   &lt;/mvc:message-converters&gt;
+ * &lt;/mvc:annotation-driven&gt;
+ * </pre>
+ * </p>
+ * @see AbstractRestExceptionHandler
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public class ErrorMessageHttpMessageConverter extends AbstractHttpMessageConverter<ErrorMessage> {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * デフォルトコンストラクタです。
+     */
+    public ErrorMessageHttpMessageConverter() {
+        super(new MediaType("application", "json", UTF8), new MediaType("application", "*+json", UTF8));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ErrorMessage.class.isAssignableFrom(clazz);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected ErrorMessage readInternal(Class<? extends ErrorMessage> clazz, HttpInputMessage inputMessage)
+        throws IOException, HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException(clazz.getName());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void writeInternal(ErrorMessage error, HttpOutputMessage outputMessage)
+        throws IOException, HttpMessageNotWritableException {
+        ErrorMessageJsonWriter.write(error, outputMessage.getBody());
+    }
+
+}
@@ -24,11 +24,25 @@ import org.springframework.context.support.ReloadableResourceBundleMessageSource
 import org.springframework.context.support.ResourceBundleMessageSource;
 
 import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * <p>
  * このクラスは、エラーリソースを扱うユーテリティです。
  * </p>
+ * <p>
+ * 解決したメッセージは、キーとロケールの組み合わせごとにキャッシュします。
+ * 404や400のエラーが大量に発生した場合でも、メッセージソースの検索はキーとロケールごとに有効期間内で1度のみとなります。
+ * キャッシュの有効期間は、メッセージソースの設定時に指定した秒数({@link #set(ReloadableResourceBundleMessageSource, int)}、
+ * {@link #setCacheSeconds(int)})です。
+ * {@link ReloadableResourceBundleMessageSource#setCacheSeconds(int)}と同様に、-1(デフォルト)の場合は無期限にキャッシュし、
+ * 0の場合はキャッシュしません。再読み込みを行う場合は、メッセージソースと同じ秒数を指定してください。
+ * </p>
+ * <p>
+ * 設定したメッセージソースには基盤のエラーリソースが親として設定されるため、
+ * アプリケーションのリソースに同じキーが定義されている場合は、アプリケーションのメッセージが優先されます。
+ * </p>
  * @author ITOCHU Techno-Solutions Corporation.
  */
 public final class ErrorResources {
@@ -43,6 +57,11 @@ public final class ErrorResources {
         ErrorResources.class.getPackage().getName() + "." + "ErrorResources"
     };
 
+    private static final int MAX_CACHED_MESSAGES = 1024;
+    private static final ConcurrentMap<String, CachedMessage> CACHE = new ConcurrentHashMap<String, CachedMessage>();
+
+    private static volatile long cacheMillis = -1;
+
     private static ReloadableResourceBundleMessageSource messageSource;
     private static final ResourceBundleMessageSource PARENT_MESSAGE_SOURCE;
     static {
@@ -62,10 +81,30 @@ public final class ErrorResources {
 
     /**
      * メッセージソースを設定します。
+     * 解決したメッセージは無期限にキャッシュします。
      * @param message メッセージソース
      */
     public static void set(ReloadableResourceBundleMessageSource message) {
+        set(message, -1);
+    }
+
+    /**
+     * メッセージソースを設定します。
+     * @param message メッセージソース
+     * @param cacheSeconds 解決したメッセージをキャッシュする秒数。-1の場合は無期限、0の場合はキャッシュしません
+     */
+    public static void set(ReloadableResourceBundleMessageSource message, int cacheSeconds) {
         message.setParentMessageSource(PARENT_MESSAGE_SOURCE);
+        messageSource = message;
+        cacheMillis = cacheSeconds * 1000L;
+        clearCache();
+    }
+
+    /**
+     * キャッシュしているメッセージをすべて破棄します。
+     */
+    public static void clearCache() {
+        CACHE.clear();
     }
 
     /**
@@ -74,7 +113,18 @@ public final class ErrorResources {
      */
     @Autowired(required = true)
     public void setMessageSource(ReloadableResourceBundleMessageSource messageSource) {
-        set(messageSource);
+        set(messageSource, (int) (cacheMillis < 0 ? -1 : cacheMillis / 1000));
+    }
+
+    /**
+     * 解決したメッセージをキャッシュする秒数を設定します。
+     * メッセージソースに設定した{@link ReloadableResourceBundleMessageSource#setCacheSeconds(int)}と同じ値を設定してください。
+     * デフォルトは-1(無期限)で、0の場合はキャッシュしません。
+     * @param cacheSeconds キャッシュする秒数
+     */
+    public void setCacheSeconds(int cacheSeconds) {
+        cacheMillis = cacheSeconds * 1000L;
+        clearCache();
     }
 
     /**
@@ -84,13 +134,43 @@ public final class ErrorResources {
      *         該当するメッセージがないときは、検索対象のキー
      */
     public static String find(String key) {
+        Locale userLocale = LocaleContextHolder.getLocale();
+        Locale currentLocale = userLocale != null ? userLocale : Locale.getDefault();
+        MessageSource source = get();
+        // 基盤のエラーリソースのみの場合は再読み込みされないため、無期限にキャッシュします
+        long ttl = source == PARENT_MESSAGE_SOURCE ? -1 : cacheMillis;
+        if (ttl == 0) return resolve(source, key, currentLocale);
+        String cacheKey = currentLocale.toString() + '|' + key;
+        long now = System.currentTimeMillis();
+        CachedMessage cached = CACHE.get(cacheKey);
+        if (cached != null && cached.expires > now) return cached.message;
+        String msg = resolve(source, key, currentLocale);
+        if (cached != null || CACHE.size() < MAX_CACHED_MESSAGES) {
+            CACHE.put(cacheKey, new CachedMessage(msg, ttl < 0 ? Long.MAX_VALUE : now + ttl));
+        }
+        return msg;
+    }
+
+    private static String resolve(MessageSource source, String key, Locale currentLocale) {
+        String msg;
         try {
-            Locale userLocale = LocaleContextHolder.getLocale();
-            Locale currentLocale = userLocale != null ? userLocale : Locale.getDefault();
-            String msg = get().getMessage(key, null, currentLocale);
-            return msg != null ? msg : key;
+            msg = source.getMessage(key, null, currentLocale);
+            if (msg == null) msg = key;
         } catch (NoSuchMessageException e) {
-            return key;
+            msg = key;
+        }
+        return msg;
+    }
+
+    private static final class CachedMessage {
+
+        private final String message;
+
+        private final long expires;
+
+        private CachedMessage(String message, long expires) {
+            this.message = message;
+            this.expires = expires;
         }
     }
 }
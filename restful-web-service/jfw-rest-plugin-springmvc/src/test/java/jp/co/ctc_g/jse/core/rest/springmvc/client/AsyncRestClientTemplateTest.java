@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.client;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.GenericServlet;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import jp.co.ctc_g.jse.core.rest.springmvc.client.exception.DeadlineExceededException;
+import jp.co.ctc_g.jse.core.rest.springmvc.client.exception.InternalServerErrorException;
+import jp.co.ctc_g.jse.core.rest.springmvc.client.exception.NotFoundException;
+import jp.co.ctc_g.jse.core.rest.springmvc.client.handler.RestClientResponseErrorHandler;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.ListenableFutureTask;
+import org.springframework.web.client.AsyncRestOperations;
+import org.springframework.web.client.AsyncRestTemplate;
+
+public class AsyncRestClientTemplateTest {
+
+    protected AsyncRestClientTemplate template;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private static Server jettyServer;
+
+    private static String helloWorld = "H\u00e9llo W\u00f6rld";
+
+    private static String baseUrl;
+
+    @BeforeClass
+    public static void jetty起動() throws Exception {
+        int port = SocketTestUtils.findAvailableTcpPort();
+        jettyServer = new Server(port);
+        baseUrl = "http://localhost:" + port;
+        ServletContextHandler handler = new ServletContextHandler();
+        MediaType contentType = new MediaType("text", "plain", Collections.singletonMap("charset", "UTF-8"));
+        handler.addServlet(new ServletHolder(new EchoTestServlet(helloWorld.getBytes("UTF-8"), contentType)), "/echo");
+        handler.addServlet(new ServletHolder(new ErrorTestServlet(404)), "/status/notfound");
+        handler.addServlet(new ServletHolder(new ErrorTestServlet(500)), "/status/server");
+        jettyServer.setHandler(handler);
+        jettyServer.start();
+    }
+
+    @Before
+    public void setup() {
+        AsyncRestTemplate t = new AsyncRestTemplate();
+        t.setErrorHandler(new RestClientResponseErrorHandler());
+        template = new AsyncRestClientTemplate(t);
+    }
+
+    @AfterClass
+    public static void jetty停止() throws Exception {
+        if (jettyServer != null) {
+            jettyServer.stop();
+        }
+    }
+
+    @Test
+    public void インスタンスを設定できる() throws Exception {
+        AsyncRestClientTemplate arct = new AsyncRestClientTemplate();
+        arct.setDelegate(new AsyncRestTemplate());
+        assertThat(arct.getDelegate(), instanceOf(AsyncRestOperations.class));
+    }
+
+    @Test
+    public void GETでレスポンスが取得できる() throws Exception {
+        ListenableFuture<String> future = template.get(Target.target(baseUrl + "/{method}", "echo"), String.class);
+        assertThat(future.get(), is(helloWorld));
+    }
+
+    @Test
+    public void GETでエンティティが取得できる() throws Exception {
+        ResponseEntity<String> entity = template.getForEntity(Target.target(baseUrl + "/echo"), String.class).get();
+        assertThat(entity.getBody(), is(helloWorld));
+        assertThat(entity.getStatusCode(), is(HttpStatus.OK));
+    }
+
+    @Test
+    public void POSTでレスポンスが取得できる() throws Exception {
+        String s = template.post(Target.target(baseUrl + "/echo"), Entity.text("posted"), String.class).get();
+        assertThat(s, is("POST:posted"));
+    }
+
+    @Test
+    public void PUTでエンティティが取得できる() throws Exception {
+        ResponseEntity<String> entity = template.putForEntity(Target.target(baseUrl + "/echo"), Entity.text("put"), String.class).get();
+        assertThat(entity.getBody(), is("PUT:put"));
+    }
+
+    @Test
+    public void DELETEでレスポンスが取得できる() throws Exception {
+        String s = template.delete(Target.target(baseUrl + "/echo"), String.class).get();
+        assertThat(s, is(nullValue()));
+    }
+
+    @Test
+    public void コールバックで処理結果を受け取れる() throws Exception {
+        final List<String> results = Collections.synchronizedList(new ArrayList<String>());
+        ListenableFuture<String> future = template.get(Target.target(baseUrl + "/echo"), String.class);
+        future.addCallback(new ListenableFutureCallback<String>() {
+            @Override
+            public void onSuccess(String result) {
+                results.add(result);
+            }
+            @Override
+            public void onFailure(Throwable t) {
+                results.add(t.getClass().getName());
+            }
+        });
+        future.get();
+        for (int i = 0; i < 100 && results.isEmpty(); i++) {
+            Thread.sleep(10L);
+        }
+        assertThat(results.get(0), is(helloWorld));
+    }
+
+    @Test
+    public void 存在しないURLの場合はNotFoundExceptionが通知される() throws Exception {
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        ListenableFuture<String> future = template.get(Target.target(baseUrl + "/status/notfound"), String.class);
+        future.addCallback(new ListenableFutureCallback<String>() {
+            @Override
+            public void onSuccess(String result) {}
+            @Override
+            public void onFailure(Throwable t) {
+                failures.add(t);
+            }
+        });
+        for (int i = 0; i < 100 && failures.isEmpty(); i++) {
+            Thread.sleep(10L);
+        }
+        assertThat(failures.get(0), instanceOf(NotFoundException.class));
+    }
+
+    @Test
+    public void 複数のGETを並行して実行できる() throws Exception {
+        List<Target> targets = Arrays.asList(
+            Target.target(baseUrl + "/echo"), Target.target(baseUrl + "/echo"), Target.target(baseUrl + "/echo"));
+        List<String> results = template.getAll(targets, String.class, 10, TimeUnit.SECONDS);
+        assertThat(results, is(Arrays.asList(helloWorld, helloWorld, helloWorld)));
+    }
+
+    @Test
+    public void 待ち合わせでエラーに対応した例外がスローされる() throws Exception {
+        thrown.expect(NotFoundException.class);
+        List<ListenableFuture<String>> futures = new ArrayList<ListenableFuture<String>>();
+        futures.add(template.get(Target.target(baseUrl + "/status/notfound"), String.class));
+        AsyncRestClientTemplate.join(futures, 10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void 待ち合わせ中のエラーはそのままスローされる() throws Exception {
+        thrown.expect(InternalServerErrorException.class);
+        List<Target> targets = Arrays.asList(
+            Target.target(baseUrl + "/echo"), Target.target(baseUrl + "/status/server"));
+        template.getAll(targets, String.class, 10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void 期限を超えた場合は未完了の処理がキャンセルされる() throws Exception {
+        ListenableFutureTask<String> fast = new ListenableFutureTask<String>(new Sleeper(0L));
+        ListenableFutureTask<String> slow = new ListenableFutureTask<String>(new Sleeper(2000L));
+        new Thread(fast).start();
+        new Thread(slow).start();
+        List<ListenableFuture<String>> futures = new ArrayList<ListenableFuture<String>>();
+        futures.add(fast);
+        futures.add(slow);
+        long start = System.nanoTime();
+        try {
+            AsyncRestClientTemplate.join(futures, 200, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (DeadlineExceededException e) {
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1500L, is(true));
+            assertThat(slow.isCancelled(), is(true));
+        }
+    }
+
+    private static class Sleeper implements Callable<String> {
+
+        private final long delay;
+
+        private Sleeper(long delay) {
+            this.delay = delay;
+        }
+
+        @Override
+        public String call() throws Exception {
+            Thread.sleep(delay);
+            return helloWorld;
+        }
+    }
+
+    private static class ErrorTestServlet extends GenericServlet {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int sc;
+
+        private ErrorTestServlet(int sc) {
+            this.sc = sc;
+        }
+
+        @Override
+        public void service(ServletRequest request, ServletResponse response) throws ServletException, IOException {
+            ((HttpServletResponse) response).sendError(sc);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class EchoTestServlet extends HttpServlet {
+
+        private final byte[] buf;
+
+        private final MediaType contentType;
+
+        private EchoTestServlet(byte[] buf, MediaType contentType) {
+            this.buf = buf;
+            this.contentType = contentType;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+            response.setContentType(contentType.toString());
+            response.setContentLength(buf.length);
+            FileCopyUtils.copy(buf, response.getOutputStream());
+        }
+
+        @Override
+        protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+            echo("POST", request, response);
+        }
+
+        @Override
+        protected void doPut(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+            echo("PUT", request, response);
+        }
+
+        @Override
+        protected void doDelete(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+            response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+        }
+
+        private void echo(String method, HttpServletRequest request, HttpServletResponse response) throws IOException {
+            byte[] body = (method + ":" + FileCopyUtils.copyToString(request.getReader())).getBytes("UTF-8");
+            response.setContentType(contentType.toString());
+            response.setContentLength(body.length);
+            FileCopyUtils.copy(body, response.getOutputStream());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.client;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.http.HttpVersion;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.BasicHttpContext;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.web.client.RestTemplate;
+
+public class PooledClientHttpRequestFactoryTest {
+
+    private static Server jettyServer;
+
+    private static String baseUrl;
+
+    private PooledClientHttpRequestFactory factory;
+
+    @BeforeClass
+    public static void jetty起動() throws Exception {
+        int port = SocketTestUtils.findAvailableTcpPort();
+        jettyServer = new Server(port);
+        baseUrl = "http://localhost:" + port;
+        ServletContextHandler handler = new ServletContextHandler();
+        handler.addServlet(new ServletHolder(new HelloServlet()), "/hello");
+        jettyServer.setHandler(handler);
+        jettyServer.start();
+    }
+
+    @AfterClass
+    public static void jetty停止() throws Exception {
+        if (jettyServer != null) {
+            jettyServer.stop();
+        }
+    }
+
+    @After
+    public void teardown() throws Exception {
+        if (factory != null) factory.destroy();
+    }
+
+    @Test
+    public void デフォルト値でコネクションプールが生成される() throws Exception {
+        factory = new PooledClientHttpRequestFactory();
+        factory.afterPropertiesSet();
+        assertThat(factory.getHttpClient(), notNullValue());
+        assertThat(factory.getConnectionManager().getMaxTotal(), is(200));
+        assertThat(factory.getConnectionManager().getDefaultMaxPerRoute(), is(20));
+        assertThat(factory.getTotalStats().getMax(), is(200));
+    }
+
+    @Test
+    public void ルートごとの最大コネクション数を上書きできる() throws Exception {
+        factory = new PooledClientHttpRequestFactory();
+        factory.setMaxPerRoute(Collections.singletonMap("api.example.com:8080", 50));
+        factory.afterPropertiesSet();
+        Map<String, PoolStats> stats = factory.getRouteStats();
+        assertThat(stats.get("http://api.example.com:8080").getMax(), is(50));
+    }
+
+    @Test
+    public void 通信したルートの統計情報が取得できる() throws Exception {
+        factory = new PooledClientHttpRequestFactory();
+        factory.setDefaultMaxPerRoute(7);
+        factory.afterPropertiesSet();
+        RestTemplate template = new RestTemplate(factory);
+        assertThat(template.getForObject(baseUrl + "/hello", String.class), is("hello"));
+        PoolStats stats = factory.getRouteStats().get(baseUrl);
+        assertThat(stats, notNullValue());
+        assertThat(stats.getMax(), is(7));
+        assertThat(stats.getLeased(), is(0));
+        assertThat(stats.getAvailable(), is(1));
+    }
+
+    @Test
+    public void 利用されていないコネクションが破棄される() throws Exception {
+        factory = new PooledClientHttpRequestFactory();
+        factory.setIdleTimeout(50);
+        factory.setEvictionInterval(20);
+        factory.afterPropertiesSet();
+        RestTemplate template = new RestTemplate(factory);
+        template.getForObject(baseUrl + "/hello", String.class);
+        for (int i = 0; i < 100 && factory.getTotalStats().getAvailable() > 0; i++) {
+            Thread.sleep(20L);
+        }
+        assertThat(factory.getTotalStats().getAvailable(), is(0));
+    }
+
+    @Test
+    public void KeepAliveヘッダのtimeoutが優先される() throws Exception {
+        factory = new PooledClientHttpRequestFactory();
+        factory.setKeepAlive(10000);
+        ConnectionKeepAliveStrategy strategy = factory.createKeepAliveStrategy();
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        assertThat(strategy.getKeepAliveDuration(response, new BasicHttpContext()), is(10000L));
+        response.addHeader("Keep-Alive", "timeout=5");
+        assertThat(strategy.getKeepAliveDuration(response, new BasicHttpContext()), is(5000L));
+    }
+
+    @SuppressWarnings("serial")
+    private static class HelloServlet extends HttpServlet {
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+            byte[] body = "hello".getBytes("UTF-8");
+            response.setContentType("text/plain");
+            response.setContentLength(body.length);
+            FileCopyUtils.copy(body, response.getOutputStream());
+        }
+    }
+}
@@ -65,6 +65,11 @@ public class ProxyClientHttpRequestFactoryTest {
             assertThat(client, CoreMatchers.notNullValue());
             RequestConfig config = getRequestConfig(client);
             assertThat(config.getSocketTimeout(), CoreMatchers.is(60000));
+            assertThat(config.getConnectTimeout(), CoreMatchers.is(-1));
+            assertThat(config.getConnectionRequestTimeout(), CoreMatchers.is(-1));
+            Field evictor = PooledClientHttpRequestFactory.class.getDeclaredField("evictor");
+            evictor.setAccessible(true);
+            assertThat(evictor.get(defaultFactory), CoreMatchers.nullValue());
             PoolingHttpClientConnectionManager manager = getConnectionManager(client);
             assertThat(manager.getMaxTotal(), CoreMatchers.is(100));
             assertThat(manager.getDefaultMaxPerRoute(), CoreMatchers.is(5));
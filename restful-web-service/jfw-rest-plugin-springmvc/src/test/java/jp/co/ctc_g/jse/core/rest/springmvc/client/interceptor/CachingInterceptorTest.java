@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.client.interceptor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import jp.co.ctc_g.jse.core.rest.springmvc.client.SocketTestUtils;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.web.client.RestTemplate;
+
+public class CachingInterceptorTest {
+
+    private static Server jettyServer;
+
+    private static String baseUrl;
+
+    private static CountingServlet maxAge = new CountingServlet("max-age=60", null, 0L);
+
+    private static CountingServlet etag = new CountingServlet("no-cache", "\"v1\"", 0L);
+
+    private static CountingServlet noStore = new CountingServlet("no-store", null, 0L);
+
+    private static CountingServlet slow = new CountingServlet("max-age=60", null, 300L);
+
+    private static CountingServlet privateOnly = new CountingServlet("private, max-age=60", null, 0L);
+
+    private static CountingServlet shared = new CountingServlet("public, max-age=60", null, 0L);
+
+    private CachingInterceptor interceptor;
+
+    private RestTemplate template;
+
+    @BeforeClass
+    public static void jetty起動() throws Exception {
+        int port = SocketTestUtils.findAvailableTcpPort();
+        jettyServer = new Server(port);
+        baseUrl = "http://localhost:" + port;
+        ServletContextHandler handler = new ServletContextHandler();
+        handler.addServlet(new ServletHolder(maxAge), "/maxage/*");
+        handler.addServlet(new ServletHolder(etag), "/etag");
+        handler.addServlet(new ServletHolder(noStore), "/nostore");
+        handler.addServlet(new ServletHolder(slow), "/slow");
+        handler.addServlet(new ServletHolder(privateOnly), "/private");
+        handler.addServlet(new ServletHolder(shared), "/public");
+        jettyServer.setHandler(handler);
+        jettyServer.start();
+    }
+
+    @AfterClass
+    public static void jetty停止() throws Exception {
+        if (jettyServer != null) {
+            jettyServer.stop();
+        }
+    }
+
+    @Before
+    public void setup() {
+        maxAge.reset();
+        etag.reset();
+        noStore.reset();
+        slow.reset();
+        privateOnly.reset();
+        shared.reset();
+        interceptor = new CachingInterceptor();
+        template = new RestTemplate(new HttpComponentsClientHttpRequestFactory());
+        template.setInterceptors(Collections.<ClientHttpRequestInterceptor>singletonList(interceptor));
+    }
+
+    @Test
+    public void 有効期限内はキャッシュが返却される() {
+        assertThat(template.getForObject(baseUrl + "/maxage/a", String.class), is("body:1"));
+        assertThat(template.getForObject(baseUrl + "/maxage/a", String.class), is("body:1"));
+        assertThat(maxAge.count.get(), is(1));
+        assertThat(interceptor.getHitCount(), is(1L));
+        assertThat(interceptor.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void ETagで再検証される() {
+        assertThat(template.getForObject(baseUrl + "/etag", String.class), is("body:1"));
+        assertThat(template.getForObject(baseUrl + "/etag", String.class), is("body:1"));
+        assertThat(etag.count.get(), is(2));
+        assertThat(etag.notModified.get(), is(1));
+        assertThat(interceptor.getRevalidationCount(), is(1L));
+    }
+
+    @Test
+    public void リクエストのno_cacheでは必ず再検証される() {
+        template.getForObject(baseUrl + "/maxage/b", String.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("no-cache");
+        ResponseEntity<String> entity = template.exchange(baseUrl + "/maxage/b", HttpMethod.GET, new HttpEntity<Void>(headers), String.class);
+        assertThat(entity.getBody(), is("body:2"));
+        assertThat(maxAge.count.get(), is(2));
+    }
+
+    @Test
+    public void no_storeのレスポンスはキャッシュされない() {
+        assertThat(template.getForObject(baseUrl + "/nostore", String.class), is("body:1"));
+        assertThat(template.getForObject(baseUrl + "/nostore", String.class), is("body:2"));
+        assertThat(interceptor.size(), is(0));
+    }
+
+    @Test
+    public void privateのレスポンスはキャッシュされない() {
+        assertThat(template.getForObject(baseUrl + "/private", String.class), is("body:1"));
+        assertThat(template.getForObject(baseUrl + "/private", String.class), is("body:2"));
+        assertThat(interceptor.size(), is(0));
+    }
+
+    @Test
+    public void 認証されたリクエストのレスポンスは他の利用者に返却されない() {
+        assertThat(get(baseUrl + "/maxage/user", "Bearer alice"), is("body:1"));
+        assertThat(get(baseUrl + "/maxage/user", "Bearer bob"), is("body:2"));
+        assertThat(interceptor.size(), is(0));
+        assertThat(interceptor.getHitCount(), is(0L));
+    }
+
+    @Test
+    public void 認証されたリクエストでもpublicのレスポンスはキャッシュされる() {
+        assertThat(get(baseUrl + "/public", "Bearer alice"), is("body:1"));
+        assertThat(get(baseUrl + "/public", "Bearer bob"), is("body:1"));
+        assertThat(shared.count.get(), is(1));
+    }
+
+    @Test
+    public void エントリ数の上限を超えると古いエントリから破棄される() {
+        interceptor.setMaxEntries(2);
+        template.getForObject(baseUrl + "/maxage/1", String.class);
+        template.getForObject(baseUrl + "/maxage/2", String.class);
+        template.getForObject(baseUrl + "/maxage/3", String.class);
+        assertThat(interceptor.size(), is(2));
+        assertThat(interceptor.getEvictionCount(), is(1L));
+        template.getForObject(baseUrl + "/maxage/1", String.class);
+        assertThat(maxAge.count.get(), is(4));
+    }
+
+    @Test
+    public void 同時に発行された同じGETは1回の通信にまとめられる() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<String>> futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < 5; i++) {
+                futures.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        return template.getForObject(baseUrl + "/slow", String.class);
+                    }
+                }));
+            }
+            for (Future<String> future : futures) {
+                assertThat(future.get(), is("body:1"));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(slow.count.get(), is(1));
+    }
+
+    private String get(String url, String authorization) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", authorization);
+        return template.exchange(url, HttpMethod.GET, new HttpEntity<Void>(headers), String.class).getBody();
+    }
+
+    @SuppressWarnings("serial")
+    private static class CountingServlet extends HttpServlet {
+
+        private final String cacheControl;
+
+        private final String etag;
+
+        private final long delay;
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private final AtomicInteger notModified = new AtomicInteger();
+
+        private CountingServlet(String cacheControl, String etag, long delay) {
+            this.cacheControl = cacheControl;
+            this.etag = etag;
+            this.delay = delay;
+        }
+
+        private void reset() {
+            count.set(0);
+            notModified.set(0);
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+            int n = count.incrementAndGet();
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            response.setHeader("Cache-Control", cacheControl);
+            if (etag != null) {
+                response.setHeader("ETag", etag);
+                if (etag.equals(request.getHeader("If-None-Match"))) {
+                    notModified.incrementAndGet();
+                    response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                    return;
+                }
+            }
+            byte[] body = ("body:" + n).getBytes("UTF-8");
+            response.setContentType("text/plain");
+            response.setContentLength(body.length);
+            FileCopyUtils.copy(body, response.getOutputStream());
+        }
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.client.interceptor;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.FileCopyUtils;
+
+public class SampledLoggingInterceptorTest {
+
+    private CapturingInterceptor interceptor;
+
+    private HttpRequest request;
+
+    private ClientHttpRequestExecution execution;
+
+    @Before
+    public void setup() throws IOException {
+        interceptor = new CapturingInterceptor();
+        interceptor.setAsync(false);
+        request = mock(HttpRequest.class);
+        when(request.getMethod()).thenReturn(HttpMethod.POST);
+        when(request.getURI()).thenReturn(URI.create("http://localhost/test"));
+        when(request.getHeaders()).thenReturn(new HttpHeaders());
+        execution = mock(ClientHttpRequestExecution.class);
+        when(execution.execute(any(HttpRequest.class), any(byte[].class))).thenAnswer(new org.mockito.stubbing.Answer<ClientHttpResponse>() {
+            @Override
+            public ClientHttpResponse answer(org.mockito.invocation.InvocationOnMock invocation) {
+                return new StubResponse("response-body");
+            }
+        });
+    }
+
+    @After
+    public void teardown() throws Exception {
+        interceptor.destroy();
+    }
+
+    @Test
+    public void 読み込んだレスポンスボディがクローズ時に出力される() throws IOException {
+        ClientHttpResponse response = interceptor.intercept(request, "request-body".getBytes("UTF-8"), execution);
+        assertThat(new String(FileCopyUtils.copyToByteArray(response.getBody()), "UTF-8"), is("response-body"));
+        assertThat(interceptor.messages.size(), is(0));
+        response.close();
+        assertThat(interceptor.messages.size(), is(1));
+        String message = interceptor.messages.get(0);
+        assertThat(message, containsString("> POST http://localhost/test"));
+        assertThat(message, containsString("> request-body"));
+        assertThat(message, containsString("< 200 OK"));
+        assertThat(message, containsString("< response-body"));
+        assertThat(interceptor.getLatencyHistogram().getCount(), is(1L));
+    }
+
+    @Test
+    public void 認証情報のヘッダはマスクして出力される() throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer secret-token");
+        headers.set("Cookie", "JSESSIONID=secret-session");
+        headers.set("X-Request-Id", "req-1");
+        when(request.getHeaders()).thenReturn(headers);
+        final StubResponse stub = new StubResponse("response-body");
+        stub.getHeaders().set("Set-Cookie", "JSESSIONID=secret-issued");
+        ClientHttpRequestExecution responding = mock(ClientHttpRequestExecution.class);
+        when(responding.execute(any(HttpRequest.class), any(byte[].class))).thenReturn(stub);
+        interceptor.intercept(request, new byte[0], responding).close();
+        String message = interceptor.messages.get(0);
+        assertThat(message, containsString("> Authorization: ******"));
+        assertThat(message, containsString("> Cookie: ******"));
+        assertThat(message, containsString("> X-Request-Id: req-1"));
+        assertThat(message, containsString("< Set-Cookie: ******"));
+        assertThat(message, not(containsString("secret")));
+        assertThat(headers.getFirst("Authorization"), is("Bearer secret-token"));
+    }
+
+    @Test
+    public void マスクするヘッダを変更できる() throws IOException {
+        interceptor.setMaskedHeaders(Arrays.asList("x-api-key"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Api-Key", "secret-key");
+        headers.set("Authorization", "Bearer visible");
+        when(request.getHeaders()).thenReturn(headers);
+        interceptor.intercept(request, new byte[0], execution).close();
+        String message = interceptor.messages.get(0);
+        assertThat(message, containsString("> X-Api-Key: ******"));
+        assertThat(message, containsString("> Authorization: Bearer visible"));
+    }
+
+    @Test
+    public void ボディは上限バイト数で切り詰められる() throws IOException {
+        interceptor.setMaxBodyBytes(4);
+        ClientHttpResponse response = interceptor.intercept(request, "request-body".getBytes("UTF-8"), execution);
+        FileCopyUtils.copyToByteArray(response.getBody());
+        response.close();
+        String message = interceptor.messages.get(0);
+        assertThat(message, containsString("> requ...(8 bytes omitted)"));
+        assertThat(message, containsString("< resp...(9 bytes omitted)"));
+        assertThat(message, not(containsString("request-body")));
+    }
+
+    @Test
+    public void 指定された割合の通信のみ出力される() throws IOException {
+        interceptor.setSampleRate(0.25);
+        for (int i = 0; i < 100; i++) {
+            interceptor.intercept(request, new byte[0], execution).close();
+        }
+        assertThat(interceptor.messages.size(), is(25));
+        assertThat(interceptor.getLatencyHistogram().getCount(), is(100L));
+    }
+
+    @Test
+    public void 割合に0を指定すると出力されない() throws IOException {
+        interceptor.setSampleRate(0.0);
+        interceptor.intercept(request, new byte[0], execution).close();
+        assertThat(interceptor.messages.size(), is(0));
+        assertThat(interceptor.getLatencyHistogram().getCount(), is(1L));
+    }
+
+    @Test
+    public void 通信に失敗した場合も出力される() throws IOException {
+        ClientHttpRequestExecution failing = mock(ClientHttpRequestExecution.class);
+        when(failing.execute(any(HttpRequest.class), any(byte[].class))).thenThrow(new IOException("connection refused"));
+        try {
+            interceptor.intercept(request, new byte[0], failing);
+            fail();
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("connection refused"));
+        }
+        assertThat(interceptor.messages.size(), is(1));
+        assertThat(interceptor.messages.get(0), containsString("connection refused"));
+        assertThat(interceptor.getLatencyHistogram().getCount(), is(1L));
+    }
+
+    @Test
+    public void 非同期で出力される() throws Exception {
+        interceptor.setAsync(true);
+        interceptor.latch = new CountDownLatch(1);
+        interceptor.intercept(request, new byte[0], execution).close();
+        assertThat(interceptor.latch.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(interceptor.threads.get(0), is("jfw-rest-client-logger"));
+    }
+
+    @Test
+    public void 出力待ちの上限を超えたログは破棄される() throws Exception {
+        interceptor.setAsync(true);
+        interceptor.setQueueCapacity(1);
+        interceptor.block = new CountDownLatch(1);
+        for (int i = 0; i < 5; i++) {
+            interceptor.intercept(request, new byte[0], execution).close();
+        }
+        // 1件は出力中、1件は出力待ちとなり、残りは破棄されます
+        assertThat(interceptor.getDroppedCount(), is(3L));
+        interceptor.block.countDown();
+    }
+
+    static class CapturingInterceptor extends SampledLoggingInterceptor {
+
+        final List<String> messages = new CopyOnWriteArrayList<String>();
+
+        final List<String> threads = new CopyOnWriteArrayList<String>();
+
+        volatile CountDownLatch latch;
+
+        volatile CountDownLatch block;
+
+        @Override
+        protected boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        protected void write(String message) {
+            if (block != null) {
+                try {
+                    block.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            messages.add(message);
+            threads.add(Thread.currentThread().getName());
+            if (latch != null) latch.countDown();
+        }
+    }
+
+    static class StubResponse implements ClientHttpResponse {
+
+        private final byte[] body;
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        StubResponse(String body) {
+            try {
+                this.body = body.getBytes("UTF-8");
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            headers.setContentType(MediaType.TEXT_PLAIN);
+        }
+
+        @Override
+        public HttpStatus getStatusCode() {
+            return HttpStatus.OK;
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return 200;
+        }
+
+        @Override
+        public String getStatusText() {
+            return "OK";
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {}
+    }
+}
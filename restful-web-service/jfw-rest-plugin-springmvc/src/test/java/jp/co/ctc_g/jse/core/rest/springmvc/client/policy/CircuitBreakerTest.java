@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.client.policy;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import jp.co.ctc_g.jse.core.rest.springmvc.client.policy.CircuitBreaker.State;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+
+    private ManualClockCircuitBreaker breaker;
+
+    @Before
+    public void setup() {
+        breaker = new ManualClockCircuitBreaker();
+        breaker.setMinimumCalls(4);
+        breaker.setFailureRateThreshold(0.5);
+        breaker.setOpenMillis(1000L);
+        breaker.setHalfOpenCalls(2);
+    }
+
+    @Test
+    public void 失敗率が閾値を超えると回路が開く() {
+        call(false);
+        call(false);
+        call(true);
+        assertThat(breaker.getState(), is(State.CLOSED));
+        call(true);
+        assertThat(breaker.getState(), is(State.OPEN));
+        assertThat(breaker.tryAcquire(), is(false));
+        assertThat(breaker.getRejectedCount(), is(1L));
+        assertThat(breaker.getOpenCount(), is(1L));
+    }
+
+    @Test
+    public void 最小通信数に達するまでは回路が開かない() {
+        call(true);
+        call(true);
+        call(true);
+        assertThat(breaker.getState(), is(State.CLOSED));
+    }
+
+    @Test
+    public void 集計期間を過ぎた結果は失敗率に含まれない() {
+        call(true);
+        call(true);
+        call(true);
+        breaker.time += 20000L;
+        call(true);
+        assertThat(breaker.getState(), is(State.CLOSED));
+        assertThat(breaker.getFailureRate(), is(1.0));
+    }
+
+    @Test
+    public void 試行通信が成功すると回路が閉じる() {
+        open();
+        breaker.time += 1000L;
+        assertThat(breaker.getState(), is(State.HALF_OPEN));
+        assertThat(breaker.tryAcquire(), is(true));
+        assertThat(breaker.tryAcquire(), is(true));
+        assertThat(breaker.tryAcquire(), is(false));
+        breaker.onSuccess(0L);
+        breaker.onSuccess(0L);
+        assertThat(breaker.getState(), is(State.CLOSED));
+        assertThat(breaker.getFailureRate(), is(0.0));
+    }
+
+    @Test
+    public void 試行通信が失敗すると再び回路が開く() {
+        open();
+        breaker.time += 1000L;
+        assertThat(breaker.tryAcquire(), is(true));
+        breaker.onFailure(0L);
+        assertThat(breaker.getState(), is(State.OPEN));
+        assertThat(breaker.getOpenCount(), is(2L));
+    }
+
+    @Test
+    public void 遅延した通信は失敗とみなされる() {
+        breaker.setSlowCallMillis(100L);
+        for (int i = 0; i < 4; i++) {
+            assertThat(breaker.tryAcquire(), is(true));
+            breaker.onSuccess(200L * 1000000L);
+        }
+        assertThat(breaker.getState(), is(State.OPEN));
+        assertThat(breaker.getFailureCount(), is(4L));
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            call(true);
+        }
+        assertThat(breaker.getState(), is(State.OPEN));
+    }
+
+    private void call(boolean failure) {
+        assertThat(breaker.tryAcquire(), is(true));
+        if (failure) {
+            breaker.onFailure(0L);
+        } else {
+            breaker.onSuccess(0L);
+        }
+    }
+
+    static class ManualClockCircuitBreaker extends CircuitBreaker {
+
+        long time = 1000000L;
+
+        @Override
+        protected long now() {
+            return time;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.client.policy;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import jp.co.ctc_g.jse.core.rest.springmvc.client.RestClientTemplate;
+import jp.co.ctc_g.jse.core.rest.springmvc.client.Target;
+import jp.co.ctc_g.jse.core.rest.springmvc.client.exception.BulkheadFullException;
+import jp.co.ctc_g.jse.core.rest.springmvc.client.exception.CircuitBreakerOpenException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestOperations;
+
+public class ResiliencePolicyTest {
+
+    private static final String URL = "http://api.example.com/resource";
+
+    private RestOperations delegate;
+
+    private RestClientTemplate template;
+
+    private ResiliencePolicy policy;
+
+    @Before
+    public void setup() {
+        delegate = mock(RestOperations.class);
+        template = new RestClientTemplate(delegate);
+        policy = new ResiliencePolicy();
+        template.setPolicies(Collections.singletonMap("api.example.com", policy));
+    }
+
+    @Test
+    public void 一時的な障害はリトライされる() {
+        policy.setRetry(noWaitRetry());
+        when(exchange(HttpMethod.GET))
+            .thenThrow(new ResourceAccessException("timeout", new IOException()))
+            .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))
+            .thenReturn(new ResponseEntity<String>("ok", HttpStatus.OK));
+        assertThat(template.get(Target.target(URL), String.class), is("ok"));
+        assertThat(policy.getRetry().getRetryCount(), is(2L));
+    }
+
+    @Test
+    public void 上限回数を超えるとリトライされない() {
+        policy.setRetry(noWaitRetry());
+        when(exchange(HttpMethod.GET)).thenThrow(new ResourceAccessException("timeout", new IOException()));
+        try {
+            template.get(Target.target(URL), String.class);
+            fail();
+        } catch (ResourceAccessException e) {
+            verify(delegate, times(3)).exchange(any(URI.class), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class));
+            assertThat(policy.getRetry().getExhaustedCount(), is(1L));
+        }
+    }
+
+    @Test
+    public void POSTはリトライされない() {
+        policy.setRetry(noWaitRetry());
+        when(exchange(HttpMethod.POST)).thenThrow(new ResourceAccessException("timeout", new IOException()));
+        try {
+            template.post(Target.target(URL), null, String.class);
+            fail();
+        } catch (ResourceAccessException e) {
+            verify(delegate, times(1)).exchange(any(URI.class), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
+        }
+    }
+
+    @Test
+    public void クライアントエラーはリトライされない() {
+        policy.setRetry(noWaitRetry());
+        when(exchange(HttpMethod.GET)).thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+        try {
+            template.get(Target.target(URL), String.class);
+            fail();
+        } catch (HttpClientErrorException e) {
+            assertThat(policy.getRetry().getRetryCount(), is(0L));
+        }
+    }
+
+    @Test
+    public void 回路が開いている場合は通信しない() {
+        CircuitBreaker breaker = new CircuitBreaker();
+        breaker.setMinimumCalls(2);
+        policy.setCircuitBreaker(breaker);
+        policy.setRetry(noWaitRetry());
+        when(exchange(HttpMethod.GET)).thenThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+        try {
+            template.get(Target.target(URL), String.class);
+            fail();
+        } catch (CircuitBreakerOpenException e) {
+            verify(delegate, times(2)).exchange(any(URI.class), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class));
+            assertThat(breaker.getRejectedCount(), is(1L));
+        }
+    }
+
+    @Test
+    public void 同時通信数の上限を超えると通信しない() throws Exception {
+        Bulkhead bulkhead = new Bulkhead();
+        bulkhead.setMaxConcurrentCalls(1);
+        policy.setBulkhead(bulkhead);
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(exchange(HttpMethod.GET)).thenAnswer(new org.mockito.stubbing.Answer<ResponseEntity<String>>() {
+            @Override
+            public ResponseEntity<String> answer(org.mockito.invocation.InvocationOnMock invocation) throws Throwable {
+                entered.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return new ResponseEntity<String>("ok", HttpStatus.OK);
+            }
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    template.get(Target.target(URL), String.class);
+                }
+            });
+            assertThat(entered.await(5, TimeUnit.SECONDS), is(true));
+            try {
+                template.get(Target.target(URL), String.class);
+                fail();
+            } catch (BulkheadFullException e) {
+                assertThat(bulkhead.getRejectedCount(), is(1L));
+                assertThat(bulkhead.getActiveCount(), is(1));
+            }
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        assertThat(bulkhead.getActiveCount(), is(0));
+    }
+
+    @Test
+    public void ポリシーが設定されていないホストには適用されない() {
+        policy.setRetry(noWaitRetry());
+        when(exchange(HttpMethod.GET)).thenThrow(new ResourceAccessException("timeout", new IOException()));
+        try {
+            template.get(Target.target("http://other.example.com/resource"), String.class);
+            fail();
+        } catch (ResourceAccessException e) {
+            verify(delegate, times(1)).exchange(any(URI.class), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class));
+        }
+    }
+
+    @Test
+    public void 待機時間は上限を超えない() {
+        RetryPolicy retry = new RetryPolicy();
+        retry.setInitialBackoffMillis(100L);
+        retry.setMaxBackoffMillis(300L);
+        for (int i = 0; i < 100; i++) {
+            assertThat(retry.computeBackoff(1) < 100L, is(true));
+            assertThat(retry.computeBackoff(5) < 300L, is(true));
+        }
+    }
+
+    private ResponseEntity<String> exchange(HttpMethod method) {
+        return delegate.exchange(any(URI.class), eq(method), any(HttpEntity.class), eq(String.class));
+    }
+
+    private static RetryPolicy noWaitRetry() {
+        RetryPolicy retry = new RetryPolicy();
+        retry.setInitialBackoffMillis(0L);
+        return retry;
+    }
+}
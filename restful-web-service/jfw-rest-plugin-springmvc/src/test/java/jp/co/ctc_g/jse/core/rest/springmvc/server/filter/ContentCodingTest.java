@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.server.filter;
+
+import static jp.co.ctc_g.jse.core.rest.springmvc.server.filter.ContentCoding.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ContentCodingTest {
+
+    @Test
+    public void q値が省略された場合はサポートする順に選択される() {
+        assertThat(negotiate("deflate, gzip", GZIP, DEFLATE), is(GZIP));
+        assertThat(negotiate("deflate, gzip", DEFLATE, GZIP), is(DEFLATE));
+    }
+
+    @Test
+    public void q値が最も大きいものが選択される() {
+        assertThat(negotiate("gzip;q=0.5, deflate;q=0.8", GZIP, DEFLATE), is(DEFLATE));
+        assertThat(negotiate("gzip; q=1.0, deflate; q=0.8", GZIP, DEFLATE), is(GZIP));
+    }
+
+    @Test
+    public void q値が0のものは選択されない() {
+        assertThat(negotiate("gzip;q=0", GZIP, DEFLATE), is(nullValue()));
+        assertThat(negotiate("gzip;q=0, deflate", GZIP, DEFLATE), is(DEFLATE));
+        assertThat(negotiate("gzip;q=abc", GZIP), is(nullValue()));
+    }
+
+    @Test
+    public void ワイルドカードは明示されていないものに一致する() {
+        assertThat(negotiate("*", DEFLATE, GZIP), is(DEFLATE));
+        assertThat(negotiate("gzip;q=0, *;q=0.5", GZIP, DEFLATE), is(DEFLATE));
+        assertThat(negotiate("*;q=0", GZIP, DEFLATE), is(nullValue()));
+    }
+
+    @Test
+    public void サポートしていないものやidentityのみの場合は選択されない() {
+        assertThat(negotiate("br, identity", GZIP, DEFLATE), is(nullValue()));
+        assertThat(negotiate(null, GZIP, DEFLATE), is(nullValue()));
+        assertThat(negotiate("", GZIP, DEFLATE), is(nullValue()));
+    }
+
+    @Test
+    public void 別名や大文字小文字の違いを許容する() {
+        assertThat(negotiate("X-GZIP", GZIP), is(GZIP));
+        assertThat(of(" Deflate "), is(DEFLATE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void サポートしていない名前は例外となる() {
+        of("br");
+    }
+}
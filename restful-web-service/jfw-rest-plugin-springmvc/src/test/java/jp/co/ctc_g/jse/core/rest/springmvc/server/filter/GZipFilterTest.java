@@ -16,8 +16,20 @@
 
 package jp.co.ctc_g.jse.core.rest.springmvc.server.filter;
 
-import static org.junit.Assert.assertTrue;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletResponse;
 
 import org.junit.Before;
@@ -72,4 +84,246 @@ public class GZipFilterTest {
         filter.doFilter(request, response, chain);
         filter.destroy();
     }
+
+    @Test
+    public void ストリーミングモードでは最小サイズ以上のレスポンスがチャンク形式で圧縮される() throws Exception {
+        request.addHeader("accept-encoding", "gzip");
+        final byte[] body = body(100000);
+        chain = new MockFilterChain() {
+
+            public void doFilter(ServletRequest req, ServletResponse res) throws IOException {
+                assertTrue(res instanceof GZipStreamingResponseWrapper);
+                res.setContentType("application/json");
+                res.setContentLength(body.length);
+                for (int i = 0; i < body.length; i += 1000) {
+                    res.getOutputStream().write(body, i, 1000);
+                }
+            };
+        };
+        GZipFilter filter = streamingFilter();
+        filter.doFilter(request, response, chain);
+        filter.destroy();
+        assertThat(response.getHeader("Content-Encoding"), is("gzip"));
+        assertThat(response.getHeader("Vary"), is("Accept-Encoding"));
+        assertThat(response.getHeader("Content-Length"), is(nullValue()));
+        assertThat(response.getContentAsByteArray().length < body.length, is(true));
+        assertArrayEquals(body, gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    public void ストリーミングモードでは最小サイズに満たないレスポンスは圧縮されない() throws Exception {
+        request.addHeader("accept-encoding", "gzip");
+        chain = new MockFilterChain() {
+
+            public void doFilter(ServletRequest req, ServletResponse res) throws IOException {
+                res.setContentType("text/plain");
+                res.getWriter().write("small");
+            };
+        };
+        GZipFilter filter = streamingFilter();
+        filter.doFilter(request, response, chain);
+        filter.destroy();
+        assertThat(response.getHeader("Content-Encoding"), is(nullValue()));
+        assertThat(response.getContentLength(), is(5));
+        assertThat(response.getContentAsString(), is("small"));
+    }
+
+    @Test
+    public void ストリーミングモードでは圧縮対象外のContentTypeは圧縮されない() throws Exception {
+        request.addHeader("accept-encoding", "gzip");
+        final byte[] body = body(5000);
+        chain = new MockFilterChain() {
+
+            public void doFilter(ServletRequest req, ServletResponse res) throws IOException {
+                res.setContentType("image/png");
+                res.setContentLength(body.length);
+                res.getOutputStream().write(body);
+            };
+        };
+        GZipFilter filter = streamingFilter();
+        filter.doFilter(request, response, chain);
+        filter.destroy();
+        assertThat(response.getHeader("Content-Encoding"), is(nullValue()));
+        assertThat(response.getContentLength(), is(body.length));
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void ストリーミングモードではフラッシュ時に圧縮済みのデータが出力される() throws Exception {
+        request.addHeader("accept-encoding", "gzip");
+        chain = new MockFilterChain() {
+
+            public void doFilter(ServletRequest req, ServletResponse res) throws IOException {
+                res.getOutputStream().write("first-part-of-the-body".getBytes("UTF-8"));
+                res.flushBuffer();
+                assertThat(((GZipStreamingResponseWrapper) res).isCompressing(), is(true));
+                assertThat(response.getContentAsByteArray().length > 0, is(true));
+                res.getOutputStream().write("second".getBytes("UTF-8"));
+            };
+        };
+        GZipFilter filter = streamingFilter();
+        filter.doFilter(request, response, chain);
+        filter.destroy();
+        assertThat(new String(gunzip(response.getContentAsByteArray()), "UTF-8"), is("first-part-of-the-bodysecond"));
+    }
+
+    @Test
+    public void ストリーミングモードでは最小サイズに満たないレスポンスはフラッシュされても圧縮されない() throws Exception {
+        request.addHeader("accept-encoding", "gzip");
+        final byte[] body = "{\"id\":1}".getBytes("UTF-8");
+        chain = new MockFilterChain() {
+
+            public void doFilter(ServletRequest req, ServletResponse res) throws IOException {
+                res.setContentType("application/json");
+                res.getOutputStream().write(body);
+                res.getOutputStream().flush();
+                assertThat(((GZipStreamingResponseWrapper) res).isCompressing(), is(false));
+                assertThat(response.getContentAsByteArray().length, is(0));
+            };
+        };
+        GZipFilter filter = streamingFilter();
+        filter.doFilter(request, response, chain);
+        filter.destroy();
+        assertThat(response.getHeader("Content-Encoding"), is(nullValue()));
+        assertThat(response.getContentLength(), is(body.length));
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void ストリーミングモードではq値により優先されたdeflateで圧縮され統計情報が記録される() throws Exception {
+        request.addHeader("accept-encoding", "gzip;q=0.5, deflate");
+        final byte[] body = body(50000);
+        chain = new MockFilterChain() {
+
+            public void doFilter(ServletRequest req, ServletResponse res) throws IOException {
+                res.setContentType("application/json");
+                res.getOutputStream().write(body);
+            };
+        };
+        GZipFilter filter = streamingFilter();
+        filter.doFilter(request, response, chain);
+        filter.destroy();
+        assertThat(response.getHeader("Content-Encoding"), is("deflate"));
+        assertArrayEquals(body, read(new InflaterInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))));
+        CompressionMetrics metrics = filter.getMetrics();
+        assertThat(metrics.getCompressedCount(), is(1L));
+        assertThat(metrics.getBytesIn(), is((long) body.length));
+        assertThat(metrics.getBytesOut(), is((long) response.getContentAsByteArray().length));
+        assertThat(metrics.getCompressionRatio() < 1.0, is(true));
+        assertThat(metrics.getCompressionTime() > 0, is(true));
+    }
+
+    @Test
+    public void gzipがq値0で拒否されている場合は圧縮されない() throws Exception {
+        request.addHeader("accept-encoding", "gzip;q=0, identity");
+        chain = new MockFilterChain() {
+
+            public void doFilter(ServletRequest req, ServletResponse res) {
+                assertTrue(res instanceof MockHttpServletResponse);
+            };
+        };
+        GZipFilter filter = new GZipFilter();
+        filter.init(config);
+        filter.doFilter(request, response, chain);
+        filter.destroy();
+    }
+
+    @Test
+    public void ストリーミングモードで後続の処理が例外を発生させてもストリームは解放される() throws Exception {
+        request.addHeader("accept-encoding", "gzip");
+        final ServletOutputStream[] streams = new ServletOutputStream[1];
+        chain = new MockFilterChain() {
+
+            public void doFilter(ServletRequest req, ServletResponse res) throws IOException {
+                streams[0] = res.getOutputStream();
+                streams[0].write(body(50000));
+                assertThat(((GZipStreamingResponseWrapper) res).isCompressing(), is(true));
+                throw new IllegalStateException("failure");
+            };
+        };
+        GZipFilter filter = streamingFilter();
+        try {
+            filter.doFilter(request, response, chain);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("failure"));
+        }
+        filter.destroy();
+        try {
+            streams[0].write(1);
+            fail();
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("Stream already closed."));
+        }
+        assertThat(filter.getMetrics().getCompressedCount(), is(0L));
+    }
+
+    @Test
+    public void 後続の処理が例外を発生させた場合はレスポンスを出力せずにストリームを解放する() throws Exception {
+        request.addHeader("accept-encoding", "gzip");
+        chain = new MockFilterChain() {
+
+            public void doFilter(ServletRequest req, ServletResponse res) throws IOException {
+                res.getOutputStream().write(body(1000));
+                throw new IllegalStateException("failure");
+            };
+        };
+        GZipFilter filter = new GZipFilter();
+        filter.init(config);
+        try {
+            filter.doFilter(request, response, chain);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("failure"));
+        }
+        filter.destroy();
+        assertThat(response.getHeader("Content-Encoding"), is(nullValue()));
+        assertThat(response.getContentAsByteArray().length, is(0));
+    }
+
+    @Test
+    public void Deflaterはスレッド毎に再利用される() {
+        DeflaterPool pool = new DeflaterPool(6);
+        Deflater first = pool.acquire(true);
+        Deflater second = pool.acquire(true);
+        assertThat(first, is(not(sameInstance(second))));
+        pool.release(first, true);
+        pool.release(second, true);
+        assertThat(pool.acquire(true), is(sameInstance(first)));
+        assertThat(pool.acquire(false), is(not(sameInstance(first))));
+    }
+
+    private GZipFilter streamingFilter() throws Exception {
+        config.addInitParameter("streaming", "true");
+        config.addInitParameter("minSize", "16");
+        config.addInitParameter("compressionLevel", "6");
+        config.addInitParameter("excludedContentTypes", "image/,application/zip");
+        GZipFilter filter = new GZipFilter();
+        filter.init(config);
+        assertThat(filter.isStreaming(), is(true));
+        assertThat(filter.getExcludedContentTypes().length, is(2));
+        return filter;
+    }
+
+    private static byte[] body(int size) {
+        byte[] body = new byte[size];
+        for (int i = 0; i < size; i++) {
+            body[i] = (byte) ('a' + (i % 7) + (i / 1000 % 5));
+        }
+        return body;
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        return read(new GZIPInputStream(new ByteArrayInputStream(compressed)));
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.server.handler;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import jp.co.ctc_g.jse.core.rest.entity.ErrorMessage;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+public class ErrorMessageHttpMessageConverterTest {
+
+    private final ErrorMessageHttpMessageConverter converter = new ErrorMessageHttpMessageConverter();
+
+    @Test
+    public void ErrorMessageのみ書き出せる() {
+        assertThat(converter.canWrite(ErrorMessage.class, MediaType.APPLICATION_JSON), is(true));
+        assertThat(converter.canWrite(String.class, MediaType.APPLICATION_JSON), is(false));
+        assertThat(converter.canRead(ErrorMessage.class, MediaType.APPLICATION_JSON), is(false));
+    }
+
+    @Test
+    public void Jacksonと同じJSONが書き出される() throws Exception {
+        ErrorMessage error = new ErrorMessage();
+        error.setStatus(500);
+        error.setId("abcdefg");
+        error.setCode("E-REST-SERVER#500");
+        error.setMessage("システムエラーが発生しました。");
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(error, MediaType.APPLICATION_JSON, output);
+        assertThat(output.getBodyAsString(), is(new ObjectMapper().writeValueAsString(error)));
+        assertThat(output.getHeaders().getContentType().getSubtype(), is("json"));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.rest.springmvc.server.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+
+public class ErrorResourcesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void teardown() {
+        // 他のテストに影響しないよう、基盤のエラーリソースのみを参照するメッセージソースに戻します
+        ErrorResources.set(new ReloadableResourceBundleMessageSource());
+    }
+
+    @Test
+    public void キャッシュする秒数が0の場合はメッセージソースの変更が反映される() throws Exception {
+        File file = folder.newFile("ErrorResourcesTest.properties");
+        write(file, "E-TEST#0001=before", 0);
+        ErrorResources.set(source(0), 0);
+        assertThat(ErrorResources.find("E-TEST#0001"), is("before"));
+        write(file, "E-TEST#0001=after", 10000);
+        assertThat(ErrorResources.find("E-TEST#0001"), is("after"));
+        assertThat(ErrorResources.find("E-TEST#9999"), is("E-TEST#9999"));
+    }
+
+    @Test
+    public void デフォルトでは解決したメッセージが無期限にキャッシュされる() throws Exception {
+        File file = folder.newFile("ErrorResourcesTest.properties");
+        write(file, "E-TEST#0001=before", 0);
+        ErrorResources.set(source(0));
+        assertThat(ErrorResources.find("E-TEST#0001"), is("before"));
+        write(file, "E-TEST#0001=after", 10000);
+        assertThat(ErrorResources.find("E-TEST#0001"), is("before"));
+    }
+
+    @Test
+    public void キャッシュの有効期間を過ぎるとメッセージを再度解決する() throws Exception {
+        File file = folder.newFile("ErrorResourcesTest.properties");
+        write(file, "E-TEST#0001=before", 0);
+        ErrorResources.set(source(0), 1);
+        assertThat(ErrorResources.find("E-TEST#0001"), is("before"));
+        write(file, "E-TEST#0001=after", 10000);
+        assertThat(ErrorResources.find("E-TEST#0001"), is("before"));
+        Thread.sleep(1100);
+        assertThat(ErrorResources.find("E-TEST#0001"), is("after"));
+    }
+
+    @Test
+    public void アプリケーションのメッセージが基盤のメッセージより優先される() throws Exception {
+        File file = folder.newFile("ErrorResourcesTest.properties");
+        write(file, "W-REST-CLIENT#404=application", 0);
+        ErrorResources.set(source(-1));
+        assertThat(ErrorResources.find("W-REST-CLIENT#404"), is("application"));
+        assertThat(ErrorResources.find("W-REST-CLIENT#400"), is(not("W-REST-CLIENT#400")));
+    }
+
+    private ReloadableResourceBundleMessageSource source(int cacheSeconds) {
+        ReloadableResourceBundleMessageSource source = new ReloadableResourceBundleMessageSource();
+        source.setBasename("file:" + new File(folder.getRoot(), "ErrorResourcesTest").getAbsolutePath());
+        source.setCacheSeconds(cacheSeconds);
+        source.setFallbackToSystemLocale(false);
+        return source;
+    }
+
+    private static void write(File file, String content, long delay) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("ISO-8859-1"));
+        } finally {
+            out.close();
+        }
+        file.setLastModified(System.currentTimeMillis() + delay);
+    }
+}
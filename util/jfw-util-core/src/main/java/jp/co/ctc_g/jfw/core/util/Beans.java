@@ -17,6 +17,7 @@
 package jp.co.ctc_g.jfw.core.util;
 
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -26,6 +27,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -44,6 +47,12 @@ import org.springframework.beans.BeanUtils;
  * このクラスでしばしば言及される疑似プロパティ（pseudoProperty）とは、
  * 通常のJavaBean仕様のプロパティだけでなく、パブリックフィールドも含まれます。
  * </p>
+ * <p>
+ * プロパティのパス(例えば<code>foo.bar[1]</code>)の解析結果と、
+ * クラス毎のプロパティのアクセサ(読込・書込メソッドおよび公開フィールド)はキャッシュされるため、
+ * 同じパスへ繰り返しアクセスする場合は正規表現による解析やアクセサの探索を行いません。
+ * キャッシュの件数には上限があり、上限に達した後に現れたパスやプロパティは都度解析されます。
+ * </p>
  * @author ITOCHU Techno-Solutions Corporation.
  */
 public final class Beans {
@@ -61,6 +70,12 @@ public final class Beans {
     private static final Pattern DOUBLE_UPPERCASE_SEQUENCE_PATTERN = Pattern.compile("^[A-Z][A-Z][a-zA-Z0-9_]*");
     private static final Pattern ARRAY_PROPERTY_PATTERN = Pattern.compile("^([a-zA-Z][a-zA-Z0-9_]*)\\[([0-9]+)\\]$");
 
+    private static final int MAX_CACHED_PATHS = 4096;
+    private static final int MAX_CACHED_ACCESSORS = 512;
+    private static final ConcurrentMap<String, PropertyPath> PATHS = new ConcurrentHashMap<String, PropertyPath>();
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<String, PropertyAccessor>> ACCESSORS =
+            new ConcurrentHashMap<Class<?>, ConcurrentMap<String, PropertyAccessor>>();
+
     /**
      * 指定された文字列の先頭を大文字にします。
      * 指定された文字列が{@link Strings#isEmpty(CharSequence) 空文字}の場合、
@@ -252,16 +267,13 @@ public final class Beans {
         Args.checkNotBlank(propertyName);
         Args.checkNotNull(bean);
         Object temporaryPropertyValue = bean;
-        String[] properties = propertyName.split("\\.");
-        for (String property : properties) {
-            Matcher matcher = ARRAY_PROPERTY_PATTERN.matcher(property);
-            if (matcher.matches()) {
-                String arrayPropertyName = matcher.group(1);
-                Integer arrayPropertyIndex = Integer.valueOf(matcher.group(2));
-                Object array = readPropertyValueNamed0(arrayPropertyName, temporaryPropertyValue);
-                temporaryPropertyValue = readElementAt(arrayPropertyIndex, array);
+        PropertyPath path = compile(propertyName);
+        for (int i = 0; i < path.names.length; i++) {
+            if (path.indexes[i] >= 0) {
+                Object array = readPropertyValueNamed0(path.names[i], temporaryPropertyValue);
+                temporaryPropertyValue = readElementAt(path.indexes[i], array);
             } else {
-                temporaryPropertyValue = readPropertyValueNamed0(property, temporaryPropertyValue);
+                temporaryPropertyValue = readPropertyValueNamed0(path.names[i], temporaryPropertyValue);
             }
         }
         return temporaryPropertyValue;
@@ -331,8 +343,8 @@ public final class Beans {
     }
 
     private static Object readPropertyValueNamed0(String propertyName, Object bean) {
-        PropertyDescriptor pd = findPropertyDescriptorFor(bean.getClass(), propertyName);
-        if (pd == null) {
+        PropertyAccessor accessor = accessor(bean.getClass(), propertyName);
+        if (!accessor.described) {
             if (L.isDebugEnabled()) {
                 Map<String, Object> replace = new HashMap<String, Object>(2);
                 replace.put("class", bean.getClass().getName());
@@ -341,8 +353,7 @@ public final class Beans {
             }
             return null;
         }
-        Method reader = pd.getReadMethod();
-        if (reader == null) {
+        if (accessor.reader == null) {
             if (L.isDebugEnabled()) {
                 Map<String, Object> replace = new HashMap<String, Object>(2);
                 replace.put("class", bean.getClass().getName());
@@ -351,7 +362,9 @@ public final class Beans {
             }
             return null;
         }
-        return Reflects.invoke(reader, bean);
+        return accessor.readerAccessible
+                ? Reflects.invokeAccessible(accessor.reader, bean)
+                : Reflects.invoke(accessor.reader, bean);
     }
 
     /**
@@ -403,28 +416,22 @@ public final class Beans {
     public static void writePropertyValueNamed(String propertyName, Object bean, Object newValue) {
         Args.checkNotBlank(propertyName);
         Args.checkNotNull(bean);
-        String[] properties = propertyName.split("\\.");
-        String propertyToWrite = propertyName;
+        PropertyPath path = compile(propertyName);
         Object writable = bean;
-        if (properties.length > 1) {
-            writable = readPropertyValueNamed(
-                    Strings.joinBy(".", Arrays.slice(properties, 0, properties.length - 1)), bean);
-            propertyToWrite = properties[properties.length - 1];
-        }
-        Matcher matcher = ARRAY_PROPERTY_PATTERN.matcher(propertyToWrite);
-        if (matcher.matches()) {
-            String arrayPropertyName = matcher.group(1);
-            Integer arrayPropertyIndex = Integer.valueOf(matcher.group(2));
-            Object array = readPropertyValueNamed(arrayPropertyName, writable);
-            writeElementAt(arrayPropertyIndex, array, newValue);
+        if (path.parent != null) {
+            writable = readPropertyValueNamed(path.parent, bean);
+        }
+        if (path.lastIndex >= 0) {
+            Object array = readPropertyValueNamed(path.lastName, writable);
+            writeElementAt(path.lastIndex, array, newValue);
         } else {
-            writePropertyValueNamed0(propertyToWrite, writable, newValue);
+            writePropertyValueNamed0(path.lastName, writable, newValue);
         }
     }
 
     private static boolean writePropertyValueNamed0(String propertyName, Object bean, Object newValue) {
-        PropertyDescriptor pd = findPropertyDescriptorFor(bean.getClass(), propertyName);
-        if (pd == null) {
+        PropertyAccessor accessor = accessor(bean.getClass(), propertyName);
+        if (!accessor.described) {
             if (L.isDebugEnabled()) {
                 Map<String, Object> replace = new HashMap<String, Object>(2);
                 replace.put("class", bean.getClass().getName());
@@ -433,8 +440,7 @@ public final class Beans {
             }
             return false;
         }
-        Method writer = pd.getWriteMethod();
-        if (writer == null) {
+        if (accessor.writer == null) {
             if (L.isDebugEnabled()) {
                 Map<String, Object> replace = new HashMap<String, Object>(2);
                 replace.put("class", bean.getClass().getName());
@@ -443,7 +449,11 @@ public final class Beans {
             }
             return false;
         }
-        Reflects.invoke(writer, bean, newValue);
+        if (accessor.writerAccessible) {
+            Reflects.invokeAccessible(accessor.writer, bean, newValue);
+        } else {
+            Reflects.invoke(accessor.writer, bean, newValue);
+        }
         return true;
     }
 
@@ -461,16 +471,13 @@ public final class Beans {
         Args.checkNotBlank(propertyName);
         Args.checkNotNull(bean);
         Object temporaryPropertyValue = bean;
-        String[] properties = propertyName.split("\\.");
-        for (String property : properties) {
-            Matcher matcher = ARRAY_PROPERTY_PATTERN.matcher(property);
-            if (matcher.matches()) {
-                String arrayPropertyName = matcher.group(1);
-                Integer arrayPropertyIndex = Integer.valueOf(matcher.group(2));
-                Object array = readPseudoPropertyValueNamed0(arrayPropertyName, temporaryPropertyValue);
-                temporaryPropertyValue = readElementAt(arrayPropertyIndex, array);
+        PropertyPath path = compile(propertyName);
+        for (int i = 0; i < path.names.length; i++) {
+            if (path.indexes[i] >= 0) {
+                Object array = readPseudoPropertyValueNamed0(path.names[i], temporaryPropertyValue);
+                temporaryPropertyValue = readElementAt(path.indexes[i], array);
             } else {
-                temporaryPropertyValue = readPseudoPropertyValueNamed0(property, temporaryPropertyValue);
+                temporaryPropertyValue = readPseudoPropertyValueNamed0(path.names[i], temporaryPropertyValue);
             }
         }
         return temporaryPropertyValue;
@@ -479,13 +486,12 @@ public final class Beans {
     private static Object readPseudoPropertyValueNamed0(String propertyName, Object bean) {
         Object value = null;
         try {
-            PropertyDescriptor pd =
-                    findPropertyDescriptorFor(bean.getClass(), propertyName);
+            PropertyAccessor accessor = accessor(bean.getClass(), propertyName);
             // プロパティとして定義されている場合
-            if (pd != null ) {
-                Method reader = pd.getReadMethod();
+            if (accessor.described) {
+                Method reader = accessor.reader;
                 if (reader != null) {
-                    reader.setAccessible(true);
+                    if (!accessor.readerAccessible) reader.setAccessible(true);
                     value = reader.invoke(bean);
                 } else {
                     if (L.isDebugEnabled()) {
@@ -496,9 +502,9 @@ public final class Beans {
                 }
             // 公開フィールドとして定義されている場合
             } else {
-                Field f = bean.getClass().getField(propertyName);
+                Field f = accessor.field(bean.getClass());
                 if (f != null && !Modifier.isStatic(f.getModifiers())) {
-                    f.setAccessible(true);
+                    if (!accessor.fieldAccessible) f.setAccessible(true);
                     value = f.get(bean);
                 } else {
                     if (L.isDebugEnabled()) {
@@ -542,22 +548,16 @@ public final class Beans {
     public static void writePseudoPropertyValueNamed(String propertyName, Object bean, Object newValue) {
         Args.checkNotBlank(propertyName);
         Args.checkNotNull(bean);
-        String[] properties = propertyName.split("\\.");
-        String propertyToWrite = propertyName;
+        PropertyPath path = compile(propertyName);
         Object writable = bean;
-        if (properties.length > 1) {
-            writable = readPseudoPropertyValueNamed(
-                    Strings.joinBy(".", Arrays.slice(properties, 0, properties.length - 1)), bean);
-            propertyToWrite = properties[properties.length - 1];
-        }
-        Matcher matcher = ARRAY_PROPERTY_PATTERN.matcher(propertyToWrite);
-        if (matcher.matches()) {
-            String arrayPropertyName = matcher.group(1);
-            Integer arrayPropertyIndex = Integer.valueOf(matcher.group(2));
-            Object array = readPseudoPropertyValueNamed0(arrayPropertyName, writable);
-            writeElementAt(arrayPropertyIndex, array, newValue);
+        if (path.parent != null) {
+            writable = readPseudoPropertyValueNamed(path.parent, bean);
+        }
+        if (path.lastIndex >= 0) {
+            Object array = readPseudoPropertyValueNamed0(path.lastName, writable);
+            writeElementAt(path.lastIndex, array, newValue);
         } else {
-            writePseudoPropertyValueNamed0(propertyToWrite, writable, newValue);
+            writePseudoPropertyValueNamed0(path.lastName, writable, newValue);
         }
     }
 
@@ -638,13 +638,12 @@ public final class Beans {
 
     private static boolean writePseudoPropertyValueNamed0(String propertyName, Object bean, Object newValue) {
         try {
-            PropertyDescriptor pd =
-                    findPropertyDescriptorFor(bean.getClass(), propertyName);
+            PropertyAccessor accessor = accessor(bean.getClass(), propertyName);
             // プロパティとして定義されている場合
-            if (pd != null ) {
-                Method writer = pd.getWriteMethod();
+            if (accessor.described) {
+                Method writer = accessor.writer;
                 if (writer != null) {
-                    writer.setAccessible(true);
+                    if (!accessor.writerAccessible) writer.setAccessible(true);
                     writer.invoke(bean, newValue);
                     return true;
                 } else {
@@ -657,9 +656,9 @@ public final class Beans {
                 }
             // 公開フィールドとして定義されている場合
             } else {
-                Field f = bean.getClass().getField(propertyName);
+                Field f = accessor.field(bean.getClass());
                 if (f != null) {
-                    f.setAccessible(true);
+                    if (!accessor.fieldAccessible) f.setAccessible(true);
                     f.set(bean, newValue);
                     return true;
                 } else {
@@ -735,4 +734,125 @@ public final class Beans {
         return result;
     }
 
+    private static PropertyPath compile(String propertyName) {
+        PropertyPath path = PATHS.get(propertyName);
+        if (path == null) {
+            path = new PropertyPath(propertyName);
+            if (PATHS.size() < MAX_CACHED_PATHS) PATHS.putIfAbsent(propertyName, path);
+        }
+        return path;
+    }
+
+    private static PropertyAccessor accessor(Class<?> clazz, String propertyName) {
+        ConcurrentMap<String, PropertyAccessor> accessors = ACCESSORS.get(clazz);
+        if (accessors == null) {
+            accessors = new ConcurrentHashMap<String, PropertyAccessor>();
+            ConcurrentMap<String, PropertyAccessor> existing = ACCESSORS.putIfAbsent(clazz, accessors);
+            if (existing != null) accessors = existing;
+        }
+        PropertyAccessor accessor = accessors.get(propertyName);
+        if (accessor == null) {
+            accessor = new PropertyAccessor(clazz, propertyName);
+            if (accessors.size() < MAX_CACHED_ACCESSORS) accessors.putIfAbsent(propertyName, accessor);
+        }
+        return accessor;
+    }
+
+    /**
+     * 解析済みのプロパティのパスです。
+     * パスを"."で区切った各要素の名前とインデックス(配列・リストの要素でない場合は-1)、
+     * および書き込み時に利用する親のパスと末尾の要素を保持します。
+     */
+    private static final class PropertyPath {
+
+        private final String[] names;
+        private final int[] indexes;
+        private final String parent;
+        private final String lastName;
+        private final int lastIndex;
+
+        private PropertyPath(String propertyName) {
+            String[] properties = propertyName.split("\\.");
+            names = new String[properties.length];
+            indexes = new int[properties.length];
+            for (int i = 0; i < properties.length; i++) {
+                Matcher matcher = ARRAY_PROPERTY_PATTERN.matcher(properties[i]);
+                if (matcher.matches()) {
+                    names[i] = matcher.group(1);
+                    indexes[i] = Integer.valueOf(matcher.group(2));
+                } else {
+                    names[i] = properties[i];
+                    indexes[i] = -1;
+                }
+            }
+            String propertyToWrite = propertyName;
+            if (properties.length > 1) {
+                parent = Strings.joinBy(".", Arrays.slice(properties, 0, properties.length - 1));
+                propertyToWrite = properties[properties.length - 1];
+            } else {
+                parent = null;
+            }
+            Matcher matcher = ARRAY_PROPERTY_PATTERN.matcher(propertyToWrite);
+            if (matcher.matches()) {
+                lastName = matcher.group(1);
+                lastIndex = Integer.valueOf(matcher.group(2));
+            } else {
+                lastName = propertyToWrite;
+                lastIndex = -1;
+            }
+        }
+    }
+
+    /**
+     * クラス毎に解決済みのプロパティのアクセサです。
+     * アクセス権の設定は解決時に一度だけ行います。
+     */
+    private static final class PropertyAccessor {
+
+        private final String name;
+        private final boolean described;
+        private final Method reader;
+        private final boolean readerAccessible;
+        private final Method writer;
+        private final boolean writerAccessible;
+        private final Field field;
+        private final boolean fieldAccessible;
+
+        private PropertyAccessor(Class<?> clazz, String propertyName) {
+            name = propertyName;
+            PropertyDescriptor pd = findPropertyDescriptorFor(clazz, propertyName);
+            described = pd != null;
+            reader = pd != null ? pd.getReadMethod() : null;
+            readerAccessible = accessible(reader);
+            writer = pd != null ? pd.getWriteMethod() : null;
+            writerAccessible = accessible(writer);
+            Field f = null;
+            if (pd == null) {
+                try {
+                    f = clazz.getField(propertyName);
+                } catch (NoSuchFieldException e) {
+                    // 公開フィールドが存在しない場合は、アクセス時に改めて取得し例外を発生させます
+                } catch (SecurityException e) {
+                    // 公開フィールドへのアクセスが拒否された場合は、アクセス時に改めて取得し例外を発生させます
+                }
+            }
+            field = f;
+            fieldAccessible = accessible(f);
+        }
+
+        private Field field(Class<?> clazz) throws NoSuchFieldException {
+            return field != null ? field : clazz.getField(name);
+        }
+
+        private static boolean accessible(AccessibleObject target) {
+            if (target == null) return false;
+            try {
+                target.setAccessible(true);
+                return true;
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+    }
+
 }
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * 処理時間の分布を記録するヒストグラムです。
+ * SQLの実行時間やREST通信の所要時間など、基盤の各モジュールで処理時間を集計する際に共通で利用します。
+ * </p>
+ * <p>
+ * 処理時間はナノ秒で受け取り、マイクロ秒単位の区間に集計します。
+ * {@value #LINEAR_BUCKETS}マイクロ秒未満は1マイクロ秒単位、それ以上は2のべき乗の区間をそれぞれ{@value #SUB_BUCKETS}等分した区間で集計するため、
+ * 区間の上限値と実際の値との相対誤差は概ね12.5%以内です。
+ * 集計結果({@link #getMean()}、{@link #getMax()}、{@link #getPercentile(double)})はすべてミリ秒で返却します。
+ * </p>
+ * <p>
+ * カウンタは{@link AtomicLongArray}と{@link AtomicLong}で保持しているため、記録時にロックを取得しません。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public class LatencyHistogram {
+
+    /** 1マイクロ秒単位で集計する区間の数です。 */
+    public static final int LINEAR_BUCKETS = 16;
+
+    /** 2のべき乗の区間を分割する数です。 */
+    public static final int SUB_BUCKETS = 8;
+
+    private static final int LINEAR_BITS = 4;
+
+    private static final int SUB_BITS = 3;
+
+    // 2^40マイクロ秒(約12日)以上は最後の区間に集計します
+    private static final int MAX_EXPONENT = 40;
+
+    private static final int BUCKETS = LINEAR_BUCKETS + (MAX_EXPONENT - LINEAR_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong total = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * デフォルトコンストラクタです。
+     */
+    public LatencyHistogram() {}
+
+    /**
+     * 処理時間を記録します。
+     * @param nanos 処理時間(ナノ秒)
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(indexOf(nanos / 1000L));
+        count.incrementAndGet();
+        total.addAndGet(nanos);
+        long current = max.get();
+        while (nanos > current && !max.compareAndSet(current, nanos)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * 記録された件数を返却します。
+     * @return 記録された件数
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * 処理時間の平均値(ミリ秒)を返却します。
+     * @return 処理時間の平均値。記録がない場合は0
+     */
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0.0 : toMillis(total.get()) / n;
+    }
+
+    /**
+     * 処理時間の最大値(ミリ秒)を返却します。
+     * @return 処理時間の最大値。記録がない場合は0
+     */
+    public double getMax() {
+        return toMillis(max.get());
+    }
+
+    /**
+     * 指定された割合の記録が収まる処理時間(ミリ秒)を返却します。
+     * 返却される値は該当する区間の上限値ですが、記録された最大値を超えることはありません。
+     * @param ratio 割合(0.0から1.0)。例えば95パーセンタイルの場合は0.95
+     * @return 処理時間。記録がない場合は0
+     */
+    public double getPercentile(double ratio) {
+        Args.checkTrue(ratio >= 0.0 && ratio <= 1.0);
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) return 0.0;
+        long rank = Math.max((long) Math.ceil(n * ratio), 1L);
+        long seen = 0;
+        int index = BUCKETS - 1;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                index = i;
+                break;
+            }
+        }
+        return Math.min(upperBoundOf(index) / 1000.0, getMax());
+    }
+
+    /**
+     * 記録をすべて破棄します。
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0L);
+        }
+        count.set(0L);
+        total.set(0L);
+        max.set(0L);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.3fms, max=%.3fms, p50=%.3fms, p95=%.3fms, p99=%.3fms",
+            getCount(), getMean(), getMax(), getPercentile(0.5), getPercentile(0.95), getPercentile(0.99));
+    }
+
+    static int indexOf(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return micros < 0 ? 0 : (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (micros >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - LINEAR_BITS) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_BITS;
+        int sub = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BITS);
+        return (1L << exponent) + (sub + 1) * width - 1;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1000000.0;
+    }
+}
@@ -163,9 +163,22 @@ public final class Reflects {
      * @throws TargetThrowsException 実行対象メソッドが例外を発生させた場合
      */
     public static Object invoke(Method method, Object instance, Object... arguments) {
+        method.setAccessible(true);
+        return invokeAccessible(method, instance, arguments);
+    }
+
+    /**
+     * アクセス可能であることが確認済みのメソッドを、指定されたインスタンスに対して起動します。
+     * {@link #invoke(Method, Object, Object...)}と異なり、呼び出し毎のアクセス権の設定を行いません。
+     * @param method 実行対象メソッド
+     * @param instance thisとして解決するインスタンス
+     * @param arguments 引数
+     * @return 実行対象メソッドの実行結果
+     * @throws TargetThrowsException 実行対象メソッドが例外を発生させた場合
+     */
+    public static Object invokeAccessible(Method method, Object instance, Object... arguments) {
         Object value = null;
         try {
-            method.setAccessible(true);
             value = method.invoke(instance, arguments);
         } catch (IllegalArgumentException e) {
             Map<String, String> replace = new HashMap<String, String>(2);
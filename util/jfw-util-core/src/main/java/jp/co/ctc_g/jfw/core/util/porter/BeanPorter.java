@@ -16,6 +16,8 @@
 
 package jp.co.ctc_g.jfw.core.util.porter;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ResourceBundle;
 
 import jp.co.ctc_g.jfw.core.internal.InternalMessages;
@@ -102,6 +104,14 @@ import jp.co.ctc_g.jfw.core.util.typeconverter.TypeConverter;
  * より詳細にこの挙動を制御する必要があるかもしれません。
  * そのような場合には、{@link #convert(Class, TypeConverter)}を利用してください。
  * </p>
+ * <p>
+ * 移送元クラス、移送先クラス、プロパティ名の変換定義、無視定義が同じであれば、
+ * 読込メソッドや書込メソッドの解決結果は移送計画としてキャッシュされ、2回目以降の移送で再利用されます。
+ * 検索結果のDTOを一括してエンティティへ詰め替える場合などは、{@link #copyAll(List, Class)}を利用してください。
+ * </p>
+ * <pre>
+ * List&lt;Def&gt; dests = new BeanPorter().copyAll(sources, Def.class);
+ * </pre>
  * @author ITOCHU Techno-Solutions Corporation.
  * @see Porter
  * @see SourceStrategy
@@ -119,6 +129,7 @@ public class BeanPorter extends Porter {
     private KeyExchangeFilter exchanger;
     private PortablePairSelector selector;
     private DeclarationAwareBeanPropertyTypeConverter typeConverter;
+    private PortingPlan plan;
 
     /**
      * デフォルトコンストラクタです。
@@ -175,7 +186,36 @@ public class BeanPorter extends Porter {
     public <T> T copyTo(T destination) {
         Args.checkNotNull(destination);
         setDestination(destination);
-        return (T) process();
+        if (!compilable()) return (T) process();
+        Object source = getSource();
+        if (plan == null || !plan.accepts(source.getClass(), destination.getClass())) {
+            plan = PortingPlan.of(source.getClass(), destination.getClass(), exchanger, selector);
+        }
+        plan.copy(source, destination, typeConverter);
+        return destination;
+    }
+
+    /**
+     * 指定された移送元オブジェクトのリストから、それぞれ移送先クラスのインスタンスを生成して値を移送します。
+     * 移送元クラスと移送先クラスの組み合わせが変わらない限り、移送計画は1度だけ解決され、全要素で再利用されます。
+     * このインスタンスに設定されている変換定義、無視定義、コンバータは全要素に適用されます。
+     * @param <T> 移送先クラスの型
+     * @param sources 移送元オブジェクトのリスト
+     * @param clazz 移送先クラス
+     * @return 移送元リストと同じ順序で並んだ、移送先オブジェクトのリスト
+     */
+    public <T> List<T> copyAll(List<?> sources, Class<T> clazz) {
+        Args.checkNotNull(sources);
+        Args.checkNotNull(clazz);
+        if (exchanger == null) prepare();
+        Object original = getSource();
+        List<T> results = new ArrayList<T>(sources.size());
+        for (Object source : sources) {
+            setSource(source);
+            results.add(create(clazz));
+        }
+        if (original != null) setSource(original);
+        return results;
     }
 
     /**
@@ -194,6 +234,7 @@ public class BeanPorter extends Porter {
         Args.checkNotEmpty(src);
         Args.checkNotEmpty(dest);
         exchanger.exchange(src, dest);
+        plan = null;
         return this;
     }
 
@@ -203,6 +244,7 @@ public class BeanPorter extends Porter {
      */
     public BeanPorter clearExchange() {
         exchanger.clear();
+        plan = null;
         return this;
     }
 
@@ -250,6 +292,7 @@ public class BeanPorter extends Porter {
      */
     public BeanPorter ignore(String columnName) {
         selector.ignore(columnName);
+        plan = null;
         return this;
     }
 
@@ -259,6 +302,18 @@ public class BeanPorter extends Porter {
      */
     public BeanPorter clearIgnorance() {
         selector.clear();
+        plan = null;
         return this;
     }
+
+    private boolean compilable() {
+        if (exchanger == null || getSource() == null) return false;
+        if (getSourceStrategy().getClass() != BeanSourceStrategy.class) return false;
+        if (getDestinationStrategy().getClass() != BeanDestinationStrategy.class) return false;
+        List<ManipulationFilter> filters = getManipulationFilters();
+        return filters.size() == 3
+                && filters.get(0) == selector
+                && filters.get(1) == exchanger
+                && filters.get(2) == typeConverter;
+    }
 }
@@ -78,14 +78,20 @@ public class DeclarationAwareBeanPropertyTypeConverter implements ManipulationFi
         if (value == null) return pair;
         Class<?> to = Beans.detectDeclaredPropertyType(pair.getKey().toString(), destinationType);
         if (to == null || to.isAssignableFrom(value.getClass())) return pair;
-        Object converted = null;
-        if (operations.containsKey(to.getName())) {
-            TypeConverter<?> op = operations.get(to.getName());
-            converted = TypeConverters.convert(op, value, to);
-        } else {
-            converted = TypeConverters.convert(value, to);
-        }
-        return new PortablePair(pair.getKey(), converted);
+        return new PortablePair(pair.getKey(), convert(value, to));
+    }
+
+    /**
+     * 指定された値を指定された型へ変換します。
+     * このインスタンスに個別の変換ロジックが設定されている場合はそれを、
+     * 設定されていない場合は{@link TypeConverters}のデフォルトの変換ロジックを利用します。
+     * @param value 変換対象の値
+     * @param to 変換先の型
+     * @return 変換された値
+     */
+    Object convert(Object value, Class<?> to) {
+        TypeConverter<?> op = operations.get(to.getName());
+        return op != null ? TypeConverters.convert(op, value, to) : TypeConverters.convert(value, to);
     }
 
     /**
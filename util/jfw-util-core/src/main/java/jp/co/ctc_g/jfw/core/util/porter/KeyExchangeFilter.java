@@ -105,4 +105,12 @@ public class KeyExchangeFilter implements ManipulationFilter {
         return this;
     }
 
+    /**
+     * 現在設定されている変換定義を返却します。
+     * @return 変換定義
+     */
+    Map<String, String> rules() {
+        return rules;
+    }
+
 }
@@ -16,6 +16,8 @@
 
 package jp.co.ctc_g.jfw.core.util.porter;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
 
@@ -28,6 +30,11 @@ import jp.co.ctc_g.jfw.core.util.typeconverter.TypeConverter;
  * <p>
  * このクラスは、{@link Map}をJavaビーンのプロパティに移送します。
  * </p>
+ * <p>
+ * 移送先クラス、プロパティ名の変換定義、無視定義が同じであれば、
+ * マップのキー毎の書込メソッドの解決結果は移送計画としてキャッシュされ、2回目以降の移送で再利用されます。
+ * 検索結果のマップを一括してJavaビーンへ詰め替える場合は、{@link #copyAll(List, Class)}を利用してください。
+ * </p>
  * @author ITOCHU Techno-Solutions Corporation.
  * @see MapSourceStrategy
  * @see BeanDestinationStrategy
@@ -43,6 +50,7 @@ public class MapToBeanPorter extends Porter {
     private KeyExchangeFilter exchanger;
     private PortablePairSelector selector;
     private DeclarationAwareBeanPropertyTypeConverter typeConverter;
+    private PortingPlan plan;
 
     /**
      * デフォルトコンストラクタです。
@@ -84,8 +92,37 @@ public class MapToBeanPorter extends Porter {
      */
     public <T> T create(Class<T> beanClass) {
         Args.checkNotNull(beanClass);
-        setDestination(Beans.make(beanClass));
-        return beanClass.cast(process());
+        T destination = Beans.make(beanClass);
+        setDestination(destination);
+        if (!compilable()) return beanClass.cast(process());
+        if (plan == null || !plan.accepts(null, destination.getClass())) {
+            plan = PortingPlan.ofMap(destination.getClass(), exchanger, selector);
+        }
+        plan.copy(getSource(), destination, typeConverter);
+        return destination;
+    }
+
+    /**
+     * 指定されたマップのリストから、それぞれデータ出力先クラスのインスタンスを生成してデータを移送します。
+     * 移送計画は1度だけ解決され、全要素で再利用されます。
+     * このインスタンスに設定されている変換定義、無視定義、コンバータは全要素に適用されます。
+     * @param <T> データ出力先の型
+     * @param sources データ入力元のリスト
+     * @param beanClass データ出力先クラス
+     * @return データ入力元のリストと同じ順序で並んだ、出力先クラスのインスタンスのリスト
+     */
+    public <T> List<T> copyAll(List<? extends Map<String, ?>> sources, Class<T> beanClass) {
+        Args.checkNotNull(sources);
+        Args.checkNotNull(beanClass);
+        if (exchanger == null) prepare();
+        Object original = getSource();
+        List<T> results = new ArrayList<T>(sources.size());
+        for (Map<String, ?> source : sources) {
+            setSource(source);
+            results.add(create(beanClass));
+        }
+        if (original != null) setSource(original);
+        return results;
     }
 
     /**
@@ -104,6 +141,7 @@ public class MapToBeanPorter extends Porter {
         Args.checkNotEmpty(src);
         Args.checkNotEmpty(dest);
         exchanger.exchange(src, dest);
+        plan = null;
         return this;
     }
 
@@ -113,6 +151,7 @@ public class MapToBeanPorter extends Porter {
      */
     public MapToBeanPorter clearExchange() {
         exchanger.clear();
+        plan = null;
         return this;
     }
 
@@ -160,6 +199,7 @@ public class MapToBeanPorter extends Porter {
      */
     public MapToBeanPorter ignore(String columnName) {
         selector.ignore(columnName);
+        plan = null;
         return this;
     }
 
@@ -169,6 +209,18 @@ public class MapToBeanPorter extends Porter {
      */
     public MapToBeanPorter clearIgnorance() {
         selector.clear();
+        plan = null;
         return this;
     }
+
+    private boolean compilable() {
+        if (exchanger == null || !(getSource() instanceof Map)) return false;
+        if (getSourceStrategy().getClass() != MapSourceStrategy.class) return false;
+        if (getDestinationStrategy().getClass() != BeanDestinationStrategy.class) return false;
+        List<ManipulationFilter> filters = getManipulationFilters();
+        return filters.size() == 3
+                && filters.get(0) == selector
+                && filters.get(1) == exchanger
+                && filters.get(2) == typeConverter;
+    }
 }
@@ -88,4 +88,12 @@ public class PortablePairSelector implements ManipulationFilter {
         ignores = new ArrayList<String>(IGNORE_SIZE);
     }
 
+    /**
+     * 現在設定されている無視対象のキーを返却します。
+     * @return 無視対象のキー
+     */
+    List<String> ignores() {
+        return ignores;
+    }
+
 }
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.util.porter;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import jp.co.ctc_g.jfw.core.util.Beans;
+import jp.co.ctc_g.jfw.core.util.Reflects;
+import jp.co.ctc_g.jfw.core.util.Strings;
+
+/**
+ * <p>
+ * このクラスは、{@link BeanPorter}および{@link MapToBeanPorter}の値移送を事前に解決した移送計画です。
+ * </p>
+ * <p>
+ * 移送元クラス、移送先クラス、プロパティ名の変換定義、無視定義の組み合わせ毎に、
+ * 読込メソッド、移送先プロパティ名、移送先の宣言型、書込メソッドを一度だけ解決してキャッシュします。
+ * 移送時には{@link PortablePair}の生成やフィルタの連鎖を行わず、解決済みのメソッドを順に起動するだけになるため、
+ * 同じ組み合わせで大量のオブジェクトを移送する場合に高速に動作します。
+ * 解決結果は{@link SourceStrategy}、{@link ManipulationFilter}、{@link DestinationStrategy}
+ * による従来の移送と同じ結果になるように構築されます。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ * @see BeanPorter
+ * @see MapToBeanPorter
+ */
+final class PortingPlan {
+
+    private static final int MAX_CACHED_PLANS = 512;
+    private static final int MAX_CACHED_SLOTS = 256;
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+    private static final ConcurrentMap<Key, PortingPlan> PLANS = new ConcurrentHashMap<Key, PortingPlan>();
+
+    /** 移送対象外であることを表すスロットです。 */
+    private static final Slot SKIP = new Slot(null, null, null, null);
+
+    private final Class<?> sourceType;
+    private final Class<?> destinationType;
+    private final Map<String, String> rules;
+    private final List<String> ignores;
+    private final Slot[] slots;
+    private final ConcurrentMap<Object, Slot> named;
+
+    private PortingPlan(Key key) {
+        this.sourceType = key.source;
+        this.destinationType = key.destination;
+        this.rules = key.rules;
+        this.ignores = key.ignores;
+        if (sourceType != null) {
+            PropertyDescriptor[] descriptors = Beans.findPropertyDescriptorsFor(sourceType);
+            List<Slot> resolved = new ArrayList<Slot>(descriptors.length);
+            for (PropertyDescriptor pd : descriptors) {
+                Method reader = pd.getReadMethod();
+                if (reader == null) continue;
+                reader.setAccessible(true);
+                Slot slot = resolve(reader, Beans.generatePropertyNameFor(reader.getName()));
+                if (slot != SKIP) resolved.add(slot);
+            }
+            this.slots = resolved.toArray(new Slot[resolved.size()]);
+            this.named = null;
+        } else {
+            this.slots = null;
+            this.named = new ConcurrentHashMap<Object, Slot>();
+        }
+    }
+
+    /**
+     * JavaビーンからJavaビーンへの移送計画を取得します。
+     * @param source 移送元クラス
+     * @param destination 移送先クラス
+     * @param exchanger プロパティ名の変換定義
+     * @param selector 無視定義
+     * @return 移送計画
+     */
+    static PortingPlan of(Class<?> source, Class<?> destination,
+            KeyExchangeFilter exchanger, PortablePairSelector selector) {
+        return lookup(new Key(source, destination, exchanger.rules(), selector.ignores()));
+    }
+
+    /**
+     * マップからJavaビーンへの移送計画を取得します。
+     * @param destination 移送先クラス
+     * @param exchanger プロパティ名の変換定義
+     * @param selector 無視定義
+     * @return 移送計画
+     */
+    static PortingPlan ofMap(Class<?> destination,
+            KeyExchangeFilter exchanger, PortablePairSelector selector) {
+        return lookup(new Key(null, destination, exchanger.rules(), selector.ignores()));
+    }
+
+    private static PortingPlan lookup(Key key) {
+        PortingPlan plan = PLANS.get(key);
+        if (plan == null) {
+            // 検索用のキーは呼び出し元の定義を直接参照しているため、複製してから計画を構築します
+            plan = new PortingPlan(key.snapshot());
+            if (PLANS.size() < MAX_CACHED_PLANS) {
+                PortingPlan cached = PLANS.putIfAbsent(new Key(plan), plan);
+                if (cached != null) plan = cached;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * この計画が指定された移送元クラス、移送先クラスに適用できるかどうかを判定します。
+     * マップを移送元とする計画の場合、移送元クラスは判定しません。
+     * @param source 移送元クラス
+     * @param destination 移送先クラス
+     * @return 適用できる場合は真
+     */
+    boolean accepts(Class<?> source, Class<?> destination) {
+        return destinationType == destination && (sourceType == null || sourceType == source);
+    }
+
+    /**
+     * 移送元オブジェクトの値を移送先オブジェクトへ移し替えます。
+     * @param source 移送元オブジェクト
+     * @param destination 移送先オブジェクト
+     * @param converter 型変換を行うフィルタ
+     */
+    void copy(Object source, Object destination, DeclarationAwareBeanPropertyTypeConverter converter) {
+        // 書込メソッドの引数配列は1回の移送の間で使い回します
+        Object[] argument = new Object[1];
+        if (slots != null) {
+            for (Slot slot : slots) {
+                Object value = Reflects.invokeAccessible(slot.reader, source, NO_ARGUMENTS);
+                slot.assign(destination, value, converter, argument);
+            }
+        } else {
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) source).entrySet()) {
+                Slot slot = slot(e.getKey());
+                if (slot != SKIP) slot.assign(destination, e.getValue(), converter, argument);
+            }
+        }
+    }
+
+    private Slot slot(Object key) {
+        if (!(key instanceof String)) return resolve(null, key);
+        Slot slot = named.get(key);
+        if (slot == null) {
+            slot = resolve(null, key);
+            if (named.size() < MAX_CACHED_SLOTS) named.putIfAbsent(key, slot);
+        }
+        return slot;
+    }
+
+    private Slot resolve(Method reader, Object key) {
+        if (ignores.contains(key)) return SKIP;
+        String exchanged = rules.get(key.toString());
+        String name = exchanged != null ? exchanged : key.toString();
+        if ("class".equals(name)) return SKIP;
+        if (Strings.isBlank(name)) {
+            // 不正なプロパティ名は従来通り書込時に例外とします
+            return new Slot(reader, name, null, null);
+        }
+        Class<?> type = Beans.detectDeclaredPropertyType(name, destinationType);
+        if (name.indexOf('.') >= 0 || name.indexOf('[') >= 0 || name.indexOf(']') >= 0) {
+            // ネストしたプロパティや配列要素は、書込時にBeansを利用して解決します
+            return new Slot(reader, name, type, null);
+        }
+        PropertyDescriptor pd = Beans.findPropertyDescriptorFor(destinationType, name);
+        Method writer = pd != null ? pd.getWriteMethod() : null;
+        if (writer == null) return SKIP;
+        writer.setAccessible(true);
+        return new Slot(reader, name, type, writer);
+    }
+
+    /**
+     * 1プロパティ分の解決済みの移送手順です。
+     */
+    private static final class Slot {
+
+        private final Method reader;
+        private final String name;
+        private final Class<?> type;
+        private final Method writer;
+
+        private Slot(Method reader, String name, Class<?> type, Method writer) {
+            this.reader = reader;
+            this.name = name;
+            this.type = type;
+            this.writer = writer;
+        }
+
+        private void assign(Object destination, Object value,
+                DeclarationAwareBeanPropertyTypeConverter converter, Object[] argument) {
+            if (value != null && type != null && !type.isAssignableFrom(value.getClass())) {
+                value = converter.convert(value, type);
+            }
+            if (writer == null) {
+                Beans.writePropertyValueNamed(name, destination, value);
+            } else {
+                argument[0] = value;
+                Reflects.invokeAccessible(writer, destination, argument);
+            }
+        }
+    }
+
+    /**
+     * 移送計画のキャッシュキーです。
+     */
+    private static final class Key {
+
+        private final Class<?> source;
+        private final Class<?> destination;
+        private final Map<String, String> rules;
+        private final List<String> ignores;
+        private final int hash;
+
+        private Key(Class<?> source, Class<?> destination, Map<String, String> rules, List<String> ignores) {
+            this.source = source;
+            this.destination = destination;
+            this.rules = rules;
+            this.ignores = ignores;
+            int h = source != null ? source.hashCode() : 0;
+            h = 31 * h + destination.hashCode();
+            h = 31 * h + rules.hashCode();
+            h = 31 * h + ignores.hashCode();
+            this.hash = h;
+        }
+
+        private Key(PortingPlan plan) {
+            this(plan.sourceType, plan.destinationType, plan.rules, plan.ignores);
+        }
+
+        private Key snapshot() {
+            return new Key(source, destination,
+                    new HashMap<String, String>(rules), new ArrayList<String>(ignores));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object another) {
+            if (this == another) return true;
+            if (!(another instanceof Key)) return false;
+            Key friend = (Key) another;
+            return source == friend.source
+                    && destination == friend.destination
+                    && rules.equals(friend.rules)
+                    && ignores.equals(friend.ignores);
+        }
+    }
+}
@@ -17,9 +17,12 @@
 package jp.co.ctc_g.jfw.core.util.typeconverter;
 
 import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import jp.co.ctc_g.jfw.core.internal.Config;
 import jp.co.ctc_g.jfw.core.internal.CoreInternals;
@@ -66,6 +69,19 @@ import jp.co.ctc_g.jfw.core.util.Reflects;
  * java.sql.Timestamp=jp.co.ctc_g.jfw.core.util.typeconverter.TimestampConverter
  * </pre>
  * <p>
+ * 変換先型にプリミティブ型が指定された場合は、対応するラッパー型のコンバータを利用して変換し、
+ * ラッパー型のインスタンスを返却します。
+ * </p>
+ * <pre class="brush:java">
+ * int converted = TypeConverters.convert("1", int.class);
+ * </pre>
+ * <h4>変換メソッドの解決</h4>
+ * <p>
+ * コンバータの変換メソッドは、コンバータクラス毎に変換元の型をキーとした表として一度だけ解決され、キャッシュされます。
+ * 登録済みのコンバータについてはクラスの初期化時に、それ以外のコンバータについては初めて利用された時に解決されます。
+ * よって、変換の都度、変換メソッドを検索したり、アクセス権を設定したりすることはありません。
+ * </p>
+ * <p>
  * 以下の{@link Config クラスコンフィグオーバライド}用のキーが公開されています。
  * </p>
  * <table class="property_file_override_info">
@@ -102,9 +118,24 @@ public final class TypeConverters {
 
     private static final String CONVERTER_METHOD_NAME = "convert";
 
+    private static final Map<Class<?>, Class<?>> WRAPPERS;
+
+    private static final ConcurrentMap<Class<?>, Map<Class<?>, Method>> DISPATCHERS =
+        new ConcurrentHashMap<Class<?>, Map<Class<?>, Method>>();
+
     private static Map<String, TypeConverter<?>> converters;
 
     static {
+        Map<Class<?>, Class<?>> wrappers = new HashMap<Class<?>, Class<?>>(16);
+        wrappers.put(boolean.class, Boolean.class);
+        wrappers.put(byte.class, Byte.class);
+        wrappers.put(char.class, Character.class);
+        wrappers.put(short.class, Short.class);
+        wrappers.put(int.class, Integer.class);
+        wrappers.put(long.class, Long.class);
+        wrappers.put(float.class, Float.class);
+        wrappers.put(double.class, Double.class);
+        WRAPPERS = Collections.unmodifiableMap(wrappers);
         Config c = CoreInternals.getConfig(TypeConverters.class);
         registerConverters(c);
     }
@@ -118,35 +149,37 @@ public final class TypeConverters {
             Class<TypeConverter<?>> clazz = Classes.<TypeConverter<?>>forName(value);
             TypeConverter<?> converter = Reflects.make(clazz);
             converters.put(type, converter);
+            dispatcher(clazz);
         }
     }
 
     /**
      * 指定された値を指定された型に変換します。
+     * 変換先型にプリミティブ型が指定された場合は、対応するラッパー型に変換します。
      * @param <T> 変換先型
      * @param value 型変換元オブジェクト
      * @param convertTo 変換後のクラス
      * @return 指定された型に変換されたオブジェクト
      * @throws TypeConversionException 型変換に失敗した場合（E-UTIL-TC#0002）
      */
-    @SuppressWarnings("unchecked")
     public static <T> T convert(Object value, Class<T> convertTo) {
         Args.checkNotNull(value);
         Args.checkNotNull(convertTo);
-        if (convertTo.isAssignableFrom(value.getClass())) return convertTo.cast(value);
-        String to = convertTo.getName();
-        if (!converters.containsKey(to)) {
+        Class<T> to = wrap(convertTo);
+        if (to.isAssignableFrom(value.getClass())) return to.cast(value);
+        TypeConverter<?> converter = converters.get(to.getName());
+        if (converter == null) {
             Map<String, String> replace = new HashMap<String, String>(2);
             replace.put("from", value.getClass().getName());
             replace.put("to", convertTo.getName());
             throw new TypeConversionException("E-UTIL-TC#0002", TypeConverters.class, replace);
         }
-        TypeConverter<T> converter = (TypeConverter<T>) converters.get(to);
-        return convert(converter, value, convertTo);
+        return convert(converter, value, to);
     }
 
     /**
      * 指定されたコンバータを使って、指定された値を指定された型に変換します。
+     * 変換先型にプリミティブ型が指定された場合は、対応するラッパー型に変換します。
      * @param <T> 変換先型
      * @param converter 型変換処理オブジェクト
      * @param value 型変換元オブジェクト
@@ -158,21 +191,18 @@ public final class TypeConverters {
         Args.checkNotNull(converter);
         Args.checkNotNull(value);
         Args.checkNotNull(to);
-        if (to.isAssignableFrom(value.getClass())) return to.cast(value);
-        Method m = Reflects.findMethodSigned(
-                CONVERTER_METHOD_NAME,
-                converter.getClass(),
-                value.getClass());
+        Class<T> wrapped = wrap(to);
+        if (wrapped.isAssignableFrom(value.getClass())) return wrapped.cast(value);
+        Method m = dispatcher(converter.getClass()).get(value.getClass());
         if (m == null) {
             Map<String, String> replace = new HashMap<String, String>(2);
             replace.put("from", value.getClass().getName());
             replace.put("to", to.getName());
             throw new TypeConversionException("E-UTIL-TC#0002", TypeConverters.class, replace);
         }
-        m.setAccessible(true);
         Object converted = null;
         try {
-            converted = Reflects.invoke(m, converter, value);
+            converted = Reflects.invokeAccessible(m, converter, value);
         } catch (TargetThrowsException e) {
             if (e.getCause() instanceof TypeConversionException) {
                 throw (TypeConversionException) e.getCause();
@@ -180,7 +210,35 @@ public final class TypeConverters {
                 throw e;
             }
         }
-        return to.cast(converted);
+        return wrapped.cast(converted);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Class<T> wrap(Class<T> type) {
+        return type.isPrimitive() ? (Class<T>) WRAPPERS.get(type) : type;
+    }
+
+    /**
+     * 指定されたコンバータクラスの変換メソッドを、変換元の型をキーとした表として取得します。
+     * 表はコンバータクラス毎に一度だけ構築され、変換メソッドのアクセス権もその際に設定されます。
+     * @param converterClass コンバータクラス
+     * @return 変換元の型をキー、変換メソッドを値とする表
+     */
+    private static Map<Class<?>, Method> dispatcher(Class<?> converterClass) {
+        Map<Class<?>, Method> dispatcher = DISPATCHERS.get(converterClass);
+        if (dispatcher != null) return dispatcher;
+        Map<Class<?>, Method> methods = new HashMap<Class<?>, Method>();
+        for (Method m : converterClass.getMethods()) {
+            if (!CONVERTER_METHOD_NAME.equals(m.getName())) continue;
+            Class<?>[] parameters = m.getParameterTypes();
+            if (parameters.length != 1 || methods.containsKey(parameters[0])) continue;
+            // 同じ引数型のメソッドが複数ある場合の選択はClass#getMethodに従います
+            Method found = Reflects.findMethodSigned(CONVERTER_METHOD_NAME, converterClass, parameters[0]);
+            found.setAccessible(true);
+            methods.put(parameters[0], found);
+        }
+        dispatcher = DISPATCHERS.putIfAbsent(converterClass, Collections.unmodifiableMap(methods));
+        return dispatcher != null ? dispatcher : DISPATCHERS.get(converterClass);
     }
 
 }
@@ -19,6 +19,7 @@ package jp.co.ctc_g.jfw.core.util;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.math.BigDecimal;
@@ -893,4 +894,49 @@ public class BeansTest {
         assertFalse(Beans.isPropertyWriter("getClass"));
         assertFalse(Beans.isPropertyWriter("hasHoge"));
     }
+
+    // キャッシュテスト ----------------------------------------------------------------------------------
+
+    @Test
+    public void 同じパスを異なるクラスに対して繰り返し読み書きできる() {
+        BeansBean bean = new BeansBean();
+        BeansBeanAlternative alternative = new BeansBeanAlternative();
+        for (int i = 0; i < 3; i++) {
+            Beans.writePropertyValueNamed("stringField", bean, "bean" + i);
+            Beans.writePseudoPropertyValueNamed("stringField", alternative, "alternative" + i);
+            assertEquals("bean" + i, Beans.readPropertyValueNamed("stringField", bean));
+            assertEquals("alternative" + i, Beans.readPseudoPropertyValueNamed("stringField", alternative));
+        }
+    }
+
+    @Test
+    public void 同じパスのネスト配列へ繰り返し書き込みできる() {
+        final String[] array = new String[3];
+        final Object nested = new Object() {
+            @SuppressWarnings("unused")
+            public String[] getArray() {
+                return array;
+            }
+        };
+        Object target = new Object() {
+            @SuppressWarnings("unused")
+            public Object getNested() {
+                return nested;
+            }
+        };
+        for (int i = 0; i < 3; i++) {
+            Beans.writePropertyValueNamed("nested.array[1]", target, "value" + i);
+            assertEquals("value" + i, array[1]);
+            assertEquals("value" + i, Beans.readPropertyValueNamed("nested.array[1]", target));
+        }
+        assertNull(array[0]);
+    }
+
+    @Test
+    public void 存在しないプロパティは繰り返し読み込んでもnullとなる() {
+        BeansBean bean = new BeansBean();
+        for (int i = 0; i < 3; i++) {
+            assertNull(Beans.readPropertyValueNamed("unknownField", bean));
+        }
+    }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import jp.co.ctc_g.jfw.core.internal.InternalException;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void 記録がない場合は0を返却する() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.getCount(), is(0L));
+        assertThat(histogram.getMean(), is(0.0));
+        assertThat(histogram.getMax(), is(0.0));
+        assertThat(histogram.getPercentile(0.99), is(0.0));
+    }
+
+    @Test
+    public void パーセンタイルが区間の上限値で返却される() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertThat(histogram.getCount(), is(100L));
+        assertWithin(histogram.getPercentile(0.5), 50.0);
+        assertWithin(histogram.getPercentile(0.95), 95.0);
+        assertThat(histogram.getPercentile(1.0), is(100.0));
+        assertThat(histogram.getMean(), is(50.5));
+        assertThat(histogram.getMax(), is(100.0));
+    }
+
+    @Test
+    public void パーセンタイルは最大値を超えない() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+        }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(700));
+        assertWithin(histogram.getPercentile(0.5), 3.0);
+        assertThat(histogram.getPercentile(1.0), is(700.0));
+    }
+
+    @Test(expected = InternalException.class)
+    public void 割合が範囲外の場合は例外が発生する() {
+        new LatencyHistogram().getPercentile(95.0);
+    }
+
+    @Test
+    public void 区間の相対誤差は一定以内() {
+        for (long micros = 1; micros < (1L << 36); micros = micros * 3 + 1) {
+            int index = LatencyHistogram.indexOf(micros);
+            long upper = LatencyHistogram.upperBoundOf(index);
+            assertTrue(micros + " <= " + upper, micros <= upper);
+            assertTrue(micros + " : " + upper, upper - micros <= micros / LatencyHistogram.SUB_BUCKETS + 1);
+        }
+    }
+
+    @Test
+    public void 記録を破棄する() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+        histogram.reset();
+        assertThat(histogram.getCount(), is(0L));
+        assertThat(histogram.getMean(), is(0.0));
+        assertThat(histogram.getMax(), is(0.0));
+        assertThat(histogram.getPercentile(0.5), is(0.0));
+    }
+
+    private void assertWithin(double actual, double expected) {
+        assertTrue(actual + " >= " + expected, actual >= expected);
+        assertTrue(actual + " <= " + expected, actual <= expected + expected / LatencyHistogram.SUB_BUCKETS);
+    }
+}
@@ -21,6 +21,8 @@ import static org.junit.Assert.*;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
 
 import jp.co.ctc_g.jfw.core.util.typeconverter.TypeConverter;
 
@@ -147,7 +149,53 @@ public class BeanPorterTest {
         assertThat(ex, notNullValue());
         assertThat(ex.getDest(), notNullValue());
     }
-    
+
+    @Test
+    public void 一括移送では全要素が順序通りに移送される() {
+        BeanPorterBean b1 = new BeanPorterBean();
+        b1.setStringField("1");
+        b1.setDoubleField(.1);
+        BeanPorterBean b2 = new BeanPorterBean();
+        b2.setStringField("2");
+        LessPropertyBeanPorterBean b3 = new LessPropertyBeanPorterBean();
+        b3.setStringField("3");
+        b3.setIntegerField(3);
+        List<AnotherTypedBeanPorterBean> created =
+                new BeanPorter().copyAll(Arrays.asList(b1, b2, b3), AnotherTypedBeanPorterBean.class);
+        assertThat(created.size(), is(3));
+        assertThat(created.get(0).getStringField(), is(1));
+        assertThat(created.get(1).getStringField(), is(2));
+        assertThat(created.get(2).getStringField(), is(3));
+    }
+
+    @Test
+    public void 一括移送では変換定義と無視定義が全要素に適用される() {
+        BeanPorterTestSourceBean s1 = new BeanPorterTestSourceBean();
+        s1.setId("a");
+        BeanPorterTestSourceBean s2 = new BeanPorterTestSourceBean();
+        s2.setId("b");
+        List<BeanPorterTestSourceBean> sources = Arrays.asList(s1, s2);
+        BeanPorter porter = new BeanPorter(s1).exchange("id", "dest");
+        List<BeanPorterTestDestBean> exchanged = porter.copyAll(sources, BeanPorterTestDestBean.class);
+        assertThat(exchanged.get(0).getDest(), is("a"));
+        assertThat(exchanged.get(1).getDest(), is("b"));
+        List<BeanPorterTestDestBean> ignored = porter.ignore("id").copyAll(sources, BeanPorterTestDestBean.class);
+        assertThat(ignored.get(0).getDest(), nullValue());
+        assertThat(ignored.get(1).getDest(), nullValue());
+        // 一括移送後も元の移送元が保持されている
+        assertThat(porter.clearIgnorance().create(BeanPorterTestDestBean.class).getDest(), is("a"));
+    }
+
+    @Test
+    public void 移送先インスタンスが異なるクラスに変わっても移送できる() {
+        BeanPorterBean b = new BeanPorterBean();
+        b.setStringField("10");
+        BeanPorter porter = new BeanPorter(b);
+        assertThat(porter.create(BeanPorterBean.class).getStringField(), is("10"));
+        assertThat(porter.create(AnotherTypedBeanPorterBean.class).getStringField(), is(10));
+        assertThat(porter.create(BeanPorterBean.class).getStringField(), is("10"));
+    }
+
 }
 
 class BeanPorterTestSourceBean {
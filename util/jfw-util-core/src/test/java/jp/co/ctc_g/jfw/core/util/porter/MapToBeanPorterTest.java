@@ -21,6 +21,8 @@ import static org.hamcrest.CoreMatchers.*;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import jp.co.ctc_g.jfw.core.util.Maps;
@@ -78,6 +80,28 @@ public class MapToBeanPorterTest {
         assertThat(afterClearBean.getId(), nullValue());
         assertThat(afterClearBean.getName(), is("nameValue"));
     }
+
+    @Test
+    public void 一括移送では全要素が型変換されて移送される() {
+        List<Map<String, Object>> sources = new ArrayList<Map<String, Object>>();
+        for (int i = 0; i < 3; i++) {
+            sources.add(Maps.hash("exId", (Object) String.valueOf(i)).map("name", "name" + i).map("unknown", i));
+        }
+        List<MapToBeanPorterTestSourceBean> created = new MapToBeanPorter()
+            .copyAll(sources, MapToBeanPorterTestSourceBean.class);
+        assertThat(created.size(), is(3));
+        assertThat(created.get(2).getId(), nullValue());
+        assertThat(created.get(2).getName(), is("name2"));
+        MapToBeanPorter porter = new MapToBeanPorter(sources.get(0)).exchange("exId", "id");
+        created = porter.copyAll(sources, MapToBeanPorterTestSourceBean.class);
+        for (int i = 0; i < 3; i++) {
+            assertThat(created.get(i).getId(), is(i));
+            assertThat(created.get(i).getName(), is("name" + i));
+        }
+        created = porter.ignore("name").copyAll(sources, MapToBeanPorterTestSourceBean.class);
+        assertThat(created.get(1).getId(), is(1));
+        assertThat(created.get(1).getName(), nullValue());
+    }
 }
 
 class MapToBeanPorterTestSourceBean {
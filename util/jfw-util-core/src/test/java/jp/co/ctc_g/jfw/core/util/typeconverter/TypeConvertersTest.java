@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.core.util.typeconverter;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+public class TypeConvertersTest {
+
+    @Test
+    public void 登録済みコンバータで変換できる() {
+        assertEquals(Integer.valueOf(255), TypeConverters.convert("255", Integer.class));
+        assertEquals(Long.valueOf(255L), TypeConverters.convert(new BigDecimal("255"), Long.class));
+        assertEquals("255", TypeConverters.convert(Integer.valueOf(255), String.class));
+    }
+
+    @Test
+    public void 変換先型に代入可能な値はそのまま返却される() {
+        Integer v = Integer.valueOf(255);
+        assertSame(v, TypeConverters.convert(v, Integer.class));
+        assertSame(v, TypeConverters.convert(v, Number.class));
+    }
+
+    @Test
+    public void プリミティブ型へ変換できる() {
+        int i = TypeConverters.convert("255", int.class);
+        assertEquals(255, i);
+        long l = TypeConverters.convert(Integer.valueOf(255), long.class);
+        assertEquals(255L, l);
+        Integer same = Integer.valueOf(1);
+        assertSame(same, TypeConverters.convert(same, int.class));
+    }
+
+    @Test(expected = TypeConversionException.class)
+    public void 変換メソッドが存在しない場合は例外が発生する() {
+        TypeConverters.convert(new Object(), Integer.class);
+    }
+
+    @Test(expected = TypeConversionException.class)
+    public void コンバータが登録されていない型へは変換できない() {
+        TypeConverters.convert("true", boolean.class);
+    }
+
+    @Test
+    public void 指定されたコンバータで変換できる() {
+        TypeConverter<Integer> op = new TypeConverter<Integer>() {
+            @SuppressWarnings("unused")
+            public Integer convert(String value) {
+                return Integer.valueOf(value.length());
+            }
+        };
+        assertEquals(Integer.valueOf(3), TypeConverters.convert(op, "abc", Integer.class));
+        assertEquals(Integer.valueOf(4), TypeConverters.convert(op, "abcd", int.class));
+    }
+
+    @Test
+    public void コンバータが発生させた変換例外はそのまま送出される() {
+        final TypeConversionException thrown = new TypeConversionException("E-UTIL-TC#0001", TypeConverters.class);
+        TypeConverter<Integer> op = new TypeConverter<Integer>() {
+            @SuppressWarnings("unused")
+            public Integer convert(String value) {
+                throw thrown;
+            }
+        };
+        try {
+            TypeConverters.convert(op, "abc", Integer.class);
+            fail();
+        } catch (TypeConversionException e) {
+            assertSame(thrown, e);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jfw.profill;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jp.co.ctc_g.jfw.core.util.Beans;
+import jp.co.ctc_g.jfw.core.util.Reflects;
+
+/**
+ * <p>
+ * このクラスは、{@link Profill} による値の自動設定を事前に解決した設定計画です。
+ * </p>
+ * <p>
+ * Java ビーンクラス毎に、{@link PropertyMatcher} による判定、書込メソッドと {@link FillingProvider} の対応付け、
+ * {@link Profill.Nested ネスト}されたプロパティの読込メソッドの解決を一度だけ行い、
+ * ネストされた Java ビーンを含めて 1 つの配列に平坦化します。
+ * 値の設定時には正規表現による判定やマップの走査、再帰呼び出しを行わず、配列を先頭から順に実行するだけになります。
+ * 設定される値と設定順序は {@link Profill#createDefinition(Class)} と {@link Profill#apply(ProfillDefinition, Object)}
+ * による従来の設定と同じになるように構築されます。
+ * </p>
+ * @see Profill
+ */
+final class FillingPlan {
+
+    private final Step[] steps;
+
+    private final int depth;
+
+    private FillingPlan(Step[] steps, int depth) {
+        this.steps = steps;
+        this.depth = depth;
+    }
+
+    /**
+     * 指定された Java ビーンクラスの設定計画を構築します。
+     * @param profill 判定に利用する {@link Profill}
+     * @param clazz Java ビーンクラス
+     * @return 設定計画
+     */
+    static FillingPlan compile(Profill profill, Class<?> clazz) {
+        List<Step> steps = new ArrayList<Step>();
+        int[] depth = new int[] {1};
+        compile(profill, clazz, 0, 1, steps, new HashSet<Class<?>>(), depth);
+        return new FillingPlan(steps.toArray(new Step[steps.size()]), depth[0]);
+    }
+
+    private static void compile(Profill profill, Class<?> clazz, int slot, int level,
+            List<Step> steps, Set<Class<?>> path, int[] depth) {
+        path.add(clazz);
+        depth[0] = Math.max(depth[0], level);
+        List<PropertyDescriptor> nesteds = new ArrayList<PropertyDescriptor>();
+        for (PropertyDescriptor descriptor : Beans.findPropertyDescriptorsFor(clazz)) {
+            // 同じプロパティに複数の PropertyMatcher がマッチした場合は、後に登録されたものが優先されます
+            FillingProvider provider = null;
+            for (Map.Entry<PropertyMatcher, FillingProvider> e : profill.matchers.entrySet()) {
+                if (e.getKey().match(descriptor, clazz)) {
+                    provider = e.getValue();
+                }
+            }
+            if (provider != null) {
+                Method writer = descriptor.getWriteMethod();
+                writer.setAccessible(true);
+                steps.add(new FillStep(slot, new MatchedProperty(descriptor), provider, writer));
+            }
+            if (profill.isNested(descriptor)) {
+                nesteds.add(descriptor);
+            }
+        }
+        for (PropertyDescriptor descriptor : nesteds) {
+            Class<?> nestedType = descriptor.getPropertyType();
+            if (path.contains(nestedType)) {
+                // 循環参照しているネストは展開しません
+                continue;
+            }
+            Method reader = descriptor.getReadMethod();
+            if (reader != null) {
+                reader.setAccessible(true);
+            }
+            Method writer = profill.tryToInstantiateIfNestedPropertyIsNull ? descriptor.getWriteMethod() : null;
+            if (writer != null) {
+                writer.setAccessible(true);
+            }
+            if (reader == null && writer == null) {
+                continue;
+            }
+            NestedStep nested = new NestedStep(slot, level, reader, writer, nestedType);
+            steps.add(nested);
+            compile(profill, nestedType, level, level + 1, steps, path, depth);
+            nested.skipTo = steps.size();
+        }
+        path.remove(clazz);
+    }
+
+    /**
+     * 指定された Java ビーンに値を設定します。
+     * @param bean プロパティに値を設定する Java ビーン
+     */
+    void fill(Object bean) {
+        Object[] beans = new Object[depth];
+        beans[0] = bean;
+        Object[] argument = new Object[1];
+        for (int i = 0; i < steps.length;) {
+            i = steps[i].run(beans, argument, i + 1);
+        }
+    }
+
+    /**
+     * 設定計画の 1 手順です。
+     */
+    abstract static class Step {
+
+        /**
+         * この手順を実行します。
+         * @param beans 設定対象の Java ビーン（添字はネストの深さ）
+         * @param argument 書込メソッドの引数に再利用する配列
+         * @param next 次の手順の添字
+         * @return 次に実行する手順の添字
+         */
+        abstract int run(Object[] beans, Object[] argument, int next);
+    }
+
+    /**
+     * {@link FillingProvider} が提供する値をプロパティに設定する手順です。
+     */
+    static final class FillStep extends Step {
+
+        private final int slot;
+        private final MatchedProperty property;
+        private final FillingProvider provider;
+        private final Method writer;
+
+        FillStep(int slot, MatchedProperty property, FillingProvider provider, Method writer) {
+            this.slot = slot;
+            this.property = property;
+            this.provider = provider;
+            this.writer = writer;
+        }
+
+        @Override
+        int run(Object[] beans, Object[] argument, int next) {
+            Object bean = beans[slot];
+            argument[0] = provider.provide(property, bean);
+            Reflects.invokeAccessible(writer, bean, argument);
+            argument[0] = null;
+            return next;
+        }
+    }
+
+    /**
+     * ネストされた Java ビーンを取得し、後続の手順の設定対象とする手順です。
+     * ネストされた Java ビーンが取得できない場合は、そのビーンに対する手順をすべて読み飛ばします。
+     */
+    static final class NestedStep extends Step {
+
+        private final int slot;
+        private final int nestedSlot;
+        private final Method reader;
+        private final Method writer;
+        private final Class<?> nestedType;
+        private int skipTo;
+
+        NestedStep(int slot, int nestedSlot, Method reader, Method writer, Class<?> nestedType) {
+            this.slot = slot;
+            this.nestedSlot = nestedSlot;
+            this.reader = reader;
+            this.writer = writer;
+            this.nestedType = nestedType;
+        }
+
+        @Override
+        int run(Object[] beans, Object[] argument, int next) {
+            Object bean = beans[slot];
+            Object current = reader != null ? Reflects.invokeAccessible(reader, bean) : null;
+            if (current == null) {
+                if (writer == null) {
+                    return skipTo;
+                }
+                current = Reflects.make(nestedType);
+                argument[0] = current;
+                Reflects.invokeAccessible(writer, bean, argument);
+                argument[0] = null;
+            }
+            beans[nestedSlot] = current;
+            return next;
+        }
+    }
+}
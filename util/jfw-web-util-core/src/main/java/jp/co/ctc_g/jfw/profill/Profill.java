@@ -206,6 +206,17 @@ public class Profill {
      * Java ビーンのプロパティを解析した結果のキャッシュです。
      */
     protected ConcurrentHashMap<String, ProfillDefinition> definitions;
+
+    /**
+     * Java ビーンクラス毎の{@link FillingPlan 設定計画}のキャッシュです。
+     */
+    private final ConcurrentHashMap<Class<?>, FillingPlan> plans;
+
+    /**
+     * {@link #createDefinition(Class)} と {@link #apply(ProfillDefinition, Object)} がオーバーライドされておらず、
+     * 設定計画を利用できる場合は <code>true</code>です。
+     */
+    private final boolean compilable;
     
     /**
      * このクラスのインスタンスを生成します。
@@ -214,6 +225,21 @@ public class Profill {
         inThreadSafeMode = new AtomicBoolean();
         matchers = new LinkedHashMap<PropertyMatcher, FillingProvider>();
         definitions = new ConcurrentHashMap<String, ProfillDefinition>();
+        plans = new ConcurrentHashMap<Class<?>, FillingPlan>();
+        compilable = !overrides("createDefinition", Class.class)
+                && !overrides("apply", ProfillDefinition.class, Object.class);
+    }
+
+    private boolean overrides(String name, Class<?>... parameterTypes) {
+        for (Class<?> c = getClass(); c != Profill.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod(name, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // スーパークラスを検索します
+            }
+        }
+        return false;
     }
     
     /**
@@ -240,15 +266,34 @@ public class Profill {
         if (!matchers.containsValue(provider)) {
             PropertyMatcher matcher = createPropertyMatcher(provider);
             matchers.put(matcher, provider);
+            plans.clear();
         }
     }
     
     /**
      * 指定された Java ビーンのプロパティを解析し、値を設定します。
+     * <p>
+     * プロパティの解析結果は、ネストされた Java ビーンを含めて Java ビーンクラス毎の設定計画としてキャッシュされます。
+     * 2 回目以降の呼び出しでは、解決済みの書込メソッドと {@link FillingProvider} を順に起動するだけになるため、
+     * 登録・更新の直前に毎回呼び出しても高速に動作します。
+     * なお、{@link #createDefinition(Class)} あるいは {@link #apply(ProfillDefinition, Object)} をオーバーライドしたサブクラスでは、
+     * 設定計画を利用せず、それらのメソッドにより値を設定します。
+     * </p>
      * @param bean プロパティに値を設定する Java ビーン
      */
     public void fill(Object bean) {
         checkNotNull(bean);
+        if (compilable) {
+            Class<?> clazz = bean.getClass();
+            FillingPlan plan = plans.get(clazz);
+            if (plan == null) {
+                plan = FillingPlan.compile(this, clazz);
+                FillingPlan cached = plans.putIfAbsent(clazz, plan);
+                if (cached != null) plan = cached;
+            }
+            plan.fill(bean);
+            return;
+        }
         String name = bean.getClass().getName();
         ProfillDefinition definition = definitions.get(name);
         if (definition == null) {
@@ -364,6 +409,7 @@ public class Profill {
     public void setTryToInstantiateIfNestedPropertyIsNull(boolean value) {
         throwIfInThreadSafeMode();
         tryToInstantiateIfNestedPropertyIsNull = value;
+        plans.clear();
     }
     
     /**
@@ -22,12 +22,15 @@ import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import jp.co.ctc_g.jfw.core.util.GenCall;
 import jp.co.ctc_g.jfw.core.util.Lists;
 import jp.co.ctc_g.jfw.profill.ProfillIntegrationTestBean.ChildBean;
+import jp.co.ctc_g.jfw.profill.ProfillIntegrationTestBean.GrandParentBean;
 import jp.co.ctc_g.jfw.profill.ProfillIntegrationTestBean.ParentBean;
+import jp.co.ctc_g.jfw.profill.ProfillIntegrationTestBean.SelfReferenceBean;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -143,6 +146,77 @@ public class ProfillIntegrationTest {
         assertThat(parent.getChild().getAnnotationInjection(), is(AnnotatedStringLiteralFillingProvider.INJECTED));
     }
     
+    @Test
+    public void 多段にネストされたビーンのプロパティに値が自動的に設定される() {
+        GrandParentBean grand = new GrandParentBean();
+        profill.setTryToInstantiateIfNestedPropertyIsNull(true);
+        profill.addFillingProvider(new AnnotatedStringLiteralFillingProvider());
+        profill.fill(grand);
+        assertThat(grand.getParent().getAnnotationInjection(), is(AnnotatedStringLiteralFillingProvider.INJECTED));
+        assertThat(grand.getParent().getChild().getAnnotationInjection(), is(AnnotatedStringLiteralFillingProvider.INJECTED));
+    }
+
+    @Test
+    public void ネストされたビーンがnullの場合は読み飛ばされる() {
+        GrandParentBean grand = new GrandParentBean();
+        grand.setParent(new ParentBean());
+        SelfReferenceBean self = new SelfReferenceBean();
+        profill.addFillingProvider(new AnnotatedStringLiteralFillingProvider());
+        profill.fill(grand);
+        profill.fill(self);
+        assertThat(grand.getParent().getAnnotationInjection(), is(AnnotatedStringLiteralFillingProvider.INJECTED));
+        assertThat(grand.getParent().getChild(), is(nullValue()));
+        assertThat(self.getAnnotationInjection(), is(AnnotatedStringLiteralFillingProvider.INJECTED));
+    }
+
+    @Test
+    public void ネストされたビーンのクラスを先に設定していても値が自動的に設定される() {
+        profill.addFillingProvider(new AnnotatedStringLiteralFillingProvider());
+        profill.fill(new ChildBean());
+        ParentBean parent = new ParentBean();
+        parent.setChild(new ChildBean());
+        profill.fill(parent);
+        assertThat(parent.getChild().getAnnotationInjection(), is(AnnotatedStringLiteralFillingProvider.INJECTED));
+    }
+
+    @Test
+    public void 自身をネストしているビーンでも値が自動的に設定される() {
+        SelfReferenceBean bean = new SelfReferenceBean();
+        bean.setSelf(new SelfReferenceBean());
+        profill.setTryToInstantiateIfNestedPropertyIsNull(true);
+        profill.addFillingProvider(new AnnotatedStringLiteralFillingProvider());
+        profill.fill(bean);
+        assertThat(bean.getAnnotationInjection(), is(AnnotatedStringLiteralFillingProvider.INJECTED));
+    }
+
+    @Test
+    public void 値の設定後に追加したFillingProviderも反映される() {
+        ProfillIntegrationTestBean bean = new ProfillIntegrationTestBean();
+        profill.addFillingProvider(new AnnotatedStringLiteralFillingProvider());
+        profill.fill(bean);
+        profill.addFillingProvider(new TypeMatchedFillingProvider());
+        profill.fill(bean);
+        assertThat(bean.getAnnotationInjection(), is(AnnotatedStringLiteralFillingProvider.INJECTED));
+        assertThat(bean.getTypeInjection(), is(TypeMatchedFillingProvider.MATCHED));
+    }
+
+    @Test
+    public void applyをオーバーライドした場合はオーバーライドしたメソッドで値が設定される() {
+        final List<Object> applied = new ArrayList<Object>();
+        Profill extended = new Profill() {
+            @Override
+            protected void apply(ProfillDefinition definition, Object bean) {
+                applied.add(bean);
+                super.apply(definition, bean);
+            }
+        };
+        extended.addFillingProvider(new AnnotatedStringLiteralFillingProvider());
+        ProfillIntegrationTestBean bean = new ProfillIntegrationTestBean();
+        extended.fill(bean);
+        assertThat(applied.size(), is(1));
+        assertThat(bean.getAnnotationInjection(), is(AnnotatedStringLiteralFillingProvider.INJECTED));
+    }
+
     // マルチスレッドテスト --------------------------------------------------------------
     
     @Test
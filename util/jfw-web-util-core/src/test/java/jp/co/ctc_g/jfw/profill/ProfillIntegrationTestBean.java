@@ -89,4 +89,43 @@ public class ProfillIntegrationTestBean {
             this.annotationInjection = annotationInjection;
         }
     }
+
+    public static class GrandParentBean {
+
+        private ParentBean parent;
+
+        @Nested
+        public ParentBean getParent() {
+            return parent;
+        }
+
+        public void setParent(ParentBean parent) {
+            this.parent = parent;
+        }
+    }
+
+    public static class SelfReferenceBean {
+
+        private String annotationInjection;
+
+        private SelfReferenceBean self;
+
+        public String getAnnotationInjection() {
+            return annotationInjection;
+        }
+
+        @StringLiteral(AnnotatedStringLiteralFillingProvider.INJECTED)
+        public void setAnnotationInjection(String annotationInjection) {
+            this.annotationInjection = annotationInjection;
+        }
+
+        @Nested
+        public SelfReferenceBean getSelf() {
+            return self;
+        }
+
+        public void setSelf(SelfReferenceBean self) {
+            this.self = self;
+        }
+    }
 }
@@ -25,6 +25,7 @@ import jp.co.ctc_g.jfw.core.util.Args;
 import jp.co.ctc_g.jfw.core.util.Maps;
 import jp.co.ctc_g.jfw.core.util.Strings;
 import jp.co.ctc_g.jse.core.framework.Controllers;
+import jp.co.ctc_g.jse.core.util.web.SessionLocks;
 
 import org.springframework.beans.factory.InitializingBean;
 
@@ -136,7 +137,7 @@ public class TokenManager implements InitializingBean {
         Args.checkNotNull(request);
         Args.checkNotNull(scope);
         TokenProcessor processor = getTokenProcessor(scope);
-        synchronized (request.getSession().getId().intern()) {
+        synchronized (SessionLocks.get(request)) {
              processor.saveToken(request);
         }
     }
@@ -154,7 +155,7 @@ public class TokenManager implements InitializingBean {
     boolean isTokenValid(HttpServletRequest request, String scope) {
         Args.checkNotNull(request);
         TokenProcessor processor = getTokenProcessor(scope);
-        synchronized (request.getSession().getId().intern()) {
+        synchronized (SessionLocks.get(request)) {
              return processor.isTokenValid(request);
         }
     }
@@ -175,7 +176,7 @@ public class TokenManager implements InitializingBean {
     boolean isTokenValid(HttpServletRequest request, String scope, boolean reset) {
         Args.checkNotNull(request);
         TokenProcessor processor = getTokenProcessor(scope);
-        synchronized (request.getSession().getId().intern()) {
+        synchronized (SessionLocks.get(request)) {
              return processor.isTokenValid(request, reset);
         }
     }
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.util.web;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+
+import jp.co.ctc_g.jfw.core.util.Args;
+
+/**
+ * <p>
+ * このクラスは、セッション単位の排他制御に利用するロックオブジェクトを提供するユーティリティです。
+ * </p>
+ * <p>
+ * セッションIDを{@link String#intern()}したオブジェクトで同期すると、
+ * セッションIDがJVM全体の文字列プールに蓄積され、プールの検索自体が競合点になります。
+ * このクラスは固定数({@value #STRIPES})のロックオブジェクトを事前に生成しておき、
+ * セッションIDのハッシュ値によっていずれかを選択します(ロックストライピング)。
+ * 同一のセッションには常に同一のロックオブジェクトが返却されます。
+ * 異なるセッションが同一のロックオブジェクトを共有することもありますが、
+ * その場合も排他される時間が延びるのみで、正しさには影響しません。
+ * </p>
+ * <p>
+ * 以下のように利用します。
+ * <pre class="brush:java">
+ * synchronized (SessionLocks.get(request)) {
+ *     // セッションの属性の参照・更新
+ * }
+ * </pre>
+ * </p>
+ * <p>
+ * ロックオブジェクトは複数のセッションで共有される可能性があるため、
+ * 同期ブロックの中で他のセッションのロックを取得しないでください。
+ * </p>
+ * @author ITOCHU Techno-Solutions Corporation.
+ */
+public final class SessionLocks {
+
+    /**
+     * ロックオブジェクトの数です。
+     */
+    public static final int STRIPES = 1024;
+
+    private static final Object[] LOCKS = new Object[STRIPES];
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new Object();
+        }
+    }
+
+    /**
+     * コンストラクタです。
+     * インスタンスの生成を抑止します。
+     */
+    private SessionLocks() {}
+
+    /**
+     * 指定されたリクエストのセッションに対応するロックオブジェクトを返却します。
+     * セッションが存在しない場合は生成します。
+     * @param request リクエスト
+     * @return ロックオブジェクト
+     */
+    public static Object get(HttpServletRequest request) {
+        Args.checkNotNull(request);
+        return get(request.getSession());
+    }
+
+    /**
+     * 指定されたセッションに対応するロックオブジェクトを返却します。
+     * @param session セッション
+     * @return ロックオブジェクト
+     */
+    public static Object get(HttpSession session) {
+        Args.checkNotNull(session);
+        return get(session.getId());
+    }
+
+    /**
+     * 指定されたセッションIDに対応するロックオブジェクトを返却します。
+     * @param sessionId セッションID
+     * @return ロックオブジェクト
+     */
+    public static Object get(String sessionId) {
+        Args.checkNotNull(sessionId);
+        int h = sessionId.hashCode();
+        // 下位ビットの偏りを上位ビットで補正します
+        h ^= (h >>> 20) ^ (h >>> 12);
+        h ^= (h >>> 7) ^ (h >>> 4);
+        return LOCKS[h & (STRIPES - 1)];
+    }
+
+}
@@ -52,7 +52,7 @@ public class LazySessionStore implements ViewIdStore {
      */
     @Override
     public String semaphore() {
-        return request.getSession().getId().intern();
+        return request.getSession().getId();
     }
 
     /**
@@ -37,6 +37,7 @@ import jp.co.ctc_g.jfw.core.util.Args;
 import jp.co.ctc_g.jfw.core.util.Maps;
 import jp.co.ctc_g.jfw.core.util.Strings;
 import jp.co.ctc_g.jse.core.internal.WebCoreInternals;
+import jp.co.ctc_g.jse.core.util.web.SessionLocks;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
 
@@ -252,7 +253,7 @@ public class ViewId implements Serializable {
 
         Args.checkNotNull(self);
         self.freeze();
-        synchronized (store.semaphore()) {
+        synchronized (lock(store)) {
             LinkedList<ViewId> ids = store.find();
             assert ids != null;
             if (ids.contains(self)) {
@@ -282,10 +283,21 @@ public class ViewId implements Serializable {
         return current(factory.create(request));
     }
 
+    /**
+     * 指定されたストアの画面IDのコンテナを操作する際に同期するロックオブジェクトを返却します。
+     * {@link ViewIdStore#semaphore()}をキーとして{@link SessionLocks}から取得するため、
+     * セッションIDを{@link String#intern()}する必要はありません。
+     * @param store ストア
+     * @return ロックオブジェクト
+     */
+    private static Object lock(ViewIdStore store) {
+        return SessionLocks.get(store.semaphore());
+    }
+
     private static ViewId current(ViewIdStore store) {
 
         ViewId id = null;
-        synchronized (store.semaphore()) {
+        synchronized (lock(store)) {
             LinkedList<ViewId> ids = store.find(false);
             id = ids != null && !ids.isEmpty() ? ids.getLast() : null;
         }
@@ -308,7 +320,7 @@ public class ViewId implements Serializable {
     private static ViewId history(int history, ViewIdStore store) {
 
         ViewId id = null;
-        synchronized (store.semaphore()) {
+        synchronized (lock(store)) {
             LinkedList<ViewId> ids = store.find(false);
             id = (ids != null && !ids.isEmpty() && ids.size() > history) ? ids.get(ids.size()
                 - history - 1) : null;
@@ -346,7 +358,7 @@ public class ViewId implements Serializable {
     private static Iterable<ViewId> container(ViewIdStore store) {
 
         Iterable<ViewId> iterable = null;
-        synchronized (store.semaphore()) {
+        synchronized (lock(store)) {
             LinkedList<ViewId> ids = store.find(false);
             iterable = ids != null ?
                     Collections.unmodifiableList((LinkedList<ViewId>) ids.clone()) :
@@ -369,7 +381,7 @@ public class ViewId implements Serializable {
     private static int size(ViewIdStore store) {
 
         int size = 0;
-        synchronized (store.semaphore()) {
+        synchronized (lock(store)) {
             LinkedList<ViewId> ids = store.find(false);
             size = ids != null ? ids.size() : 0;
         }
@@ -387,7 +399,7 @@ public class ViewId implements Serializable {
 
     private static void clear(ViewIdStore store) {
 
-        synchronized (store.semaphore()) {
+        synchronized (lock(store)) {
             store.remove();
         }
     }
@@ -403,7 +415,7 @@ public class ViewId implements Serializable {
     }
     
     private static void clear(ViewIdStore store, String id) {
-        synchronized (store.semaphore()) {
+        synchronized (lock(store)) {
             store.remove(id);
         }
     }
@@ -30,6 +30,7 @@ public interface ViewIdStore {
 
     /**
      * セッションIDを取得します。
+     * 画面IDのコンテナを操作する際は、この値に対応する{@link jp.co.ctc_g.jse.core.util.web.SessionLocks}のロックオブジェクトで同期します。
      * @return セッションID
      */
     String semaphore();
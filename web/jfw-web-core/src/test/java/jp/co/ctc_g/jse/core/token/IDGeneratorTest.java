@@ -18,6 +18,13 @@ package jp.co.ctc_g.jse.core.token;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import jp.co.ctc_g.jfw.core.internal.InternalException;
 import jp.co.ctc_g.jse.core.token.IDGenerator;
 
 import org.junit.Test;
@@ -32,4 +39,64 @@ public class IDGeneratorTest {
         assertThat(tokenId.length(), is(32));
     }
 
+    @Test
+    public void 高速なトークIDを生成() {
+        IDGenerator generator = new IDGenerator.FastIdGenerator();
+        String tokenId = generator.generate();
+        assertThat(tokenId, is(notNullValue()));
+        assertThat(tokenId.length(), is(22));
+        assertThat(tokenId.matches("[A-Za-z0-9_-]+"), is(true));
+    }
+
+    @Test
+    public void 高速なトークIDの長さは乱数のバイト数で決まる() {
+        assertThat(new IDGenerator.FastIdGenerator(1).generate().length(), is(2));
+        assertThat(new IDGenerator.FastIdGenerator(2).generate().length(), is(3));
+        assertThat(new IDGenerator.FastIdGenerator(3).generate().length(), is(4));
+        assertThat(new IDGenerator.FastIdGenerator(32).generate().length(), is(43));
+    }
+
+    @Test
+    public void URLセーフなBase64に変換される() {
+        assertThat(IDGenerator.FastIdGenerator.encode(new byte[] {(byte) 0xfb, (byte) 0xff}), is("-_8"));
+        assertThat(IDGenerator.FastIdGenerator.encode("foobar".getBytes()), is("Zm9vYmFy"));
+        assertThat(IDGenerator.FastIdGenerator.encode("fooba".getBytes()), is("Zm9vYmE"));
+        assertThat(IDGenerator.FastIdGenerator.encode("foob".getBytes()), is("Zm9vYg"));
+    }
+
+    @Test(expected = InternalException.class)
+    public void 高速なトークIDの乱数のバイト数は正の数() {
+        new IDGenerator.FastIdGenerator(0);
+    }
+
+    @Test
+    public void 複数スレッドから生成した高速なトークIDは重複しない() throws Exception {
+        final IDGenerator generator = new IDGenerator.FastIdGenerator();
+        final Set<String> ids = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        final int threads = 8;
+        final int count = 10000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch end = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < count; j++) {
+                            ids.add(generator.generate());
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        end.countDown();
+                    }
+                }
+            }).start();
+        }
+        start.countDown();
+        end.await();
+        assertThat(ids.size(), is(threads * count));
+    }
+
 }
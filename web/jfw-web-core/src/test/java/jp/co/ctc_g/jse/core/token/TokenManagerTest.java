@@ -20,6 +20,15 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import javax.servlet.http.HttpServletRequest;
 
 import jp.co.ctc_g.jse.core.framework.Controllers;
@@ -27,6 +36,7 @@ import jp.co.ctc_g.jse.core.framework.Controllers;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
 
 public class TokenManagerTest {
 
@@ -107,6 +117,55 @@ public class TokenManagerTest {
         assertThat(generatedToken, is("2"));
     }
     
+    @Test
+    public void 同一のトークンを同時に送信しても妥当と判定されるのは1回のみ()
+            throws Exception {
+
+        final TokenManager manager = new TokenManager();
+        manager.afterPropertiesSet();
+        int sessions = 200;
+        int threads = 8;
+        final List<MockHttpSession> sessionList = new ArrayList<MockHttpSession>();
+        final List<String> tokens = new ArrayList<String>();
+        for (int i = 0; i < sessions; i++) {
+            MockHttpSession session = new MockHttpSession();
+            MockHttpServletRequest r = new MockHttpServletRequest();
+            r.setSession(session);
+            manager.saveToken(r, Controllers.SCOPE_SESSION);
+            sessionList.add(session);
+            tokens.add(manager.getToken(r, Controllers.SCOPE_SESSION));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        start.await();
+                        int valid = 0;
+                        for (int i = 0; i < sessionList.size(); i++) {
+                            MockHttpServletRequest r = new MockHttpServletRequest();
+                            r.setSession(sessionList.get(i));
+                            r.setParameter(TokenManager.SESSION_TOKEN_PARAMETER_NAME, tokens.get(i));
+                            if (manager.isTokenValid(r, Controllers.SCOPE_SESSION)) valid++;
+                        }
+                        return valid;
+                    }
+                }));
+            }
+            start.countDown();
+            int valid = 0;
+            for (Future<Integer> result : results) {
+                valid += result.get(30, TimeUnit.SECONDS);
+            }
+            assertThat(valid, is(sessions));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     class SessionTokenProcessorStub implements TokenProcessor {
 
         private IDGenerator idGenerator = new IDGenerator.DefaultIdGenerator();
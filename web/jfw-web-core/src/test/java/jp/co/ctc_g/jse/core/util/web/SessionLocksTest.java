@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2013 ITOCHU Techno-Solutions Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.co.ctc_g.jse.core.util.web;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+
+public class SessionLocksTest {
+
+    @Test
+    public void 同一のセッションには同一のロックが返却される() {
+        MockHttpSession session = new MockHttpSession();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setSession(session);
+        assertThat(SessionLocks.get(request), sameInstance(SessionLocks.get(session)));
+        assertThat(SessionLocks.get(session), sameInstance(SessionLocks.get(new String(session.getId()))));
+    }
+
+    @Test
+    public void セッションごとにロックが分散される() {
+        Map<Object, Boolean> used = new IdentityHashMap<Object, Boolean>();
+        for (int i = 0; i < 10000; i++) {
+            used.put(SessionLocks.get(UUID.randomUUID().toString()), Boolean.TRUE);
+        }
+        assertThat(used.size() > SessionLocks.STRIPES * 9 / 10, is(true));
+    }
+}